@@ -0,0 +1,114 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements an in-memory directed graph of article titles. It
+ * serves as the mock expander backend of the distributed search, so that the
+ * workers can be run and tested without touching Wikipedia.
+ *
+ * The text format has one arc per line: the title of the linking article and
+ * the title of the linked article, separated by whitespace. Blank lines and
+ * lines starting with {@code #} are ignored.
+ */
+final class ArcListGraph {
+
+    private final Map<String, List<String>> childMap = new HashMap<>();
+    private final Map<String, List<String>> parentMap = new HashMap<>();
+
+    /**
+     * Reads a graph from the arc list file {@code file}.
+     *
+     * @param file the path of the arc list file.
+     *
+     * @return the graph.
+     *
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    static ArcListGraph read(final Path file) throws IOException {
+        final ArcListGraph graph = new ArcListGraph();
+        int lineNumber = 0;
+
+        for (final String line : Files.readAllLines(file,
+                                                    StandardCharsets.UTF_8)) {
+            lineNumber++;
+
+            final String trimmedLine = line.trim();
+
+            if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+                continue;
+            }
+
+            final String[] titles = trimmedLine.split("\\s+");
+
+            if (titles.length != 2) {
+                throw new IOException(
+                        String.format(
+                                "Bad arc on line %d of \"%s\".",
+                                lineNumber,
+                                file));
+            }
+
+            graph.addArc(titles[0], titles[1]);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Adds the arc from {@code tail} to {@code head}.
+     *
+     * @param tail the linking article.
+     * @param head the linked article.
+     */
+    void addArc(final String tail, final String head) {
+        childMap.computeIfAbsent(tail, (t) -> new ArrayList<>()).add(head);
+        parentMap.computeIfAbsent(head, (h) -> new ArrayList<>()).add(tail);
+    }
+
+    /**
+     * Returns the expander generating the linked articles.
+     *
+     * @return the forward expander.
+     */
+    AbstractNodeExpander<String> forwardExpander() {
+        return expander(childMap);
+    }
+
+    /**
+     * Returns the expander generating the linking articles.
+     *
+     * @return the backward expander.
+     */
+    AbstractNodeExpander<String> backwardExpander() {
+        return expander(parentMap);
+    }
+
+    private AbstractNodeExpander<String> expander(
+            final Map<String, List<String>> adjacencyMap) {
+
+        return new AbstractNodeExpander<>() {
+
+            @Override
+            public List<String> generateSuccessors(final String node) {
+                return adjacencyMap.getOrDefault(node,
+                                                 Collections.emptyList());
+            }
+
+            @Override
+            public boolean isValidNode(final String node) {
+                return childMap.containsKey(node) ||
+                       parentMap.containsKey(node);
+            }
+        };
+    }
+}
@@ -0,0 +1,667 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.BACKWARD;
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.FORWARD;
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * This class implements the online tuning of the performance parameters of a
+ * search. Each search direction gets a concurrency limit that is adjusted
+ * after each round of expansions (as many expansions as the limit) in the
+ * additive-increase/multiplicative-decrease manner of the TCP congestion
+ * control:
+ * <ul>
+ *   <li>if the API throttled a request or an expansion of the direction
+ *       failed during the round, the limit is halved,</li>
+ *   <li>else if the smoothed expansion latency has grown to more than twice
+ *       its lowest value, the limit is decreased by one,</li>
+ *   <li>otherwise the limit is increased by one.</li>
+ * </ul>
+ * The expansions over the limit wait for a free slot, so the thread pools are
+ * created with some headroom above the starting limits: twice the starting
+ * limit, at most {@link #MAXIMUM_NUMBER_OF_THREADS}.
+ *
+ * The congestion signal is only as good as its counter. A throttled response
+ * that the counter never sees, such as an HTTP 429 retried or swallowed
+ * inside a third-party downloader, halves no limit; it shows up only as a
+ * failed expansion or as latency inflation.
+ *
+ * The expansion latency is smoothed as the TCP round-trip time: the expansion
+ * timeout, the sleep durations and the master trials of the next run are
+ * derived from the smoothed latency and its deviation. All the learned values
+ * are kept in a per-language {@link Profile} so that the next run starts from
+ * them.
+ */
+final class AutoTuner {
+
+    /**
+     * The minimum concurrency limit of a direction.
+     */
+    static final int MINIMUM_NUMBER_OF_THREADS = 1;
+
+    /**
+     * The maximum concurrency limit of a direction.
+     */
+    static final int MAXIMUM_NUMBER_OF_THREADS = 64;
+
+    /**
+     * The minimum derived expansion timeout.
+     */
+    static final long MINIMUM_EXPANSION_TIMEOUT_NANOS = 2_000_000_000L;
+
+    /**
+     * The maximum derived expansion timeout.
+     */
+    static final long MAXIMUM_EXPANSION_TIMEOUT_NANOS = 60_000_000_000L;
+
+    /**
+     * The expansion timeout in units of the retransmission-style timeout
+     * (smoothed latency plus four deviations). Hub expansions span many API
+     * pages, and a timed out expansion loses all its neighbors.
+     */
+    private static final int TIMEOUT_MULTIPLIER = 4;
+
+    /**
+     * The gain of the smoothed latency.
+     */
+    private static final double LATENCY_GAIN = 0.125;
+
+    /**
+     * The gain of the smoothed latency deviation.
+     */
+    private static final double DEVIATION_GAIN = 0.25;
+
+    /**
+     * The ratio of the smoothed latency to its lowest value considered
+     * congested.
+     */
+    private static final double LATENCY_INFLATION_FACTOR = 2.0;
+
+    /**
+     * This class holds the tunable parameters of a search together with the
+     * measurements they were derived from.
+     */
+    static final class Profile {
+        int forwardThreads;
+        int backwardThreads;
+        int trials;
+        long masterSleepDurationNanos;
+        long slaveSleepDurationNanos;
+        long expansionTimeoutNanos;
+
+        /**
+         * The smoothed expansion latency, or 0 if not measured yet.
+         */
+        long latencyNanos;
+
+        /**
+         * The smoothed deviation of the expansion latency.
+         */
+        long latencyDeviationNanos;
+
+        /**
+         * The number of expansions per second in the latest run.
+         */
+        double throughput;
+
+        /**
+         * The number of runs the profile has been tuned in.
+         */
+        int numberOfRuns;
+
+        Profile copy() {
+            final Profile profile = new Profile();
+            profile.forwardThreads = forwardThreads;
+            profile.backwardThreads = backwardThreads;
+            profile.trials = trials;
+            profile.masterSleepDurationNanos = masterSleepDurationNanos;
+            profile.slaveSleepDurationNanos = slaveSleepDurationNanos;
+            profile.expansionTimeoutNanos = expansionTimeoutNanos;
+            profile.latencyNanos = latencyNanos;
+            profile.latencyDeviationNanos = latencyDeviationNanos;
+            profile.throughput = throughput;
+            profile.numberOfRuns = numberOfRuns;
+            return profile;
+        }
+
+        /**
+         * Returns the default location of the profile of the Wikipedia
+         * edition {@code languageCode}.
+         *
+         * @param languageCode the language code.
+         *
+         * @return the profile file path.
+         */
+        static Path getDefaultFile(final String languageCode) {
+            return Path.of(System.getProperty("user.home"),
+                           ".wikigamekiller",
+                           "autotune-" + languageCode + ".properties");
+        }
+
+        /**
+         * Loads the profile file {@code file}. The parameters missing from
+         * the file, or the whole profile if there is no such file, are taken
+         * from {@code defaults}.
+         *
+         * @param file     the profile file.
+         * @param defaults the default parameters.
+         *
+         * @return the profile.
+         *
+         * @throws IOException if the file cannot be read or is malformed.
+         */
+        static Profile load(final Path file, final Profile defaults)
+                throws IOException {
+
+            final Profile profile = defaults.copy();
+
+            if (!Files.exists(file)) {
+                return profile;
+            }
+
+            final Properties properties = new Properties();
+
+            try (Reader reader =
+                    Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+
+            try {
+                profile.forwardThreads =
+                        clamp(getInt(properties,
+                                     "forwardThreads",
+                                     profile.forwardThreads),
+                              MINIMUM_NUMBER_OF_THREADS,
+                              MAXIMUM_NUMBER_OF_THREADS);
+
+                profile.backwardThreads =
+                        clamp(getInt(properties,
+                                     "backwardThreads",
+                                     profile.backwardThreads),
+                              MINIMUM_NUMBER_OF_THREADS,
+                              MAXIMUM_NUMBER_OF_THREADS);
+
+                profile.trials =
+                        getInt(properties, "trials", profile.trials);
+
+                profile.masterSleepDurationNanos =
+                        getLong(properties,
+                                "masterSleepDurationNanos",
+                                profile.masterSleepDurationNanos);
+
+                profile.slaveSleepDurationNanos =
+                        getLong(properties,
+                                "slaveSleepDurationNanos",
+                                profile.slaveSleepDurationNanos);
+
+                profile.expansionTimeoutNanos =
+                        getLong(properties,
+                                "expansionTimeoutNanos",
+                                profile.expansionTimeoutNanos);
+
+                profile.latencyNanos =
+                        getLong(properties,
+                                "latencyNanos",
+                                profile.latencyNanos);
+
+                profile.latencyDeviationNanos =
+                        getLong(properties,
+                                "latencyDeviationNanos",
+                                profile.latencyDeviationNanos);
+
+                profile.throughput =
+                        Double.parseDouble(
+                                properties.getProperty(
+                                        "throughput",
+                                        Double.toString(profile.throughput)));
+
+                profile.numberOfRuns =
+                        getInt(properties,
+                               "numberOfRuns",
+                               profile.numberOfRuns);
+            } catch (final NumberFormatException ex) {
+                throw new IOException(
+                        String.format(
+                                "Malformed auto-tune profile \"%s\": %s",
+                                file,
+                                ex.getMessage()));
+            }
+
+            return profile;
+        }
+
+        /**
+         * Saves this profile to {@code file}, creating the parent
+         * directories if needed.
+         *
+         * @param file    the profile file.
+         * @param comment the comment line of the file.
+         *
+         * @throws IOException if the file cannot be written.
+         */
+        void save(final Path file, final String comment) throws IOException {
+            final Properties properties = new Properties();
+
+            properties.setProperty("forwardThreads",
+                                   Integer.toString(forwardThreads));
+            properties.setProperty("backwardThreads",
+                                   Integer.toString(backwardThreads));
+            properties.setProperty("trials",
+                                   Integer.toString(trials));
+            properties.setProperty("masterSleepDurationNanos",
+                                   Long.toString(masterSleepDurationNanos));
+            properties.setProperty("slaveSleepDurationNanos",
+                                   Long.toString(slaveSleepDurationNanos));
+            properties.setProperty("expansionTimeoutNanos",
+                                   Long.toString(expansionTimeoutNanos));
+            properties.setProperty("latencyNanos",
+                                   Long.toString(latencyNanos));
+            properties.setProperty("latencyDeviationNanos",
+                                   Long.toString(latencyDeviationNanos));
+            properties.setProperty("throughput",
+                                   Double.toString(throughput));
+            properties.setProperty("numberOfRuns",
+                                   Integer.toString(numberOfRuns));
+
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+
+            try (Writer writer =
+                    Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                properties.store(writer, comment);
+            }
+        }
+
+        private static int getInt(final Properties properties,
+                                  final String key,
+                                  final int defaultValue) {
+            final String value = properties.getProperty(key);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        private static long getLong(final Properties properties,
+                                    final String key,
+                                    final long defaultValue) {
+            final String value = properties.getProperty(key);
+            return value == null ? defaultValue : Long.parseLong(value);
+        }
+    }
+
+    private final Profile profile;
+    private final IntToLongFunction congestionCounter;
+    private final LongSupplier nanoClock;
+    private final Limiter[] limiters = new Limiter[2];
+
+    /**
+     * The time of the first expansion, or -1. Guarded by {@code this}.
+     */
+    private long firstExpansionTime = -1L;
+
+    /**
+     * The time of the latest completed expansion. Guarded by {@code this}.
+     */
+    private long lastExpansionTime;
+
+    /**
+     * Creates a tuner starting from {@code profile}.
+     *
+     * @param profile           the starting profile.
+     * @param congestionCounter maps a direction to the total number of
+     *                          throttled API requests and failed expansions
+     *                          of that direction so far.
+     */
+    AutoTuner(final Profile profile,
+              final IntToLongFunction congestionCounter) {
+        this(profile, congestionCounter, System::nanoTime);
+    }
+
+    AutoTuner(final Profile profile,
+              final IntToLongFunction congestionCounter,
+              final LongSupplier nanoClock) {
+        this.profile = profile.copy();
+        this.congestionCounter = congestionCounter;
+        this.nanoClock = nanoClock;
+        this.limiters[FORWARD] = new Limiter(FORWARD, profile.forwardThreads);
+        this.limiters[BACKWARD] =
+                new Limiter(BACKWARD, profile.backwardThreads);
+    }
+
+    /**
+     * Returns the number of threads to create for {@code direction}: twice
+     * the starting limit, leaving room for the limit to grow during the run.
+     *
+     * @param direction {@code FORWARD} or {@code BACKWARD} of
+     *                  {@link ForkJoinBidirectionalBFSPathFinder}.
+     *
+     * @return the thread pool size.
+     */
+    int getNumberOfThreads(final int direction) {
+        return limiters[direction].maximumLimit;
+    }
+
+    /**
+     * Returns the current concurrency limit of {@code direction}.
+     *
+     * @param direction the search direction.
+     *
+     * @return the concurrency limit.
+     */
+    int getLimit(final int direction) {
+        synchronized (limiters[direction]) {
+            return limiters[direction].limit;
+        }
+    }
+
+    /**
+     * Returns the number of the limit decreases of {@code direction}.
+     *
+     * @param direction the search direction.
+     *
+     * @return the number of decreases.
+     */
+    int getNumberOfDecreases(final int direction) {
+        synchronized (limiters[direction]) {
+            return limiters[direction].numberOfDecreases;
+        }
+    }
+
+    /**
+     * Wraps {@code expander} so that its expansions obey the concurrency
+     * limit of {@code direction} and feed the tuner.
+     *
+     * @param expander  the expander to wrap.
+     * @param direction the search direction.
+     *
+     * @return the tuned expander.
+     */
+    AbstractNodeExpander<String> wrap(
+            final AbstractNodeExpander<String> expander,
+            final int direction) {
+        return new TunedNodeExpander(expander, limiters[direction]);
+    }
+
+    /**
+     * Returns the profile for the next run, derived from the measurements of
+     * this run. If nothing was measured, the starting profile is returned.
+     *
+     * @return the tuned profile.
+     */
+    Profile getTunedProfile() {
+        final Profile tunedProfile = profile.copy();
+        tunedProfile.numberOfRuns++;
+
+        long latencyNanos = -1L;
+        long latencyDeviationNanos = 0L;
+
+        for (final int direction : new int[]{ FORWARD, BACKWARD }) {
+            final Limiter limiter = limiters[direction];
+
+            synchronized (limiter) {
+                if (limiter.numberOfExpansions == 0) {
+                    continue;
+                }
+
+                if (direction == FORWARD) {
+                    tunedProfile.forwardThreads = limiter.limit;
+                } else {
+                    tunedProfile.backwardThreads = limiter.limit;
+                }
+
+                // The slower direction determines the timeouts:
+                if (latencyNanos < (long) limiter.latencyNanos) {
+                    latencyNanos = (long) limiter.latencyNanos;
+                    latencyDeviationNanos =
+                            (long) limiter.latencyDeviationNanos;
+                }
+            }
+        }
+
+        if (latencyNanos < 0L) {
+            return tunedProfile;
+        }
+
+        tunedProfile.latencyNanos = latencyNanos;
+        tunedProfile.latencyDeviationNanos = latencyDeviationNanos;
+
+        final long retransmissionTimeoutNanos =
+                latencyNanos + 4L * latencyDeviationNanos;
+
+        tunedProfile.expansionTimeoutNanos =
+                clamp(TIMEOUT_MULTIPLIER * retransmissionTimeoutNanos,
+                      MINIMUM_EXPANSION_TIMEOUT_NANOS,
+                      MAXIMUM_EXPANSION_TIMEOUT_NANOS);
+
+        // Poll often compared to the latency, but without spinning:
+        tunedProfile.slaveSleepDurationNanos =
+                clamp(latencyNanos / 100L, 100_000L, 10_000_000L);
+
+        tunedProfile.masterSleepDurationNanos =
+                clamp(latencyNanos / 10L, 1_000_000L, 100_000_000L);
+
+        // The master must not give up before a typical expansion completes:
+        tunedProfile.trials =
+                (int) clamp((retransmissionTimeoutNanos +
+                             tunedProfile.masterSleepDurationNanos - 1L) /
+                            tunedProfile.masterSleepDurationNanos,
+                            10L,
+                            1_000L);
+
+        synchronized (this) {
+            final long elapsedNanos = lastExpansionTime - firstExpansionTime;
+
+            if (elapsedNanos > 0L) {
+                tunedProfile.throughput =
+                        (limiters[FORWARD].getNumberOfExpansions() +
+                         limiters[BACKWARD].getNumberOfExpansions()) *
+                        1e9 / elapsedNanos;
+            }
+        }
+
+        return tunedProfile;
+    }
+
+    private synchronized void onExpansionStarted(final long time) {
+        if (firstExpansionTime < 0L) {
+            firstExpansionTime = time;
+        }
+    }
+
+    private synchronized void onExpansionCompleted(final long time) {
+        lastExpansionTime = Math.max(lastExpansionTime, time);
+    }
+
+    private static int clamp(final int value,
+                             final int minimum,
+                             final int maximum) {
+        return Math.max(minimum, Math.min(maximum, value));
+    }
+
+    private static long clamp(final long value,
+                              final long minimum,
+                              final long maximum) {
+        return Math.max(minimum, Math.min(maximum, value));
+    }
+
+    /**
+     * This class implements the adaptive concurrency limit of a single
+     * direction.
+     */
+    private final class Limiter {
+
+        final int direction;
+        final int maximumLimit;
+        int limit;
+        int numberOfInFlightExpansions;
+        int numberOfExpansions;
+        int numberOfRoundExpansions;
+        int numberOfDecreases;
+        long congestionCount;
+        double latencyNanos = -1.0;
+        double latencyDeviationNanos;
+        double lowestLatencyNanos = Double.MAX_VALUE;
+
+        Limiter(final int direction, final int startLimit) {
+            this.direction = direction;
+            this.congestionCount = congestionCounter.applyAsLong(direction);
+            this.limit = clamp(startLimit,
+                               MINIMUM_NUMBER_OF_THREADS,
+                               MAXIMUM_NUMBER_OF_THREADS);
+            this.maximumLimit = Math.min(2 * limit, MAXIMUM_NUMBER_OF_THREADS);
+        }
+
+        synchronized void acquire() throws InterruptedException {
+            while (numberOfInFlightExpansions >= limit) {
+                wait();
+            }
+
+            numberOfInFlightExpansions++;
+        }
+
+        synchronized void release(final long latencySampleNanos) {
+            numberOfInFlightExpansions--;
+            numberOfExpansions++;
+
+            if (latencyNanos < 0.0) {
+                latencyNanos = latencySampleNanos;
+                latencyDeviationNanos = latencySampleNanos / 2.0;
+            } else {
+                latencyDeviationNanos +=
+                        DEVIATION_GAIN *
+                        (Math.abs(latencySampleNanos - latencyNanos) -
+                         latencyDeviationNanos);
+
+                latencyNanos +=
+                        LATENCY_GAIN * (latencySampleNanos - latencyNanos);
+            }
+
+            if (++numberOfRoundExpansions >= limit) {
+                endRound();
+            }
+
+            notifyAll();
+        }
+
+        synchronized int getNumberOfExpansions() {
+            return numberOfExpansions;
+        }
+
+        private void endRound() {
+            final long currentCongestionCount =
+                    congestionCounter.applyAsLong(direction);
+            numberOfRoundExpansions = 0;
+            lowestLatencyNanos = Math.min(lowestLatencyNanos, latencyNanos);
+
+            if (currentCongestionCount > congestionCount) {
+                limit = Math.max(MINIMUM_NUMBER_OF_THREADS, limit / 2);
+                numberOfDecreases++;
+            } else if (latencyNanos > LATENCY_INFLATION_FACTOR *
+                                      lowestLatencyNanos) {
+                limit = Math.max(MINIMUM_NUMBER_OF_THREADS, limit - 1);
+                numberOfDecreases++;
+            } else {
+                limit = Math.min(maximumLimit, limit + 1);
+            }
+
+            congestionCount = currentCongestionCount;
+        }
+    }
+
+    /**
+     * This class implements a node expander obeying a concurrency limit.
+     */
+    private final class TunedNodeExpander
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<String>,
+                       ForkJoinBidirectionalBFSPathFinder
+                               .DeferringNodeExpander<String>,
+                       ForkJoinBidirectionalBFSPathFinder
+                               .IncompleteExpansionCounter {
+
+        private final AbstractNodeExpander<String> expander;
+        private final Limiter limiter;
+
+        TunedNodeExpander(final AbstractNodeExpander<String> expander,
+                          final Limiter limiter) {
+            this.expander = expander;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public List<String> generateSuccessors(final String node) {
+            return expandWithinLimit(() -> expander.generateSuccessors(node));
+        }
+
+        @Override
+        public void generateSuccessorPages(
+                final String node,
+                final Consumer<List<String>> pageConsumer) {
+
+            expandWithinLimit(() -> {
+                ForkJoinBidirectionalBFSPathFinder.generateSuccessorPages(
+                        expander,
+                        node,
+                        pageConsumer);
+
+                return List.of();
+            });
+        }
+
+        /**
+         * Runs {@code expansion} once the limiter admits it, and measures
+         * its latency.
+         */
+        private List<String> expandWithinLimit(
+                final Supplier<List<String>> expansion) {
+            try {
+                limiter.acquire();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+
+            final long startTime = nanoClock.getAsLong();
+            long endTime = startTime;
+            onExpansionStarted(startTime);
+
+            try {
+                final List<String> successors = expansion.get();
+                endTime = nanoClock.getAsLong();
+                return successors;
+            } finally {
+                onExpansionCompleted(endTime);
+                limiter.release(endTime - startTime);
+            }
+        }
+
+        @Override
+        public boolean isValidNode(final String node) {
+            return expander.isValidNode(node);
+        }
+
+        @Override
+        public boolean isDeferred(final String node) {
+            return ForkJoinBidirectionalBFSPathFinder.isDeferred(expander,
+                                                                 node);
+        }
+
+        @Override
+        public long getNumberOfIncompleteExpansions() {
+            return ForkJoinBidirectionalBFSPathFinder
+                    .getNumberOfIncompleteExpansions(expander);
+        }
+    }
+}
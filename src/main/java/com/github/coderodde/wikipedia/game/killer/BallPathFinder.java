@@ -0,0 +1,214 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements a forward-only search against a precomputed
+ * {@link ReachabilityBall} of the target. The forward breadth-first search
+ * runs level by level until a level contains articles of the ball; the best
+ * of them, by forward distance plus ball distance, yields a shortest path.
+ *
+ * No later level can do better: the article at forward distance {@code f}
+ * of a shortest path of length {@code d} is at most {@code d - f} links from
+ * the target, so, as long as {@code d - f} does not exceed the ball depth, it
+ * is itself a candidate of the first hitting level {@code f}. The paths are
+ * as short as the ball distances are exact; a refresh never makes them
+ * invalid, but may leave them longer than necessary until the next round.
+ * Likewise, a forward expansion that times out or fails may hide a shorter
+ * path; such expansions are counted by
+ * {@link #getNumberOfIncompleteExpansions()}.
+ */
+final class BallPathFinder {
+
+    /**
+     * The number of threads running the forward expansions.
+     */
+    private final int numberOfThreads;
+
+    /**
+     * The maximum duration of a single expansion.
+     */
+    private final long expansionTimeoutNanos;
+
+    /**
+     * The duration of the latest search in milliseconds.
+     */
+    private long duration;
+
+    /**
+     * The number of nodes expanded in the latest search.
+     */
+    private int numberOfExpandedNodes;
+
+    /**
+     * The number of forward expansions of the latest search that timed out
+     * or failed.
+     */
+    private long numberOfIncompleteExpansions;
+
+    BallPathFinder(final int numberOfThreads,
+                   final long expansionTimeoutNanos) {
+        this.numberOfThreads = numberOfThreads;
+        this.expansionTimeoutNanos = expansionTimeoutNanos;
+    }
+
+    /**
+     * Searches for a shortest path from {@code source} to the target of
+     * {@code ball}.
+     *
+     * @param source          the source node.
+     * @param ball            the reverse-reachability ball of the target.
+     * @param forwardExpander the forward node expander.
+     *
+     * @return a shortest path, or an empty list if the target is unreachable.
+     */
+    List<String> search(final String source,
+                        final ReachabilityBall ball,
+                        final AbstractNodeExpander<String> forwardExpander) {
+
+        final long startTime = System.currentTimeMillis();
+        final long initialNumberOfExpanderIncompleteExpansions =
+                ForkJoinBidirectionalBFSPathFinder
+                        .getNumberOfIncompleteExpansions(forwardExpander);
+
+        numberOfExpandedNodes = 0;
+        numberOfIncompleteExpansions = 0L;
+
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(numberOfThreads);
+
+        try {
+            return search(source, ball, forwardExpander, executor);
+        } finally {
+            executor.shutdownNow();
+            duration = System.currentTimeMillis() - startTime;
+            numberOfIncompleteExpansions +=
+                    ForkJoinBidirectionalBFSPathFinder
+                            .getNumberOfIncompleteExpansions(
+                                    forwardExpander) -
+                    initialNumberOfExpanderIncompleteExpansions;
+        }
+    }
+
+    /**
+     * Returns the duration of the latest search in milliseconds.
+     *
+     * @return the search duration.
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the number of nodes expanded in the latest search.
+     *
+     * @return the number of expanded nodes.
+     */
+    int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes;
+    }
+
+    /**
+     * Returns the number of forward expansions of the latest search that
+     * timed out or failed, whether detected here or reported by the
+     * expander. If positive, the path is not proven shortest.
+     *
+     * @return the number of incomplete expansions.
+     */
+    long getNumberOfIncompleteExpansions() {
+        return numberOfIncompleteExpansions;
+    }
+
+    private List<String> search(
+            final String source,
+            final ReachabilityBall ball,
+            final AbstractNodeExpander<String> forwardExpander,
+            final ExecutorService executor) {
+
+        if (ball.getDistance(source) >= 0) {
+            return ball.getPathToTarget(source);
+        }
+
+        if (ball.isComplete()) {
+            // All the articles linking to the target are in the ball.
+            return new ArrayList<>();
+        }
+
+        final Map<String, String> parentMap = new HashMap<>();
+        List<String> frontier = List.of(source);
+        parentMap.put(source, null);
+
+        while (!frontier.isEmpty()) {
+            final List<Future<List<String>>> futures = new ArrayList<>();
+
+            for (final String node : frontier) {
+                futures.add(executor.submit(
+                        () -> forwardExpander.generateSuccessors(node)));
+            }
+
+            final List<String> nextFrontier = new ArrayList<>();
+            String bestNode = null;
+            int bestDistance = Integer.MAX_VALUE;
+
+            for (int i = 0; i < frontier.size(); i++) {
+                for (final String successor : getSuccessors(futures.get(i))) {
+                    if (parentMap.containsKey(successor)) {
+                        continue;
+                    }
+
+                    parentMap.put(successor, frontier.get(i));
+                    nextFrontier.add(successor);
+
+                    final int ballDistance = ball.getDistance(successor);
+
+                    if (ballDistance >= 0 && ballDistance < bestDistance) {
+                        bestDistance = ballDistance;
+                        bestNode = successor;
+                    }
+                }
+            }
+
+            numberOfExpandedNodes += frontier.size();
+
+            if (bestNode != null) {
+                final List<String> path = new ArrayList<>();
+
+                for (String node = parentMap.get(bestNode);
+                        node != null;
+                        node = parentMap.get(node)) {
+                    path.add(node);
+                }
+
+                Collections.reverse(path);
+                path.addAll(ball.getPathToTarget(bestNode));
+                return path;
+            }
+
+            frontier = nextFrontier;
+        }
+
+        return new ArrayList<>();
+    }
+
+    private List<String> getSuccessors(final Future<List<String>> future) {
+        try {
+            return future.get(expansionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final Exception ex) {
+            future.cancel(true);
+            numberOfIncompleteExpansions++;
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * This class implements the allocation-lean successor pipeline. Instead of
+ * building a list of full URLs and then a second list of stripped titles, it
+ * decodes the titles straight from the UTF-8 bytes of the API responses into
+ * a reused per-thread character buffer, converts the spaces to underscores in
+ * place and interns the result via the {@link TitleInterner} of the search.
+ * Besides the response bytes, an expansion allocates only the lists of
+ * (shared) title references. The links are requested from the main namespace
+ * only, unless all the namespaces are asked for, so no namespace filtering is
+ * needed afterwards.
+ *
+ * A long backlink list is fetched in parallel: the {@code lhcontinue} token
+ * of the first response, {@code TARGET_PAGE_ID|FROM_PAGE_ID}, tells where the
+ * list continues in the order of the linking page IDs, so the rest of the
+ * page ID space up to the newest page is split into equal ranges, each of
+ * which follows its own continuation tokens. The pages may be passed on as
+ * they arrive (see {@link #fetch(String, Consumer)}), and the number of pages
+ * per node may be capped.
+ */
+final class DirectSuccessorFetcher {
+
+    /**
+     * This interface defines the API for running the queries.
+     */
+    @FunctionalInterface
+    interface PageSource {
+
+        /**
+         * Runs a query, just like
+         * {@link WikipediaApiClient#queryBytes(java.lang.String...)}.
+         *
+         * @param parameters the query parameters as alternating names and
+         *                   values.
+         *
+         * @return the UTF-8 bytes of the JSON response body.
+         *
+         * @throws IOException          if the request fails.
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        byte[] queryBytes(String... parameters)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * The default number of page ID ranges of a long backlink list.
+     */
+    static final int DEFAULT_NUMBER_OF_RANGES = 4;
+
+    /**
+     * The default maximum number of pages per node: unlimited.
+     */
+    static final int DEFAULT_PAGE_BUDGET = Integer.MAX_VALUE;
+
+    /**
+     * The kinds of link lists.
+     */
+    enum LinkKind {
+
+        /**
+         * The outgoing links of an article.
+         */
+        LINKS("links", "pl"),
+
+        /**
+         * The incoming links of an article.
+         */
+        LINKS_HERE("linkshere", "lh");
+
+        final String property;
+        final String prefix;
+        final byte[] listKey;
+        final byte[] continueKey;
+
+        private LinkKind(final String property, final String prefix) {
+            this.property = property;
+            this.prefix = prefix;
+            this.listKey = toKeyBytes(property);
+            this.continueKey = toKeyBytes(prefix + "continue");
+        }
+    }
+
+    /**
+     * The key pattern of the title values.
+     */
+    private static final byte[] TITLE_KEY = toKeyBytes("title");
+
+    /**
+     * The per-thread decoding buffers.
+     */
+    private static final ThreadLocal<DecodingBuffers> DECODING_BUFFERS =
+            ThreadLocal.withInitial(DecodingBuffers::new);
+
+    /**
+     * Runs the range fetches other than the first one, which runs in the
+     * calling thread, for all the fetchers. It never queues a range, so a
+     * fetch never waits for the ranges of another one, and its idle threads
+     * exit after a minute, so the fetchers of finished searches leave no
+     * threads behind.
+     */
+    private static final ExecutorService RANGE_EXECUTOR =
+            Executors.newCachedThreadPool((runnable) -> {
+                final Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final PageSource pageSource;
+    private final LongSupplier maximumPageIdSupplier;
+    private final LinkKind linkKind;
+    private final boolean mainNamespaceOnly;
+    private final TitleInterner titleInterner;
+    private final int numberOfRanges;
+    private final int pageBudget;
+
+    /**
+     * The number of fetches cut short by the page budget.
+     */
+    private final AtomicLong numberOfTruncatedFetches = new AtomicLong();
+
+    DirectSuccessorFetcher(final WikipediaApiClient apiClient,
+                           final LinkKind linkKind,
+                           final boolean mainNamespaceOnly,
+                           final TitleInterner titleInterner) {
+        this(apiClient,
+             linkKind,
+             mainNamespaceOnly,
+             titleInterner,
+             DEFAULT_NUMBER_OF_RANGES,
+             DEFAULT_PAGE_BUDGET);
+    }
+
+    DirectSuccessorFetcher(final WikipediaApiClient apiClient,
+                           final LinkKind linkKind,
+                           final boolean mainNamespaceOnly,
+                           final TitleInterner titleInterner,
+                           final int numberOfRanges,
+                           final int pageBudget) {
+        this(apiClient::queryBytes,
+             apiClient::getMaximumPageId,
+             linkKind,
+             mainNamespaceOnly,
+             titleInterner,
+             numberOfRanges,
+             pageBudget);
+    }
+
+    /**
+     * Constructs this fetcher.
+     *
+     * @param pageSource            the source of the response pages.
+     * @param maximumPageIdSupplier supplies the greatest page ID, or -1 if
+     *                              unknown.
+     * @param linkKind              the kind of the fetched links.
+     * @param mainNamespaceOnly     whether to fetch the main namespace only.
+     * @param titleInterner         the title interner.
+     * @param numberOfRanges        the number of page ID ranges a long
+     *                              backlink list is split into. 1 fetches the
+     *                              pages one after another.
+     * @param pageBudget            the maximum number of pages per node.
+     */
+    DirectSuccessorFetcher(final PageSource pageSource,
+                           final LongSupplier maximumPageIdSupplier,
+                           final LinkKind linkKind,
+                           final boolean mainNamespaceOnly,
+                           final TitleInterner titleInterner,
+                           final int numberOfRanges,
+                           final int pageBudget) {
+        this.pageSource = pageSource;
+        this.maximumPageIdSupplier = maximumPageIdSupplier;
+        this.linkKind = linkKind;
+        this.mainNamespaceOnly = mainNamespaceOnly;
+        this.titleInterner = titleInterner;
+        this.numberOfRanges = numberOfRanges;
+        this.pageBudget = pageBudget;
+    }
+
+    /**
+     * Fetches all the distinct linked titles of {@code title}, following the
+     * continuation tokens.
+     *
+     * @param title the node title.
+     *
+     * @return the list of interned node titles.
+     *
+     * @throws IOException          if a request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    List<String> fetch(final String title)
+            throws IOException, InterruptedException {
+
+        final List<String> titles = new ArrayList<>();
+
+        final boolean split = fetch(title, (page) -> {
+            synchronized (titles) {
+                titles.addAll(page);
+            }
+        });
+
+        // The ranges may overlap by a part of a page:
+        return split ? new ArrayList<>(new LinkedHashSet<>(titles)) : titles;
+    }
+
+    /**
+     * Fetches the linked titles of {@code title}, passing each response page
+     * to {@code pageConsumer} as soon as it is decoded. The pages of a split
+     * backlink list arrive concurrently and may repeat a few titles at the
+     * range boundaries; the titles within a range are distinct. The
+     * consumer must not fetch anything itself, since it runs in the middle
+     * of a range, with the decoding buffers of that range in use.
+     *
+     * @param title        the node title.
+     * @param pageConsumer the consumer of the pages of interned node titles.
+     *
+     * @return {@code true} if the list was split into page ID ranges.
+     *
+     * @throws IOException          if a request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    boolean fetch(final String title,
+                  final Consumer<List<String>> pageConsumer)
+            throws IOException, InterruptedException {
+
+        final String apiTitle = WikipediaTitles.toApiTitle(title);
+        final AtomicInteger remainingPages = new AtomicInteger(pageBudget - 1);
+        final AtomicBoolean truncated = new AtomicBoolean();
+        final DecodingBuffers buffers = DECODING_BUFFERS.get();
+
+        buffers.startDeduplication();
+
+        final String continueToken =
+                fetchPage(apiTitle, null, buffers, pageConsumer);
+
+        if (continueToken == null) {
+            return false;
+        }
+
+        final long[] rangeStarts = getRangeStarts(continueToken);
+
+        if (rangeStarts == null) {
+            fetchRange(apiTitle,
+                       continueToken,
+                       Long.MAX_VALUE,
+                       buffers,
+                       remainingPages,
+                       truncated,
+                       pageConsumer);
+            countTruncation(truncated);
+            return false;
+        }
+
+        final String targetPageId =
+                continueToken.substring(0, continueToken.indexOf('|'));
+
+        final List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 1; i < rangeStarts.length; i++) {
+            final String rangeContinueToken =
+                    targetPageId + "|" + rangeStarts[i];
+
+            final long rangeEnd = i + 1 < rangeStarts.length ?
+                                  rangeStarts[i + 1] :
+                                  Long.MAX_VALUE;
+
+            futures.add(RANGE_EXECUTOR.submit(() -> {
+                final DecodingBuffers rangeBuffers = DECODING_BUFFERS.get();
+                rangeBuffers.startDeduplication();
+
+                fetchRange(apiTitle,
+                           rangeContinueToken,
+                           rangeEnd,
+                           rangeBuffers,
+                           remainingPages,
+                           truncated,
+                           pageConsumer);
+                return null;
+            }));
+        }
+
+        try {
+            fetchRange(apiTitle,
+                       continueToken,
+                       rangeStarts[1],
+                       buffers,
+                       remainingPages,
+                       truncated,
+                       pageConsumer);
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+
+            countTruncation(truncated);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+
+            throw new IOException(ex.getCause());
+        } finally {
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Splits the rest of a backlink list, starting at the linking page ID of
+     * {@code continueToken}, into page ID ranges.
+     *
+     * @param continueToken the {@code lhcontinue} token.
+     *
+     * @return the first page IDs of the ranges, or {@code null} if the list
+     *         is not to be split.
+     */
+    long[] getRangeStarts(final String continueToken) {
+        if (linkKind != LinkKind.LINKS_HERE || numberOfRanges < 2) {
+            return null;
+        }
+
+        final long fromPageId = getFromPageId(continueToken);
+
+        if (fromPageId < 0L) {
+            return null;
+        }
+
+        final long maximumPageId = maximumPageIdSupplier.getAsLong();
+
+        if (maximumPageId - fromPageId < numberOfRanges) {
+            return null;
+        }
+
+        final long rangeLength =
+                (maximumPageId - fromPageId) / numberOfRanges + 1L;
+
+        final long[] rangeStarts = new long[numberOfRanges];
+
+        for (int i = 0; i < numberOfRanges; i++) {
+            rangeStarts[i] = fromPageId + i * rangeLength;
+        }
+
+        return rangeStarts;
+    }
+
+    /**
+     * Returns the number of fetches so far that the page budget cut short.
+     * Their nodes may have more links than were delivered.
+     *
+     * @return the number of truncated fetches.
+     */
+    long getNumberOfTruncatedFetches() {
+        return numberOfTruncatedFetches.get();
+    }
+
+    private void countTruncation(final AtomicBoolean truncated) {
+        if (truncated.get()) {
+            numberOfTruncatedFetches.incrementAndGet();
+        }
+    }
+
+    /**
+     * Fetches the pages of a single range until the continuation reaches
+     * {@code rangeEnd} or the page budget runs out. In the latter case,
+     * {@code truncated} is set.
+     */
+    private void fetchRange(final String apiTitle,
+                            String continueToken,
+                            final long rangeEnd,
+                            final DecodingBuffers buffers,
+                            final AtomicInteger remainingPages,
+                            final AtomicBoolean truncated,
+                            final Consumer<List<String>> pageConsumer)
+            throws IOException, InterruptedException {
+
+        while (continueToken != null &&
+               (rangeEnd == Long.MAX_VALUE ||
+                getFromPageId(continueToken) < rangeEnd)) {
+
+            if (remainingPages.getAndDecrement() <= 0) {
+                truncated.set(true);
+                return;
+            }
+
+            continueToken =
+                    fetchPage(apiTitle, continueToken, buffers, pageConsumer);
+        }
+    }
+
+    /**
+     * Fetches and decodes a single page.
+     *
+     * @return the continuation token, or {@code null} if there is none.
+     */
+    private String fetchPage(final String apiTitle,
+                             final String continueToken,
+                             final DecodingBuffers buffers,
+                             final Consumer<List<String>> pageConsumer)
+            throws IOException, InterruptedException {
+
+        final byte[] json =
+                pageSource.queryBytes(
+                        "prop",                         linkKind.property,
+                        linkKind.prefix + "limit",      "max",
+                        linkKind.prefix + "namespace",
+                                mainNamespaceOnly ? "0" : "*",
+                        linkKind.prefix + "continue",
+                                continueToken == null ? "" : continueToken,
+                        "titles",                       apiTitle);
+
+        WikipediaApiClient.checkForError(json);
+
+        final List<String> titles = new ArrayList<>();
+        final String nextContinueToken =
+                decodeTitles(json, linkKind, titleInterner, buffers, titles);
+
+        if (!titles.isEmpty()) {
+            pageConsumer.accept(titles);
+        }
+
+        return nextContinueToken;
+    }
+
+    /**
+     * Returns the linking page ID of the {@code lhcontinue} token
+     * {@code TARGET_PAGE_ID|FROM_PAGE_ID}, or -1 if the token is not one.
+     */
+    private static long getFromPageId(final String continueToken) {
+        final int separatorIndex = continueToken.indexOf('|');
+
+        if (separatorIndex < 0 ||
+            continueToken.indexOf('|', separatorIndex + 1) >= 0) {
+            return -1L;
+        }
+
+        try {
+            return Long.parseLong(
+                    continueToken.substring(separatorIndex + 1));
+        } catch (final NumberFormatException ex) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Decodes the titles of the link list in {@code json} and appends the
+     * ones not seen before in the current deduplication round to
+     * {@code titles}.
+     *
+     * @param json          the UTF-8 bytes of the response.
+     * @param linkKind      the kind of the link list.
+     * @param titleInterner the interner.
+     * @param buffers       the decoding buffers of the calling thread.
+     * @param titles        the list of titles to append to.
+     *
+     * @return the continuation token, or {@code null} if there is none.
+     */
+    static String decodeTitles(final byte[] json,
+                               final LinkKind linkKind,
+                               final TitleInterner titleInterner,
+                               final DecodingBuffers buffers,
+                               final List<String> titles) {
+
+        final int listIndex = indexOf(json, linkKind.listKey, 0);
+
+        if (listIndex >= 0) {
+            int index = listIndex;
+
+            while ((index = indexOf(json, TITLE_KEY, index)) >= 0) {
+                index += TITLE_KEY.length;
+
+                while (json[index] != '"') {
+                    index++;
+                }
+
+                index = decodeString(json, index + 1, buffers, true);
+
+                final String title =
+                        titleInterner.intern(buffers.chars, buffers.length);
+
+                if (buffers.addIfAbsent(title)) {
+                    titles.add(title);
+                }
+            }
+        }
+
+        final int continueIndex = indexOf(json, linkKind.continueKey, 0);
+
+        if (continueIndex < 0) {
+            return null;
+        }
+
+        int index = continueIndex + linkKind.continueKey.length;
+
+        while (json[index] != '"') {
+            index++;
+        }
+
+        decodeString(json, index + 1, buffers, false);
+        return new String(buffers.chars, 0, buffers.length);
+    }
+
+    /**
+     * Decodes the JSON string starting at {@code index} into
+     * {@code buffers.chars}.
+     *
+     * @param json              the UTF-8 bytes.
+     * @param index             the index right after the opening quote.
+     * @param buffers           the decoding buffers.
+     * @param spaceToUnderscore if {@code true}, spaces become underscores.
+     *
+     * @return the index right after the closing quote.
+     */
+    private static int decodeString(final byte[] json,
+                                    int index,
+                                    final DecodingBuffers buffers,
+                                    final boolean spaceToUnderscore) {
+        buffers.length = 0;
+
+        while (true) {
+            int b = json[index++] & 0xff;
+
+            if (b == '"') {
+                return index;
+            }
+
+            if (b == '\\') {
+                final int escaped = json[index++];
+
+                if (escaped == 'u') {
+                    buffers.append((char) parseHex(json, index));
+                    index += 4;
+                } else {
+                    buffers.append(switch (escaped) {
+                        case 'b' -> '\b';
+                        case 'f' -> '\f';
+                        case 'n' -> '\n';
+                        case 'r' -> '\r';
+                        case 't' -> '\t';
+                        default  -> (char) escaped;
+                    });
+                }
+
+                continue;
+            }
+
+            int codePoint;
+
+            if (b < 0x80) {
+                codePoint = b;
+            } else if (b < 0xe0) {
+                codePoint = ((b & 0x1f) << 6) | (json[index++] & 0x3f);
+            } else if (b < 0xf0) {
+                codePoint = ((b & 0x0f) << 12) |
+                            ((json[index++] & 0x3f) << 6) |
+                            (json[index++] & 0x3f);
+            } else {
+                codePoint = ((b & 0x07) << 18) |
+                            ((json[index++] & 0x3f) << 12) |
+                            ((json[index++] & 0x3f) << 6) |
+                            (json[index++] & 0x3f);
+            }
+
+            if (codePoint >= 0x10000) {
+                buffers.append(Character.highSurrogate(codePoint));
+                buffers.append(Character.lowSurrogate(codePoint));
+            } else if (codePoint == ' ' && spaceToUnderscore) {
+                buffers.append('_');
+            } else {
+                buffers.append((char) codePoint);
+            }
+        }
+    }
+
+    private static int parseHex(final byte[] json, final int index) {
+        int value = 0;
+
+        for (int i = index; i < index + 4; i++) {
+            value = (value << 4) | Character.digit(json[i], 16);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns the UTF-8 bytes of the JSON key pattern {@code "key":}.
+     */
+    private static byte[] toKeyBytes(final String key) {
+        return ("\"" + key + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the first index of {@code pattern} in {@code bytes} at or after
+     * {@code fromIndex}, or -1 if there is none.
+     */
+    private static int indexOf(final byte[] bytes,
+                               final byte[] pattern,
+                               final int fromIndex) {
+        outer:
+        for (int i = fromIndex; i <= bytes.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (bytes[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Holds the reused per-thread decoding state.
+     */
+    static final class DecodingBuffers {
+
+        /**
+         * The decoded characters of the current string.
+         */
+        char[] chars = new char[256];
+
+        /**
+         * The number of decoded characters in {@code chars}.
+         */
+        int length;
+
+        /**
+         * The identity hash set of the titles added in the current round.
+         */
+        private Object[] seen = new Object[1024];
+
+        /**
+         * The round stamps of the slots in {@code seen}. A slot is occupied
+         * only if its stamp equals the current round.
+         */
+        private int[] stamps = new int[1024];
+
+        private int round;
+        private int seenSize;
+
+        void append(final char c) {
+            if (length == chars.length) {
+                chars = Arrays.copyOf(chars, 2 * length);
+            }
+
+            chars[length++] = c;
+        }
+
+        /**
+         * Starts a new deduplication round in constant time.
+         */
+        void startDeduplication() {
+            round++;
+            seenSize = 0;
+        }
+
+        /**
+         * Adds {@code title} to the identity set of the current round.
+         *
+         * @param title the interned title.
+         *
+         * @return {@code true} if {@code title} was not in the set.
+         */
+        boolean addIfAbsent(final Object title) {
+            if (seenSize >= seen.length / 2) {
+                growSeen();
+            }
+
+            final int mask = seen.length - 1;
+            int slot = System.identityHashCode(title) & mask;
+
+            while (stamps[slot] == round) {
+                if (seen[slot] == title) {
+                    return false;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            seen[slot] = title;
+            stamps[slot] = round;
+            seenSize++;
+            return true;
+        }
+
+        private void growSeen() {
+            final Object[] oldSeen = seen;
+            final int[] oldStamps = stamps;
+
+            seen = new Object[oldSeen.length * 2];
+            stamps = new int[oldSeen.length * 2];
+
+            final int mask = seen.length - 1;
+
+            for (int i = 0; i < oldSeen.length; i++) {
+                if (oldStamps[i] != round) {
+                    continue;
+                }
+
+                int slot = System.identityHashCode(oldSeen[i]) & mask;
+
+                while (stamps[slot] == round) {
+                    slot = (slot + 1) & mask;
+                }
+
+                seen[slot] = oldSeen[i];
+                stamps[slot] = round;
+            }
+        }
+    }
+}
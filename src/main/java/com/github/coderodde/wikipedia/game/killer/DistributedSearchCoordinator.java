@@ -0,0 +1,473 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.BACKWARD;
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.FORWARD;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class implements the coordinator of the distributed search. The
+ * article titles are hash-partitioned over several
+ * {@link DistributedSearchWorker} processes, each expanding its own part of
+ * the frontier over its own network connection and API quota.
+ *
+ * The search is a level-synchronous bidirectional breadth-first search. In
+ * each step, the direction with the smaller frontier is expanded by all the
+ * workers at once. The coordinator routes each generated (child, parent) pair
+ * to the owner of the child, which marks the child visited and reports it
+ * back if it is visited in the opposite direction as well. Since a whole
+ * level is expanded at a time, the meeting node with the smallest total
+ * distance of the first level producing meetings lies on a shortest path. The
+ * path is then rebuilt by asking the owners for the parents.
+ *
+ * The shortest path guarantee holds only if no expansion missed successors.
+ * The workers report their failed and otherwise incomplete expansions, and
+ * {@link #isShortestPathProven()} tells whether the last path is proven
+ * shortest.
+ */
+final class DistributedSearchCoordinator {
+
+    /**
+     * The socket connect timeout in milliseconds.
+     */
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+
+    private final List<InetSocketAddress> workerAddresses;
+    private long duration;
+    private int numberOfExpandedNodes;
+    private long numberOfIncompleteExpansions;
+
+    DistributedSearchCoordinator(
+            final List<InetSocketAddress> workerAddresses) {
+
+        if (workerAddresses.isEmpty()) {
+            throw new IllegalArgumentException("No workers given.");
+        }
+
+        this.workerAddresses = workerAddresses;
+    }
+
+    /**
+     * Parses a comma-separated list of {@code host:port} worker addresses.
+     *
+     * @param addresses the address list.
+     *
+     * @return the list of socket addresses.
+     *
+     * @throws IllegalArgumentException if an address is malformed.
+     */
+    static List<InetSocketAddress> parseAddresses(final String addresses) {
+        final List<InetSocketAddress> socketAddresses = new ArrayList<>();
+
+        for (final String address : addresses.split(",")) {
+            final int colonIndex = address.lastIndexOf(':');
+
+            if (colonIndex <= 0) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "Bad worker address \"%s\".",
+                                address));
+            }
+
+            try {
+                socketAddresses.add(
+                        new InetSocketAddress(
+                                address.substring(0, colonIndex).trim(),
+                                Integer.parseInt(
+                                        address.substring(colonIndex + 1)
+                                               .trim())));
+            } catch (final NumberFormatException ex) {
+                throw new IllegalArgumentException(
+                        String.format(
+                                "Bad worker port in \"%s\".",
+                                address));
+            }
+        }
+
+        return socketAddresses;
+    }
+
+    /**
+     * Returns the index of the worker owning {@code node}.
+     *
+     * @param node            the node.
+     * @param numberOfWorkers the number of workers.
+     *
+     * @return the index of the owning worker.
+     */
+    static int getOwner(final String node, final int numberOfWorkers) {
+        return Math.floorMod(node.hashCode(), numberOfWorkers);
+    }
+
+    /**
+     * Searches for a shortest path from {@code source} to {@code target}.
+     *
+     * @param languageCode the language code of the Wikipedia edition.
+     * @param source       the source node.
+     * @param target       the target node.
+     *
+     * @return the shortest path, or an empty list if there is none. If some
+     *         expansions were incomplete, the path may be longer than the
+     *         shortest one, and the empty list does not prove that there is
+     *         no path.
+     *
+     * @throws IOException if the communication with a worker fails.
+     */
+    List<String> search(final String languageCode,
+                        final String source,
+                        final String target) throws IOException {
+
+        final long startTime = System.currentTimeMillis();
+        final List<WorkerConnection> workers = new ArrayList<>();
+        numberOfExpandedNodes = 0;
+        numberOfIncompleteExpansions = 0L;
+
+        try {
+            for (final InetSocketAddress address : workerAddresses) {
+                workers.add(new WorkerConnection(address));
+            }
+
+            for (int i = 0; i < workers.size(); i++) {
+                workers.get(i).init(i, workers.size(), languageCode);
+            }
+
+            if (source.equals(target)) {
+                return Collections.singletonList(source);
+            }
+
+            return search(workers, source, target);
+        } finally {
+            for (final WorkerConnection worker : workers) {
+                worker.close();
+            }
+
+            duration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    /**
+     * Returns the duration of the last search in milliseconds.
+     *
+     * @return the duration.
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the number of nodes expanded by all the workers in the last
+     * search.
+     *
+     * @return the number of expanded nodes.
+     */
+    int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes;
+    }
+
+    /**
+     * Returns the number of expansions in the last search that failed or may
+     * otherwise have missed some successors of their node.
+     *
+     * @return the number of incomplete expansions.
+     */
+    long getNumberOfIncompleteExpansions() {
+        return numberOfIncompleteExpansions;
+    }
+
+    /**
+     * Returns {@code true} if the last search had no incomplete expansions,
+     * so that its path is proven shortest, or its empty result proves that
+     * there is no path.
+     *
+     * @return {@code true} if the result of the last search is exact.
+     */
+    boolean isShortestPathProven() {
+        return numberOfIncompleteExpansions == 0L;
+    }
+
+    private List<String> search(final List<WorkerConnection> workers,
+                                final String source,
+                                final String target) throws IOException {
+
+        final long[] frontierSizes = new long[2];
+        final int[] numberOfCompletedLevels = new int[2];
+        final Meeting meeting = new Meeting();
+
+        visit(workers, FORWARD, 0, List.of(source), List.of(
+                DistributedSearchWorker.NO_PARENT), frontierSizes, meeting);
+
+        visit(workers, BACKWARD, 0, List.of(target), List.of(
+                DistributedSearchWorker.NO_PARENT), frontierSizes, meeting);
+
+        while (frontierSizes[FORWARD] > 0 && frontierSizes[BACKWARD] > 0) {
+            final int direction =
+                    frontierSizes[FORWARD] <= frontierSizes[BACKWARD] ?
+                    FORWARD :
+                    BACKWARD;
+
+            final SearchEvents.LevelEvent levelEvent =
+                    new SearchEvents.LevelEvent();
+            levelEvent.begin();
+
+            for (final WorkerConnection worker : workers) {
+                worker.sendExpand(direction);
+            }
+
+            final List<String> children = new ArrayList<>();
+            final List<String> parents = new ArrayList<>();
+            int numberOfLevelExpansions = 0;
+
+            for (final WorkerConnection worker : workers) {
+                final Expansion expansion =
+                        worker.receiveExpand(children, parents);
+
+                numberOfLevelExpansions +=
+                        expansion.numberOfExpandedNodes();
+                numberOfIncompleteExpansions +=
+                        expansion.numberOfIncompleteExpansions();
+            }
+
+            numberOfExpandedNodes += numberOfLevelExpansions;
+
+            visit(workers,
+                  direction,
+                  ++numberOfCompletedLevels[direction],
+                  children,
+                  parents,
+                  frontierSizes,
+                  meeting);
+
+            levelEvent.finish(SearchEvents.getDirectionName(direction),
+                              numberOfCompletedLevels[direction],
+                              numberOfLevelExpansions,
+                              frontierSizes[direction]);
+
+            if (meeting.node != null) {
+                return buildPath(workers, meeting.node);
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Routes each node to its owner to be visited, and updates the frontier
+     * size of {@code direction} and the best meeting.
+     */
+    private static void visit(final List<WorkerConnection> workers,
+                              final int direction,
+                              final int distance,
+                              final List<String> nodes,
+                              final List<String> parents,
+                              final long[] frontierSizes,
+                              final Meeting meeting) throws IOException {
+
+        final List<List<Integer>> indexLists = new ArrayList<>();
+
+        for (int i = 0; i < workers.size(); i++) {
+            indexLists.add(new ArrayList<>());
+        }
+
+        for (int i = 0; i < nodes.size(); i++) {
+            indexLists.get(getOwner(nodes.get(i), workers.size())).add(i);
+        }
+
+        for (int i = 0; i < workers.size(); i++) {
+            workers.get(i).sendVisit(direction,
+                                     distance,
+                                     indexLists.get(i),
+                                     nodes,
+                                     parents);
+        }
+
+        frontierSizes[direction] = 0;
+
+        for (final WorkerConnection worker : workers) {
+            frontierSizes[direction] += worker.receiveVisit(meeting);
+        }
+    }
+
+    private static List<String> buildPath(final List<WorkerConnection> workers,
+                                          final String meetingNode)
+            throws IOException {
+
+        final List<String> path = new ArrayList<>();
+        String node = meetingNode;
+
+        while (!node.equals(DistributedSearchWorker.NO_PARENT)) {
+            path.add(node);
+            node = workers.get(getOwner(node, workers.size()))
+                          .getParent(FORWARD, node);
+        }
+
+        Collections.reverse(path);
+        node = workers.get(getOwner(meetingNode, workers.size()))
+                      .getParent(BACKWARD, meetingNode);
+
+        while (!node.equals(DistributedSearchWorker.NO_PARENT)) {
+            path.add(node);
+            node = workers.get(getOwner(node, workers.size()))
+                          .getParent(BACKWARD, node);
+        }
+
+        return path;
+    }
+
+    /**
+     * The reply of a worker to an expansion request.
+     *
+     * @param numberOfExpandedNodes        the number of expanded nodes.
+     * @param numberOfIncompleteExpansions the number of expansions that may
+     *                                     have missed some successors.
+     */
+    private record Expansion(int numberOfExpandedNodes,
+                             int numberOfIncompleteExpansions) {}
+
+    /**
+     * Holds the best meeting node found so far.
+     */
+    private static final class Meeting {
+        String node;
+        int distance = Integer.MAX_VALUE;
+    }
+
+    /**
+     * This class implements the coordinator side of a worker connection.
+     */
+    private static final class WorkerConnection {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+
+        WorkerConnection(final InetSocketAddress address) throws IOException {
+            this.socket = new Socket();
+            this.socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            this.socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(
+                    new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void init(final int index,
+                  final int numberOfWorkers,
+                  final String languageCode) throws IOException {
+            out.writeByte(DistributedSearchWorker.INIT);
+            out.writeInt(index);
+            out.writeInt(numberOfWorkers);
+            out.writeUTF(languageCode);
+            out.flush();
+            checkStatus();
+        }
+
+        void sendVisit(final int direction,
+                       final int distance,
+                       final List<Integer> indices,
+                       final List<String> nodes,
+                       final List<String> parents) throws IOException {
+            out.writeByte(DistributedSearchWorker.VISIT);
+            out.writeByte(direction);
+            out.writeInt(distance);
+            out.writeInt(indices.size());
+
+            for (final int index : indices) {
+                out.writeUTF(nodes.get(index));
+                out.writeUTF(parents.get(index));
+            }
+
+            out.flush();
+        }
+
+        /**
+         * Receives the reply to a visit request.
+         *
+         * @return the frontier size of the worker.
+         */
+        long receiveVisit(final Meeting meeting) throws IOException {
+            checkStatus();
+
+            final int frontierSize = in.readInt();
+            final int numberOfMeetings = in.readInt();
+
+            for (int i = 0; i < numberOfMeetings; i++) {
+                final String node = in.readUTF();
+                final int distance = in.readInt();
+
+                if (meeting.distance > distance) {
+                    meeting.distance = distance;
+                    meeting.node = node;
+                }
+            }
+
+            return frontierSize;
+        }
+
+        void sendExpand(final int direction) throws IOException {
+            out.writeByte(DistributedSearchWorker.EXPAND);
+            out.writeByte(direction);
+            out.flush();
+        }
+
+        /**
+         * Receives the reply to an expansion request.
+         *
+         * @return the numbers of expanded nodes and incomplete expansions
+         *         of the worker.
+         */
+        Expansion receiveExpand(final List<String> children,
+                                final List<String> parents)
+                throws IOException {
+            checkStatus();
+
+            final int numberOfExpandedNodes = in.readInt();
+            final int numberOfIncompleteExpansions = in.readInt();
+            final int numberOfChildren = in.readInt();
+
+            for (int i = 0; i < numberOfChildren; i++) {
+                children.add(in.readUTF());
+                parents.add(in.readUTF());
+            }
+
+            return new Expansion(numberOfExpandedNodes,
+                                 numberOfIncompleteExpansions);
+        }
+
+        String getParent(final int direction, final String node)
+                throws IOException {
+            out.writeByte(DistributedSearchWorker.PARENT);
+            out.writeByte(direction);
+            out.writeUTF(node);
+            out.flush();
+            checkStatus();
+            return in.readUTF();
+        }
+
+        void close() {
+            try (socket) {
+                out.writeByte(DistributedSearchWorker.CLOSE);
+                out.flush();
+            } catch (final IOException ex) {
+                // The worker is gone already.
+            }
+        }
+
+        private void checkStatus() throws IOException {
+            if (in.readByte() != DistributedSearchWorker.OK) {
+                throw new IOException(
+                        String.format(
+                                "Worker %s failed: %s",
+                                socket.getRemoteSocketAddress(),
+                                in.readUTF()));
+            }
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.BACKWARD;
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.FORWARD;
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements a worker of the distributed search. The coordinator
+ * ({@link DistributedSearchCoordinator}) hash-partitions the article titles
+ * over the workers. Each worker owns the visited state of its partition in
+ * both directions, expands the frontier nodes of its partition with its own
+ * thread pool and network connection, and reports the nodes that become
+ * visited in both directions.
+ *
+ * Each coordinator connection is served by its own thread and has its own
+ * search state, so one worker may serve several searches at a time.
+ *
+ * An expansion throwing an exception, or counted by an expander implementing
+ * {@link ForkJoinBidirectionalBFSPathFinder.IncompleteExpansionCounter}, is
+ * reported to the coordinator as incomplete, since its node may have
+ * successors the search never saw.
+ */
+final class DistributedSearchWorker implements Closeable {
+
+    /**
+     * Creates the node expanders of a worker.
+     */
+    @FunctionalInterface
+    interface ExpanderFactory {
+
+        /**
+         * Creates the node expander for the given language and direction.
+         *
+         * @param languageCode the language code of the Wikipedia edition.
+         * @param direction    {@code FORWARD} or {@code BACKWARD} of
+         *                     {@link ForkJoinBidirectionalBFSPathFinder}.
+         *
+         * @return the node expander.
+         *
+         * @throws Exception if the expander cannot be created.
+         */
+        AbstractNodeExpander<String> create(String languageCode,
+                                            int direction) throws Exception;
+    }
+
+    // The protocol opcodes:
+    static final byte INIT   = 1;
+    static final byte VISIT  = 2;
+    static final byte EXPAND = 3;
+    static final byte PARENT = 4;
+    static final byte CLOSE  = 5;
+
+    /**
+     * The reply status of a successful request.
+     */
+    static final byte OK = 0;
+
+    /**
+     * The reply status of a failed request. Followed by the error message.
+     */
+    static final byte ERROR = 1;
+
+    /**
+     * Denotes the absent parent of a search root on the wire.
+     */
+    static final String NO_PARENT = "";
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService expansionExecutor;
+    private final ExpanderFactory expanderFactory;
+
+    /**
+     * Opens a worker listening on {@code port} of the loopback and external
+     * interfaces.
+     *
+     * @param port            the port, or 0 for an ephemeral port.
+     * @param parallelism     the number of expansion threads.
+     * @param expanderFactory the factory of the node expanders.
+     *
+     * @throws IOException if the port cannot be bound.
+     */
+    DistributedSearchWorker(final int port,
+                            final int parallelism,
+                            final ExpanderFactory expanderFactory)
+            throws IOException {
+
+        this.serverSocket = new ServerSocket(port);
+        this.expansionExecutor =
+                Executors.newFixedThreadPool(parallelism, (runnable) -> {
+                    final Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.expanderFactory = expanderFactory;
+    }
+
+    /**
+     * Returns the port this worker listens on.
+     *
+     * @return the port.
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Returns the address of this worker on the loopback interface.
+     *
+     * @return the address in {@code host:port} format.
+     */
+    String getLoopbackAddress() {
+        return InetAddress.getLoopbackAddress().getHostAddress() +
+               ":" + getPort();
+    }
+
+    /**
+     * Starts accepting coordinator connections in a daemon thread.
+     */
+    void start() {
+        final Thread thread = new Thread(this::serve, "worker-" + getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Accepts coordinator connections until this worker is closed.
+     */
+    void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket socket = serverSocket.accept();
+                final Thread thread =
+                        new Thread(() -> handleConnection(socket),
+                                   "worker-connection-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            } catch (final SocketException ex) {
+                return; // Closed.
+            } catch (final IOException ex) {
+                // Keep accepting.
+            }
+        }
+    }
+
+    /**
+     * Stops accepting new connections.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        expansionExecutor.shutdownNow();
+    }
+
+    private void handleConnection(final Socket socket) {
+        try (socket;
+             DataInputStream in =
+                     new DataInputStream(
+                             new BufferedInputStream(
+                                     socket.getInputStream()));
+             DataOutputStream out =
+                     new DataOutputStream(
+                             new BufferedOutputStream(
+                                     socket.getOutputStream()))) {
+
+            socket.setTcpNoDelay(true);
+            final Session session = new Session();
+
+            while (true) {
+                final byte opcode = in.readByte();
+
+                if (opcode == CLOSE) {
+                    return;
+                }
+
+                try {
+                    handleRequest(opcode, session, in, out);
+                } catch (final IOException ex) {
+                    throw ex;
+                } catch (final Exception ex) {
+                    out.writeByte(ERROR);
+                    out.writeUTF(String.valueOf(ex.getMessage()));
+                }
+
+                out.flush();
+            }
+        } catch (final EOFException ex) {
+            // The coordinator went away.
+        } catch (final IOException ex) {
+            // Drop the connection.
+        }
+    }
+
+    private void handleRequest(final byte opcode,
+                               final Session session,
+                               final DataInputStream in,
+                               final DataOutputStream out)
+            throws Exception {
+
+        switch (opcode) {
+            case INIT -> {
+                final int index = in.readInt();
+                final int numberOfWorkers = in.readInt();
+                final String languageCode = in.readUTF();
+
+                // Each search gets its own expanders, so that their caches
+                // and interned titles go away with the search:
+                session.init(index,
+                             numberOfWorkers,
+                             expanderFactory.create(languageCode, FORWARD),
+                             expanderFactory.create(languageCode, BACKWARD));
+
+                out.writeByte(OK);
+            }
+
+            case VISIT -> {
+                final int direction = in.readByte();
+                final int distance = in.readInt();
+                final int numberOfNodes = in.readInt();
+                final List<String> meetingNodes = new ArrayList<>();
+                final List<Integer> meetingDistances = new ArrayList<>();
+
+                for (int i = 0; i < numberOfNodes; i++) {
+                    final String node = in.readUTF();
+                    final String parent = in.readUTF();
+
+                    session.visit(direction,
+                                  node,
+                                  parent,
+                                  distance,
+                                  meetingNodes,
+                                  meetingDistances);
+                }
+
+                out.writeByte(OK);
+                out.writeInt(session.frontiers[direction].size());
+                out.writeInt(meetingNodes.size());
+
+                for (int i = 0; i < meetingNodes.size(); i++) {
+                    out.writeUTF(meetingNodes.get(i));
+                    out.writeInt(meetingDistances.get(i));
+                }
+            }
+
+            case EXPAND -> {
+                final int direction = in.readByte();
+                final List<String> frontier = session.frontiers[direction];
+                final LevelExpansion levelExpansion =
+                        session.expand(direction, expansionExecutor);
+
+                out.writeByte(OK);
+                out.writeInt(frontier.size());
+                out.writeInt(levelExpansion.numberOfIncompleteExpansions());
+                out.writeInt(levelExpansion.childToParentMap().size());
+
+                for (final Map.Entry<String, String> entry
+                        : levelExpansion.childToParentMap().entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue());
+                }
+
+                frontier.clear();
+            }
+
+            case PARENT -> {
+                final int direction = in.readByte();
+                final String node = in.readUTF();
+                final Visit visit = session.visitMaps[direction].get(node);
+
+                out.writeByte(OK);
+                out.writeUTF(visit == null ? NO_PARENT : visit.parent());
+            }
+
+            default -> throw new IllegalStateException(
+                    String.format("Unknown opcode %d.", opcode));
+        }
+    }
+
+    /**
+     * The visit of a node in a direction.
+     */
+    private record Visit(String parent, int distance) {}
+
+    /**
+     * The result of expanding the frontier of a direction.
+     *
+     * @param childToParentMap             maps each child to its first
+     *                                     parent.
+     * @param numberOfIncompleteExpansions the number of expansions that may
+     *                                     have missed some successors.
+     */
+    private record LevelExpansion(Map<String, String> childToParentMap,
+                                  int numberOfIncompleteExpansions) {}
+
+    /**
+     * Holds the search state of one coordinator connection.
+     */
+    private static final class Session {
+
+        @SuppressWarnings("unchecked")
+        private final Map<String, Visit>[] visitMaps = new Map[]{
+            new HashMap<>(),
+            new HashMap<>(),
+        };
+
+        /**
+         * The nodes visited in the last level of each direction, not yet
+         * expanded.
+         */
+        @SuppressWarnings("unchecked")
+        private final List<String>[] frontiers = new List[]{
+            new ArrayList<>(),
+            new ArrayList<>(),
+        };
+
+        @SuppressWarnings("unchecked")
+        private final AbstractNodeExpander<String>[] expanders =
+                new AbstractNodeExpander[2];
+
+        private int index;
+        private int numberOfWorkers;
+
+        void init(final int index,
+                  final int numberOfWorkers,
+                  final AbstractNodeExpander<String> forwardExpander,
+                  final AbstractNodeExpander<String> backwardExpander) {
+            this.index = index;
+            this.numberOfWorkers = numberOfWorkers;
+            this.expanders[FORWARD] = forwardExpander;
+            this.expanders[BACKWARD] = backwardExpander;
+
+            for (int direction = 0; direction < 2; direction++) {
+                visitMaps[direction].clear();
+                frontiers[direction].clear();
+            }
+        }
+
+        /**
+         * Marks {@code node} as visited in {@code direction} unless it was
+         * visited before. If the node turns out to be visited in the opposite
+         * direction too, it is reported as a meeting node.
+         */
+        void visit(final int direction,
+                   final String node,
+                   final String parent,
+                   final int distance,
+                   final List<String> meetingNodes,
+                   final List<Integer> meetingDistances) {
+
+            if (visitMaps[direction].putIfAbsent(
+                    node,
+                    new Visit(parent, distance)) != null) {
+                return;
+            }
+
+            frontiers[direction].add(node);
+
+            final Visit oppositeVisit = visitMaps[1 - direction].get(node);
+
+            if (oppositeVisit != null) {
+                meetingNodes.add(node);
+                meetingDistances.add(distance + oppositeVisit.distance());
+            }
+        }
+
+        /**
+         * Expands the frontier of {@code direction} in parallel. The children
+         * owned by this worker and already visited in {@code direction} are
+         * dropped right here. The failed expansions count as incomplete,
+         * together with the ones counted by the expander itself.
+         *
+         * @return the children with their parents, and the number of
+         *         incomplete expansions.
+         */
+        LevelExpansion expand(final int direction,
+                              final ExecutorService executor)
+                throws InterruptedException {
+
+            final AbstractNodeExpander<String> expander = expanders[direction];
+            final List<Future<List<String>>> futures = new ArrayList<>();
+            final long initialNumberOfIncompleteExpansions =
+                    ForkJoinBidirectionalBFSPathFinder
+                            .getNumberOfIncompleteExpansions(expander);
+
+            for (final String node : frontiers[direction]) {
+                futures.add(executor.submit(
+                        () -> expander.generateSuccessors(node)));
+            }
+
+            int numberOfFailedExpansions = 0;
+
+            final Map<String, String> childToParentMap = new LinkedHashMap<>();
+
+            for (int i = 0; i < futures.size(); i++) {
+                final String parent = frontiers[direction].get(i);
+                List<String> children;
+
+                try {
+                    children = futures.get(i).get();
+                } catch (final ExecutionException ex) {
+                    numberOfFailedExpansions++;
+                    children = Collections.emptyList();
+                }
+
+                for (final String child : children) {
+                    if (DistributedSearchCoordinator.getOwner(
+                            child, numberOfWorkers) == index &&
+                        visitMaps[direction].containsKey(child)) {
+                        continue;
+                    }
+
+                    childToParentMap.putIfAbsent(child, parent);
+                }
+            }
+
+            return new LevelExpansion(
+                    childToParentMap,
+                    numberOfFailedExpansions +
+                    (int) (ForkJoinBidirectionalBFSPathFinder
+                                   .getNumberOfIncompleteExpansions(expander) -
+                           initialNumberOfIncompleteExpansions));
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class implements an expansion trace: the successor lists and latencies
+ * of all the node expansions of a live search. A trace is written by a
+ * {@link Writer} during a {@code --record} run and read back for a
+ * {@code --replay} run, so that search engine changes can be benchmarked on
+ * real Wikipedia graph shapes without any network traffic.
+ *
+ * The file is a GZIP-compressed stream of the following records:
+ * <pre>
+ * header:    int magic, byte version, UTF language code, UTF source,
+ *            UTF target
+ * title:     byte 0, UTF title                 (gets the next title ID)
+ * expansion: byte 1, byte direction, int title ID, long latency nanoseconds,
+ *            int number of successors, int[] successor title IDs
+ * </pre>
+ * Each title is written only once; all the later occurrences refer to it by
+ * its ID.
+ *
+ * Since the search directions advance asynchronously, a replayed search may
+ * ask for an expansion that the recorded search never did. Such a node gets
+ * its observed successors: the nodes whose recorded expansions in the
+ * opposite direction contain it. This way both replay directions see the
+ * very same subgraph, namely all the arcs leaving a recorded forward
+ * expansion or entering a recorded backward expansion, which contains the
+ * recorded path, so that a replay finds a path of the recorded length.
+ */
+final class ExpansionTrace {
+
+    /**
+     * The magic number of the trace files ({@code "WGKT"}).
+     */
+    private static final int MAGIC = 0x57474B54;
+
+    /**
+     * The version of the trace format.
+     */
+    private static final byte VERSION = 1;
+
+    // The record types:
+    private static final byte TITLE = 0;
+    private static final byte EXPANSION = 1;
+
+    /**
+     * A recorded expansion.
+     *
+     * @param successors   the generated successors.
+     * @param latencyNanos the duration of the expansion in nanoseconds.
+     */
+    record Expansion(List<String> successors, long latencyNanos) {}
+
+    private final String languageCode;
+    private final String source;
+    private final String target;
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, Expansion>[] expansionMaps = new Map[]{
+        new HashMap<>(),
+        new HashMap<>(),
+    };
+
+    /**
+     * Maps each node to its successors observed in the recorded expansions
+     * of the opposite direction.
+     */
+    @SuppressWarnings("unchecked")
+    private final Map<String, List<String>>[] observedSuccessorMaps =
+            new Map[]{
+                new HashMap<>(),
+                new HashMap<>(),
+            };
+
+    private ExpansionTrace(final String languageCode,
+                           final String source,
+                           final String target) {
+        this.languageCode = languageCode;
+        this.source = source;
+        this.target = target;
+    }
+
+    /**
+     * Reads the trace file {@code file}. If a node was expanded more than
+     * once in a direction, the first expansion is kept.
+     *
+     * @param file the trace file.
+     *
+     * @return the trace.
+     *
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    static ExpansionTrace read(final Path file) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(
+                        new BufferedInputStream(
+                                new GZIPInputStream(
+                                        Files.newInputStream(file))))) {
+
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException(
+                        String.format(
+                                "\"%s\" is not an expansion trace.",
+                                file));
+            }
+
+            final ExpansionTrace trace =
+                    new ExpansionTrace(in.readUTF(),
+                                       in.readUTF(),
+                                       in.readUTF());
+
+            final List<String> titles = new ArrayList<>();
+
+            while (true) {
+                final int recordType = in.read();
+
+                if (recordType < 0) {
+                    trace.computeObservedSuccessors();
+                    return trace;
+                }
+
+                if (recordType == TITLE) {
+                    titles.add(in.readUTF());
+                    continue;
+                }
+
+                if (recordType != EXPANSION) {
+                    throw new IOException(
+                            String.format(
+                                    "Bad record type %d in \"%s\".",
+                                    recordType,
+                                    file));
+                }
+
+                final int direction = in.readByte();
+                final String title = titles.get(in.readInt());
+                final long latencyNanos = in.readLong();
+                final String[] successors = new String[in.readInt()];
+
+                for (int i = 0; i < successors.length; i++) {
+                    successors[i] = titles.get(in.readInt());
+                }
+
+                trace.expansionMaps[direction].putIfAbsent(
+                        title,
+                        new Expansion(Arrays.asList(successors),
+                                      latencyNanos));
+            }
+        } catch (final EOFException | IndexOutOfBoundsException ex) {
+            throw new IOException(
+                    String.format("Truncated trace \"%s\".", file));
+        }
+    }
+
+    /**
+     * Returns the language code of the recorded search.
+     *
+     * @return the language code.
+     */
+    String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * Returns the source node of the recorded search.
+     *
+     * @return the source node.
+     */
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the target node of the recorded search.
+     *
+     * @return the target node.
+     */
+    String getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the recorded expansion of {@code title} in {@code direction}.
+     *
+     * @param direction {@code FORWARD} or {@code BACKWARD} of
+     *                  {@link ForkJoinBidirectionalBFSPathFinder}.
+     * @param title     the title of the expanded node.
+     *
+     * @return the expansion, or {@code null} if {@code title} was not
+     *         expanded in {@code direction}.
+     */
+    Expansion getExpansion(final int direction, final String title) {
+        return expansionMaps[direction].get(title);
+    }
+
+    /**
+     * Returns the successors of {@code title} in {@code direction} observed
+     * in the recorded expansions of the opposite direction.
+     *
+     * @param direction the search direction.
+     * @param title     the title of the node.
+     *
+     * @return the observed successors.
+     */
+    List<String> getObservedSuccessors(final int direction,
+                                       final String title) {
+        return observedSuccessorMaps[direction].getOrDefault(
+                title,
+                Collections.emptyList());
+    }
+
+    /**
+     * Returns the number of recorded expansions in {@code direction}.
+     *
+     * @param direction the search direction.
+     *
+     * @return the number of expansions.
+     */
+    int getNumberOfExpansions(final int direction) {
+        return expansionMaps[direction].size();
+    }
+
+    private void computeObservedSuccessors() {
+        for (int direction = 0; direction < 2; direction++) {
+            final Map<String, List<String>> observedSuccessorMap =
+                    observedSuccessorMaps[1 - direction];
+
+            for (final Map.Entry<String, Expansion> entry
+                    : expansionMaps[direction].entrySet()) {
+                for (final String successor : entry.getValue().successors()) {
+                    observedSuccessorMap.computeIfAbsent(
+                            successor,
+                            (s) -> new ArrayList<>())
+                            .add(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * This class implements the thread-safe writer of a trace file. A failed
+     * write does not disturb the search; it is reported by {@link #close()}.
+     * The expansions completing after closing, such as the ones still running
+     * when the search finished, are ignored.
+     */
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> titleIdMap = new HashMap<>();
+        private int numberOfExpansions;
+        private IOException failure;
+        private boolean closed;
+
+        /**
+         * Creates the trace file {@code file} and writes its header.
+         *
+         * @param file         the trace file.
+         * @param languageCode the language code of the search.
+         * @param source       the source node.
+         * @param target       the target node.
+         *
+         * @throws IOException if the file cannot be created.
+         */
+        Writer(final Path file,
+               final String languageCode,
+               final String source,
+               final String target) throws IOException {
+
+            this.out = new DataOutputStream(
+                    new BufferedOutputStream(
+                            new GZIPOutputStream(
+                                    Files.newOutputStream(file))));
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(languageCode);
+            out.writeUTF(source);
+            out.writeUTF(target);
+        }
+
+        /**
+         * Appends an expansion to the trace.
+         *
+         * @param direction    the search direction.
+         * @param title        the title of the expanded node.
+         * @param successors   the generated successors.
+         * @param latencyNanos the duration of the expansion in nanoseconds.
+         */
+        synchronized void write(final int direction,
+                                final String title,
+                                final List<String> successors,
+                                final long latencyNanos) {
+            if (closed || failure != null) {
+                return;
+            }
+
+            try {
+                final int titleId = getTitleId(title);
+                final int[] successorIds = new int[successors.size()];
+
+                for (int i = 0; i < successorIds.length; i++) {
+                    successorIds[i] = getTitleId(successors.get(i));
+                }
+
+                out.writeByte(EXPANSION);
+                out.writeByte(direction);
+                out.writeInt(titleId);
+                out.writeLong(latencyNanos);
+                out.writeInt(successorIds.length);
+
+                for (final int successorId : successorIds) {
+                    out.writeInt(successorId);
+                }
+
+                numberOfExpansions++;
+            } catch (final IOException ex) {
+                failure = ex;
+            }
+        }
+
+        /**
+         * Returns the number of expansions written so far.
+         *
+         * @return the number of expansions.
+         */
+        synchronized int getNumberOfExpansions() {
+            return numberOfExpansions;
+        }
+
+        /**
+         * Closes the trace file.
+         *
+         * @throws IOException if a write or the closing failed.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            out.close();
+
+            if (failure != null) {
+                throw failure;
+            }
+        }
+
+        private int getTitleId(final String title) throws IOException {
+            final Integer titleId = titleIdMap.get(title);
+
+            if (titleId != null) {
+                return titleId;
+            }
+
+            out.writeByte(TITLE);
+            out.writeUTF(title);
+            titleIdMap.put(title, titleIdMap.size());
+            return titleIdMap.size() - 1;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class implements a heuristic best-first search that moves towards the
+ * articles that seem related to the target, the way human players do. It
+ * returns a path after a small fraction of the expansions of a breadth-first
+ * search, but the path is <b>not necessarily a shortest one</b>.
+ *
+ * The search first fetches the backlinks of the target. An article is then
+ * scored by the relatedness of its title tokens: a token of the target title
+ * weighs 1, and any token weighs in addition the fraction of the backlink
+ * titles it occurs in, so that the vocabulary of the neighbourhood of the
+ * target counts too. Each round expands the best-scored articles, one per
+ * thread; as soon as an expanded article links to the target or to any of its
+ * backlinks, the path is closed.
+ *
+ * The search gives up with an empty path after
+ * {@code maximumNumberOfExpansions} expansions.
+ */
+final class FastGuessPathFinder {
+
+    /**
+     * The default maximum number of expansions of a single search.
+     */
+    static final int DEFAULT_MAXIMUM_NUMBER_OF_EXPANSIONS = 1000;
+
+    /**
+     * The minimum length of a scored title token.
+     */
+    private static final int MINIMUM_TOKEN_LENGTH = 3;
+
+    /**
+     * The number of articles expanded per round.
+     */
+    private final int numberOfThreads;
+
+    /**
+     * The maximum duration of a single expansion.
+     */
+    private final long expansionTimeoutNanos;
+
+    /**
+     * The maximum number of expansions of a single search.
+     */
+    private final int maximumNumberOfExpansions;
+
+    /**
+     * The duration of the latest search in milliseconds.
+     */
+    private long duration;
+
+    /**
+     * The number of nodes expanded in the latest search, including the
+     * target.
+     */
+    private int numberOfExpandedNodes;
+
+    FastGuessPathFinder(final int numberOfThreads,
+                        final long expansionTimeoutNanos,
+                        final int maximumNumberOfExpansions) {
+        this.numberOfThreads = numberOfThreads;
+        this.expansionTimeoutNanos = expansionTimeoutNanos;
+        this.maximumNumberOfExpansions = maximumNumberOfExpansions;
+    }
+
+    /**
+     * Searches for a path from {@code source} to {@code target}.
+     *
+     * @param source           the source node.
+     * @param target           the target node.
+     * @param forwardExpander  the forward node expander.
+     * @param backwardExpander the backward node expander.
+     *
+     * @return a path, or an empty list if none was found within the budget.
+     */
+    List<String> search(final String source,
+                        final String target,
+                        final AbstractNodeExpander<String> forwardExpander,
+                        final AbstractNodeExpander<String> backwardExpander) {
+
+        final long startTime = System.currentTimeMillis();
+        numberOfExpandedNodes = 0;
+
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(numberOfThreads);
+
+        try {
+            return search(source,
+                          target,
+                          forwardExpander,
+                          backwardExpander,
+                          executor);
+        } finally {
+            executor.shutdownNow();
+            duration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    /**
+     * Returns the duration of the latest search in milliseconds.
+     *
+     * @return the search duration.
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the number of nodes expanded in the latest search.
+     *
+     * @return the number of expanded nodes.
+     */
+    int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes;
+    }
+
+    /**
+     * Splits {@code title} into its lower-case tokens of at least
+     * {@value #MINIMUM_TOKEN_LENGTH} characters.
+     *
+     * @param title the article title.
+     *
+     * @return the set of tokens.
+     */
+    static Set<String> getTokens(final String title) {
+        final Set<String> tokens = new HashSet<>();
+
+        for (final String token : title.toLowerCase(Locale.ROOT)
+                                       .split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() >= MINIMUM_TOKEN_LENGTH) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+
+    private List<String> search(
+            final String source,
+            final String target,
+            final AbstractNodeExpander<String> forwardExpander,
+            final AbstractNodeExpander<String> backwardExpander,
+            final ExecutorService executor) {
+
+        if (source.equals(target)) {
+            return new ArrayList<>(List.of(source));
+        }
+
+        final Set<String> backlinks =
+                new HashSet<>(
+                        getSuccessors(
+                                executor.submit(
+                                        () -> backwardExpander
+                                                .generateSuccessors(target))));
+
+        numberOfExpandedNodes++;
+
+        if (backlinks.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Map<String, String> parentMap = new HashMap<>();
+        parentMap.put(source, null);
+
+        if (backlinks.contains(source)) {
+            return getPath(source, target, parentMap);
+        }
+
+        final Map<String, Double> tokenWeightMap =
+                getTokenWeightMap(target, backlinks);
+
+        final PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(source, 0.0, 0));
+
+        while (!queue.isEmpty() &&
+               numberOfExpandedNodes < maximumNumberOfExpansions) {
+
+            final List<String> batch = new ArrayList<>();
+            final List<Future<List<String>>> futures = new ArrayList<>();
+
+            while (!queue.isEmpty() &&
+                   batch.size() < numberOfThreads &&
+                   numberOfExpandedNodes + batch.size() <
+                   maximumNumberOfExpansions) {
+
+                final String node = queue.remove().node;
+
+                batch.add(node);
+                futures.add(executor.submit(
+                        () -> forwardExpander.generateSuccessors(node)));
+            }
+
+            numberOfExpandedNodes += batch.size();
+
+            for (int i = 0; i < batch.size(); i++) {
+                final String node = batch.get(i);
+                final List<String> links = getSuccessors(futures.get(i));
+
+                for (final String link : links) {
+                    if (link.equals(target) || backlinks.contains(link)) {
+                        parentMap.put(link, node);
+                        return getPath(link, target, parentMap);
+                    }
+                }
+
+                for (final String link : links) {
+                    if (!parentMap.containsKey(link)) {
+                        parentMap.put(link, node);
+                        queue.add(new Candidate(link,
+                                                getScore(link, tokenWeightMap),
+                                                parentMap.size()));
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>();
+    }
+
+    /**
+     * Returns the path from the source via {@code node} to {@code target}.
+     */
+    private static List<String> getPath(final String node,
+                                        final String target,
+                                        final Map<String, String> parentMap) {
+        final List<String> path = new ArrayList<>();
+
+        for (String current = node;
+                current != null;
+                current = parentMap.get(current)) {
+            path.add(current);
+        }
+
+        Collections.reverse(path);
+
+        if (!node.equals(target)) {
+            path.add(target);
+        }
+
+        return path;
+    }
+
+    /**
+     * Maps each token of the target title and of its backlink titles to its
+     * weight.
+     */
+    private static Map<String, Double> getTokenWeightMap(
+            final String target,
+            final Set<String> backlinks) {
+
+        final Map<String, Double> tokenWeightMap = new HashMap<>();
+        final double backlinkWeight = 1.0 / backlinks.size();
+
+        for (final String token : getTokens(target)) {
+            tokenWeightMap.put(token, 1.0);
+        }
+
+        for (final String backlink : backlinks) {
+            for (final String token : getTokens(backlink)) {
+                tokenWeightMap.merge(token, backlinkWeight, Double::sum);
+            }
+        }
+
+        return tokenWeightMap;
+    }
+
+    /**
+     * Returns the mean weight of the tokens of {@code title}.
+     */
+    private static double getScore(final String title,
+                                   final Map<String, Double> tokenWeightMap) {
+        final Set<String> tokens = getTokens(title);
+
+        if (tokens.isEmpty()) {
+            return 0.0;
+        }
+
+        double score = 0.0;
+
+        for (final String token : tokens) {
+            score += tokenWeightMap.getOrDefault(token, 0.0);
+        }
+
+        return score / tokens.size();
+    }
+
+    private List<String> getSuccessors(final Future<List<String>> future) {
+        try {
+            return future.get(expansionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        } catch (final Exception ex) {
+            future.cancel(true);
+            return List.of();
+        }
+    }
+
+    /**
+     * An article waiting for its expansion. The best-scored one comes first,
+     * and the ties go to the one discovered first.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+
+        final String node;
+        final double score;
+        final int index;
+
+        Candidate(final String node, final double score, final int index) {
+            this.node = node;
+            this.score = score;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(final Candidate other) {
+            final int scoreComparison = Double.compare(other.score, score);
+
+            return scoreComparison != 0 ?
+                   scoreComparison :
+                   Integer.compare(index, other.index);
+        }
+    }
+}
@@ -0,0 +1,763 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import io.github.coderodde.graph.pathfinding.delayed.DirectionProgressListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * This class implements an event-driven bidirectional breadth-first search
+ * running on a work-stealing {@link ForkJoinPool}. Unlike
+ * {@code ThreadPoolBidirectionalBFSPathFinder}, there is no master thread and
+ * nothing sleeps: each completed expansion feeds the next frontier of its
+ * direction via a completion callback, and a level is done when its counter of
+ * outstanding expansions reaches zero.
+ *
+ * The expansions block on network requests, so each runs as a
+ * {@link ForkJoinPool.ManagedBlocker}: the pool may add a spare thread for
+ * each blocked one, up to twice its parallelism, to keep the completion
+ * callbacks running. The levels of each direction are expanded by a
+ * {@link SearchDirection}, which this class shares with
+ * {@link MultiTargetBFSPathFinder}.
+ *
+ * Both directions advance concurrently, level by level. Since every node is
+ * discovered at its exact distance, the search may stop as soon as the
+ * shortest meeting found so far is no longer than the total number of the
+ * completed levels of both directions: all the shorter paths would have been
+ * detected by then.
+ *
+ * The search is an anytime one: the first meeting of the two directions yields
+ * a valid path, which is then improved until it is proven shortest. If a
+ * deadline is given, the best path found so far is returned when it expires,
+ * together with a lower bound on the length of a shortest path (see
+ * {@link #getLowerBound()}).
+ *
+ * The optimality of the path and the lower bound hold only if every expansion
+ * delivered all the successors of its node. The expansions that time out or
+ * throw are counted as incomplete per direction, together with the ones an
+ * expander implementing {@link IncompleteExpansionCounter} reports, such as
+ * sampled hubs or truncated backlink lists; see
+ * {@link #isLowerBoundProven()}.
+ *
+ * The visited and parent state of both directions is kept in a
+ * {@link VisitedState}, on the heap by default.
+ *
+ * An expander implementing {@link PagedNodeExpander} has its successors
+ * visited page by page as they arrive, so that a meeting may end the search
+ * before a slow expansion of a popular node is complete.
+ *
+ * An expander implementing {@link DeferringNodeExpander} may have some nodes
+ * expanded only after all the other nodes of their level. A deferred node is
+ * submitted again once the rest of its level is done, so no thread waits for
+ * it. Deferring only reorders the expansions within a level, so the search
+ * stays exact.
+ *
+ * @param <N> the node type.
+ */
+final class ForkJoinBidirectionalBFSPathFinder<N> {
+
+    /**
+     * The index of the forward direction in the visited state.
+     */
+    static final int FORWARD = 0;
+
+    /**
+     * The index of the backward direction in the visited state.
+     */
+    static final int BACKWARD = 1;
+
+    /**
+     * This interface defines the API for the visited and parent state of both
+     * search directions.
+     *
+     * @param <N> the node type.
+     */
+    interface VisitedState<N> {
+
+        /**
+         * Marks {@code node} visited in {@code direction}, unless it was
+         * visited already.
+         *
+         * @param node      the node to visit.
+         * @param direction {@link #FORWARD} or {@link #BACKWARD}.
+         * @param parent    the parent of {@code node}, or {@code null} for a
+         *                  root.
+         * @param distance  the distance of {@code node} from the root.
+         *
+         * @return {@code true} if {@code node} was not visited before.
+         */
+        boolean visit(N node, int direction, N parent, int distance);
+
+        /**
+         * Returns the distance of {@code node} in {@code direction}, or -1
+         * if it is not visited.
+         *
+         * @param node      the node.
+         * @param direction {@link #FORWARD} or {@link #BACKWARD}.
+         *
+         * @return the distance, or -1.
+         */
+        int getDistance(N node, int direction);
+
+        /**
+         * Returns the parent of {@code node} in {@code direction}.
+         *
+         * @param node      the visited node.
+         * @param direction {@link #FORWARD} or {@link #BACKWARD}.
+         *
+         * @return the parent, or {@code null} for a root.
+         */
+        N getParent(N node, int direction);
+    }
+
+    /**
+     * This interface defines the API for the node expanders able to deliver
+     * the successors of a node in pages as they arrive.
+     *
+     * @param <N> the node type.
+     */
+    interface PagedNodeExpander<N> {
+
+        /**
+         * Generates the successors of {@code node}, passing each page of them
+         * to {@code pageConsumer} as soon as it is available, and returns
+         * when all the pages have been passed. The pages may be passed from
+         * several threads concurrently and may repeat successors.
+         *
+         * @param node         the node to expand.
+         * @param pageConsumer the consumer of the successor pages.
+         */
+        void generateSuccessorPages(N node, Consumer<List<N>> pageConsumer);
+    }
+
+    /**
+     * This interface defines the API for the node expanders wishing to expand
+     * some nodes after all the other nodes of their level.
+     *
+     * @param <N> the node type.
+     */
+    interface DeferringNodeExpander<N> {
+
+        /**
+         * Returns {@code true} if {@code node} should be expanded after all
+         * the other nodes of its level.
+         *
+         * @param node the node about to be expanded.
+         *
+         * @return {@code true} if the expansion of {@code node} is deferred.
+         */
+        boolean isDeferred(N node);
+    }
+
+    /**
+     * This interface defines the API for the node expanders counting their
+     * incomplete expansions, that is, the expansions that may have missed
+     * some successors of their node, such as the failed ones.
+     */
+    interface IncompleteExpansionCounter {
+
+        /**
+         * Returns the number of incomplete expansions so far.
+         *
+         * @return the number of incomplete expansions.
+         */
+        long getNumberOfIncompleteExpansions();
+    }
+
+    /**
+     * The parallelism level of the fork-join pool.
+     */
+    private final int parallelism;
+
+    /**
+     * The maximum duration of a single expansion.
+     */
+    private final long expansionTimeoutNanos;
+
+    /**
+     * Creates a fresh visited state for each search.
+     */
+    private final Supplier<VisitedState<N>> visitedStateFactory;
+
+    /**
+     * The duration of the latest search in milliseconds.
+     */
+    private volatile long duration;
+
+    /**
+     * The number of nodes expanded in the latest search.
+     */
+    private final AtomicInteger numberOfExpandedNodes = new AtomicInteger();
+
+    /**
+     * The proven lower bound on the length of a shortest path in the latest
+     * search.
+     */
+    private volatile int lowerBound;
+
+    /**
+     * The numbers of incomplete expansions of both directions in the latest
+     * search.
+     */
+    private final long[] numberOfIncompleteExpansions = new long[2];
+
+    ForkJoinBidirectionalBFSPathFinder(final int parallelism,
+                                       final long expansionTimeoutNanos) {
+        this(parallelism, expansionTimeoutNanos, HeapVisitedState::new);
+    }
+
+    ForkJoinBidirectionalBFSPathFinder(
+            final int parallelism,
+            final long expansionTimeoutNanos,
+            final Supplier<VisitedState<N>> visitedStateFactory) {
+        this.parallelism = parallelism;
+        this.expansionTimeoutNanos = expansionTimeoutNanos;
+        this.visitedStateFactory = visitedStateFactory;
+    }
+
+    /**
+     * Searches for a shortest path from {@code source} to {@code target}
+     * without a deadline.
+     *
+     * @param source           the source node.
+     * @param target           the target node.
+     * @param forwardExpander  the forward node expander.
+     * @param backwardExpander the backward node expander.
+     * @param forwardListener  the forward progress listener. May be
+     *                         {@code null}.
+     * @param backwardListener the backward progress listener. May be
+     *                         {@code null}.
+     *
+     * @return a shortest path, or an empty list if the target is unreachable.
+     */
+    List<N> search(final N source,
+                   final N target,
+                   final AbstractNodeExpander<N> forwardExpander,
+                   final AbstractNodeExpander<N> backwardExpander,
+                   final DirectionProgressListener<N> forwardListener,
+                   final DirectionProgressListener<N> backwardListener) {
+        return search(source,
+                      target,
+                      forwardExpander,
+                      backwardExpander,
+                      forwardListener,
+                      backwardListener,
+                      -1L);
+    }
+
+    /**
+     * Searches for a shortest path from {@code source} to {@code target}, but
+     * gives up proving the best path found so far shortest after
+     * {@code deadlineMillis} milliseconds.
+     *
+     * @param source           the source node.
+     * @param target           the target node.
+     * @param forwardExpander  the forward node expander.
+     * @param backwardExpander the backward node expander.
+     * @param forwardListener  the forward progress listener. May be
+     *                         {@code null}.
+     * @param backwardListener the backward progress listener. May be
+     *                         {@code null}.
+     * @param deadlineMillis   the deadline in milliseconds, or a negative
+     *                         value for none.
+     *
+     * @return the best path found, or an empty list if none was found.
+     */
+    List<N> search(final N source,
+                   final N target,
+                   final AbstractNodeExpander<N> forwardExpander,
+                   final AbstractNodeExpander<N> backwardExpander,
+                   final DirectionProgressListener<N> forwardListener,
+                   final DirectionProgressListener<N> backwardListener,
+                   final long deadlineMillis) {
+
+        final long startTime = System.currentTimeMillis();
+        numberOfExpandedNodes.set(0);
+
+        if (source.equals(target)) {
+            duration = 0L;
+            lowerBound = 0;
+            numberOfIncompleteExpansions[FORWARD] = 0L;
+            numberOfIncompleteExpansions[BACKWARD] = 0L;
+            return new ArrayList<>(List.of(source));
+        }
+
+        final ForkJoinPool pool = SearchDirection.createPool(parallelism);
+
+        try {
+            final Search search = new Search(pool,
+                                             visitedStateFactory.get(),
+                                             source,
+                                             target,
+                                             forwardExpander,
+                                             backwardExpander,
+                                             forwardListener,
+                                             backwardListener);
+            final CompletableFuture<List<N>> result = search.run();
+
+            if (deadlineMillis < 0L) {
+                return result.join();
+            }
+
+            try {
+                return result.get(deadlineMillis, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException ex) {
+                search.expire();
+                return result.join();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                search.expire();
+                return result.join();
+            } catch (final ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+        } finally {
+            pool.shutdownNow();
+            duration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    /**
+     * Returns {@code true} if {@code expander} implements
+     * {@link DeferringNodeExpander} and defers {@code node}.
+     *
+     * @param <N>      the node type.
+     * @param expander the node expander.
+     * @param node     the node about to be expanded.
+     *
+     * @return {@code true} if the expansion of {@code node} is deferred.
+     */
+    @SuppressWarnings("unchecked")
+    static <N> boolean isDeferred(final AbstractNodeExpander<N> expander,
+                                  final N node) {
+        return expander instanceof DeferringNodeExpander &&
+               ((DeferringNodeExpander<N>) expander).isDeferred(node);
+    }
+
+    /**
+     * Passes the successors of {@code node} to {@code pageConsumer} page by
+     * page if {@code expander} implements {@link PagedNodeExpander}, or as a
+     * single page otherwise.
+     *
+     * @param <N>          the node type.
+     * @param expander     the node expander.
+     * @param node         the node to expand.
+     * @param pageConsumer the consumer of the successor pages.
+     */
+    @SuppressWarnings("unchecked")
+    static <N> void generateSuccessorPages(
+            final AbstractNodeExpander<N> expander,
+            final N node,
+            final Consumer<List<N>> pageConsumer) {
+
+        if (expander instanceof PagedNodeExpander) {
+            ((PagedNodeExpander<N>) expander)
+                    .generateSuccessorPages(node, pageConsumer);
+        } else {
+            pageConsumer.accept(expander.generateSuccessors(node));
+        }
+    }
+
+    /**
+     * Returns the number of incomplete expansions of {@code expander} so far,
+     * or zero if it does not implement {@link IncompleteExpansionCounter}.
+     *
+     * @param expander the node expander.
+     *
+     * @return the number of incomplete expansions.
+     */
+    static long getNumberOfIncompleteExpansions(
+            final AbstractNodeExpander<?> expander) {
+        return expander instanceof IncompleteExpansionCounter ?
+               ((IncompleteExpansionCounter) expander)
+                       .getNumberOfIncompleteExpansions() :
+               0L;
+    }
+
+    /**
+     * Returns the duration of the latest search in milliseconds.
+     *
+     * @return the search duration.
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the number of nodes expanded in the latest search.
+     *
+     * @return the number of expanded nodes.
+     */
+    int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes.get();
+    }
+
+    /**
+     * Returns the lower bound on the number of arcs in a shortest path of the
+     * latest search. It equals the length of the returned path if the path is
+     * shortest, and is {@link Integer#MAX_VALUE} if the target is
+     * unreachable. After an expired deadline, the bound is one more than the
+     * total number of the completed levels of both directions: a path not
+     * longer than that would have been detected.
+     *
+     * The bound is proven only if {@link #isLowerBoundProven()} returns
+     * {@code true}; otherwise, an incomplete expansion may have hidden a
+     * shorter path.
+     *
+     * @return the lower bound.
+     */
+    int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns {@code true} if no expansion of the latest search was
+     * incomplete, so that its lower bound, and the optimality of its path,
+     * are proven.
+     *
+     * @return {@code true} if the lower bound is proven.
+     */
+    boolean isLowerBoundProven() {
+        return numberOfIncompleteExpansions[FORWARD] == 0L &&
+               numberOfIncompleteExpansions[BACKWARD] == 0L;
+    }
+
+    /**
+     * Returns the number of incomplete expansions of {@code direction} in the
+     * latest search, up to its end.
+     *
+     * @param direction {@code FORWARD} or {@code BACKWARD}.
+     *
+     * @return the number of incomplete expansions.
+     */
+    long getNumberOfIncompleteExpansions(final int direction) {
+        return numberOfIncompleteExpansions[direction];
+    }
+
+    /**
+     * This class implements the default on-heap visited state.
+     */
+    static final class HeapVisitedState<N>
+            implements VisitedState<N> {
+
+        /**
+         * Records how a node was discovered in one direction.
+         */
+        private static final class Visit<N> {
+            final N parent;
+            final int distance;
+
+            Visit(final N parent, final int distance) {
+                this.parent = parent;
+                this.distance = distance;
+            }
+        }
+
+        private final List<Map<N, Visit<N>>> visits =
+                List.of(new ConcurrentHashMap<>(),
+                        new ConcurrentHashMap<>());
+
+        @Override
+        public boolean visit(final N node,
+                             final int direction,
+                             final N parent,
+                             final int distance) {
+            return visits.get(direction)
+                         .putIfAbsent(node,
+                                      new Visit<>(parent, distance)) == null;
+        }
+
+        @Override
+        public int getDistance(final N node, final int direction) {
+            final Visit<N> visit = visits.get(direction).get(node);
+            return visit == null ? -1 : visit.distance;
+        }
+
+        @Override
+        public N getParent(final N node, final int direction) {
+            return visits.get(direction).get(node).parent;
+        }
+    }
+
+    /**
+     * Holds the state of a single search direction.
+     */
+    private final class Direction extends SearchDirection<N> {
+        final Search search;
+        final DirectionProgressListener<N> listener;
+        Direction opposite;
+
+        /**
+         * The nodes of the next level to expand. Guarded by the search.
+         */
+        List<N> frontier = new ArrayList<>();
+
+        /**
+         * The number of fully expanded levels. Guarded by the search.
+         */
+        int numberOfCompletedLevels;
+
+        Direction(final Search search,
+                  final int index,
+                  final N root,
+                  final AbstractNodeExpander<N> expander,
+                  final DirectionProgressListener<N> listener) {
+            super(index, expander, search.pool, expansionTimeoutNanos);
+            this.search = search;
+            this.listener = listener;
+            this.frontier.add(root);
+            search.visitedState.visit(root, index, null, 0);
+        }
+
+        @Override
+        boolean isStopped() {
+            return search.result.isDone();
+        }
+
+        @Override
+        void onExpansion(final N node, final long durationMillis) {
+            numberOfExpandedNodes.incrementAndGet();
+
+            if (listener != null) {
+                listener.onExpansion(node, durationMillis);
+            }
+        }
+
+        @Override
+        void visitSuccessors(final N node,
+                             final int level,
+                             final List<N> successors,
+                             final Queue<N> nextFrontier) {
+            search.visitSuccessors(this,
+                                   node,
+                                   level,
+                                   successors,
+                                   nextFrontier);
+        }
+
+        @Override
+        void onLevelExpanded(final Queue<N> nextFrontier) {
+            search.onLevelExpanded(this, nextFrontier);
+        }
+    }
+
+    /**
+     * Holds the state of a single search.
+     */
+    private final class Search {
+        final ForkJoinPool pool;
+        final VisitedState<N> visitedState;
+        final Direction forward;
+        final Direction backward;
+        final CompletableFuture<List<N>> result = new CompletableFuture<>();
+
+        /**
+         * The best meeting node found so far. Guarded by {@code this}.
+         */
+        N meetingNode;
+
+        /**
+         * The length of the path via {@code meetingNode}. Guarded by
+         * {@code this}.
+         */
+        int bestPathLength = Integer.MAX_VALUE;
+
+        Search(final ForkJoinPool pool,
+               final VisitedState<N> visitedState,
+               final N source,
+               final N target,
+               final AbstractNodeExpander<N> forwardExpander,
+               final AbstractNodeExpander<N> backwardExpander,
+               final DirectionProgressListener<N> forwardListener,
+               final DirectionProgressListener<N> backwardListener) {
+            this.pool = pool;
+            this.visitedState = visitedState;
+            this.forward = new Direction(this,
+                                         FORWARD,
+                                         source,
+                                         forwardExpander,
+                                         forwardListener);
+            this.backward = new Direction(this,
+                                          BACKWARD,
+                                          target,
+                                          backwardExpander,
+                                          backwardListener);
+            forward.opposite = backward;
+            backward.opposite = forward;
+        }
+
+        CompletableFuture<List<N>> run() {
+            expandLevel(forward);
+            expandLevel(backward);
+            return result;
+        }
+
+        /**
+         * Submits the expansions of the current frontier of
+         * {@code direction}. The last completing expansion triggers the next
+         * level.
+         *
+         * @param direction the direction to advance.
+         */
+        void expandLevel(final Direction direction) {
+            final List<N> frontier;
+            final int level;
+
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+
+                frontier = direction.frontier;
+                level = direction.numberOfCompletedLevels;
+            }
+
+            direction.expandLevel(level, frontier);
+        }
+
+        /**
+         * Visits the successors of {@code node} and checks each newly visited
+         * one for a meeting.
+         */
+        void visitSuccessors(final Direction direction,
+                             final N node,
+                             final int level,
+                             final List<N> successors,
+                             final Queue<N> nextFrontier) {
+
+            for (final N successor : successors) {
+                if (!visitedState.visit(successor,
+                                        direction.index,
+                                        node,
+                                        level + 1)) {
+                    continue;
+                }
+
+                nextFrontier.add(successor);
+
+                final int oppositeDistance =
+                        visitedState.getDistance(successor,
+                                                 direction.opposite.index);
+
+                if (oppositeDistance >= 0) {
+                    onMeeting(successor, level + 1 + oppositeDistance);
+                }
+            }
+        }
+
+        synchronized void onMeeting(final N node, final int pathLength) {
+            if (pathLength < bestPathLength) {
+                bestPathLength = pathLength;
+                meetingNode = node;
+            }
+
+            checkTermination();
+        }
+
+        void onLevelExpanded(final Direction direction,
+                             final Queue<N> nextFrontier) {
+            synchronized (this) {
+                direction.numberOfCompletedLevels++;
+                direction.frontier = new ArrayList<>(nextFrontier);
+
+                if (direction.frontier.isEmpty()) {
+                    // The whole reachable component has been discovered,
+                    // so the best meeting (if any) is optimal.
+                    finish(bestPathLength);
+                    return;
+                }
+
+                if (checkTermination()) {
+                    return;
+                }
+            }
+
+            expandLevel(direction);
+        }
+
+        /**
+         * Finishes the search if no path shorter than the best one found so
+         * far can exist anymore.
+         *
+         * @return {@code true} if the search is over.
+         */
+        synchronized boolean checkTermination() {
+            if (result.isDone()) {
+                return true;
+            }
+
+            if (meetingNode != null &&
+                bestPathLength <= forward.numberOfCompletedLevels +
+                                  backward.numberOfCompletedLevels) {
+                finish(bestPathLength);
+                return true;
+            }
+
+            return false;
+        }
+
+        /**
+         * Finishes the search with the best path found so far when the
+         * deadline expires.
+         */
+        synchronized void expire() {
+            finish(Math.min(bestPathLength,
+                            forward.numberOfCompletedLevels +
+                            backward.numberOfCompletedLevels + 1));
+        }
+
+        /**
+         * Completes the search with the best path found so far.
+         *
+         * @param provenLowerBound the lower bound on the length of a
+         *                         shortest path, proven if no expansion was
+         *                         incomplete.
+         */
+        synchronized void finish(final int provenLowerBound) {
+            if (result.isDone()) {
+                return;
+            }
+
+            lowerBound = provenLowerBound;
+            numberOfIncompleteExpansions[FORWARD] =
+                    forward.countIncompleteExpansions();
+            numberOfIncompleteExpansions[BACKWARD] =
+                    backward.countIncompleteExpansions();
+
+            if (meetingNode == null) {
+                result.complete(new ArrayList<>());
+                return;
+            }
+
+            final List<N> path = new ArrayList<>();
+
+            for (N node = meetingNode;
+                    node != null;
+                    node = visitedState.getParent(node, FORWARD)) {
+                path.add(node);
+            }
+
+            Collections.reverse(path);
+
+            for (N node = visitedState.getParent(meetingNode, BACKWARD);
+                    node != null;
+                    node = visitedState.getParent(node, BACKWARD)) {
+                path.add(node);
+            }
+
+            result.complete(path);
+        }
+    }
+}
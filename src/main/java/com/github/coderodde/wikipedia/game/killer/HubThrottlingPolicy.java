@@ -0,0 +1,269 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements a degree-aware policy for backward expansions. The
+ * backlink lists of super-hub articles span many API pages, and a single such
+ * expansion may take longer than all the other expansions combined. Each
+ * article about to be expanded gets a cheap degree estimate; if the estimate
+ * reaches the hub threshold, the policy either
+ * <ul>
+ *   <li>asks the search to defer the expansion to the end of its level, but
+ *       expands it in full ({@link Mode#EXACT}, see {@link #isDeferred}),
+ *       or</li>
+ *   <li>expands only a sample of at most the fan-out cap backlinks
+ *       ({@link Mode#APPROXIMATE}).</li>
+ * </ul>
+ */
+final class HubThrottlingPolicy {
+
+    /**
+     * The default minimum estimated degree of a hub.
+     */
+    static final long DEFAULT_HUB_DEGREE_THRESHOLD = 5_000L;
+
+    /**
+     * The default maximum number of sampled backlinks of a hub.
+     */
+    static final int DEFAULT_FAN_OUT_CAP = 500;
+
+    /**
+     * The throttling modes.
+     */
+    enum Mode {
+
+        /**
+         * Expand all the nodes as they come.
+         */
+        OFF,
+
+        /**
+         * Defer the hubs to the end of their level, but expand them in full.
+         */
+        EXACT,
+
+        /**
+         * Expand only a sample of the backlinks of the hubs.
+         */
+        APPROXIMATE;
+    }
+
+    /**
+     * This interface defines the API for estimating backlink degrees.
+     */
+    @FunctionalInterface
+    interface DegreeEstimator {
+
+        /**
+         * Returns the estimated number of backlinks of {@code title}.
+         *
+         * @param title the node title.
+         *
+         * @return the estimated degree.
+         *
+         * @throws Exception if the estimate cannot be obtained.
+         */
+        long estimateDegree(String title) throws Exception;
+    }
+
+    private final Mode mode;
+    private final long hubDegreeThreshold;
+    private final int fanOutCap;
+    private final DegreeEstimator degreeEstimator;
+
+    /**
+     * Caches the degree estimates. Unknown degrees are cached as -1.
+     */
+    private final Map<String, Long> degreeCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong numberOfPostponedExpansions = new AtomicLong();
+    private final AtomicLong numberOfSampledExpansions = new AtomicLong();
+    private final AtomicLong numberOfSkippedBacklinks = new AtomicLong();
+
+    HubThrottlingPolicy(final Mode mode,
+                        final long hubDegreeThreshold,
+                        final int fanOutCap,
+                        final DegreeEstimator degreeEstimator) {
+        this.mode = mode;
+        this.hubDegreeThreshold = hubDegreeThreshold;
+        this.fanOutCap = fanOutCap;
+        this.degreeEstimator = degreeEstimator;
+    }
+
+    /**
+     * Returns a policy that expands everything as it comes.
+     *
+     * @return a non-throttling policy.
+     */
+    static HubThrottlingPolicy off() {
+        return new HubThrottlingPolicy(Mode.OFF,
+                                       Long.MAX_VALUE,
+                                       Integer.MAX_VALUE,
+                                       (title) -> -1L);
+    }
+
+    /**
+     * Returns a degree estimator counting the main namespace backlinks via
+     * the {@code linksto:} search keyword, which costs a single small request
+     * regardless of the degree.
+     *
+     * @param apiClient the API client.
+     *
+     * @return the degree estimator.
+     */
+    static DegreeEstimator searchDegreeEstimator(
+            final WikipediaApiClient apiClient) {
+
+        return (title) -> {
+            final String json =
+                    apiClient.query(
+                            "list",     "search",
+                            "srsearch", "linksto:\"" +
+                                        WikipediaTitles.toApiTitle(title) +
+                                        "\"",
+                            "srinfo",   "totalhits",
+                            "srprop",   "",
+                            "srlimit",  "1");
+
+            return WikipediaApiClient.getLongValue(json, "totalhits");
+        };
+    }
+
+    /**
+     * Returns the throttling mode.
+     *
+     * @return the mode.
+     */
+    Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the maximum number of sampled backlinks of a hub.
+     *
+     * @return the fan-out cap.
+     */
+    int getFanOutCap() {
+        return fanOutCap;
+    }
+
+    /**
+     * Returns {@code true} if the expansion of {@code title} should be
+     * deferred to the end of its level. Only the hubs in {@link Mode#EXACT}
+     * are deferred.
+     *
+     * @param title the node title about to be expanded.
+     *
+     * @return {@code true} if {@code title} is a hub to defer.
+     */
+    boolean isDeferred(final String title) {
+        if (mode != Mode.EXACT || getDegree(title) < hubDegreeThreshold) {
+            return false;
+        }
+
+        numberOfPostponedExpansions.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Expands {@code title} according to this policy. In {@link Mode#EXACT},
+     * the expansion is always in full; the hubs are reordered by the search
+     * via {@link #isDeferred(java.lang.String)}.
+     *
+     * @param title            the node title to expand.
+     * @param fullExpansion    the routine returning all the backlinks.
+     * @param sampledExpansion the routine returning at most the fan-out cap
+     *                         backlinks.
+     *
+     * @return the list of backlinks.
+     *
+     * @throws Exception if the expansion fails.
+     */
+    List<String> expand(final String title,
+                        final Callable<List<String>> fullExpansion,
+                        final Callable<List<String>> sampledExpansion)
+            throws Exception {
+
+        if (mode != Mode.APPROXIMATE) {
+            return fullExpansion.call();
+        }
+
+        final long degree = getDegree(title);
+
+        if (degree < hubDegreeThreshold) {
+            return fullExpansion.call();
+        }
+
+        numberOfSampledExpansions.incrementAndGet();
+        numberOfSkippedBacklinks.addAndGet(Math.max(0L, degree - fanOutCap));
+        return sampledExpansion.call();
+    }
+
+    /**
+     * Returns the number of hub expansions deferred so far.
+     *
+     * @return the number of postponed expansions.
+     */
+    long getNumberOfPostponedExpansions() {
+        return numberOfPostponedExpansions.get();
+    }
+
+    /**
+     * Returns the number of hub expansions replaced by samples so far.
+     *
+     * @return the number of sampled expansions.
+     */
+    long getNumberOfSampledExpansions() {
+        return numberOfSampledExpansions.get();
+    }
+
+    /**
+     * Returns the estimated number of hub backlinks left out of the samples.
+     *
+     * @return the number of skipped backlinks.
+     */
+    long getNumberOfSkippedBacklinks() {
+        return numberOfSkippedBacklinks.get();
+    }
+
+    /**
+     * Returns the cached degree estimate of {@code title}, estimating it if
+     * necessary.
+     *
+     * @param title the node title.
+     *
+     * @return the degree estimate, or -1 if unknown.
+     */
+    private long getDegree(final String title) {
+        final SearchEvents.CacheLookupEvent event =
+                new SearchEvents.CacheLookupEvent();
+        event.begin();
+
+        final Long cachedDegree = degreeCache.get(title);
+        event.finish("hub degrees",
+                     cachedDegree != null ? 1 : 0,
+                     cachedDegree != null ? 0 : 1);
+
+        if (cachedDegree != null) {
+            return cachedDegree;
+        }
+
+        // Estimate outside the map so that the request does not hold a bin
+        // lock. Two threads may estimate the same title; the first one wins.
+        long degree;
+
+        try {
+            degree = degreeEstimator.estimateDegree(title);
+        } catch (final Exception ex) {
+            degree = -1L;
+        }
+
+        final Long previousDegree = degreeCache.putIfAbsent(title, degree);
+        return previousDegree != null ? previousDegree : degree;
+    }
+}
@@ -0,0 +1,261 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a minimal JSON parser for the small MediaWiki API
+ * responses, such as namespaces, page properties and redirects. The objects
+ * become {@link LinkedHashMap}s keeping the order of their keys, the arrays
+ * become {@link ArrayList}s, the integers become {@link Long}s, the other
+ * numbers {@link Double}s, and the literals {@link Boolean}s and
+ * {@code null}.
+ *
+ * The large link lists are not parsed here, but decoded in place by the
+ * {@link DirectSuccessorFetcher}.
+ */
+final class JsonParser {
+
+    /**
+     * The JSON text being parsed.
+     */
+    private final String json;
+
+    /**
+     * The index of the next character to parse.
+     */
+    private int index;
+
+    private JsonParser(final String json) {
+        this.json = json;
+    }
+
+    /**
+     * Parses {@code json}.
+     *
+     * @param json the JSON text.
+     *
+     * @return the parsed value.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static Object parse(final String json) {
+        final JsonParser parser = new JsonParser(json);
+        final Object value = parser.parseValue();
+
+        parser.skipWhitespace();
+
+        if (parser.index != json.length()) {
+            throw parser.error("Trailing characters");
+        }
+
+        return value;
+    }
+
+    private Object parseValue() {
+        skipWhitespace();
+
+        if (index == json.length()) {
+            throw error("Unexpected end of input");
+        }
+
+        final char c = json.charAt(index);
+
+        switch (c) {
+            case '{':
+                return parseObject();
+
+            case '[':
+                return parseArray();
+
+            case '"':
+                index++;
+                return parseString();
+
+            case 't':
+                return parseLiteral("true", Boolean.TRUE);
+
+            case 'f':
+                return parseLiteral("false", Boolean.FALSE);
+
+            case 'n':
+                return parseLiteral("null", null);
+
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return parseNumber();
+                }
+
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> parseObject() {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        index++; // Skip '{'.
+        skipWhitespace();
+
+        if (consume('}')) {
+            return map;
+        }
+
+        do {
+            skipWhitespace();
+            expect('"');
+
+            final String key = parseString();
+
+            skipWhitespace();
+            expect(':');
+            map.put(key, parseValue());
+            skipWhitespace();
+        } while (consume(','));
+
+        expect('}');
+        return map;
+    }
+
+    private List<Object> parseArray() {
+        final List<Object> list = new ArrayList<>();
+        index++; // Skip '['.
+        skipWhitespace();
+
+        if (consume(']')) {
+            return list;
+        }
+
+        do {
+            list.add(parseValue());
+            skipWhitespace();
+        } while (consume(','));
+
+        expect(']');
+        return list;
+    }
+
+    /**
+     * Parses a string starting right after its opening quote.
+     */
+    private String parseString() {
+        final StringBuilder stringBuilder = new StringBuilder();
+
+        while (index < json.length()) {
+            final char c = json.charAt(index++);
+
+            if (c == '"') {
+                return stringBuilder.toString();
+            }
+
+            if (c != '\\') {
+                stringBuilder.append(c);
+                continue;
+            }
+
+            if (index == json.length()) {
+                break;
+            }
+
+            final char escaped = json.charAt(index++);
+
+            switch (escaped) {
+                case 'b' -> stringBuilder.append('\b');
+                case 'f' -> stringBuilder.append('\f');
+                case 'n' -> stringBuilder.append('\n');
+                case 'r' -> stringBuilder.append('\r');
+                case 't' -> stringBuilder.append('\t');
+                case 'u' -> {
+                    if (index + 4 > json.length()) {
+                        throw error("Truncated escape");
+                    }
+
+                    try {
+                        stringBuilder.append(
+                                (char) Integer.parseInt(
+                                        json.substring(index, index + 4),
+                                        16));
+                    } catch (final NumberFormatException ex) {
+                        throw error("Bad escape");
+                    }
+
+                    index += 4;
+                }
+                default -> stringBuilder.append(escaped);
+            }
+        }
+
+        throw error("Unterminated string");
+    }
+
+    private Object parseNumber() {
+        final int startIndex = index;
+        boolean integral = true;
+
+        if (json.charAt(index) == '-') {
+            index++;
+        }
+
+        while (index < json.length()) {
+            final char c = json.charAt(index);
+
+            if (c >= '0' && c <= '9') {
+                index++;
+            } else if (c == '.' || c == 'e' || c == 'E' ||
+                       c == '+' || c == '-') {
+                integral = false;
+                index++;
+            } else {
+                break;
+            }
+        }
+
+        final String number = json.substring(startIndex, index);
+
+        try {
+            return integral ?
+                   (Object) Long.parseLong(number) :
+                   (Object) Double.parseDouble(number);
+        } catch (final NumberFormatException ex) {
+            throw error("Bad number \"" + number + "\"");
+        }
+    }
+
+    private Object parseLiteral(final String literal, final Object value) {
+        if (!json.startsWith(literal, index)) {
+            throw error("Unknown literal");
+        }
+
+        index += literal.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (index < json.length() &&
+               Character.isWhitespace(json.charAt(index))) {
+            index++;
+        }
+    }
+
+    private boolean consume(final char c) {
+        if (index < json.length() && json.charAt(index) == c) {
+            index++;
+            return true;
+        }
+
+        return false;
+    }
+
+    private void expect(final char c) {
+        if (!consume(c)) {
+            throw error("Expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(
+                String.format("%s at index %d of the JSON text.",
+                              message,
+                              index));
+    }
+}
@@ -0,0 +1,518 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * This class implements a one-to-many shortest path search. A single forward
+ * breadth-first search tree grows from the source and is shared by all the
+ * targets, while each target grows its own backward search tree. All the
+ * directions advance concurrently, level by level, on a work-stealing
+ * {@link ForkJoinPool}, each expanded by a {@link SearchDirection} just like
+ * in {@link ForkJoinBidirectionalBFSPathFinder}, so paged and deferring
+ * expanders are supported the same way.
+ *
+ * A target is done as soon as its shortest meeting with the forward tree is
+ * no longer than the total number of the completed levels of the forward
+ * direction and its backward direction. Its path is then reported right away,
+ * and its backward search stops. The forward search stops when all the
+ * targets are done. Since the forward levels are expanded only once, the
+ * total number of expansions stays far below running a separate search per
+ * target.
+ *
+ * Each direction keeps its visited and parent state in a
+ * {@link ForkJoinBidirectionalBFSPathFinder.VisitedState} of its own, on the
+ * heap by default: the forward direction under
+ * {@link ForkJoinBidirectionalBFSPathFinder#FORWARD}, and each backward one
+ * under {@link ForkJoinBidirectionalBFSPathFinder#BACKWARD}.
+ *
+ * @param <N> the node type.
+ */
+final class MultiTargetBFSPathFinder<N> {
+
+    /**
+     * This interface defines the API for receiving the paths as soon as they
+     * are found.
+     *
+     * @param <N> the node type.
+     */
+    @FunctionalInterface
+    interface PathListener<N> {
+
+        /**
+         * Called once per target when its search is done. The calls are
+         * serialized.
+         *
+         * @param target the target node.
+         * @param path   a shortest path to {@code target}, or an empty list
+         *               if {@code target} is unreachable.
+         */
+        void onPath(N target, List<N> path);
+    }
+
+    /**
+     * The parallelism level of the fork-join pool.
+     */
+    private final int parallelism;
+
+    /**
+     * The maximum duration of a single expansion.
+     */
+    private final long expansionTimeoutNanos;
+
+    /**
+     * Creates a fresh visited state for each direction of each search.
+     */
+    private final Supplier<ForkJoinBidirectionalBFSPathFinder.VisitedState<N>>
+            visitedStateFactory;
+
+    /**
+     * The duration of the latest search in milliseconds.
+     */
+    private volatile long duration;
+
+    /**
+     * The number of nodes expanded in the latest search.
+     */
+    private final AtomicInteger numberOfExpandedNodes = new AtomicInteger();
+
+    MultiTargetBFSPathFinder(final int parallelism,
+                             final long expansionTimeoutNanos) {
+        this(parallelism,
+             expansionTimeoutNanos,
+             ForkJoinBidirectionalBFSPathFinder.HeapVisitedState::new);
+    }
+
+    MultiTargetBFSPathFinder(
+            final int parallelism,
+            final long expansionTimeoutNanos,
+            final Supplier<ForkJoinBidirectionalBFSPathFinder.VisitedState<N>>
+                    visitedStateFactory) {
+        this.parallelism = parallelism;
+        this.expansionTimeoutNanos = expansionTimeoutNanos;
+        this.visitedStateFactory = visitedStateFactory;
+    }
+
+    /**
+     * Searches for a shortest path from {@code source} to each of
+     * {@code targets}.
+     *
+     * @param source           the source node.
+     * @param targets          the target nodes. Duplicates are ignored.
+     * @param forwardExpander  the forward node expander.
+     * @param backwardExpander the backward node expander.
+     * @param pathListener     the listener receiving each path as soon as it
+     *                         is found. May be {@code null}.
+     *
+     * @return the map mapping each target to its shortest path, or to an
+     *         empty list if unreachable, in the order of {@code targets}.
+     */
+    Map<N, List<N>> search(final N source,
+                           final List<N> targets,
+                           final AbstractNodeExpander<N> forwardExpander,
+                           final AbstractNodeExpander<N> backwardExpander,
+                           final PathListener<N> pathListener) {
+
+        final long startTime = System.currentTimeMillis();
+        numberOfExpandedNodes.set(0);
+
+        final ForkJoinPool pool = SearchDirection.createPool(parallelism);
+
+        try {
+            final Search search = new Search(pool,
+                                             source,
+                                             new LinkedHashSet<>(targets),
+                                             forwardExpander,
+                                             backwardExpander,
+                                             pathListener);
+            search.run().join();
+
+            final Map<N, List<N>> paths = new LinkedHashMap<>();
+
+            for (final N target : targets) {
+                paths.put(target, search.paths.get(target));
+            }
+
+            return paths;
+        } finally {
+            pool.shutdownNow();
+            duration = System.currentTimeMillis() - startTime;
+        }
+    }
+
+    /**
+     * Returns the duration of the latest search in milliseconds.
+     *
+     * @return the search duration.
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the number of nodes expanded in the latest search, in all the
+     * directions.
+     *
+     * @return the number of expanded nodes.
+     */
+    int getNumberOfExpandedNodes() {
+        return numberOfExpandedNodes.get();
+    }
+
+    /**
+     * Holds the state of a single search direction.
+     */
+    private final class Direction extends SearchDirection<N> {
+        final Search search;
+        final ForkJoinBidirectionalBFSPathFinder.VisitedState<N> visitedState =
+                visitedStateFactory.get();
+
+        /**
+         * The target of a backward direction, or {@code null} for the forward
+         * direction.
+         */
+        final Target target;
+
+        /**
+         * The nodes of the next level to expand. Guarded by the search.
+         */
+        List<N> frontier = new ArrayList<>();
+
+        /**
+         * The number of fully expanded levels. Guarded by the search.
+         */
+        int numberOfCompletedLevels;
+
+        Direction(final Search search,
+                  final N root,
+                  final AbstractNodeExpander<N> expander,
+                  final Target target) {
+            super(target == null ?
+                  ForkJoinBidirectionalBFSPathFinder.FORWARD :
+                  ForkJoinBidirectionalBFSPathFinder.BACKWARD,
+                  expander,
+                  search.pool,
+                  expansionTimeoutNanos);
+            this.search = search;
+            this.target = target;
+            this.frontier.add(root);
+            this.visitedState.visit(root, index, null, 0);
+        }
+
+        int getDistance(final N node) {
+            return visitedState.getDistance(node, index);
+        }
+
+        N getParent(final N node) {
+            return visitedState.getParent(node, index);
+        }
+
+        @Override
+        boolean isStopped() {
+            return search.isStopped(this);
+        }
+
+        @Override
+        void onExpansion(final N node, final long durationMillis) {
+            numberOfExpandedNodes.incrementAndGet();
+        }
+
+        @Override
+        void visitSuccessors(final N node,
+                             final int level,
+                             final List<N> successors,
+                             final Queue<N> nextFrontier) {
+            search.visitSuccessors(this,
+                                   node,
+                                   level,
+                                   successors,
+                                   nextFrontier);
+        }
+
+        @Override
+        void onLevelExpanded(final Queue<N> nextFrontier) {
+            search.onLevelExpanded(this, nextFrontier);
+        }
+    }
+
+    /**
+     * Holds the state of a single target.
+     */
+    private final class Target {
+        final N node;
+        final Direction backward;
+
+        /**
+         * The best meeting node found so far. Guarded by the search.
+         */
+        N meetingNode;
+
+        /**
+         * The length of the path via {@code meetingNode}. Guarded by the
+         * search.
+         */
+        int bestPathLength = Integer.MAX_VALUE;
+
+        /**
+         * Tells whether the path of this target is reported. Written under
+         * the search lock.
+         */
+        volatile boolean done;
+
+        Target(final Search search,
+               final N node,
+               final AbstractNodeExpander<N> backwardExpander) {
+            this.node = node;
+            this.backward = new Direction(search, node, backwardExpander, this);
+        }
+    }
+
+    /**
+     * Holds the state of a single search.
+     */
+    private final class Search {
+        final ForkJoinPool pool;
+        final Direction forward;
+        final PathListener<N> pathListener;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        /**
+         * The targets not done yet.
+         */
+        final List<Target> openTargets = new CopyOnWriteArrayList<>();
+
+        /**
+         * Maps each done target to its path.
+         */
+        final Map<N, List<N>> paths = new ConcurrentHashMap<>();
+
+        Search(final ForkJoinPool pool,
+               final N source,
+               final Iterable<N> targets,
+               final AbstractNodeExpander<N> forwardExpander,
+               final AbstractNodeExpander<N> backwardExpander,
+               final PathListener<N> pathListener) {
+            this.pool = pool;
+            this.forward = new Direction(this, source, forwardExpander, null);
+            this.pathListener = pathListener;
+
+            for (final N target : targets) {
+                openTargets.add(new Target(this, target, backwardExpander));
+            }
+        }
+
+        CompletableFuture<Void> run() {
+            final List<Target> targets = new ArrayList<>(openTargets);
+
+            synchronized (this) {
+                for (final Target target : targets) {
+                    // Catches the source being one of the targets:
+                    if (target.backward.getDistance(forward.frontier.get(0))
+                            == 0) {
+                        onMeeting(target, target.node, 0);
+                    }
+                }
+
+                if (openTargets.isEmpty()) {
+                    result.complete(null);
+                    return result;
+                }
+            }
+
+            expandLevel(forward);
+
+            for (final Target target : targets) {
+                expandLevel(target.backward);
+            }
+
+            return result;
+        }
+
+        /**
+         * Submits the expansions of the current frontier of
+         * {@code direction}. The last completing expansion triggers the next
+         * level.
+         *
+         * @param direction the direction to advance.
+         */
+        void expandLevel(final Direction direction) {
+            final List<N> frontier;
+            final int level;
+
+            synchronized (this) {
+                if (isStopped(direction)) {
+                    return;
+                }
+
+                frontier = direction.frontier;
+                level = direction.numberOfCompletedLevels;
+            }
+
+            direction.expandLevel(level, frontier);
+        }
+
+        /**
+         * Tells whether {@code direction} has nothing left to search for.
+         */
+        boolean isStopped(final Direction direction) {
+            return result.isDone() ||
+                   (direction.target != null && direction.target.done);
+        }
+
+        /**
+         * Visits the successors of {@code node} and checks each newly visited
+         * one for a meeting.
+         */
+        void visitSuccessors(final Direction direction,
+                             final N node,
+                             final int level,
+                             final List<N> successors,
+                             final Queue<N> nextFrontier) {
+
+            for (final N successor : successors) {
+                if (!direction.visitedState.visit(successor,
+                                                  direction.index,
+                                                  node,
+                                                  level + 1)) {
+                    continue;
+                }
+
+                nextFrontier.add(successor);
+
+                if (direction.target != null) {
+                    final int forwardDistance = forward.getDistance(successor);
+
+                    if (forwardDistance >= 0) {
+                        onMeeting(direction.target,
+                                  successor,
+                                  level + 1 + forwardDistance);
+                    }
+
+                    continue;
+                }
+
+                for (final Target target : openTargets) {
+                    final int backwardDistance =
+                            target.backward.getDistance(successor);
+
+                    if (backwardDistance >= 0) {
+                        onMeeting(target,
+                                  successor,
+                                  level + 1 + backwardDistance);
+                    }
+                }
+            }
+        }
+
+        synchronized void onMeeting(final Target target,
+                                    final N node,
+                                    final int pathLength) {
+            if (pathLength < target.bestPathLength) {
+                target.bestPathLength = pathLength;
+                target.meetingNode = node;
+            }
+
+            checkTermination(target);
+        }
+
+        void onLevelExpanded(final Direction direction,
+                             final Queue<N> nextFrontier) {
+            synchronized (this) {
+                direction.numberOfCompletedLevels++;
+                direction.frontier = new ArrayList<>(nextFrontier);
+
+                if (direction.target != null) {
+                    if (direction.frontier.isEmpty()) {
+                        // All the nodes reaching the target are discovered.
+                        finish(direction.target);
+                    } else {
+                        checkTermination(direction.target);
+                    }
+                } else {
+                    for (final Target target : openTargets) {
+                        if (direction.frontier.isEmpty()) {
+                            // All the nodes reachable from the source are
+                            // discovered.
+                            finish(target);
+                        } else {
+                            checkTermination(target);
+                        }
+                    }
+                }
+
+                if (isStopped(direction)) {
+                    return;
+                }
+            }
+
+            expandLevel(direction);
+        }
+
+        /**
+         * Finishes {@code target} if no path shorter than its best one can
+         * exist anymore.
+         */
+        synchronized void checkTermination(final Target target) {
+            if (!target.done &&
+                target.meetingNode != null &&
+                target.bestPathLength <=
+                        forward.numberOfCompletedLevels +
+                        target.backward.numberOfCompletedLevels) {
+                finish(target);
+            }
+        }
+
+        /**
+         * Reports the best path of {@code target}, and completes the search
+         * if it was the last open target.
+         */
+        synchronized void finish(final Target target) {
+            if (target.done) {
+                return;
+            }
+
+            target.done = true;
+            openTargets.remove(target);
+
+            final List<N> path = new ArrayList<>();
+
+            if (target.meetingNode != null) {
+                for (N node = target.meetingNode;
+                        node != null;
+                        node = forward.getParent(node)) {
+                    path.add(node);
+                }
+
+                Collections.reverse(path);
+
+                for (N node = target.backward.getParent(target.meetingNode);
+                        node != null;
+                        node = target.backward.getParent(node)) {
+                    path.add(node);
+                }
+            }
+
+            paths.put(target.node, path);
+
+            if (pathListener != null) {
+                pathListener.onPath(target.node, path);
+            }
+
+            if (openTargets.isEmpty()) {
+                result.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,555 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class implements an off-heap arena of article titles. Each title is
+ * stored once as a length-prefixed UTF-8 record in a direct
+ * {@link ByteBuffer} slab, and is referred to by its offset. An off-heap open
+ * addressing hash index maps the titles to their offsets.
+ *
+ * Each record also carries the search state of the title for both search
+ * directions: the offset of the parent title and the distance. This way a long
+ * search keeps its visited and parent state off the heap instead of in
+ * millions of {@code String} objects and map entries.
+ *
+ * The titles are spread by their hashes over a number of stripes, each with
+ * its own slabs, index and lock, so that the expansion threads rarely contend
+ * for the same lock. The stripe of a record is encoded in its offset.
+ *
+ * Record layout:
+ * <pre>
+ * int  byte length of the title
+ * long parent offset in direction 0
+ * int  distance in direction 0
+ * long parent offset in direction 1
+ * int  distance in direction 1
+ * byte[length] UTF-8 bytes of the title
+ * </pre>
+ */
+final class OffHeapTitleArena {
+
+    /**
+     * Denotes the absence of a title.
+     */
+    static final long NO_OFFSET = -1L;
+
+    /**
+     * The distance of a title not visited in a direction.
+     */
+    static final int UNVISITED = -1;
+
+    /**
+     * The maximum number of bytes in a slab.
+     */
+    private static final int MAXIMUM_SLAB_SIZE = 1 << 24;
+
+    /**
+     * The number of bytes in the first slab of a stripe.
+     */
+    private static final int INITIAL_SLAB_SIZE = 1 << 16;
+
+    /**
+     * The number of bits addressing the bytes within a slab.
+     */
+    private static final int SLAB_SHIFT = 24;
+
+    /**
+     * The number of bits addressing the slabs within a stripe.
+     */
+    private static final int STRIPE_SHIFT = 48;
+
+    /**
+     * The number of bits selecting a stripe.
+     */
+    private static final int STRIPE_BITS = 5;
+
+    /**
+     * The number of bytes in a record header.
+     */
+    private static final int HEADER_SIZE = 4 + 2 * (8 + 4);
+
+    /**
+     * The number of bytes in an index slot: the record offset plus one (zero
+     * for an empty slot) and the hash of the title.
+     */
+    private static final int SLOT_SIZE = 16;
+
+    /**
+     * The initial number of hash index slots of a stripe. Must be a power of
+     * two.
+     */
+    private static final int INITIAL_INDEX_CAPACITY = 1 << 12;
+
+    /**
+     * The maximum ratio of used index slots.
+     */
+    private static final double MAXIMUM_LOAD_FACTOR = 0.5;
+
+    /**
+     * The per-thread encoders and encoding buffers.
+     */
+    private static final ThreadLocal<EncodingBuffers> ENCODING_BUFFERS =
+            ThreadLocal.withInitial(EncodingBuffers::new);
+
+    /**
+     * The stripes holding the records.
+     */
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    OffHeapTitleArena() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+
+    /**
+     * Returns the offset of {@code title}, storing it first if necessary.
+     *
+     * @param title the title.
+     *
+     * @return the offset of the record of {@code title}.
+     */
+    long intern(final String title) {
+        final ByteBuffer bytes = encode(title);
+        final long hash = hash(bytes);
+        return getStripe(hash).intern(bytes, hash);
+    }
+
+    /**
+     * Returns the offset of {@code title}, or {@link #NO_OFFSET} if the title
+     * is not stored.
+     *
+     * @param title the title.
+     *
+     * @return the offset of the record of {@code title}, or
+     *         {@link #NO_OFFSET}.
+     */
+    long find(final String title) {
+        final ByteBuffer bytes = encode(title);
+        final long hash = hash(bytes);
+        return getStripe(hash).find(bytes, hash);
+    }
+
+    /**
+     * Decodes the title stored at {@code offset}.
+     *
+     * @param offset the record offset.
+     *
+     * @return the title.
+     */
+    String getTitle(final long offset) {
+        return getStripeOfOffset(offset).getTitle(offset);
+    }
+
+    /**
+     * Marks the title at {@code offset} as visited in {@code direction}, unless
+     * it was visited already.
+     *
+     * @param offset       the record offset.
+     * @param direction    the search direction, 0 or 1.
+     * @param parentOffset the record offset of the parent, or
+     *                     {@link #NO_OFFSET}.
+     * @param distance     the distance from the root of the direction.
+     *
+     * @return {@code true} if the title was not visited before.
+     */
+    boolean visit(final long offset,
+                  final int direction,
+                  final long parentOffset,
+                  final int distance) {
+        return getStripeOfOffset(offset).visit(offset,
+                                               direction,
+                                               parentOffset,
+                                               distance);
+    }
+
+    /**
+     * Returns the distance of the title at {@code offset} in
+     * {@code direction}.
+     *
+     * @param offset    the record offset.
+     * @param direction the search direction, 0 or 1.
+     *
+     * @return the distance, or {@link #UNVISITED}.
+     */
+    int getDistance(final long offset, final int direction) {
+        return getStripeOfOffset(offset).getDistance(offset, direction);
+    }
+
+    /**
+     * Returns the parent offset of the title at {@code offset} in
+     * {@code direction}.
+     *
+     * @param offset    the record offset.
+     * @param direction the search direction, 0 or 1.
+     *
+     * @return the parent offset, or {@link #NO_OFFSET}.
+     */
+    long getParent(final long offset, final int direction) {
+        return getStripeOfOffset(offset).getParent(offset, direction);
+    }
+
+    /**
+     * Returns the number of stored titles.
+     *
+     * @return the number of titles.
+     */
+    int size() {
+        int size = 0;
+
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved by this arena.
+     *
+     * @return the number of reserved off-heap bytes.
+     */
+    long getNumberOfReservedBytes() {
+        long numberOfReservedBytes = 0L;
+
+        for (final Stripe stripe : stripes) {
+            numberOfReservedBytes += stripe.getNumberOfReservedBytes();
+        }
+
+        return numberOfReservedBytes;
+    }
+
+    /**
+     * Returns the stripe of the title with the hash {@code hash}. The top
+     * bits are used, since the bottom ones select the index slot.
+     */
+    private Stripe getStripe(final long hash) {
+        return stripes[(int)(hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * Returns the stripe holding the record at {@code offset}.
+     */
+    private Stripe getStripeOfOffset(final long offset) {
+        return stripes[(int)(offset >>> STRIPE_SHIFT)];
+    }
+
+    /**
+     * Holds the slabs and the hash index of a subset of the titles. All the
+     * methods are guarded by the stripe.
+     */
+    private static final class Stripe {
+
+        /**
+         * The index of this stripe in the arena.
+         */
+        private final long stripeIndex;
+
+        /**
+         * The slabs holding the records.
+         */
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+
+        /**
+         * The hash index.
+         */
+        private ByteBuffer index;
+
+        /**
+         * The number of index slots.
+         */
+        private int indexCapacity;
+
+        /**
+         * The number of stored titles.
+         */
+        private int size;
+
+        Stripe(final int stripeIndex) {
+            this.stripeIndex = stripeIndex;
+            this.indexCapacity = INITIAL_INDEX_CAPACITY;
+            this.index =
+                    ByteBuffer.allocateDirect(
+                            toIndexPosition(INITIAL_INDEX_CAPACITY));
+            this.slabs.add(ByteBuffer.allocateDirect(INITIAL_SLAB_SIZE));
+        }
+
+        synchronized long intern(final ByteBuffer bytes, final long hash) {
+            final int slot = findSlot(bytes, hash);
+            final long storedOffset = index.getLong(toIndexPosition(slot));
+
+            if (storedOffset != 0L) {
+                return storedOffset - 1L;
+            }
+
+            final long offset = append(bytes);
+            index.putLong(toIndexPosition(slot), offset + 1L);
+            index.putLong(toIndexPosition(slot) + 8, hash);
+
+            if (++size > indexCapacity * MAXIMUM_LOAD_FACTOR) {
+                growIndex();
+            }
+
+            return offset;
+        }
+
+        synchronized long find(final ByteBuffer bytes, final long hash) {
+            final long storedOffset =
+                    index.getLong(toIndexPosition(findSlot(bytes, hash)));
+
+            return storedOffset == 0L ? NO_OFFSET : storedOffset - 1L;
+        }
+
+        synchronized String getTitle(final long offset) {
+            final ByteBuffer slab = getSlab(offset);
+            final int position = getPosition(offset);
+            final int length = slab.getInt(position);
+            final byte[] bytes = new byte[length];
+            slab.get(position + HEADER_SIZE, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        synchronized boolean visit(final long offset,
+                                   final int direction,
+                                   final long parentOffset,
+                                   final int distance) {
+
+            final ByteBuffer slab = getSlab(offset);
+            final int position = getPosition(offset) + 4 + direction * 12;
+
+            if (slab.getInt(position + 8) != UNVISITED) {
+                return false;
+            }
+
+            slab.putLong(position, parentOffset);
+            slab.putInt(position + 8, distance);
+            return true;
+        }
+
+        synchronized int getDistance(final long offset, final int direction) {
+            return getSlab(offset).getInt(
+                    getPosition(offset) + 4 + direction * 12 + 8);
+        }
+
+        synchronized long getParent(final long offset, final int direction) {
+            return getSlab(offset).getLong(
+                    getPosition(offset) + 4 + direction * 12);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized long getNumberOfReservedBytes() {
+            long numberOfReservedBytes = index.capacity();
+
+            for (final ByteBuffer slab : slabs) {
+                numberOfReservedBytes += slab.capacity();
+            }
+
+            return numberOfReservedBytes;
+        }
+
+        /**
+         * Appends a new record to the last slab, opening a new slab if
+         * needed. Each new slab is twice as large as the previous one, up to
+         * the maximum slab size.
+         *
+         * @param bytes the UTF-8 bytes of the title.
+         *
+         * @return the offset of the new record.
+         */
+        private long append(final ByteBuffer bytes) {
+            final int recordSize = HEADER_SIZE + bytes.remaining();
+
+            if (recordSize > MAXIMUM_SLAB_SIZE) {
+                throw new IllegalArgumentException("Title too long.");
+            }
+
+            ByteBuffer slab = slabs.get(slabs.size() - 1);
+
+            if (slab.remaining() < recordSize) {
+                if (((long) slabs.size() << SLAB_SHIFT) >= 
+                        1L << STRIPE_SHIFT) {
+                    throw new IllegalStateException("The arena is full.");
+                }
+
+                slab = ByteBuffer.allocateDirect(
+                        Math.min(MAXIMUM_SLAB_SIZE, 2 * slab.capacity()));
+                slabs.add(slab);
+            }
+
+            final int position = slab.position();
+            final long offset = (stripeIndex << STRIPE_SHIFT) |
+                                ((long)(slabs.size() - 1) << SLAB_SHIFT) |
+                                position;
+
+            slab.putInt(bytes.remaining());
+            slab.putLong(NO_OFFSET);
+            slab.putInt(UNVISITED);
+            slab.putLong(NO_OFFSET);
+            slab.putInt(UNVISITED);
+            slab.put(bytes.duplicate());
+            return offset;
+        }
+
+        /**
+         * Returns the index slot holding {@code bytes}, or the empty slot
+         * where they would be inserted.
+         */
+        private int findSlot(final ByteBuffer bytes, final long hash) {
+            final int mask = indexCapacity - 1;
+            int slot = (int) hash & mask;
+
+            while (true) {
+                final long storedOffset =
+                        index.getLong(toIndexPosition(slot));
+
+                if (storedOffset == 0L) {
+                    return slot;
+                }
+
+                if (index.getLong(toIndexPosition(slot) + 8) == hash &&
+                    titleEquals(storedOffset - 1L, bytes)) {
+                    return slot;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Doubles the capacity of the hash index.
+         */
+        private void growIndex() {
+            final ByteBuffer oldIndex = index;
+            final int oldCapacity = indexCapacity;
+            final int newCapacity = 2 * oldCapacity;
+
+            index = ByteBuffer.allocateDirect(toIndexPosition(newCapacity));
+            indexCapacity = newCapacity;
+
+            final int mask = indexCapacity - 1;
+
+            for (int oldSlot = 0; oldSlot < oldCapacity; oldSlot++) {
+                final long storedOffset =
+                        oldIndex.getLong(toIndexPosition(oldSlot));
+
+                if (storedOffset == 0L) {
+                    continue;
+                }
+
+                final long hash =
+                        oldIndex.getLong(toIndexPosition(oldSlot) + 8);
+                int slot = (int) hash & mask;
+
+                while (index.getLong(toIndexPosition(slot)) != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+
+                index.putLong(toIndexPosition(slot), storedOffset);
+                index.putLong(toIndexPosition(slot) + 8, hash);
+            }
+        }
+
+        private boolean titleEquals(final long offset,
+                                    final ByteBuffer bytes) {
+            final ByteBuffer slab = getSlab(offset);
+            final int position = getPosition(offset);
+            final int length = slab.getInt(position);
+
+            if (length != bytes.remaining()) {
+                return false;
+            }
+
+            return slab.slice(position + HEADER_SIZE, length).equals(bytes);
+        }
+
+        private ByteBuffer getSlab(final long offset) {
+            return slabs.get(
+                    (int)((offset >>> SLAB_SHIFT) & 
+                          ((1L << (STRIPE_SHIFT - SLAB_SHIFT)) - 1L)));
+        }
+    }
+
+    private static int getPosition(final long offset) {
+        return (int)(offset & (MAXIMUM_SLAB_SIZE - 1));
+    }
+
+    /**
+     * Returns the byte position of the index slot {@code slot}.
+     *
+     * @throws IllegalStateException if the position does not fit in a
+     *                               buffer.
+     */
+    private static int toIndexPosition(final long slot) {
+        final long position = slot * SLOT_SIZE;
+
+        if (position > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The title index is full.");
+        }
+
+        return (int) position;
+    }
+
+    /**
+     * Computes the 64-bit FNV-1a hash of {@code bytes}, mixed for linear
+     * probing.
+     */
+    private static long hash(final ByteBuffer bytes) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = bytes.position(); i < bytes.limit(); i++) {
+            hash ^= bytes.get(i) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Encodes {@code title} into the reused buffer of the calling thread.
+     *
+     * @param title the title to encode.
+     *
+     * @return the buffer holding the UTF-8 bytes of {@code title}.
+     */
+    private static ByteBuffer encode(final String title) {
+        final EncodingBuffers buffers = ENCODING_BUFFERS.get();
+
+        if (buffers.bytes.capacity() < title.length() * 3) {
+            buffers.bytes = ByteBuffer.allocate(title.length() * 3);
+        }
+
+        final ByteBuffer bytes = buffers.bytes;
+        bytes.clear();
+        buffers.encoder.reset();
+
+        final CoderResult result =
+                buffers.encoder.encode(CharBuffer.wrap(title), bytes, true);
+
+        if (result.isError()) {
+            throw new IllegalArgumentException(
+                    String.format("Malformed title \"%s\".", title));
+        }
+
+        buffers.encoder.flush(bytes);
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * Holds the per-thread encoding state.
+     */
+    private static final class EncodingBuffers {
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        ByteBuffer bytes = ByteBuffer.allocate(1024);
+    }
+}
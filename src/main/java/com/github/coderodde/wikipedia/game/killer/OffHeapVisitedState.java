@@ -0,0 +1,51 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+/**
+ * This class implements the visited and parent state of the fork-join search
+ * on top of an {@link OffHeapTitleArena}: the titles, the parent links and the
+ * distances of both directions are all kept off the heap.
+ */
+final class OffHeapVisitedState 
+        implements ForkJoinBidirectionalBFSPathFinder.VisitedState<String> {
+
+    private final OffHeapTitleArena arena;
+
+    OffHeapVisitedState(final OffHeapTitleArena arena) {
+        this.arena = arena;
+    }
+
+    @Override
+    public boolean visit(final String node,
+                         final int direction,
+                         final String parent,
+                         final int distance) {
+
+        final long parentOffset = parent == null ? 
+                                  OffHeapTitleArena.NO_OFFSET :
+                                  arena.intern(parent);
+
+        return arena.visit(arena.intern(node),
+                           direction,
+                           parentOffset,
+                           distance);
+    }
+
+    @Override
+    public int getDistance(final String node, final int direction) {
+        final long offset = arena.find(node);
+
+        return offset == OffHeapTitleArena.NO_OFFSET ?
+               OffHeapTitleArena.UNVISITED :
+               arena.getDistance(offset, direction);
+    }
+
+    @Override
+    public String getParent(final String node, final int direction) {
+        final long parentOffset = 
+                arena.getParent(arena.find(node), direction);
+
+        return parentOffset == OffHeapTitleArena.NO_OFFSET ?
+               null :
+               arena.getTitle(parentOffset);
+    }
+}
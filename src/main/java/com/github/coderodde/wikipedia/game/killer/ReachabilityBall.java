@@ -0,0 +1,681 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This class implements a reverse-reachability ball: the depth-limited
+ * backward breadth-first search tree of a target article. It maps each
+ * article within {@code depth} links of the target to its distance and to
+ * its next hop towards the target, so that a query against the target only
+ * needs a forward search until it hits the ball (see
+ * {@link BallPathFinder}).
+ *
+ * A ball is refreshed incrementally: each call to
+ * {@link #refresh(AbstractNodeExpander, int, ExecutorService)} re-expands the
+ * next batch of the interior articles (the ones closer than {@code depth}),
+ * adds or shortens the entries of the new backlinks, lowering the distances
+ * of their subtrees, and drops the entries whose link to their next hop is
+ * gone, together with their subtrees. A full round over the interior thus
+ * brings the whole ball up to date. The children of an article whose
+ * expansion failed, or may have missed backlinks, are never dropped.
+ *
+ * A ball is exact if it holds all the articles within {@code depth} links of
+ * the target. A failed or incomplete expansion, a dropped entry, or a new
+ * interior entry not expanded yet make it inexact until a refresh round
+ * completes without any of them. Only an exact ball may be
+ * {@linkplain #isComplete() complete}.
+ *
+ * The file is a GZIP-compressed stream of a header (int magic, byte version,
+ * UTF language code, UTF target, int depth, boolean exact, int number of
+ * entries) followed by the entries in the order of their distances, each as
+ * a UTF title, an int distance and the int index of its next hop entry, or
+ * -1 for the target. The files of version 1 lack the exact flag and are read
+ * as inexact.
+ *
+ * This class is not thread-safe.
+ */
+final class ReachabilityBall {
+
+    /**
+     * The magic number of the ball files ({@code "WGKB"}).
+     */
+    private static final int MAGIC = 0x57474B42;
+
+    /**
+     * The version of the ball format.
+     */
+    private static final byte VERSION = 2;
+
+    /**
+     * The version of the ball format without the exact flag.
+     */
+    private static final byte VERSION_WITHOUT_EXACT_FLAG = 1;
+
+    /**
+     * The default depth of the balls.
+     */
+    static final int DEFAULT_DEPTH = 2;
+
+    /**
+     * An entry of the ball.
+     *
+     * @param distance the distance to the target.
+     * @param next     the next hop towards the target, or {@code null} for
+     *                 the target itself.
+     */
+    record Entry(int distance, String next) {}
+
+    private final String languageCode;
+    private final String target;
+    private final int depth;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Tells whether this ball holds all the articles within {@code depth}
+     * links of the target.
+     */
+    private boolean exact;
+
+    /**
+     * Tells whether the current refresh round has not made this ball
+     * inexact so far.
+     */
+    private boolean roundExact;
+
+    /**
+     * The interior articles of the current refresh round.
+     */
+    private List<String> refreshQueue = Collections.emptyList();
+
+    /**
+     * The index of the next article in {@code refreshQueue} to re-expand.
+     */
+    private int refreshIndex;
+
+    private ReachabilityBall(final String languageCode,
+                             final String target,
+                             final int depth) {
+        this.languageCode = languageCode;
+        this.target = target;
+        this.depth = depth;
+    }
+
+    /**
+     * Builds the ball of {@code target}.
+     *
+     * @param languageCode     the language code of the Wikipedia edition.
+     * @param target           the target article.
+     * @param depth            the maximum distance to the target.
+     * @param backwardExpander the backward node expander.
+     * @param executor         the executor running the expansions.
+     *
+     * @return the ball.
+     */
+    static ReachabilityBall build(
+            final String languageCode,
+            final String target,
+            final int depth,
+            final AbstractNodeExpander<String> backwardExpander,
+            final ExecutorService executor) {
+
+        final ReachabilityBall ball =
+                new ReachabilityBall(languageCode, target, depth);
+
+        ball.entries.put(target, new Entry(0, null));
+        ball.exact = true;
+        List<String> frontier = List.of(target);
+
+        for (int distance = 1; distance <= depth && !frontier.isEmpty();
+                distance++) {
+            final long numberOfIncompleteExpansions =
+                    ForkJoinBidirectionalBFSPathFinder
+                            .getNumberOfIncompleteExpansions(backwardExpander);
+
+            final Map<String, List<String>> backlinkMap =
+                    expandAll(frontier, backwardExpander, executor);
+
+            if (backlinkMap.size() < frontier.size() ||
+                ForkJoinBidirectionalBFSPathFinder
+                        .getNumberOfIncompleteExpansions(backwardExpander) !=
+                numberOfIncompleteExpansions) {
+                ball.exact = false;
+            }
+
+            final List<String> nextFrontier = new ArrayList<>();
+
+            for (final String node : frontier) {
+                for (final String backlink
+                        : backlinkMap.getOrDefault(node, List.of())) {
+                    if (!ball.entries.containsKey(backlink)) {
+                        ball.entries.put(backlink, new Entry(distance, node));
+                        nextFrontier.add(backlink);
+                    }
+                }
+            }
+
+            frontier = nextFrontier;
+        }
+
+        return ball;
+    }
+
+    /**
+     * Returns the default directory of the ball files.
+     *
+     * @return the ball directory.
+     */
+    static Path getDefaultDirectory() {
+        return Path.of(System.getProperty("user.home"),
+                       ".wikigamekiller",
+                       "balls");
+    }
+
+    /**
+     * Returns the path of the ball file of {@code target} in
+     * {@code directory}.
+     *
+     * @param directory    the ball directory.
+     * @param languageCode the language code of the Wikipedia edition.
+     * @param target       the target article.
+     *
+     * @return the ball file path.
+     */
+    static Path getFile(final Path directory,
+                        final String languageCode,
+                        final String target) {
+        return directory.resolve(languageCode)
+                        .resolve(URLEncoder.encode(target,
+                                                   StandardCharsets.UTF_8) +
+                                 ".ball");
+    }
+
+    /**
+     * Reads the ball file {@code file}.
+     *
+     * @param file the ball file.
+     *
+     * @return the ball.
+     *
+     * @throws IOException if the file cannot be read or is malformed.
+     */
+    static ReachabilityBall read(final Path file) throws IOException {
+        try (DataInputStream in =
+                new DataInputStream(
+                        new BufferedInputStream(
+                                new GZIPInputStream(
+                                        Files.newInputStream(file))))) {
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException(
+                        String.format(
+                                "\"%s\" is not a ball file.",
+                                file));
+            }
+
+            final byte version = in.readByte();
+
+            if (version != VERSION && version != VERSION_WITHOUT_EXACT_FLAG) {
+                throw new IOException(
+                        String.format(
+                                "Unsupported version %d of the ball file " +
+                                "\"%s\".",
+                                version,
+                                file));
+            }
+
+            final ReachabilityBall ball =
+                    new ReachabilityBall(in.readUTF(),
+                                         in.readUTF(),
+                                         in.readInt());
+
+            ball.exact = version != VERSION_WITHOUT_EXACT_FLAG &&
+                         in.readBoolean();
+
+            final String[] titles = new String[in.readInt()];
+
+            for (int i = 0; i < titles.length; i++) {
+                titles[i] = in.readUTF();
+
+                final int distance = in.readInt();
+                final int nextIndex = in.readInt();
+
+                ball.entries.put(titles[i],
+                                 new Entry(distance,
+                                           nextIndex < 0 ?
+                                           null :
+                                           titles[nextIndex]));
+            }
+
+            return ball;
+        } catch (final EOFException | IndexOutOfBoundsException ex) {
+            throw new IOException(
+                    String.format("Truncated ball file \"%s\".", file));
+        }
+    }
+
+    /**
+     * Writes this ball to {@code file}. The file is replaced atomically, so
+     * that the concurrent readers never see a partial ball.
+     *
+     * @param file the ball file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    void write(final Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        final Path temporaryFile =
+                file.resolveSibling(file.getFileName() + ".tmp");
+
+        final List<String> titles = new ArrayList<>(entries.keySet());
+        titles.sort(Comparator.comparingInt(
+                (String title) -> entries.get(title).distance()));
+
+        final Map<String, Integer> indexMap = new HashMap<>();
+
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(
+                                new GZIPOutputStream(
+                                        Files.newOutputStream(
+                                                temporaryFile))))) {
+
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(languageCode);
+            out.writeUTF(target);
+            out.writeInt(depth);
+            out.writeBoolean(exact);
+            out.writeInt(titles.size());
+
+            for (final String title : titles) {
+                final Entry entry = entries.get(title);
+
+                out.writeUTF(title);
+                out.writeInt(entry.distance());
+                out.writeInt(entry.next() == null ?
+                             -1 :
+                             indexMap.get(entry.next()));
+
+                indexMap.put(title, indexMap.size());
+            }
+        }
+
+        Files.move(temporaryFile,
+                   file,
+                   StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Re-expands the next at most {@code batchSize} interior articles and
+     * updates the ball accordingly. A new refresh round starts after the
+     * previous one has covered all the interior articles. The ball becomes
+     * exact when a round completes without failed or incomplete expansions,
+     * dropped entries or new interior entries.
+     *
+     * @param backwardExpander the backward node expander.
+     * @param batchSize        the maximum number of expansions.
+     * @param executor         the executor running the expansions.
+     *
+     * @return the number of entries added, shortened or dropped.
+     */
+    int refresh(final AbstractNodeExpander<String> backwardExpander,
+                final int batchSize,
+                final ExecutorService executor) {
+
+        if (refreshIndex >= refreshQueue.size()) {
+            refreshQueue = new ArrayList<>();
+
+            for (final Map.Entry<String, Entry> mapEntry
+                    : entries.entrySet()) {
+                if (mapEntry.getValue().distance() < depth) {
+                    refreshQueue.add(mapEntry.getKey());
+                }
+            }
+
+            refreshQueue.sort(Comparator.comparingInt(
+                    (String title) -> entries.get(title).distance()));
+            refreshIndex = 0;
+            roundExact = true;
+        }
+
+        final List<String> batch = new ArrayList<>();
+
+        while (batch.size() < batchSize &&
+               refreshIndex < refreshQueue.size()) {
+            final String node = refreshQueue.get(refreshIndex++);
+
+            // Skip the articles dropped or pushed out of the interior:
+            final Entry entry = entries.get(node);
+
+            if (entry != null && entry.distance() < depth) {
+                batch.add(node);
+            }
+        }
+
+        final long numberOfIncompleteExpansions =
+                ForkJoinBidirectionalBFSPathFinder
+                        .getNumberOfIncompleteExpansions(backwardExpander);
+
+        final Map<String, List<String>> backlinkMap =
+                expandAll(batch, backwardExpander, executor);
+
+        // An incomplete expansion cannot be told apart within the batch, so
+        // none of the batch may drop children then:
+        final boolean incomplete =
+                ForkJoinBidirectionalBFSPathFinder
+                        .getNumberOfIncompleteExpansions(backwardExpander) !=
+                numberOfIncompleteExpansions;
+
+        final Map<String, List<String>> childMap = getChildMap();
+        final Set<String> droppedRoots = new HashSet<>();
+        int numberOfChanges = 0;
+
+        if (incomplete || backlinkMap.size() < batch.size()) {
+            roundExact = false;
+        }
+
+        for (final String node : batch) {
+            final Entry entry = entries.get(node);
+            final List<String> backlinks = backlinkMap.get(node);
+
+            if (entry == null || backlinks == null) {
+                // Dropped by an earlier node of the batch, or failed.
+                continue;
+            }
+
+            for (final String backlink : backlinks) {
+                final Entry backlinkEntry = entries.get(backlink);
+
+                if (backlinkEntry == null ||
+                    backlinkEntry.distance() > entry.distance() + 1) {
+                    entries.put(backlink,
+                                new Entry(entry.distance() + 1, node));
+                    childMap.computeIfAbsent(node, (s) -> new ArrayList<>())
+                            .add(backlink);
+                    numberOfChanges++;
+
+                    if (entry.distance() + 1 < depth) {
+                        // Not expanded at its new distance yet.
+                        roundExact = false;
+                    }
+
+                    if (backlinkEntry != null) {
+                        numberOfChanges += lowerSubtree(backlink, childMap);
+                    }
+                }
+            }
+
+            if (incomplete) {
+                continue;
+            }
+
+            final Set<String> backlinkSet = new HashSet<>(backlinks);
+
+            // The children whose link to the node is gone:
+            for (final String child : childMap.getOrDefault(node,
+                                                            List.of())) {
+                final Entry childEntry = entries.get(child);
+
+                if (childEntry != null &&
+                    node.equals(childEntry.next()) &&
+                    !backlinkSet.contains(child)) {
+                    droppedRoots.add(child);
+                }
+            }
+        }
+
+        if (!droppedRoots.isEmpty()) {
+            roundExact = false;
+        }
+
+        exact &= roundExact;
+
+        if (refreshIndex >= refreshQueue.size() && roundExact) {
+            exact = true;
+        }
+
+        return numberOfChanges + dropSubtrees(droppedRoots);
+    }
+
+    /**
+     * Returns the language code of this ball.
+     *
+     * @return the language code.
+     */
+    String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * Returns the target of this ball.
+     *
+     * @return the target.
+     */
+    String getTarget() {
+        return target;
+    }
+
+    /**
+     * Returns the depth of this ball.
+     *
+     * @return the depth.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of articles in this ball.
+     *
+     * @return the number of articles.
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Tells whether this ball holds all the articles within {@code depth}
+     * links of the target, as of its latest build or clean refresh round.
+     *
+     * @return {@code true} if this ball is exact.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Tells whether this ball contains all the articles linking to the
+     * target at any distance, i.e., whether it is exact and no article lies
+     * on its boundary.
+     *
+     * @return {@code true} if this ball is complete.
+     */
+    boolean isComplete() {
+        if (!exact) {
+            return false;
+        }
+
+        for (final Entry entry : entries.values()) {
+            if (entry.distance() == depth) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the distance from {@code node} to the target.
+     *
+     * @param node the article.
+     *
+     * @return the distance, or -1 if {@code node} is not in this ball.
+     */
+    int getDistance(final String node) {
+        final Entry entry = entries.get(node);
+        return entry == null ? -1 : entry.distance();
+    }
+
+    /**
+     * Returns the path from {@code node} to the target.
+     *
+     * @param node the article in this ball.
+     *
+     * @return the path, starting at {@code node} and ending at the target.
+     */
+    List<String> getPathToTarget(final String node) {
+        final List<String> path = new ArrayList<>();
+
+        for (String current = node;
+                current != null;
+                current = entries.get(current).next()) {
+            path.add(current);
+        }
+
+        return path;
+    }
+
+    /**
+     * Drops {@code roots} and all the articles whose next hops lead through
+     * them.
+     *
+     * @return the number of dropped entries.
+     */
+    private int dropSubtrees(final Set<String> roots) {
+        if (roots.isEmpty()) {
+            return 0;
+        }
+
+        final Map<String, List<String>> childMap = getChildMap();
+        final List<String> stack = new ArrayList<>(roots);
+        int numberOfDroppedEntries = 0;
+
+        while (!stack.isEmpty()) {
+            final String node = stack.remove(stack.size() - 1);
+
+            if (entries.remove(node) != null) {
+                numberOfDroppedEntries++;
+                stack.addAll(childMap.getOrDefault(node, List.of()));
+            }
+        }
+
+        return numberOfDroppedEntries;
+    }
+
+    /**
+     * Lowers the distances of the articles whose next hops lead through
+     * {@code root} after its entry was shortened.
+     *
+     * @return the number of lowered entries.
+     */
+    private int lowerSubtree(final String root,
+                             final Map<String, List<String>> childMap) {
+        final List<String> stack = new ArrayList<>();
+        stack.add(root);
+        int numberOfLoweredEntries = 0;
+
+        while (!stack.isEmpty()) {
+            final String node = stack.remove(stack.size() - 1);
+            final int distance = entries.get(node).distance();
+
+            for (final String child : childMap.getOrDefault(node,
+                                                            List.of())) {
+                final Entry childEntry = entries.get(child);
+
+                if (childEntry != null &&
+                    node.equals(childEntry.next()) &&
+                    childEntry.distance() > distance + 1) {
+                    entries.put(child, new Entry(distance + 1, node));
+                    numberOfLoweredEntries++;
+                    roundExact = false;
+                    stack.add(child);
+                }
+            }
+        }
+
+        return numberOfLoweredEntries;
+    }
+
+    /**
+     * Returns the map mapping each article to the articles whose next hop it
+     * is.
+     */
+    private Map<String, List<String>> getChildMap() {
+        final Map<String, List<String>> childMap = new HashMap<>();
+
+        for (final Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            if (mapEntry.getValue().next() != null) {
+                childMap.computeIfAbsent(mapEntry.getValue().next(),
+                                         (s) -> new ArrayList<>())
+                        .add(mapEntry.getKey());
+            }
+        }
+
+        return childMap;
+    }
+
+    /**
+     * Expands all the {@code nodes} concurrently.
+     *
+     * @return the map mapping each node to its successors. The nodes whose
+     *         expansion failed are missing.
+     */
+    private static Map<String, List<String>> expandAll(
+            final List<String> nodes,
+            final AbstractNodeExpander<String> expander,
+            final ExecutorService executor) {
+
+        final Map<String, Future<List<String>>> futureMap =
+                new LinkedHashMap<>();
+
+        for (final String node : nodes) {
+            futureMap.put(node,
+                          executor.submit(
+                                  () -> expander.generateSuccessors(node)));
+        }
+
+        final Map<String, List<String>> successorMap = new HashMap<>();
+
+        for (final Map.Entry<String, Future<List<String>>> mapEntry
+                : futureMap.entrySet()) {
+            try {
+                successorMap.put(mapEntry.getKey(),
+                                 mapEntry.getValue().get());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            } catch (final ExecutionException ex) {
+                // Reported by the missing node.
+            }
+        }
+
+        return successorMap;
+    }
+}
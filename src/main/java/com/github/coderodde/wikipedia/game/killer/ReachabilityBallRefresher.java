@@ -0,0 +1,148 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * This class keeps a set of {@link ReachabilityBall}s up to date in the
+ * background. On each tick it refreshes the next slice of every ball and
+ * rewrites the ball files that changed, so that a full refresh of a ball is
+ * spread over several ticks instead of re-running its whole backward search
+ * at once.
+ *
+ * The balls are only ever touched by the single scheduler thread.
+ */
+final class ReachabilityBallRefresher implements Closeable {
+
+    /**
+     * The default number of articles re-expanded per ball on each tick.
+     */
+    static final int DEFAULT_REFRESH_BATCH_SIZE = 500;
+
+    private final Path directory;
+    private final List<ReachabilityBall> balls;
+    private final Function<String, AbstractNodeExpander<String>>
+            backwardExpanderFactory;
+    private final int batchSize;
+    private final ExecutorService executor;
+    private final PrintStream out;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread =
+                        new Thread(runnable, "reachability-ball-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Constructs this refresher.
+     *
+     * @param directory               the ball directory.
+     * @param balls                   the balls to refresh.
+     * @param backwardExpanderFactory maps a language code to the backward
+     *                                node expander of its Wikipedia edition.
+     * @param batchSize               the number of articles re-expanded per
+     *                                ball on each tick.
+     * @param executor                the executor running the expansions.
+     * @param out                     the stream of the progress messages.
+     */
+    ReachabilityBallRefresher(
+            final Path directory,
+            final List<ReachabilityBall> balls,
+            final Function<String, AbstractNodeExpander<String>>
+                    backwardExpanderFactory,
+            final int batchSize,
+            final ExecutorService executor,
+            final PrintStream out) {
+
+        this.directory = directory;
+        this.balls = new ArrayList<>(balls);
+        this.backwardExpanderFactory = backwardExpanderFactory;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.out = out;
+    }
+
+    /**
+     * Refreshes the next slice of every ball once every
+     * {@code intervalMillis} milliseconds.
+     *
+     * @param intervalMillis the duration between two ticks.
+     */
+    void start(final long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(this::refreshAll,
+                                         intervalMillis,
+                                         intervalMillis,
+                                         TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Blocks until this refresher is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    void awaitTermination() throws InterruptedException {
+        while (!scheduler.awaitTermination(1L, TimeUnit.DAYS)) {}
+    }
+
+    /**
+     * Refreshes the next slice of every ball and rewrites the changed ball
+     * files.
+     *
+     * @return the total number of changed entries.
+     */
+    int refreshAll() {
+        int totalNumberOfChanges = 0;
+
+        for (final ReachabilityBall ball : balls) {
+            final int numberOfChanges =
+                    ball.refresh(
+                            backwardExpanderFactory.apply(
+                                    ball.getLanguageCode()),
+                            batchSize,
+                            executor);
+
+            totalNumberOfChanges += numberOfChanges;
+
+            if (numberOfChanges == 0) {
+                continue;
+            }
+
+            final Path file = ReachabilityBall.getFile(directory,
+                                                       ball.getLanguageCode(),
+                                                       ball.getTarget());
+
+            try {
+                ball.write(file);
+                out.printf(
+                        "[INFO] Refreshed the ball of \"%s\": " +
+                        "%d changes, %d articles.%n",
+                        ball.getTarget(),
+                        numberOfChanges,
+                        ball.size());
+            } catch (final IOException ex) {
+                out.printf("[ERROR] Could not write the ball file \"%s\": " +
+                           "%s%n",
+                           file,
+                           ex.getMessage());
+            }
+        }
+
+        return totalNumberOfChanges;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * This class implements a node expander that records each expansion of the
+ * wrapped expander, together with its latency, into an expansion trace. The
+ * pages of a paged expander are passed on as they arrive, and recorded
+ * together once the expansion is complete.
+ */
+final class RecordingNodeExpander
+        extends AbstractNodeExpander<String>
+        implements ForkJoinBidirectionalBFSPathFinder
+                           .PagedNodeExpander<String>,
+                   ForkJoinBidirectionalBFSPathFinder
+                           .DeferringNodeExpander<String>,
+                   ForkJoinBidirectionalBFSPathFinder
+                           .IncompleteExpansionCounter {
+
+    private final AbstractNodeExpander<String> expander;
+    private final int direction;
+    private final ExpansionTrace.Writer traceWriter;
+
+    /**
+     * Wraps {@code expander}.
+     *
+     * @param expander    the expander to record.
+     * @param direction   {@code FORWARD} or {@code BACKWARD} of
+     *                    {@link ForkJoinBidirectionalBFSPathFinder}.
+     * @param traceWriter the trace writer.
+     */
+    RecordingNodeExpander(final AbstractNodeExpander<String> expander,
+                          final int direction,
+                          final ExpansionTrace.Writer traceWriter) {
+        this.expander = expander;
+        this.direction = direction;
+        this.traceWriter = traceWriter;
+    }
+
+    @Override
+    public List<String> generateSuccessors(final String node) {
+        final long startTime = System.nanoTime();
+        final List<String> successors = expander.generateSuccessors(node);
+
+        traceWriter.write(direction,
+                          node,
+                          successors,
+                          System.nanoTime() - startTime);
+
+        return successors;
+    }
+
+    @Override
+    public void generateSuccessorPages(
+            final String node,
+            final Consumer<List<String>> pageConsumer) {
+
+        final long startTime = System.nanoTime();
+        final Queue<String> successors = new ConcurrentLinkedQueue<>();
+
+        ForkJoinBidirectionalBFSPathFinder.generateSuccessorPages(
+                expander,
+                node,
+                (page) -> {
+                    successors.addAll(page);
+                    pageConsumer.accept(page);
+                });
+
+        traceWriter.write(direction,
+                          node,
+                          new ArrayList<>(successors),
+                          System.nanoTime() - startTime);
+    }
+
+    @Override
+    public boolean isValidNode(final String node) {
+        return expander.isValidNode(node);
+    }
+
+    @Override
+    public boolean isDeferred(final String node) {
+        return ForkJoinBidirectionalBFSPathFinder.isDeferred(expander, node);
+    }
+
+    @Override
+    public long getNumberOfIncompleteExpansions() {
+        return ForkJoinBidirectionalBFSPathFinder
+                .getNumberOfIncompleteExpansions(expander);
+    }
+}
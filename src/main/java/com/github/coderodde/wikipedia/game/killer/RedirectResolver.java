@@ -0,0 +1,354 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class resolves redirect titles to the titles of their target articles,
+ * so that, for example, {@code USA}, {@code U.S.} and {@code United_States}
+ * all become the single node {@code United_States}. Resolved titles are
+ * stored in a redirect map shared by all the resolvers of the same language,
+ * and unknown titles are looked up in batches of
+ * {@value SuccessorFilter#MAXIMUM_TITLES_PER_QUERY}.
+ */
+final class RedirectResolver {
+
+    /**
+     * Returns the titles of the pages linking to a redirect.
+     */
+    @FunctionalInterface
+    interface BacklinkSource {
+
+        /**
+         * Returns the node titles of the pages linking to {@code redirect}.
+         *
+         * @param redirect the node title of the redirect.
+         *
+         * @return the node titles of the pages linking to {@code redirect}.
+         *
+         * @throws Exception if the backlinks cannot be fetched.
+         */
+        List<String> getBacklinks(String redirect) throws Exception;
+    }
+
+    /**
+     * Returns the titles of the pages linking to an article page by page.
+     */
+    @FunctionalInterface
+    interface BacklinkPageSource {
+
+        /**
+         * Passes the pages of the node titles of the pages linking to
+         * {@code article} to {@code pageConsumer}, possibly from several
+         * threads, and returns once all of them are passed.
+         *
+         * @param article      the node title of the linked article.
+         * @param pageConsumer the consumer of the backlink pages.
+         *
+         * @throws Exception if the backlinks cannot be fetched.
+         */
+        void getBacklinkPages(String article,
+                              Consumer<List<String>> pageConsumer)
+                throws Exception;
+    }
+
+    /**
+     * Maps each language code to its shared redirect map.
+     */
+    private static final Map<String, Map<String, String>> REDIRECT_MAPS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The query used for the lookups, or {@code null} if this resolver does
+     * not resolve anything.
+     */
+    private final WikipediaApiClient.Query query;
+
+    /**
+     * Maps each known node title to its canonical node title. Non-redirect
+     * titles map to themselves.
+     */
+    private final Map<String, String> redirectMap;
+
+    /**
+     * The number of lookup requests sent.
+     */
+    private final AtomicLong numberOfLookups = new AtomicLong();
+
+    /**
+     * The number of titles found to be redirects.
+     */
+    private final AtomicLong numberOfResolvedRedirects = new AtomicLong();
+
+    /**
+     * Constructs a resolver with its own redirect map.
+     *
+     * @param query the query used for the lookups.
+     */
+    RedirectResolver(final WikipediaApiClient.Query query) {
+        this(query, new ConcurrentHashMap<>());
+    }
+
+    private RedirectResolver(final WikipediaApiClient.Query query,
+                             final Map<String, String> redirectMap) {
+        this.query = query;
+        this.redirectMap = redirectMap;
+    }
+
+    /**
+     * Returns a new resolver for the language code {@code languageCode}. The
+     * resolvers of the same language share their redirect map, but count
+     * their lookups separately.
+     *
+     * @param languageCode the language code of the Wikipedia edition.
+     *
+     * @return the resolver.
+     */
+    static RedirectResolver forLanguage(final String languageCode) {
+        return new RedirectResolver(
+                WikipediaApiClient.forLanguage(languageCode)::query,
+                REDIRECT_MAPS.computeIfAbsent(
+                        languageCode,
+                        (code) -> new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Returns a resolver that does not resolve anything, but only removes the
+     * duplicate titles.
+     *
+     * @return a non-resolving resolver.
+     */
+    static RedirectResolver none() {
+        return new RedirectResolver(null, null);
+    }
+
+    /**
+     * Resolves a single title.
+     *
+     * @param title the node title to resolve.
+     *
+     * @return the canonical node title.
+     */
+    String resolve(final String title) {
+        return resolve(List.of(title)).get(0);
+    }
+
+    /**
+     * Resolves each title in {@code titles} to its canonical title. The
+     * returned list contains no duplicates, and the titles that could not be
+     * looked up are returned decoded but otherwise as is.
+     *
+     * @param titles the list of node titles.
+     *
+     * @return the list of distinct canonical node titles.
+     */
+    List<String> resolve(final List<String> titles) {
+        if (query == null) {
+            return new ArrayList<>(new LinkedHashSet<>(titles));
+        }
+
+        final SearchEvents.CacheLookupEvent event =
+                new SearchEvents.CacheLookupEvent();
+        event.begin();
+
+        final List<String> unknownTitles = new ArrayList<>();
+
+        for (final String title : titles) {
+            if (!redirectMap.containsKey(title)) {
+                unknownTitles.add(title);
+            }
+        }
+
+        event.finish("redirects",
+                     titles.size() - unknownTitles.size(),
+                     unknownTitles.size());
+
+        for (int i = 0;
+                 i < unknownTitles.size();
+                 i += SuccessorFilter.MAXIMUM_TITLES_PER_QUERY) {
+
+            lookup(unknownTitles.subList(
+                    i,
+                    Math.min(unknownTitles.size(),
+                             i + SuccessorFilter.MAXIMUM_TITLES_PER_QUERY)));
+        }
+
+        final Set<String> canonicalTitles =
+                new LinkedHashSet<>(titles.size());
+
+        for (final String title : titles) {
+            final String canonicalTitle = redirectMap.get(title);
+
+            canonicalTitles.add(
+                    canonicalTitle != null ?
+                            canonicalTitle :
+                            WikipediaTitles.toNodeTitle(
+                                    WikipediaTitles.toApiTitle(title)));
+        }
+
+        return new ArrayList<>(canonicalTitles);
+    }
+
+    /**
+     * Resolves the {@code backlinks} of {@code article}. The redirects to
+     * {@code article} among them are not returned as such, but replaced by
+     * the pages linking to them, so that an article linking to a redirect of
+     * {@code article} is a single link away from it.
+     *
+     * @param article          the node title of the linked article.
+     * @param backlinks        the node titles of the pages linking to
+     *                         {@code article}.
+     * @param redirectBacklinks returns the backlinks of a redirect.
+     *
+     * @return the distinct canonical backlinks, {@code article} excluded.
+     */
+    List<String> resolveBacklinks(final String article,
+                                  final List<String> backlinks,
+                                  final BacklinkSource redirectBacklinks) {
+
+        final Set<String> successors = new LinkedHashSet<>(resolve(backlinks));
+
+        if (successors.remove(article)) {
+            for (final String backlink : backlinks) {
+                if (backlink.equals(article) ||
+                    !resolve(backlink).equals(article)) {
+                    continue;
+                }
+
+                try {
+                    successors.addAll(
+                            resolve(redirectBacklinks.getBacklinks(backlink)));
+                } catch (final Exception ex) {
+                    // Omit the redirect, but keep the direct backlinks.
+                }
+            }
+
+            successors.remove(article);
+        }
+
+        return new ArrayList<>(successors);
+    }
+
+    /**
+     * Resolves the backlinks of {@code article} page by page just like
+     * {@link #resolveBacklinks(String, List, BacklinkSource)}. The pages may
+     * arrive in the threads of a fetch, which must not wait for another
+     * fetch, so the redirects to {@code article} are only collected; their
+     * backlinks are fetched in the calling thread once
+     * {@code backlinkPages} returns, and passed on as further pages.
+     *
+     * @param article           the node title of the linked article.
+     * @param backlinkPages     returns the backlink pages of
+     *                          {@code article}.
+     * @param redirectBacklinks returns the backlinks of a redirect.
+     * @param pageConsumer      the consumer of the pages of distinct
+     *                          canonical backlinks, {@code article}
+     *                          excluded.
+     *
+     * @throws Exception if the backlink pages of {@code article} cannot be
+     *                   fetched.
+     */
+    void resolveBacklinkPages(final String article,
+                              final BacklinkPageSource backlinkPages,
+                              final BacklinkSource redirectBacklinks,
+                              final Consumer<List<String>> pageConsumer)
+            throws Exception {
+
+        final Queue<String> redirects = new ConcurrentLinkedQueue<>();
+
+        backlinkPages.getBacklinkPages(article, (page) -> {
+            pageConsumer.accept(
+                    resolveBacklinks(article, page, (redirect) -> {
+                        redirects.add(redirect);
+                        return List.of();
+                    }));
+        });
+
+        for (final String redirect : redirects) {
+            final List<String> successors;
+
+            try {
+                successors = resolve(redirectBacklinks.getBacklinks(redirect));
+            } catch (final Exception ex) {
+                // Omit the redirect, but keep the direct backlinks.
+                continue;
+            }
+
+            successors.remove(article);
+            pageConsumer.accept(successors);
+        }
+    }
+
+    /**
+     * Returns the number of lookup requests sent so far.
+     *
+     * @return the number of lookup requests.
+     */
+    long getNumberOfLookups() {
+        return numberOfLookups.get();
+    }
+
+    /**
+     * Returns the number of titles found to be redirects so far.
+     *
+     * @return the number of resolved redirects.
+     */
+    long getNumberOfResolvedRedirects() {
+        return numberOfResolvedRedirects.get();
+    }
+
+    /**
+     * Looks up a batch of titles and stores the results in the redirect map.
+     * On failure, nothing is stored.
+     *
+     * @param titles the node titles to look up. At most 50.
+     */
+    private void lookup(final List<String> titles) {
+        final List<String> apiTitles = new ArrayList<>(titles.size());
+
+        for (final String title : titles) {
+            apiTitles.add(WikipediaTitles.toApiTitle(title));
+        }
+
+        final Map<String, String> normalizedMap;
+        final Map<String, String> redirectedMap;
+
+        try {
+            numberOfLookups.incrementAndGet();
+
+            final String json =
+                    query.query("redirects", "1",
+                                "titles",    String.join("|", apiTitles));
+
+            normalizedMap = WikipediaApiClient.getSectionMap(json,
+                                                             "normalized");
+            redirectedMap = WikipediaApiClient.getSectionMap(json,
+                                                             "redirects");
+        } catch (final Exception ex) {
+            return;
+        }
+
+        for (int i = 0; i < titles.size(); i++) {
+            String apiTitle = apiTitles.get(i);
+            apiTitle = normalizedMap.getOrDefault(apiTitle, apiTitle);
+
+            final String targetApiTitle = redirectedMap.get(apiTitle);
+
+            if (targetApiTitle != null) {
+                apiTitle = targetApiTitle;
+                numberOfResolvedRedirects.incrementAndGet();
+            }
+
+            redirectMap.put(titles.get(i),
+                            WikipediaTitles.toNodeTitle(apiTitle));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class implements a node expander that feeds the expansions of an
+ * expansion trace back to a search, optionally sleeping for the recorded
+ * (possibly scaled) latency of each expansion. A node not expanded in the
+ * recorded search gets its observed successors at no latency, and is counted
+ * as a miss. Since the observed successors may be only some of them, the
+ * misses count as incomplete expansions.
+ */
+final class ReplayNodeExpander
+        extends AbstractNodeExpander<String>
+        implements ForkJoinBidirectionalBFSPathFinder
+                           .IncompleteExpansionCounter {
+
+    private final ExpansionTrace trace;
+    private final int direction;
+    private final double latencyScale;
+    private final AtomicInteger numberOfMisses = new AtomicInteger();
+
+    /**
+     * Creates a replaying expander.
+     *
+     * @param trace        the expansion trace.
+     * @param direction    {@code FORWARD} or {@code BACKWARD} of
+     *                     {@link ForkJoinBidirectionalBFSPathFinder}.
+     * @param latencyScale the factor of the recorded latencies: 1.0 replays
+     *                     the original latencies, 0.0 replays with no
+     *                     latency at all.
+     */
+    ReplayNodeExpander(final ExpansionTrace trace,
+                       final int direction,
+                       final double latencyScale) {
+        if (latencyScale < 0.0 || Double.isNaN(latencyScale)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "Bad latency scale %f.",
+                            latencyScale));
+        }
+
+        this.trace = trace;
+        this.direction = direction;
+        this.latencyScale = latencyScale;
+    }
+
+    @Override
+    public List<String> generateSuccessors(final String node) {
+        final ExpansionTrace.Expansion expansion =
+                trace.getExpansion(direction, node);
+
+        if (expansion == null) {
+            numberOfMisses.incrementAndGet();
+            return trace.getObservedSuccessors(direction, node);
+        }
+
+        final long latencyNanos =
+                (long)(expansion.latencyNanos() * latencyScale);
+
+        if (latencyNanos > 0L) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        return expansion.successors();
+    }
+
+    @Override
+    public boolean isValidNode(final String node) {
+        return true;
+    }
+
+    /**
+     * Returns the number of expansions not found in the trace.
+     *
+     * @return the number of misses.
+     */
+    int getNumberOfMisses() {
+        return numberOfMisses.get();
+    }
+
+    @Override
+    public long getNumberOfIncompleteExpansions() {
+        return numberOfMisses.get();
+    }
+}
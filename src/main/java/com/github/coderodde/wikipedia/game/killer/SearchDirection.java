@@ -0,0 +1,384 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * This class implements the level-by-level expansion of a single
+ * breadth-first search direction on a work-stealing {@link ForkJoinPool},
+ * shared by {@link ForkJoinBidirectionalBFSPathFinder} and
+ * {@link MultiTargetBFSPathFinder}. The subclasses keep the visited state and
+ * decide when the search is over.
+ *
+ * Each expansion of a level runs as a {@link ForkJoinPool.ManagedBlocker},
+ * and the last completing one triggers the deferred expansions of the level,
+ * if any, and then {@link #onLevelExpanded(java.util.Queue)}. An expander
+ * implementing
+ * {@link ForkJoinBidirectionalBFSPathFinder.PagedNodeExpander} has its
+ * successors visited page by page, and one implementing
+ * {@link ForkJoinBidirectionalBFSPathFinder.DeferringNodeExpander} may have
+ * some nodes expanded after the rest of their level. The expansions that
+ * time out or throw are counted as incomplete.
+ *
+ * @param <N> the node type.
+ */
+abstract class SearchDirection<N> {
+
+    /**
+     * Marks an expansion deferred to the end of its level.
+     */
+    private static final List<?> DEFERRED =
+            Collections.unmodifiableList(new ArrayList<>());
+
+    /**
+     * Marks an expansion that timed out or failed.
+     */
+    private static final List<?> INCOMPLETE =
+            Collections.unmodifiableList(new ArrayList<>());
+
+    /**
+     * The index of this direction,
+     * {@link ForkJoinBidirectionalBFSPathFinder#FORWARD} or
+     * {@link ForkJoinBidirectionalBFSPathFinder#BACKWARD}.
+     */
+    final int index;
+
+    /**
+     * The node expander of this direction.
+     */
+    final AbstractNodeExpander<N> expander;
+
+    /**
+     * The pool running the expansions.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * The maximum duration of a single expansion.
+     */
+    private final long expansionTimeoutNanos;
+
+    /**
+     * The expansions of this direction that timed out or failed.
+     */
+    private final AtomicLong numberOfIncompleteExpansions = new AtomicLong();
+
+    /**
+     * The number of incomplete expansions of the expander before the search.
+     */
+    private final long initialNumberOfExpanderIncompleteExpansions;
+
+    SearchDirection(final int index,
+                    final AbstractNodeExpander<N> expander,
+                    final ForkJoinPool pool,
+                    final long expansionTimeoutNanos) {
+        this.index = index;
+        this.expander = expander;
+        this.pool = pool;
+        this.expansionTimeoutNanos = expansionTimeoutNanos;
+        this.initialNumberOfExpanderIncompleteExpansions =
+                ForkJoinBidirectionalBFSPathFinder
+                        .getNumberOfIncompleteExpansions(expander);
+    }
+
+    /**
+     * Creates a pool of {@code parallelism} threads that may add a spare
+     * thread for each one blocked in an expansion, up to twice its
+     * parallelism.
+     *
+     * @param parallelism the parallelism level.
+     *
+     * @return the pool.
+     */
+    static ForkJoinPool createPool(final int parallelism) {
+        return new ForkJoinPool(parallelism,
+                                ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                                null,
+                                false,
+                                0,
+                                2 * parallelism,
+                                1,
+                                (p) -> true,
+                                60L,
+                                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tells whether this direction has nothing left to search for. The
+     * pending expansions are then skipped, and their successors ignored.
+     *
+     * @return {@code true} if this direction is stopped.
+     */
+    abstract boolean isStopped();
+
+    /**
+     * Called once per completed expansion of {@code node}, before its
+     * successors are visited.
+     *
+     * @param node           the expanded node.
+     * @param durationMillis the duration of the expansion in milliseconds.
+     */
+    abstract void onExpansion(N node, long durationMillis);
+
+    /**
+     * Visits {@code successors} of {@code node}, adding the newly visited
+     * ones to {@code nextFrontier}. The successors of a paged expander are
+     * visited one page at a time, possibly from several threads.
+     *
+     * @param node         the expanded node.
+     * @param level        the level of {@code node}.
+     * @param successors   the successors to visit.
+     * @param nextFrontier the frontier of the next level.
+     */
+    abstract void visitSuccessors(N node,
+                                  int level,
+                                  List<N> successors,
+                                  Queue<N> nextFrontier);
+
+    /**
+     * Called once all the expansions of a level are done.
+     *
+     * @param nextFrontier the frontier of the next level.
+     */
+    abstract void onLevelExpanded(Queue<N> nextFrontier);
+
+    /**
+     * Submits the expansions of {@code frontier}.
+     *
+     * @param level    the level of {@code frontier}.
+     * @param frontier the nodes to expand.
+     */
+    final void expandLevel(final int level, final List<N> frontier) {
+        final Level currentLevel = new Level(level, frontier);
+
+        for (final N node : frontier) {
+            submitExpansion(currentLevel, node, true);
+        }
+    }
+
+    /**
+     * Returns the number of incomplete expansions of this direction so far,
+     * whether detected here or reported by the expander.
+     *
+     * @return the number of incomplete expansions.
+     */
+    final long countIncompleteExpansions() {
+        return numberOfIncompleteExpansions.get() +
+               ForkJoinBidirectionalBFSPathFinder
+                       .getNumberOfIncompleteExpansions(expander) -
+               initialNumberOfExpanderIncompleteExpansions;
+    }
+
+    /**
+     * Submits the expansion of {@code node}.
+     *
+     * @param level      the level of {@code node}.
+     * @param node       the node to expand.
+     * @param deferrable whether the expander may defer {@code node}.
+     */
+    @SuppressWarnings("unchecked")
+    private void submitExpansion(final Level level,
+                                 final N node,
+                                 final boolean deferrable) {
+        final long startTime = System.currentTimeMillis();
+        final PageGate pageGate = new PageGate();
+
+        CompletableFuture
+                .supplyAsync(
+                        () -> block(
+                                () -> isStopped() ?
+                                      Collections.<N>emptyList() :
+                                      deferrable &&
+                                      ForkJoinBidirectionalBFSPathFinder
+                                              .isDeferred(expander, node) ?
+                                      (List<N>) DEFERRED :
+                                      expand(node,
+                                             level.index,
+                                             level.nextFrontier,
+                                             pageGate)),
+                        pool)
+                .completeOnTimeout((List<N>) INCOMPLETE,
+                                   expansionTimeoutNanos,
+                                   TimeUnit.NANOSECONDS)
+                .exceptionally((ex) -> (List<N>) INCOMPLETE)
+                .thenAccept((successors) -> {
+                    try {
+                        pageGate.close();
+
+                        if (successors == DEFERRED) {
+                            level.deferredNodes.add(node);
+                            return;
+                        }
+
+                        if (successors == INCOMPLETE) {
+                            numberOfIncompleteExpansions.incrementAndGet();
+                        }
+
+                        if (isStopped()) {
+                            return;
+                        }
+
+                        onExpansion(node,
+                                    System.currentTimeMillis() - startTime);
+
+                        visitSuccessors(node,
+                                        level.index,
+                                        successors,
+                                        level.nextFrontier);
+                    } finally {
+                        if (level.numberOfOutstandingExpansions
+                                 .decrementAndGet() == 0) {
+                            onLevelDone(level);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Submits the deferred expansions of {@code level}, if any, or completes
+     * the level.
+     */
+    private void onLevelDone(final Level level) {
+        final List<N> deferredNodes = new ArrayList<>(level.deferredNodes);
+        level.deferredNodes.clear();
+
+        if (!deferredNodes.isEmpty() && !isStopped()) {
+            level.numberOfOutstandingExpansions.set(deferredNodes.size());
+
+            for (final N node : deferredNodes) {
+                submitExpansion(level, node, false);
+            }
+
+            return;
+        }
+
+        level.levelEvent.finish(SearchEvents.getDirectionName(index),
+                                level.index + 1,
+                                level.numberOfNodes,
+                                level.nextFrontier.size());
+
+        onLevelExpanded(level.nextFrontier);
+    }
+
+    /**
+     * Expands {@code node}. The successors of a paged expander are visited
+     * as they arrive, and none are returned.
+     */
+    @SuppressWarnings("unchecked")
+    private List<N> expand(final N node,
+                           final int level,
+                           final Queue<N> nextFrontier,
+                           final PageGate pageGate) {
+
+        if (!(expander instanceof
+                ForkJoinBidirectionalBFSPathFinder.PagedNodeExpander)) {
+            return expander.generateSuccessors(node);
+        }
+
+        ((ForkJoinBidirectionalBFSPathFinder.PagedNodeExpander<N>) expander)
+                .generateSuccessorPages(node, (page) -> {
+                    synchronized (pageGate) {
+                        if (!pageGate.closed && !isStopped()) {
+                            visitSuccessors(node, level, page, nextFrontier);
+                        }
+                    }
+                });
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Runs {@code task} as a {@link ForkJoinPool.ManagedBlocker}.
+     *
+     * @param <T>  the result type.
+     * @param task the blocking task.
+     *
+     * @return the result of {@code task}.
+     */
+    private static <T> T block(final Supplier<T> task) {
+        final BlockingTask<T> blockingTask = new BlockingTask<>(task);
+
+        try {
+            ForkJoinPool.managedBlock(blockingTask);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+
+        return blockingTask.result;
+    }
+
+    /**
+     * Lets the pool compensate for a thread blocked in an expansion.
+     */
+    private static final class BlockingTask<T>
+            implements ForkJoinPool.ManagedBlocker {
+
+        private final Supplier<T> task;
+        private T result;
+        private boolean done;
+
+        BlockingTask(final Supplier<T> task) {
+            this.task = task;
+        }
+
+        @Override
+        public boolean block() {
+            result = task.get();
+            done = true;
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return done;
+        }
+    }
+
+    /**
+     * Stops the pages of an expansion from being visited once the expansion
+     * has completed or timed out, since its level may be over by then.
+     */
+    private static final class PageGate {
+
+        /**
+         * Guarded by {@code this}.
+         */
+        boolean closed;
+
+        synchronized void close() {
+            closed = true;
+        }
+    }
+
+    /**
+     * Holds the state of a level being expanded.
+     */
+    private final class Level {
+        final int index;
+        final int numberOfNodes;
+        final Queue<N> nextFrontier = new ConcurrentLinkedQueue<>();
+        final Queue<N> deferredNodes = new ConcurrentLinkedQueue<>();
+        final AtomicInteger numberOfOutstandingExpansions;
+        final SearchEvents.LevelEvent levelEvent =
+                new SearchEvents.LevelEvent();
+
+        Level(final int index, final List<N> frontier) {
+            this.index = index;
+            this.numberOfNodes = frontier.size();
+            this.numberOfOutstandingExpansions =
+                    new AtomicInteger(frontier.size());
+            levelEvent.begin();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class groups the custom Java Flight Recorder events of the search. They
+ * show up under the {@code WikiGameKiller} category in JDK Mission Control
+ * and can be read with {@code jfr print --events WikiGameKiller.*}, so that
+ * slow expansions can be correlated with the HTTP traffic, the garbage
+ * collector and the thread states of the same recording.
+ *
+ * Each event is filled in only if {@link Event#shouldCommit()} returns
+ * {@code true}. When the recorder is off, the JIT compiler reduces the events
+ * to (almost) nothing.
+ */
+final class SearchEvents {
+
+    /**
+     * The name prefix of all the events.
+     */
+    private static final String PREFIX = "WikiGameKiller.";
+
+    /**
+     * The category of all the events.
+     */
+    private static final String CATEGORY = "WikiGameKiller";
+
+    private SearchEvents() {}
+
+    /**
+     * Returns the name of the search direction {@code direction}.
+     *
+     * @param direction {@code FORWARD} or {@code BACKWARD} of
+     *                  {@link ForkJoinBidirectionalBFSPathFinder}.
+     *
+     * @return the direction name.
+     */
+    static String getDirectionName(final int direction) {
+        return direction == ForkJoinBidirectionalBFSPathFinder.FORWARD ?
+               "forward" :
+               "backward";
+    }
+
+    /**
+     * Records a single node expansion of a link expander.
+     */
+    @Name(PREFIX + "Expansion")
+    @Label("Expansion")
+    @Category(CATEGORY)
+    @Description("A node expansion: downloading, filtering and resolving the "
+               + "neighbors of an article.")
+    @StackTrace(false)
+    static final class ExpansionEvent extends Event {
+
+        @Label("Direction")
+        String direction;
+
+        @Label("Title")
+        String title;
+
+        @Label("Neighbors")
+        int numberOfNeighbors;
+
+        @Label("Outcome")
+        @Description("\"ok\" or \"failed\".")
+        String outcome;
+
+        /**
+         * Ends and commits this event if it is enabled.
+         *
+         * @param direction         the direction name.
+         * @param title             the expanded title.
+         * @param numberOfNeighbors the number of neighbors generated.
+         * @param outcome           the outcome.
+         */
+        void finish(final String direction,
+                    final String title,
+                    final int numberOfNeighbors,
+                    final String outcome) {
+            end();
+
+            if (shouldCommit()) {
+                this.direction = direction;
+                this.title = title;
+                this.numberOfNeighbors = numberOfNeighbors;
+                this.outcome = outcome;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Records a single API request, retries included.
+     */
+    @Name(PREFIX + "HttpFetch")
+    @Label("HTTP Fetch")
+    @Category(CATEGORY)
+    @Description("A MediaWiki API request, retries included.")
+    @StackTrace(false)
+    static final class HttpFetchEvent extends Event {
+
+        @Label("URL")
+        String url;
+
+        @Label("Status Code")
+        @Description("The status code of the last attempt, or -1 if no "
+                   + "response was received.")
+        int statusCode;
+
+        @Label("Response Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Retries")
+        int retries;
+
+        /**
+         * Ends and commits this event if it is enabled.
+         *
+         * @param url        the requested URL.
+         * @param statusCode the last status code, or -1.
+         * @param bytes      the number of body bytes received.
+         * @param retries    the number of retries.
+         */
+        void finish(final String url,
+                    final int statusCode,
+                    final long bytes,
+                    final int retries) {
+            end();
+
+            if (shouldCommit()) {
+                this.url = url;
+                this.statusCode = statusCode;
+                this.bytes = bytes;
+                this.retries = retries;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Records the hits and misses of a cache lookup. Batch lookups are
+     * recorded as a single event.
+     */
+    @Name(PREFIX + "CacheLookup")
+    @Label("Cache Lookup")
+    @Category(CATEGORY)
+    @Description("A (batch) lookup in one of the search caches.")
+    @StackTrace(false)
+    static final class CacheLookupEvent extends Event {
+
+        @Label("Cache")
+        String cache;
+
+        @Label("Hits")
+        int hits;
+
+        @Label("Misses")
+        int misses;
+
+        /**
+         * Ends and commits this event if it is enabled.
+         *
+         * @param cache  the cache name.
+         * @param hits   the number of keys found in the cache.
+         * @param misses the number of keys not found in the cache.
+         */
+        void finish(final String cache, final int hits, final int misses) {
+            end();
+
+            if (shouldCommit()) {
+                this.cache = cache;
+                this.hits = hits;
+                this.misses = misses;
+                commit();
+            }
+        }
+    }
+
+    /**
+     * Records the expansion of a whole search level.
+     */
+    @Name(PREFIX + "Level")
+    @Label("Search Level")
+    @Category(CATEGORY)
+    @Description("The expansion of a whole level of a search direction.")
+    @StackTrace(false)
+    static final class LevelEvent extends Event {
+
+        @Label("Direction")
+        String direction;
+
+        @Label("Level")
+        @Description("The number of completed levels of the direction.")
+        int level;
+
+        @Label("Expanded Nodes")
+        int numberOfExpandedNodes;
+
+        @Label("Next Frontier Size")
+        long nextFrontierSize;
+
+        /**
+         * Ends and commits this event if it is enabled.
+         *
+         * @param direction             the direction name.
+         * @param level                 the number of completed levels.
+         * @param numberOfExpandedNodes the number of expanded nodes.
+         * @param nextFrontierSize      the size of the next frontier.
+         */
+        void finish(final String direction,
+                    final int level,
+                    final int numberOfExpandedNodes,
+                    final long nextFrontierSize) {
+            end();
+
+            if (shouldCommit()) {
+                this.direction = direction;
+                this.level = level;
+                this.numberOfExpandedNodes = numberOfExpandedNodes;
+                this.nextFrontierSize = nextFrontierSize;
+                commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * This class implements a single-flight layer over node expansions. For each
+ * article title, at most one expansion request is in flight at any moment; all
+ * the callers asking for the same title while the request is running wait on
+ * the very same future and receive the very same result.
+ *
+ * Each link expander owns its coalescer, so that only the expansions of the
+ * same direction in the same Wikipedia edition are coalesced; the searches
+ * sharing an expander, such as the sessions of a distributed worker, share
+ * its coalescer too.
+ */
+final class SingleFlightExpansionCoalescer {
+
+    /**
+     * Expands a title page by page.
+     */
+    @FunctionalInterface
+    interface PagedLoader {
+
+        /**
+         * Passes the pages of neighbors to {@code pageConsumer}, possibly
+         * from several threads, and returns once all of them are passed.
+         *
+         * @param pageConsumer the consumer of the pages.
+         *
+         * @throws Exception if the expansion fails.
+         */
+        void load(Consumer<List<String>> pageConsumer) throws Exception;
+    }
+
+    /**
+     * Maps each article title to the future of its in-flight expansion.
+     */
+    private final ConcurrentMap<String, CompletableFuture<List<String>>>
+            inFlightExpansions = new ConcurrentHashMap<>();
+
+    /**
+     * The total number of expansion calls.
+     */
+    private final AtomicLong numberOfCalls = new AtomicLong();
+
+    /**
+     * The number of expansion calls that joined an already in-flight request.
+     */
+    private final AtomicLong numberOfCoalescedCalls = new AtomicLong();
+
+    /**
+     * The name of this coalescer in the cache lookup events.
+     */
+    private final String name;
+
+    SingleFlightExpansionCoalescer() {
+        this("in-flight expansions");
+    }
+
+    SingleFlightExpansionCoalescer(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Expands {@code title} via {@code loader}, unless an expansion of the
+     * same title is already in flight, in which case waits for it and returns
+     * its result.
+     *
+     * @param title  the title of the article to expand.
+     * @param loader the actual expansion routine.
+     *
+     * @return the list of neighbors of {@code title}.
+     *
+     * @throws Exception if the (possibly shared) expansion fails.
+     */
+    List<String> expand(final String title,
+                        final Callable<List<String>> loader)
+            throws Exception {
+
+        final CompletableFuture<List<String>> future =
+                new CompletableFuture<>();
+
+        final CompletableFuture<List<String>> inFlightFuture =
+                putIfAbsent(title, future);
+
+        if (inFlightFuture != null) {
+            return join(inFlightFuture);
+        }
+
+        return load(title, future, loader);
+    }
+
+    /**
+     * Expands {@code title} page by page via {@code loader}, passing the
+     * pages on to {@code pageConsumer} as they arrive, unless an expansion of
+     * the same title is already in flight, in which case waits for it and
+     * passes its result on as a single page. The pages are collected, so that
+     * the callers joining this expansion receive all the neighbors.
+     *
+     * @param title        the title of the article to expand.
+     * @param loader       the actual paged expansion routine.
+     * @param pageConsumer the consumer of the pages of neighbors.
+     *
+     * @throws Exception if the (possibly shared) expansion fails.
+     */
+    void expandPages(final String title,
+                     final PagedLoader loader,
+                     final Consumer<List<String>> pageConsumer)
+            throws Exception {
+
+        final CompletableFuture<List<String>> future =
+                new CompletableFuture<>();
+
+        final CompletableFuture<List<String>> inFlightFuture =
+                putIfAbsent(title, future);
+
+        if (inFlightFuture != null) {
+            pageConsumer.accept(join(inFlightFuture));
+            return;
+        }
+
+        final List<String> neighbors = new ArrayList<>();
+
+        load(title, future, () -> {
+            loader.load((page) -> {
+                synchronized (neighbors) {
+                    neighbors.addAll(page);
+                }
+
+                pageConsumer.accept(page);
+            });
+
+            // The pages of a split list may repeat a few neighbors:
+            return new ArrayList<>(new LinkedHashSet<>(neighbors));
+        });
+    }
+
+    /**
+     * Registers {@code future} as the in-flight expansion of {@code title},
+     * unless there already is one.
+     *
+     * @return the in-flight future of {@code title}, or {@code null} if
+     *         {@code future} was registered.
+     */
+    private CompletableFuture<List<String>> putIfAbsent(
+            final String title,
+            final CompletableFuture<List<String>> future) {
+
+        numberOfCalls.incrementAndGet();
+
+        final SearchEvents.CacheLookupEvent event =
+                new SearchEvents.CacheLookupEvent();
+        event.begin();
+
+        final CompletableFuture<List<String>> inFlightFuture =
+                inFlightExpansions.putIfAbsent(title, future);
+
+        event.finish(name,
+                     inFlightFuture != null ? 1 : 0,
+                     inFlightFuture != null ? 0 : 1);
+
+        if (inFlightFuture != null) {
+            numberOfCoalescedCalls.incrementAndGet();
+        }
+
+        return inFlightFuture;
+    }
+
+    /**
+     * Runs {@code loader}, completes the registered {@code future} of
+     * {@code title} with its outcome and unregisters it.
+     */
+    private List<String> load(final String title,
+                              final CompletableFuture<List<String>> future,
+                              final Callable<List<String>> loader)
+            throws Exception {
+        try {
+            final List<String> result = loader.call();
+            future.complete(result);
+            return result;
+        } catch (final Throwable throwable) {
+            // Errors too, or the waiters would block forever:
+            future.completeExceptionally(throwable);
+            throw throwable;
+        } finally {
+            inFlightExpansions.remove(title, future);
+        }
+    }
+
+    /**
+     * Returns the total number of expansion calls.
+     *
+     * @return the total number of expansion calls.
+     */
+    long getNumberOfCalls() {
+        return numberOfCalls.get();
+    }
+
+    /**
+     * Returns the number of expansion calls that did not issue a request of
+     * their own, but waited for an in-flight request instead.
+     *
+     * @return the number of coalesced expansion calls.
+     */
+    long getNumberOfCoalescedCalls() {
+        return numberOfCoalescedCalls.get();
+    }
+
+    /**
+     * Waits for {@code future} and unwraps its failure, if any.
+     *
+     * @param future the future to wait for.
+     *
+     * @return the result of {@code future}.
+     *
+     * @throws Exception if {@code future} completed exceptionally.
+     */
+    private static List<String> join(
+            final CompletableFuture<List<String>> future) throws Exception {
+        try {
+            return future.get();
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw ex;
+        }
+    }
+}
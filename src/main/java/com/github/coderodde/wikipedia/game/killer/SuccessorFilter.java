@@ -0,0 +1,285 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.regex.Pattern;
+
+/**
+ * This class implements a successor filter that prunes article titles before
+ * they enter the search frontier. Each pruned title saves a full expansion
+ * later on. The filter consists of a list of rules applied in order, and
+ * keeps per-rule statistics on how many titles each rule pruned.
+ */
+final class SuccessorFilter {
+
+    /**
+     * The maximum number of titles per API query.
+     */
+    static final int MAXIMUM_TITLES_PER_QUERY = 50;
+
+    /**
+     * The English canonical namespace names used whenever the namespace names
+     * of the Wikipedia edition cannot be downloaded.
+     */
+    static final Set<String> DEFAULT_NAMESPACE_NAMES = Set.of(
+            "Talk", "User", "User talk", "Wikipedia", "Wikipedia talk",
+            "WP", "WT", "Project", "Project talk", "File", "File talk",
+            "Image", "Image talk", "MediaWiki", "MediaWiki talk", "Template",
+            "Template talk", "Help", "Help talk", "Category", "Category talk",
+            "Portal", "Portal talk", "Draft", "Draft talk", "TimedText",
+            "TimedText talk", "Module", "Module talk", "Special", "Media");
+
+    /**
+     * This interface defines the API for the filter rules.
+     */
+    interface Rule {
+
+        /**
+         * Returns the name of this rule used in the statistics.
+         *
+         * @return the name of this rule.
+         */
+        String getName();
+
+        /**
+         * Returns the titles in {@code titles} that this rule keeps.
+         *
+         * @param titles the list of node titles.
+         *
+         * @return the list of kept node titles.
+         *
+         * @throws Exception if the rule cannot be evaluated.
+         */
+        List<String> apply(List<String> titles) throws Exception;
+    }
+
+    /**
+     * The rules in the order of application.
+     */
+    private final List<Rule> rules;
+
+    /**
+     * The number of titles pruned by each rule.
+     */
+    private final AtomicLongArray prunedCounts;
+
+    SuccessorFilter(final List<Rule> rules) {
+        this.rules = new ArrayList<>(rules);
+        this.prunedCounts = new AtomicLongArray(rules.size());
+    }
+
+    /**
+     * Returns a filter that keeps everything.
+     *
+     * @return a filter without rules.
+     */
+    static SuccessorFilter none() {
+        return new SuccessorFilter(Collections.<Rule>emptyList());
+    }
+
+    /**
+     * Returns the successors in {@code successors} kept by all the rules. If a
+     * rule cannot be evaluated, it keeps all its input titles.
+     *
+     * @param successors the list of successor node titles.
+     *
+     * @return the list of kept successor node titles.
+     */
+    List<String> filter(List<String> successors) {
+        for (int i = 0; i < rules.size(); i++) {
+            if (successors.isEmpty()) {
+                break;
+            }
+
+            try {
+                final List<String> kept = rules.get(i).apply(successors);
+                prunedCounts.addAndGet(i, successors.size() - kept.size());
+                successors = kept;
+            } catch (final Exception ex) {
+                // Keep everything the rule could not decide on.
+            }
+        }
+
+        return successors;
+    }
+
+    /**
+     * Returns the rules of this filter.
+     *
+     * @return the list of rules.
+     */
+    List<Rule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Returns the number of titles pruned by the {@code ruleIndex}th rule.
+     *
+     * @param ruleIndex the index of the rule.
+     *
+     * @return the number of pruned titles.
+     */
+    long getNumberOfPrunedNodes(final int ruleIndex) {
+        return prunedCounts.get(ruleIndex);
+    }
+
+    /**
+     * This rule keeps only the main namespace articles.
+     */
+    static final class NamespaceRule implements Rule {
+
+        /**
+         * The lower case names of all the non-main namespaces.
+         */
+        private final Set<String> namespaceNames = new HashSet<>();
+
+        NamespaceRule(final Set<String> namespaceNames) {
+            for (final String namespaceName : namespaceNames) {
+                this.namespaceNames.add(normalize(namespaceName));
+            }
+        }
+
+        @Override
+        public String getName() {
+            return "namespace";
+        }
+
+        @Override
+        public List<String> apply(final List<String> titles) {
+            final List<String> kept = new ArrayList<>(titles.size());
+
+            for (final String title : titles) {
+                final String prefix = WikipediaTitles.getNamespacePrefix(title);
+
+                if (prefix == null ||
+                    !namespaceNames.contains(normalize(prefix))) {
+                    kept.add(title);
+                }
+            }
+
+            return kept;
+        }
+
+        private static String normalize(final String namespaceName) {
+            return namespaceName.replace('_', ' ').toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * This rule prunes the titles matching a regular expression. The pattern
+     * is matched against the decoded node title, so that, for example,
+     * {@code ^List_of_} prunes the list articles.
+     */
+    static final class PatternRule implements Rule {
+
+        private final Pattern pattern;
+
+        PatternRule(final Pattern pattern) {
+            this.pattern = pattern;
+        }
+
+        @Override
+        public String getName() {
+            return "pattern " + pattern.pattern();
+        }
+
+        @Override
+        public List<String> apply(final List<String> titles) {
+            final List<String> kept = new ArrayList<>(titles.size());
+
+            for (final String title : titles) {
+                if (!pattern.matcher(WikipediaTitles.decode(title)).find()) {
+                    kept.add(title);
+                }
+            }
+
+            return kept;
+        }
+    }
+
+    /**
+     * This rule prunes the articles having a given page property, such as
+     * {@code disambiguation}. The page properties are queried in batches and
+     * cached for the rest of the run.
+     */
+    static final class PagePropertyRule implements Rule {
+
+        private final WikipediaApiClient apiClient;
+        private final String property;
+
+        /**
+         * Maps each API title to {@code true} if and only if it has the page
+         * property.
+         */
+        private final Map<String, Boolean> cache = new ConcurrentHashMap<>();
+
+        PagePropertyRule(final WikipediaApiClient apiClient,
+                         final String property) {
+            this.apiClient = apiClient;
+            this.property = property;
+        }
+
+        @Override
+        public String getName() {
+            return "page property " + property;
+        }
+
+        @Override
+        public List<String> apply(final List<String> titles) throws Exception {
+            final SearchEvents.CacheLookupEvent event =
+                    new SearchEvents.CacheLookupEvent();
+            event.begin();
+
+            final List<String> unknownApiTitles = new ArrayList<>();
+
+            for (final String title : titles) {
+                final String apiTitle = WikipediaTitles.toApiTitle(title);
+
+                if (!cache.containsKey(apiTitle)) {
+                    unknownApiTitles.add(apiTitle);
+                }
+            }
+
+            event.finish(getName(),
+                         titles.size() - unknownApiTitles.size(),
+                         unknownApiTitles.size());
+
+            for (int i = 0;
+                     i < unknownApiTitles.size();
+                     i += MAXIMUM_TITLES_PER_QUERY) {
+
+                final List<String> batch =
+                        unknownApiTitles.subList(
+                                i,
+                                Math.min(unknownApiTitles.size(),
+                                         i + MAXIMUM_TITLES_PER_QUERY));
+
+                final Set<String> titlesWithProperty =
+                        apiClient.getTitlesHavingPageProperty(batch, property);
+
+                for (final String apiTitle : batch) {
+                    cache.put(apiTitle,
+                              titlesWithProperty.contains(apiTitle));
+                }
+            }
+
+            final List<String> kept = new ArrayList<>(titles.size());
+
+            for (final String title : titles) {
+                if (!cache.getOrDefault(WikipediaTitles.toApiTitle(title),
+                                        Boolean.FALSE)) {
+                    kept.add(title);
+                }
+            }
+
+            return kept;
+        }
+    }
+}
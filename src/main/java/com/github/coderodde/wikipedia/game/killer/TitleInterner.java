@@ -0,0 +1,176 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+/**
+ * This class implements an interner of article titles that looks titles up
+ * directly by their characters. A title seen before is returned as the very
+ * same {@code String} instance without allocating anything, so that the
+ * search gets stable and deduplicated title references.
+ *
+ * An interner is meant to live as long as a single search, and is dropped
+ * with it. The titles are spread by their hashes over a number of stripes,
+ * each with its own table and lock, so that the expansion threads rarely
+ * contend for the same lock.
+ */
+final class TitleInterner {
+
+    /**
+     * The number of bits selecting a stripe.
+     */
+    private static final int STRIPE_BITS = 4;
+
+    /**
+     * The initial capacity of the table of a stripe. Must be a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /**
+     * The stripes holding the interned titles.
+     */
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    TitleInterner() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns the interned title consisting of {@code length} characters of
+     * {@code chars}, starting from index 0.
+     *
+     * @param chars  the character buffer.
+     * @param length the number of characters in the title.
+     *
+     * @return the interned title.
+     */
+    String intern(final char[] chars, final int length) {
+        final int hash = hash(chars, length);
+        return stripes[mix(hash) >>> (Integer.SIZE - STRIPE_BITS)]
+                .intern(chars, length, hash);
+    }
+
+    /**
+     * Returns the number of interned titles.
+     *
+     * @return the number of titles.
+     */
+    int size() {
+        int size = 0;
+
+        for (final Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Holds the open addressing table of a subset of the titles. All the
+     * methods are guarded by the stripe.
+     */
+    private static final class Stripe {
+
+        /**
+         * The open addressing table of interned titles.
+         */
+        private String[] table = new String[INITIAL_CAPACITY];
+
+        /**
+         * The hash codes of the titles in {@code table}.
+         */
+        private int[] hashes = new int[INITIAL_CAPACITY];
+
+        /**
+         * The number of interned titles.
+         */
+        private int size;
+
+        synchronized String intern(final char[] chars,
+                                   final int length,
+                                   final int hash) {
+            final int mask = table.length - 1;
+            int slot = mix(hash) & mask;
+
+            while (table[slot] != null) {
+                if (hashes[slot] == hash &&
+                    TitleInterner.equals(table[slot], chars, length)) {
+                    return table[slot];
+                }
+
+                slot = (slot + 1) & mask;
+            }
+
+            final String title = new String(chars, 0, length);
+            table[slot] = title;
+            hashes[slot] = hash;
+
+            if (++size > table.length / 2) {
+                grow();
+            }
+
+            return title;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void grow() {
+            final String[] oldTable = table;
+            final int[] oldHashes = hashes;
+
+            table = new String[oldTable.length * 2];
+            hashes = new int[oldTable.length * 2];
+
+            final int mask = table.length - 1;
+
+            for (int i = 0; i < oldTable.length; i++) {
+                if (oldTable[i] == null) {
+                    continue;
+                }
+
+                int slot = mix(oldHashes[i]) & mask;
+
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                table[slot] = oldTable[i];
+                hashes[slot] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Computes the same hash code as {@link String#hashCode()}.
+     */
+    private static int hash(final char[] chars, final int length) {
+        int hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        return hash;
+    }
+
+    private static int mix(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(final String title,
+                                  final char[] chars,
+                                  final int length) {
+        if (title.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (title.charAt(i) != chars[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -15,9 +15,13 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,8 +31,16 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * This program implements a Wiki game killer. The program asks a source 
@@ -85,12 +97,30 @@ public final class WikiGameKiller {
         }
     }
             
+    /**
+     * The available search engines.
+     */
+    private enum SearchEngine {
+        
+        /**
+         * The master/slave engine of 
+         * {@code ThreadPoolBidirectionalBFSPathFinder.java}.
+         */
+        THREAD_POOL,
+        
+        /**
+         * The event-driven {@link ForkJoinBidirectionalBFSPathFinder}.
+         */
+        FORK_JOIN;
+    }
+    
     /**
      * This class simply holds all the command line arguments.
      */
     private static final class CommandLineArguments {
         String source                 = null;
         String target                 = null;
+        List<String> targets          = new ArrayList<>();
         String outFileName            = null;
         int forwardThreads            = DEFAULT_NUMBER_OF_THREADS;
         int backwardThreads           = DEFAULT_NUMBER_OF_THREADS;
@@ -98,6 +128,37 @@ public final class WikiGameKiller {
         long masterSleepDurationNanos = DEFAULT_MASTER_THREAD_SLEEP_DURATION_NANOS;
         long slaveSleepDurationNanos  = DEFAULT_SLAVE_THREAD_SLEEP_DURATION_NANOS;
         long expansionTimeoutNanos    = DEFAULT_EXPANSION_JOIN_DURATION_NANOS;
+        SearchEngine searchEngine     = SearchEngine.THREAD_POOL;
+        String excludePattern         = null;
+        HubThrottlingPolicy.Mode hubThrottlingMode = 
+                HubThrottlingPolicy.Mode.OFF;
+        long hubDegreeThreshold       = 
+                HubThrottlingPolicy.DEFAULT_HUB_DEGREE_THRESHOLD;
+        int hubFanOutCap              = 
+                HubThrottlingPolicy.DEFAULT_FAN_OUT_CAP;
+        String excludePageProperty    = null;
+        boolean allNamespaces         = false;
+        boolean resolveRedirects      = false;
+        boolean offHeap               = false;
+        boolean directFetch           = false;
+        int backlinkRanges            = 
+                DirectSuccessorFetcher.DEFAULT_NUMBER_OF_RANGES;
+        int backlinkPageBudget        = 
+                DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET;
+        int workerPort                = -1;
+        String workerAddresses        = null;
+        String graphFileName          = null;
+        String recordFileName         = null;
+        String replayFileName         = null;
+        double replayLatencyScale     = 1.0;
+        boolean autoTune              = false;
+        long deadlineMillis           = -1L;
+        String ballTargetsFileName    = null;
+        int ballDepth                 = ReachabilityBall.DEFAULT_DEPTH;
+        long ballRefreshIntervalMillis = -1L;
+        boolean useBalls              = false;
+        boolean fastGuess             = false;
+        Set<String> flags             = Collections.emptySet();
         boolean printHelp             = false;
         boolean printStatistics       = false;
     }
@@ -113,43 +174,180 @@ public final class WikiGameKiller {
                 return;
             }
             
+            if (commandLineArguments.workerPort >= 0) {
+                runWorker(commandLineArguments);
+                return;
+            }
+            
+            if (commandLineArguments.ballTargetsFileName != null) {
+                runBallBuilder(commandLineArguments);
+                return;
+            }
+            
             String source = commandLineArguments.source;
             String target = commandLineArguments.target;
+            String languageCodeSource;
+            String languageCodeTarget;
             
-            checkWikipediaArticleFormat(source);
-            checkWikipediaArticleFormat(target);
+            final ExpansionTrace replayTrace = 
+                    readReplayTrace(commandLineArguments);
             
-            String languageCodeSource = getLanguageCode(source);
-            String languageCodeTarget = getLanguageCode(target);
+            final boolean offline = replayTrace != null;
             
-            if (!languageCodeSource.equals(languageCodeTarget)) {
-                throw new RuntimeException(
-                        String.format(
-                                "Language code mismatch: \"%s\" vs \"%s\".", 
-                                languageCodeSource, 
-                                languageCodeTarget));
+            if (offline) {
+                // Replay the very search recorded in the trace:
+                source = replayTrace.getSource();
+                target = replayTrace.getTarget();
+                languageCodeSource = replayTrace.getLanguageCode();
+                languageCodeTarget = replayTrace.getLanguageCode();
+            } else {
+                checkWikipediaArticleFormat(source);
+                languageCodeSource = getLanguageCode(source);
+                languageCodeTarget = getLanguageCode(target);
+                
+                for (final String targetUrl : commandLineArguments.targets) {
+                    checkWikipediaArticleFormat(targetUrl);
+                    
+                    if (!languageCodeSource.equals(
+                            getLanguageCode(targetUrl))) {
+                        throw new RuntimeException(
+                                String.format(
+                                        "Language code mismatch: \"%s\" vs \"%s\".", 
+                                        languageCodeSource, 
+                                        getLanguageCode(targetUrl)));
+                    }
+                }
+                
+                // Get the article names:
+                source = getArticleTitle(source);
+                target = getArticleTitle(target);
+            }
+            
+            final RedirectResolver forwardRedirectResolver = 
+                    commandLineArguments.resolveRedirects && !offline ?
+                    RedirectResolver.forLanguage(languageCodeSource) :
+                    RedirectResolver.none();
+            
+            final RedirectResolver backwardRedirectResolver = 
+                    commandLineArguments.resolveRedirects && !offline ?
+                    RedirectResolver.forLanguage(languageCodeTarget) :
+                    RedirectResolver.none();
+            
+            final List<String> targets = new ArrayList<>();
+            
+            if (offline) {
+                targets.add(target);
+            } else {
+                // The terminal nodes are always resolved, at the cost of a 
+                // request or two:
+                source = RedirectResolver.forLanguage(languageCodeSource)
+                                         .resolve(source);
+                
+                final RedirectResolver targetRedirectResolver = 
+                        RedirectResolver.forLanguage(languageCodeTarget);
+                
+                for (final String targetUrl : commandLineArguments.targets) {
+                    targets.add(
+                            targetRedirectResolver.resolve(
+                                    getArticleTitle(targetUrl)));
+                }
+                
+                target = targets.get(0);
             }
             
-            // Get the article names:
-            source = source.substring(source.lastIndexOf("/") + 1);
-            target = target.substring(target.lastIndexOf("/") + 1);
+            AbstractNodeExpander<String> forwardLinkExpander;
+            AbstractNodeExpander<String> backwardLinkExpander;
+            
+            final SuccessorFilter forwardSuccessorFilter =
+                    offline ? 
+                    SuccessorFilter.none() :
+                    createSuccessorFilter(commandLineArguments,
+                                          languageCodeSource);
+            
+            final SuccessorFilter backwardSuccessorFilter =
+                    offline ? 
+                    SuccessorFilter.none() :
+                    createSuccessorFilter(commandLineArguments,
+                                          languageCodeTarget);
+            
+            final HubThrottlingPolicy hubThrottlingPolicy = 
+                    offline ?
+                    HubThrottlingPolicy.off() :
+                    createHubThrottlingPolicy(commandLineArguments, 
+                                              languageCodeTarget);
+            
+            // Both directions share the titles of this search:
+            final TitleInterner titleInterner = new TitleInterner();
+            
+            final DirectSuccessorFetcher forwardFetcher = 
+                    createDirectSuccessorFetcher(
+                            commandLineArguments,
+                            languageCodeSource,
+                            DirectSuccessorFetcher.LinkKind.LINKS,
+                            titleInterner);
+            
+            final DirectSuccessorFetcher backwardFetcher = 
+                    createDirectSuccessorFetcher(
+                            commandLineArguments,
+                            languageCodeTarget,
+                            DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                            titleInterner);
             
-            source = URLDecoder.decode(source, Charset.forName("UTF-8"));
-            target = URLDecoder.decode(target, Charset.forName("UTF-8"));
+            final ReplayNodeExpander forwardReplayExpander = 
+                    offline ? 
+                    new ReplayNodeExpander(
+                            replayTrace,
+                            ForkJoinBidirectionalBFSPathFinder.FORWARD,
+                            commandLineArguments.replayLatencyScale) :
+                    null;
             
-            source = source.replaceAll("[\\+ ]", "_");
-            target = target.replaceAll("[\\+ ]", "_");
+            final ReplayNodeExpander backwardReplayExpander = 
+                    offline ? 
+                    new ReplayNodeExpander(
+                            replayTrace,
+                            ForkJoinBidirectionalBFSPathFinder.BACKWARD,
+                            commandLineArguments.replayLatencyScale) :
+                    null;
             
-            ForwardLinkExpander forwardLinkExpander;
-            BackwardLinkExpander backwardLinkExpander;
+            final SingleFlightExpansionCoalescer forwardCoalescer = 
+                    new SingleFlightExpansionCoalescer(
+                            "forward in-flight expansions");
+            
+            final SingleFlightExpansionCoalescer backwardCoalescer = 
+                    new SingleFlightExpansionCoalescer(
+                            "backward in-flight expansions");
+            
+            // The link expansions that failed, e.g., due to throttling:
+            final AtomicLong forwardNumberOfFailedExpansions = 
+                    new AtomicLong();
+            
+            final AtomicLong backwardNumberOfFailedExpansions = 
+                    new AtomicLong();
             
             try {
-                forwardLinkExpander = 
-                        new ForwardLinkExpander(languageCodeSource);
+                if (offline) {
+                    forwardLinkExpander = forwardReplayExpander;
+                    backwardLinkExpander = backwardReplayExpander;
+                } else {
+                    forwardLinkExpander = 
+                            new ForwardLinkExpander(
+                                    languageCodeSource,
+                                    forwardSuccessorFilter,
+                                    forwardRedirectResolver,
+                                    forwardFetcher,
+                                    forwardCoalescer,
+                                    forwardNumberOfFailedExpansions);
 
-                backwardLinkExpander = 
-                        new BackwardLinkExpander(languageCodeTarget);
-                
+                    backwardLinkExpander = 
+                            new BackwardLinkExpander(
+                                    languageCodeTarget,
+                                    backwardSuccessorFilter,
+                                    backwardRedirectResolver,
+                                    hubThrottlingPolicy,
+                                    backwardFetcher,
+                                    backwardCoalescer,
+                                    backwardNumberOfFailedExpansions);
+                }
             } catch (Exception ex) {
                 System.err.println("[ERROR] Could not create expanders.");
                 System.exit(-1);
@@ -159,17 +357,75 @@ public final class WikiGameKiller {
             validateTerminalNodes(forwardLinkExpander,
                                   backwardLinkExpander, 
                                   source,
-                                  target);
-            
-            ThreadPoolBidirectionalBFSPathFinder<String> finder = 
-                    ThreadPoolBidirectionalBFSPathFinderBuilder.<String>begin()
-                    .withExpansionDurationNanos(commandLineArguments.expansionTimeoutNanos)
-                    .withMasterThreadSleepDurationNanos(commandLineArguments.masterSleepDurationNanos)
-                    .withSlaveThreadSleepDurationNanos(commandLineArguments.slaveSleepDurationNanos)
-                    .withNumberOfMasterTrials(commandLineArguments.trials)
-                    .withNumberOfForwardThreads(commandLineArguments.forwardThreads)
-                    .withNumberOfBackwardThreads(commandLineArguments.backwardThreads)
-                    .end();
+                                  targets);
+            
+            if (!offline && 
+                commandLineArguments.backlinkPageBudget != 
+                DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET) {
+                OUT.printf(
+                        "[INFO] At most %d backlink pages are fetched per " + 
+                        "article, so the path found may not be a shortest " + 
+                        "one.%n",
+                        commandLineArguments.backlinkPageBudget);
+            }
+            
+            final ExpansionTrace.Writer traceWriter = 
+                    createTraceWriter(commandLineArguments,
+                                      languageCodeSource,
+                                      source,
+                                      target);
+            
+            if (traceWriter != null) {
+                forwardLinkExpander = 
+                        new RecordingNodeExpander(
+                                forwardLinkExpander,
+                                ForkJoinBidirectionalBFSPathFinder.FORWARD,
+                                traceWriter);
+                
+                backwardLinkExpander = 
+                        new RecordingNodeExpander(
+                                backwardLinkExpander,
+                                ForkJoinBidirectionalBFSPathFinder.BACKWARD,
+                                traceWriter);
+            }
+            
+            final AutoTuner autoTuner = 
+                    commandLineArguments.autoTune ?
+                    createAutoTuner(commandLineArguments, 
+                                    languageCodeSource,
+                                    languageCodeTarget,
+                                    new AtomicLong[]{ 
+                                        forwardNumberOfFailedExpansions,
+                                        backwardNumberOfFailedExpansions,
+                                    }) :
+                    null;
+            
+            if (autoTuner != null) {
+                forwardLinkExpander = 
+                        autoTuner.wrap(
+                                forwardLinkExpander,
+                                ForkJoinBidirectionalBFSPathFinder.FORWARD);
+                
+                backwardLinkExpander = 
+                        autoTuner.wrap(
+                                backwardLinkExpander,
+                                ForkJoinBidirectionalBFSPathFinder.BACKWARD);
+            }
+            
+            if (targets.size() > 1) {
+                try {
+                    searchMultipleTargets(commandLineArguments,
+                                          source,
+                                          targets,
+                                          forwardLinkExpander,
+                                          backwardLinkExpander,
+                                          languageCodeTarget);
+                } finally {
+                    saveAutoTuneProfile(autoTuner, languageCodeSource);
+                }
+                
+                return;
+            }
             
             MyForwardDirectionProgressListener forwardProgressListener = 
                     new MyForwardDirectionProgressListener();
@@ -183,25 +439,142 @@ public final class WikiGameKiller {
             backwardProgressListener
                 .setOppositeListener(forwardProgressListener);
             
+            final ReachabilityBall ball = 
+                    commandLineArguments.useBalls ?
+                    readBall(languageCodeTarget, target) :
+                    null;
+            
             List<String> path;
+            final long duration;
+            final int numberOfExpandedNodes;
+            int lowerBound = -1;
+            // The expansions that may have missed successors; if any, the
+            // path is not proven shortest:
+            long numberOfIncompleteExpansions = 0L;
+            // Each search creates its own arena; the latest one is kept for
+            // the memory statistics:
+            final AtomicReference<OffHeapTitleArena> arena = 
+                    new AtomicReference<>();
             
             try {
-                path = ThreadPoolBidirectionalBFSPathFinderSearchBuilder
-                        .<String>withPathFinder(finder)
-                        .withSourceNode(source)
-                        .withTargetNode(target)
-                        .withForwardNodeExpander(forwardLinkExpander)
-                        .withBackwardNodeExpander(backwardLinkExpander)
-                        .withSharedSearchProgressListener(null)
-                        .withForwardSearchProgressListener(
-                                forwardProgressListener)
-                        .withBackwardSearchProgressListener(
-                                backwardProgressListener)
-                        .search();
+                if (ball != null) {
+                    final BallPathFinder finder = 
+                            new BallPathFinder(
+                                    commandLineArguments.forwardThreads,
+                                    commandLineArguments.expansionTimeoutNanos);
+                    
+                    path = finder.search(source, ball, forwardLinkExpander);
+                    duration = finder.getDuration();
+                    numberOfExpandedNodes = finder.getNumberOfExpandedNodes();
+                    numberOfIncompleteExpansions = 
+                            finder.getNumberOfIncompleteExpansions();
+                } else if (commandLineArguments.fastGuess) {
+                    final FastGuessPathFinder finder = 
+                            new FastGuessPathFinder(
+                                    commandLineArguments.forwardThreads,
+                                    commandLineArguments.expansionTimeoutNanos,
+                                    FastGuessPathFinder
+                                            .DEFAULT_MAXIMUM_NUMBER_OF_EXPANSIONS);
+                    
+                    path = finder.search(source,
+                                         target,
+                                         forwardLinkExpander,
+                                         backwardLinkExpander);
+                    
+                    duration = finder.getDuration();
+                    numberOfExpandedNodes = finder.getNumberOfExpandedNodes();
+                } else if (commandLineArguments.workerAddresses != null) {
+                    final DistributedSearchCoordinator coordinator = 
+                            new DistributedSearchCoordinator(
+                                    DistributedSearchCoordinator
+                                            .parseAddresses(
+                                                    commandLineArguments
+                                                            .workerAddresses));
+                    
+                    path = coordinator.search(languageCodeSource,
+                                              source,
+                                              target);
+                    
+                    duration = coordinator.getDuration();
+                    numberOfExpandedNodes = 
+                            coordinator.getNumberOfExpandedNodes();
+                    numberOfIncompleteExpansions = 
+                            coordinator.getNumberOfIncompleteExpansions();
+                } else if (commandLineArguments.searchEngine == 
+                        SearchEngine.FORK_JOIN) {
+                    
+                    ForkJoinBidirectionalBFSPathFinder<String> finder = 
+                            !commandLineArguments.offHeap ?
+                            new ForkJoinBidirectionalBFSPathFinder<>(
+                                    commandLineArguments.forwardThreads + 
+                                    commandLineArguments.backwardThreads,
+                                    commandLineArguments.expansionTimeoutNanos) :
+                            new ForkJoinBidirectionalBFSPathFinder<>(
+                                    commandLineArguments.forwardThreads + 
+                                    commandLineArguments.backwardThreads,
+                                    commandLineArguments.expansionTimeoutNanos,
+                                    () -> {
+                                        final OffHeapTitleArena searchArena =
+                                                new OffHeapTitleArena();
+                                        arena.set(searchArena);
+                                        return new OffHeapVisitedState(
+                                                searchArena);
+                                    });
+                    
+                    path = finder.search(source,
+                                         target,
+                                         forwardLinkExpander,
+                                         backwardLinkExpander,
+                                         forwardProgressListener,
+                                         backwardProgressListener,
+                                         commandLineArguments.deadlineMillis);
+                    
+                    duration = finder.getDuration();
+                    numberOfExpandedNodes = finder.getNumberOfExpandedNodes();
+                    lowerBound = finder.getLowerBound();
+                    numberOfIncompleteExpansions = 
+                            finder.getNumberOfIncompleteExpansions(
+                                    ForkJoinBidirectionalBFSPathFinder
+                                            .FORWARD) + 
+                            finder.getNumberOfIncompleteExpansions(
+                                    ForkJoinBidirectionalBFSPathFinder
+                                            .BACKWARD);
+                } else {
+                    ThreadPoolBidirectionalBFSPathFinder<String> finder = 
+                            ThreadPoolBidirectionalBFSPathFinderBuilder.<String>begin()
+                            .withExpansionDurationNanos(commandLineArguments.expansionTimeoutNanos)
+                            .withMasterThreadSleepDurationNanos(commandLineArguments.masterSleepDurationNanos)
+                            .withSlaveThreadSleepDurationNanos(commandLineArguments.slaveSleepDurationNanos)
+                            .withNumberOfMasterTrials(commandLineArguments.trials)
+                            .withNumberOfForwardThreads(commandLineArguments.forwardThreads)
+                            .withNumberOfBackwardThreads(commandLineArguments.backwardThreads)
+                            .end();
+                    
+                    path = ThreadPoolBidirectionalBFSPathFinderSearchBuilder
+                            .<String>withPathFinder(finder)
+                            .withSourceNode(source)
+                            .withTargetNode(target)
+                            .withForwardNodeExpander(forwardLinkExpander)
+                            .withBackwardNodeExpander(backwardLinkExpander)
+                            .withSharedSearchProgressListener(null)
+                            .withForwardSearchProgressListener(
+                                    forwardProgressListener)
+                            .withBackwardSearchProgressListener(
+                                    backwardProgressListener)
+                            .search();
+                    
+                    duration = finder.getDuration();
+                    numberOfExpandedNodes = finder.getNumberOfExpandedNodes();
+                }
             } catch (final Exception ex) {
                 System.err.printf("ERROR: %s.", ex.getMessage());
                 System.exit(2);
                 return;
+            } finally {
+                closeTraceWriter(traceWriter, 
+                                 commandLineArguments.recordFileName);
+                
+                saveAutoTuneProfile(autoTuner, languageCodeSource);
             }
             
             if (commandLineArguments.printStatistics) {
@@ -215,46 +588,117 @@ public final class WikiGameKiller {
                         [STATISTICS] Backward expanded nodes: %d nodes. 
                         [STATISTICS] Forward expansion mean: %d.
                         [STATISTICS] Backward expansion mean: %d.
+                        [STATISTICS] Forward coalesced expansions: %d/%d.
+                        [STATISTICS] Backward coalesced expansions: %d/%d.
                         """,
-                        finder.getDuration(),
+                        duration,
                         forwardProgressListener.getNumberOfExpansions(),
                         backwardProgressListener.getNumberOfExpansions(),
                         (int) forwardProgressListener
                                 .getMeanExpansionDuration(),
                         (int) backwardProgressListener
-                                .getMeanExpansionDuration());
-            }
-            
-            final List<LinkPathNode> linkPathNodeList = 
-                    new ArrayList<>(path.size());
-            
-            System.out.println("[STATISTICS] Shortest path:");
-            
-            for (int i = 0; i < path.size(); i++) {
-                String title = path.get(i);
+                                .getMeanExpansionDuration(),
+                        forwardCoalescer.getNumberOfCoalescedCalls(),
+                        forwardCoalescer.getNumberOfCalls(),
+                        backwardCoalescer.getNumberOfCoalescedCalls(),
+                        backwardCoalescer.getNumberOfCalls());
+                
+                printPruningStatistics("Forward", forwardSuccessorFilter);
+                printPruningStatistics("Backward", backwardSuccessorFilter);
                 
-                System.out.printf("%2d: [%s]%n", (i + 1), title);
+                printRedirectStatistics("Forward", forwardRedirectResolver);
+                printRedirectStatistics("Backward", backwardRedirectResolver);
                 
-                title = URLDecoder.decode(title, Charset.forName("UTF-8"));
-                title = title.replace("_", " ");
+                if (hubThrottlingPolicy.getMode() != 
+                        HubThrottlingPolicy.Mode.OFF) {
+                    OUT.printf(
+                            """
+                            [STATISTICS] Backward hub expansions deferred: %d.
+                            [STATISTICS] Backward hub expansions sampled: %d.
+                            [STATISTICS] Backward hub backlinks skipped: %d.
+                            """,
+                            hubThrottlingPolicy
+                                    .getNumberOfPostponedExpansions(),
+                            hubThrottlingPolicy
+                                    .getNumberOfSampledExpansions(),
+                            hubThrottlingPolicy
+                                    .getNumberOfSkippedBacklinks());
+                }
                 
-                String url = wrapToUrl(title, languageCodeTarget);
-                linkPathNodeList.add(new LinkPathNode(url, title));
+                if (autoTuner != null) {
+                    OUT.printf(
+                            """
+                            [STATISTICS] Auto-tuned forward limit: %d (%d decreases).
+                            [STATISTICS] Auto-tuned backward limit: %d (%d decreases).
+                            """,
+                            autoTuner.getLimit(
+                                    ForkJoinBidirectionalBFSPathFinder.FORWARD),
+                            autoTuner.getNumberOfDecreases(
+                                    ForkJoinBidirectionalBFSPathFinder.FORWARD),
+                            autoTuner.getLimit(
+                                    ForkJoinBidirectionalBFSPathFinder.BACKWARD),
+                            autoTuner.getNumberOfDecreases(
+                                    ForkJoinBidirectionalBFSPathFinder.BACKWARD));
+                }
+                
+                if (offline) {
+                    OUT.printf(
+                            """
+                            [STATISTICS] Replay misses: %d forward, %d backward.
+                            """,
+                            forwardReplayExpander.getNumberOfMisses(),
+                            backwardReplayExpander.getNumberOfMisses());
+                }
+                
+                printMemoryStatistics(arena.get());
             }
             
-            final int maximumUrlLength = getMaximumUrlLength(linkPathNodeList);
+            // Only the fork-join search honors the deadline and sets the 
+            // lower bound; a ball search ignores both:
+            final boolean deadlineEvaluated = 
+                    commandLineArguments.deadlineMillis >= 0L &&
+                    lowerBound >= 0;
             
-            for (final LinkPathNode linkPathNode : linkPathNodeList) {
-                OUT.println(
-                        linkPathNode.toCommandLineRow(maximumUrlLength));
+            final boolean deadlineExpired = 
+                    deadlineEvaluated &&
+                    lowerBound != Integer.MAX_VALUE &&
+                    lowerBound != path.size() - 1;
+            
+            if (deadlineEvaluated) {
+                printDeadlineOutcome(path, 
+                                     lowerBound, 
+                                     numberOfIncompleteExpansions);
             }
             
+            if (commandLineArguments.fastGuess) {
+                System.out.println(
+                        "[STATISTICS] Guessed path " + 
+                        "(not necessarily the shortest):");
+            } else if (deadlineExpired) {
+                System.out.println(
+                        "[STATISTICS] Best path found before the deadline:");
+            } else if (numberOfIncompleteExpansions > 0L) {
+                OUT.printf(
+                        "[STATISTICS] Path found (not proven shortest, " + 
+                        "%d incomplete expansions):\n",
+                        numberOfIncompleteExpansions);
+            } else if (ball != null && !ball.isExact()) {
+                System.out.println(
+                        "[STATISTICS] Path found (not proven shortest, " + 
+                        "the reachability ball is not exact):");
+            } else {
+                System.out.println("[STATISTICS] Shortest path:");
+            }
+            
+            final List<LinkPathNode> linkPathNodeList = 
+                    printPath(path, languageCodeTarget);
+            
             if (commandLineArguments.outFileName != null) {
                 saveFile(commandLineArguments.outFileName,
                          linkPathNodeList,
                          commandLineArguments.printStatistics,
-                         finder.getDuration(),
-                         finder.getNumberOfExpandedNodes());
+                         duration,
+                         numberOfExpandedNodes);
             }
             
         } catch (final RuntimeException ex) {
@@ -302,6 +746,749 @@ public final class WikiGameKiller {
         }
     }
 
+    /**
+     * Returns the article title of the Wikipedia article URL {@code url}.
+     * 
+     * @param url the article URL.
+     * 
+     * @return the article title with underscores in place of spaces.
+     */
+    private static String getArticleTitle(final String url) {
+        final String title = 
+                URLDecoder.decode(url.substring(url.lastIndexOf("/") + 1),
+                                  Charset.forName("UTF-8"));
+        
+        return title.replaceAll("[\\+ ]", "_");
+    }
+    
+    /**
+     * Prints the titles of {@code path} followed by a table of their URLs.
+     * 
+     * @param path         the path to print.
+     * @param languageCode the language code of the Wikipedia edition.
+     * 
+     * @return the link path nodes of {@code path}.
+     */
+    private static List<LinkPathNode> printPath(final List<String> path, 
+                                                final String languageCode) {
+        final List<LinkPathNode> linkPathNodeList = 
+                new ArrayList<>(path.size());
+        
+        for (int i = 0; i < path.size(); i++) {
+            String title = path.get(i);
+            
+            System.out.printf("%2d: [%s]%n", (i + 1), title);
+            
+            title = WikipediaTitles.decode(title);
+            title = title.replace("_", " ");
+            
+            String url = wrapToUrl(title, languageCode);
+            linkPathNodeList.add(new LinkPathNode(url, title));
+        }
+        
+        final int maximumUrlLength = getMaximumUrlLength(linkPathNodeList);
+        
+        for (final LinkPathNode linkPathNode : linkPathNodeList) {
+            OUT.println(linkPathNode.toCommandLineRow(maximumUrlLength));
+        }
+        
+        return linkPathNodeList;
+    }
+    
+    /**
+     * Searches for a shortest path from {@code source} to each of 
+     * {@code targets} sharing a single forward search, and prints each path 
+     * as soon as it is found.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param source               the source node.
+     * @param targets              the target nodes.
+     * @param forwardExpander      the forward link expander.
+     * @param backwardExpander     the backward link expander.
+     * @param languageCode         the language code of the search.
+     */
+    private static void searchMultipleTargets(
+            final CommandLineArguments commandLineArguments,
+            final String source,
+            final List<String> targets,
+            final AbstractNodeExpander<String> forwardExpander,
+            final AbstractNodeExpander<String> backwardExpander,
+            final String languageCode) {
+        
+        final MultiTargetBFSPathFinder<String> finder = 
+                !commandLineArguments.offHeap ?
+                new MultiTargetBFSPathFinder<>(
+                        commandLineArguments.forwardThreads + 
+                        commandLineArguments.backwardThreads,
+                        commandLineArguments.expansionTimeoutNanos) :
+                new MultiTargetBFSPathFinder<>(
+                        commandLineArguments.forwardThreads + 
+                        commandLineArguments.backwardThreads,
+                        commandLineArguments.expansionTimeoutNanos,
+                        () -> new OffHeapVisitedState(
+                                new OffHeapTitleArena()));
+        
+        final int numberOfTargets = new HashSet<>(targets).size();
+        final int[] numberOfReportedTargets = new int[1];
+        
+        final Map<String, List<String>> paths = 
+                finder.search(source,
+                              targets,
+                              forwardExpander,
+                              backwardExpander,
+                              (target, path) -> {
+                    numberOfReportedTargets[0]++;
+                    
+                    if (path.isEmpty()) {
+                        OUT.printf(
+                                "[STATISTICS] No path to [%s] (%d/%d).%n",
+                                target,
+                                numberOfReportedTargets[0],
+                                numberOfTargets);
+                        return;
+                    }
+                    
+                    OUT.printf(
+                            "[STATISTICS] Shortest path to [%s] (%d/%d):%n",
+                            target,
+                            numberOfReportedTargets[0],
+                            numberOfTargets);
+                    
+                    printPath(path, languageCode);
+                });
+        
+        if (commandLineArguments.printStatistics) {
+            int numberOfReachedTargets = 0;
+            
+            for (final List<String> path : new HashSet<>(paths.values())) {
+                if (!path.isEmpty()) {
+                    numberOfReachedTargets++;
+                }
+            }
+            
+            OUT.printf(
+                    """
+                    [STATISTICS] Duration: %d milliseconds.
+                    [STATISTICS] Expanded nodes: %d nodes.
+                    [STATISTICS] Targets reached: %d/%d.
+                    """,
+                    finder.getDuration(),
+                    finder.getNumberOfExpandedNodes(),
+                    numberOfReachedTargets,
+                    numberOfTargets);
+        }
+    }
+    
+    /**
+     * Reads the trace given by {@code --replay}, if any.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * 
+     * @return the expansion trace, or {@code null} if not replaying.
+     */
+    private static ExpansionTrace readReplayTrace(
+            final CommandLineArguments commandLineArguments) {
+        
+        if (commandLineArguments.replayFileName == null) {
+            return null;
+        }
+        
+        try {
+            return ExpansionTrace.read(
+                    Path.of(commandLineArguments.replayFileName));
+        } catch (final IOException ex) {
+            throw new RuntimeException(
+                    String.format(
+                            "Could not read the trace: %s", 
+                            ex.getMessage()));
+        }
+    }
+    
+    /**
+     * Creates the trace writer for {@code --record}, if given.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param languageCode         the language code of the search.
+     * @param source               the source node.
+     * @param target               the target node.
+     * 
+     * @return the trace writer, or {@code null} if not recording.
+     */
+    private static ExpansionTrace.Writer createTraceWriter(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode,
+            final String source,
+            final String target) {
+        
+        if (commandLineArguments.recordFileName == null) {
+            return null;
+        }
+        
+        try {
+            return new ExpansionTrace.Writer(
+                    Path.of(commandLineArguments.recordFileName),
+                    languageCode,
+                    source,
+                    target);
+        } catch (final IOException ex) {
+            throw new RuntimeException(
+                    String.format(
+                            "Could not create the trace: %s", 
+                            ex.getMessage()));
+        }
+    }
+    
+    /**
+     * Closes {@code traceWriter}, if not {@code null}, and reports the 
+     * outcome.
+     * 
+     * @param traceWriter    the trace writer, or {@code null}.
+     * @param recordFileName the name of the trace file.
+     */
+    private static void closeTraceWriter(
+            final ExpansionTrace.Writer traceWriter,
+            final String recordFileName) {
+        
+        if (traceWriter == null) {
+            return;
+        }
+        
+        try {
+            traceWriter.close();
+            OUT.printf("[INFO] Recorded %d expansions to \"%s\".%n",
+                       traceWriter.getNumberOfExpansions(),
+                       recordFileName);
+        } catch (final IOException ex) {
+            System.err.printf(
+                    "[ERROR] Could not write the trace \"%s\": %s%n",
+                    recordFileName,
+                    ex.getMessage());
+        }
+    }
+    
+    /**
+     * Creates the auto-tuner for {@code --auto-tune} starting from the saved
+     * profile of the language, and applies the profile to all the 
+     * performance parameters not given on the command line.
+     * 
+     * Each direction backs off on its own failed expansions and on the 
+     * throttled responses of the API client of its language. The HTTP 429 
+     * responses met by the graph expander library on the default download 
+     * path never reach either counter, unless they fail the expansion.
+     * 
+     * @param commandLineArguments     the command line arguments.
+     * @param languageCode             the language code of the search.
+     * @param languageCodeTarget       the language code of the target.
+     * @param numberOfFailedExpansions the failed expansion counters indexed 
+     *                                 by direction.
+     * 
+     * @return the auto-tuner.
+     */
+    private static AutoTuner createAutoTuner(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode,
+            final String languageCodeTarget,
+            final AtomicLong[] numberOfFailedExpansions) {
+        
+        final AutoTuner.Profile defaults = new AutoTuner.Profile();
+        defaults.forwardThreads = commandLineArguments.forwardThreads;
+        defaults.backwardThreads = commandLineArguments.backwardThreads;
+        defaults.trials = commandLineArguments.trials;
+        defaults.masterSleepDurationNanos = 
+                commandLineArguments.masterSleepDurationNanos;
+        defaults.slaveSleepDurationNanos = 
+                commandLineArguments.slaveSleepDurationNanos;
+        defaults.expansionTimeoutNanos = 
+                commandLineArguments.expansionTimeoutNanos;
+        
+        final Path file = AutoTuner.Profile.getDefaultFile(languageCode);
+        AutoTuner.Profile profile;
+        
+        try {
+            profile = AutoTuner.Profile.load(file, defaults);
+        } catch (final IOException ex) {
+            System.err.printf("[ERROR] %s Starting from the defaults.%n", 
+                              ex.getMessage());
+            profile = defaults;
+        }
+        
+        // The command line has the last word:
+        final Set<String> flags = commandLineArguments.flags;
+        
+        if (flags.contains("--forward-threads")) {
+            profile.forwardThreads = commandLineArguments.forwardThreads;
+        }
+        
+        if (flags.contains("--backward-threads")) {
+            profile.backwardThreads = commandLineArguments.backwardThreads;
+        }
+        
+        if (!flags.contains("--master-trials")) {
+            commandLineArguments.trials = profile.trials;
+        }
+        
+        if (!flags.contains("--master-sleep-duration")) {
+            commandLineArguments.masterSleepDurationNanos = 
+                    profile.masterSleepDurationNanos;
+        }
+        
+        if (!flags.contains("--slave-sleep-duration")) {
+            commandLineArguments.slaveSleepDurationNanos = 
+                    profile.slaveSleepDurationNanos;
+        }
+        
+        if (!flags.contains("--expansion-timeout")) {
+            commandLineArguments.expansionTimeoutNanos = 
+                    profile.expansionTimeoutNanos;
+        }
+        
+        final WikipediaApiClient[] apiClients = {
+            WikipediaApiClient.forLanguage(languageCode),
+            WikipediaApiClient.forLanguage(languageCodeTarget),
+        };
+        
+        final AutoTuner autoTuner = 
+                new AutoTuner(
+                        profile,
+                        (direction) -> 
+                                apiClients[direction]
+                                        .getNumberOfThrottledResponses() + 
+                                numberOfFailedExpansions[direction].get());
+        
+        commandLineArguments.forwardThreads = 
+                autoTuner.getNumberOfThreads(
+                        ForkJoinBidirectionalBFSPathFinder.FORWARD);
+        
+        commandLineArguments.backwardThreads = 
+                autoTuner.getNumberOfThreads(
+                        ForkJoinBidirectionalBFSPathFinder.BACKWARD);
+        
+        OUT.printf(
+                "[INFO] Auto-tune: starting from %d forward and %d " + 
+                "backward threads, expansion timeout %d ms (%d runs).%n",
+                autoTuner.getLimit(ForkJoinBidirectionalBFSPathFinder.FORWARD),
+                autoTuner.getLimit(ForkJoinBidirectionalBFSPathFinder.BACKWARD),
+                commandLineArguments.expansionTimeoutNanos / 1_000_000L,
+                profile.numberOfRuns);
+        
+        return autoTuner;
+    }
+    
+    /**
+     * Saves the profile tuned by {@code autoTuner}, if not {@code null}, for
+     * the next run.
+     * 
+     * @param autoTuner    the auto-tuner, or {@code null}.
+     * @param languageCode the language code of the search.
+     */
+    private static void saveAutoTuneProfile(final AutoTuner autoTuner,
+                                            final String languageCode) {
+        if (autoTuner == null) {
+            return;
+        }
+        
+        final Path file = AutoTuner.Profile.getDefaultFile(languageCode);
+        final AutoTuner.Profile profile = autoTuner.getTunedProfile();
+        
+        try {
+            profile.save(file, 
+                         "WikiGameKiller auto-tune profile for " + 
+                         languageCode);
+            
+            OUT.printf(
+                    "[INFO] Auto-tune: saved %d forward and %d backward " + 
+                    "threads, expansion timeout %d ms to \"%s\".%n",
+                    profile.forwardThreads,
+                    profile.backwardThreads,
+                    profile.expansionTimeoutNanos / 1_000_000L,
+                    file);
+        } catch (final IOException ex) {
+            System.err.printf(
+                    "[ERROR] Could not save the auto-tune profile \"%s\": " + 
+                    "%s%n",
+                    file,
+                    ex.getMessage());
+        }
+    }
+    
+    /**
+     * Runs this process as a distributed search worker until killed.
+     * 
+     * @param commandLineArguments the command line arguments.
+     */
+    private static void runWorker(
+            final CommandLineArguments commandLineArguments) {
+        
+        final DistributedSearchWorker.ExpanderFactory expanderFactory;
+        
+        if (commandLineArguments.graphFileName != null) {
+            final ArcListGraph graph;
+            
+            try {
+                graph = ArcListGraph.read(
+                        Path.of(commandLineArguments.graphFileName));
+            } catch (final IOException ex) {
+                throw new RuntimeException(ex.getMessage());
+            }
+            
+            expanderFactory = (languageCode, direction) -> 
+                    direction == ForkJoinBidirectionalBFSPathFinder.FORWARD ?
+                    graph.forwardExpander() :
+                    graph.backwardExpander();
+        } else {
+            expanderFactory = (languageCode, direction) -> 
+                    createLinkExpander(commandLineArguments,
+                                       languageCode,
+                                       direction);
+        }
+        
+        try (DistributedSearchWorker worker = 
+                new DistributedSearchWorker(
+                        commandLineArguments.workerPort,
+                        commandLineArguments.forwardThreads + 
+                        commandLineArguments.backwardThreads,
+                        expanderFactory)) {
+            
+            OUT.printf("[INFO] Worker listening on port %d.%n", 
+                       worker.getPort());
+            
+            worker.serve();
+        } catch (final IOException ex) {
+            throw new RuntimeException(
+                    String.format(
+                            "Could not run the worker: %s",
+                            ex.getMessage()));
+        }
+    }
+    
+    /**
+     * Creates the live Wikipedia link expander of the given direction.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param languageCode         the language code of the Wikipedia edition.
+     * @param direction            {@link ForkJoinBidirectionalBFSPathFinder#FORWARD}
+     *                             or 
+     *                             {@link ForkJoinBidirectionalBFSPathFinder#BACKWARD}.
+     * 
+     * @return the node expander.
+     * 
+     * @throws Exception if the expander cannot be created.
+     */
+    private static AbstractNodeExpander<String> createLinkExpander(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode,
+            final int direction) throws Exception {
+        
+        final SuccessorFilter successorFilter = 
+                createSuccessorFilter(commandLineArguments, languageCode);
+
+        final RedirectResolver redirectResolver = 
+                commandLineArguments.resolveRedirects ?
+                RedirectResolver.forLanguage(languageCode) :
+                RedirectResolver.none();
+        
+        final TitleInterner titleInterner = new TitleInterner();
+
+        if (direction == ForkJoinBidirectionalBFSPathFinder.FORWARD) {
+            return new ForwardLinkExpander(
+                    languageCode,
+                    successorFilter,
+                    redirectResolver,
+                    createDirectSuccessorFetcher(
+                            commandLineArguments,
+                            languageCode,
+                            DirectSuccessorFetcher.LinkKind.LINKS,
+                            titleInterner),
+                    new SingleFlightExpansionCoalescer(
+                            "forward in-flight expansions"),
+                    new AtomicLong());
+        }
+
+        return new BackwardLinkExpander(
+                languageCode,
+                successorFilter,
+                redirectResolver,
+                createHubThrottlingPolicy(commandLineArguments,
+                                          languageCode),
+                createDirectSuccessorFetcher(
+                        commandLineArguments,
+                        languageCode,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        titleInterner),
+                new SingleFlightExpansionCoalescer(
+                        "backward in-flight expansions"),
+                new AtomicLong());
+    }
+    
+    /**
+     * Builds and writes the reverse-reachability balls of all the targets in
+     * the targets file, and then, if {@code --ball-refresh-interval} is given,
+     * keeps refreshing them until killed.
+     * 
+     * @param commandLineArguments the command line arguments.
+     */
+    private static void runBallBuilder(
+            final CommandLineArguments commandLineArguments) {
+        
+        final Path directory = ReachabilityBall.getDefaultDirectory();
+        final List<ReachabilityBall> balls = new ArrayList<>();
+        final Map<String, AbstractNodeExpander<String>> expanderMap = 
+                new HashMap<>();
+        
+        final ExecutorService executor = 
+                Executors.newFixedThreadPool(
+                        commandLineArguments.backwardThreads);
+        
+        try {
+            for (final String targetUrl : 
+                    readTargetsFile(commandLineArguments.ballTargetsFileName)) {
+                
+                checkWikipediaArticleFormat(targetUrl);
+                
+                final String languageCode = getLanguageCode(targetUrl);
+                
+                if (!expanderMap.containsKey(languageCode)) {
+                    try {
+                        expanderMap.put(
+                                languageCode,
+                                createLinkExpander(
+                                        commandLineArguments,
+                                        languageCode,
+                                        ForkJoinBidirectionalBFSPathFinder
+                                                .BACKWARD));
+                    } catch (final Exception ex) {
+                        throw new RuntimeException(
+                                "Could not create expanders.");
+                    }
+                }
+                
+                final String target = 
+                        RedirectResolver.forLanguage(languageCode)
+                                        .resolve(getArticleTitle(targetUrl));
+                
+                final ReachabilityBall ball = 
+                        ReachabilityBall.build(
+                                languageCode,
+                                target,
+                                commandLineArguments.ballDepth,
+                                expanderMap.get(languageCode),
+                                executor);
+                
+                final Path file = 
+                        ReachabilityBall.getFile(directory, 
+                                                 languageCode,
+                                                 target);
+                
+                try {
+                    ball.write(file);
+                } catch (final IOException ex) {
+                    throw new RuntimeException(
+                            String.format(
+                                    "Could not write the ball file \"%s\": %s",
+                                    file,
+                                    ex.getMessage()));
+                }
+                
+                OUT.printf("[INFO] Built the ball of \"%s\": %d articles.%n",
+                           target,
+                           ball.size());
+                
+                balls.add(ball);
+            }
+            
+            if (commandLineArguments.ballRefreshIntervalMillis < 0L) {
+                return;
+            }
+            
+            try (ReachabilityBallRefresher refresher = 
+                    new ReachabilityBallRefresher(
+                            directory,
+                            balls,
+                            expanderMap::get,
+                            ReachabilityBallRefresher
+                                    .DEFAULT_REFRESH_BATCH_SIZE,
+                            executor,
+                            OUT)) {
+                
+                refresher.start(
+                        commandLineArguments.ballRefreshIntervalMillis);
+                
+                OUT.printf("[INFO] Refreshing %d balls every %d minutes.%n",
+                           balls.size(),
+                           TimeUnit.MILLISECONDS.toMinutes(
+                                commandLineArguments
+                                        .ballRefreshIntervalMillis));
+                
+                refresher.awaitTermination();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    /**
+     * Reads the reverse-reachability ball of {@code target}, if one has been 
+     * built.
+     * 
+     * @param languageCode the language code of the Wikipedia edition.
+     * @param target       the target article.
+     * 
+     * @return the ball, or {@code null} if there is none.
+     */
+    private static ReachabilityBall readBall(final String languageCode, 
+                                             final String target) {
+        final Path file = 
+                ReachabilityBall.getFile(ReachabilityBall.getDefaultDirectory(),
+                                         languageCode,
+                                         target);
+        
+        if (!Files.exists(file)) {
+            OUT.printf(
+                    "[INFO] No ball for \"%s\", running a regular search.%n",
+                    target);
+            return null;
+        }
+        
+        try {
+            final ReachabilityBall ball = ReachabilityBall.read(file);
+            
+            OUT.printf("[INFO] Using the ball of \"%s\": %d articles.%n",
+                       target,
+                       ball.size());
+            
+            return ball;
+        } catch (final IOException ex) {
+            System.err.printf(
+                    "[ERROR] Could not read the ball file \"%s\": %s%n",
+                    file,
+                    ex.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Creates the hub throttling policy for the backward direction.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param languageCode         the language code of the Wikipedia edition.
+     * 
+     * @return the hub throttling policy.
+     */
+    private static HubThrottlingPolicy createHubThrottlingPolicy(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode) {
+        
+        if (commandLineArguments.hubThrottlingMode == 
+                HubThrottlingPolicy.Mode.OFF) {
+            return HubThrottlingPolicy.off();
+        }
+        
+        return new HubThrottlingPolicy(
+                commandLineArguments.hubThrottlingMode,
+                commandLineArguments.hubDegreeThreshold,
+                commandLineArguments.hubFanOutCap,
+                HubThrottlingPolicy.searchDegreeEstimator(
+                        WikipediaApiClient.forLanguage(languageCode)));
+    }
+    
+    /**
+     * Creates the direct successor fetcher for the given language, or returns
+     * {@code null} if {@code --direct-fetch} is not given.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param languageCode         the language code of the Wikipedia edition.
+     * @param linkKind             the kind of the fetched links.
+     * @param titleInterner        the title interner of the search.
+     * 
+     * @return the direct successor fetcher, or {@code null}.
+     */
+    private static DirectSuccessorFetcher createDirectSuccessorFetcher(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode,
+            final DirectSuccessorFetcher.LinkKind linkKind,
+            final TitleInterner titleInterner) {
+        
+        if (!commandLineArguments.directFetch) {
+            return null;
+        }
+        
+        if (linkKind == DirectSuccessorFetcher.LinkKind.LINKS) {
+            return new DirectSuccessorFetcher(
+                    WikipediaApiClient.forLanguage(languageCode),
+                    linkKind,
+                    !commandLineArguments.allNamespaces,
+                    titleInterner);
+        }
+        
+        return new DirectSuccessorFetcher(
+                WikipediaApiClient.forLanguage(languageCode),
+                linkKind,
+                !commandLineArguments.allNamespaces,
+                titleInterner,
+                commandLineArguments.backlinkRanges,
+                commandLineArguments.backlinkPageBudget);
+    }
+    
+    /**
+     * Creates the successor filter for the given language. Unless 
+     * {@code --all-namespaces} is given, only the main namespace articles are
+     * kept. With {@code --direct-fetch}, the API returns the main namespace
+     * links only, so the namespace rule is left out.
+     * 
+     * @param commandLineArguments the command line arguments.
+     * @param languageCode         the language code of the Wikipedia edition.
+     * 
+     * @return the successor filter.
+     * 
+     * @throws CommandLineException if the exclusion pattern is malformed.
+     */
+    private static SuccessorFilter createSuccessorFilter(
+            final CommandLineArguments commandLineArguments,
+            final String languageCode) {
+        
+        final List<SuccessorFilter.Rule> rules = new ArrayList<>();
+        final WikipediaApiClient apiClient = 
+                WikipediaApiClient.forLanguage(languageCode);
+        
+        if (!commandLineArguments.allNamespaces && 
+            !commandLineArguments.directFetch) {
+            Set<String> namespaceNames;
+            
+            try {
+                namespaceNames = apiClient.getNonMainNamespaceNames();
+            } catch (final Exception ex) {
+                namespaceNames = SuccessorFilter.DEFAULT_NAMESPACE_NAMES;
+            }
+            
+            rules.add(new SuccessorFilter.NamespaceRule(namespaceNames));
+        }
+        
+        if (commandLineArguments.excludePattern != null) {
+            try {
+                rules.add(
+                        new SuccessorFilter.PatternRule(
+                                Pattern.compile(
+                                        commandLineArguments.excludePattern)));
+            } catch (final PatternSyntaxException ex) {
+                throw new RuntimeException(
+                        String.format(
+                                "Bad exclusion pattern \"%s\".",
+                                commandLineArguments.excludePattern));
+            }
+        }
+        
+        if (commandLineArguments.excludePageProperty != null) {
+            rules.add(
+                    new SuccessorFilter.PagePropertyRule(
+                            apiClient, 
+                            commandLineArguments.excludePageProperty));
+        }
+        
+        return new SuccessorFilter(rules);
+    }
+    
     /**
      * Computes a map mapping each command line argument to its appearance 
      * index.
@@ -374,6 +1561,41 @@ public final class WikiGameKiller {
         }
     }
     
+    /**
+     * Parses the value of {@code --replay-latency}: {@code original}, 
+     * {@code none} or a non-negative latency scale.
+     * 
+     * @param latency the value to parse.
+     * 
+     * @return the latency scale.
+     * 
+     * @throws CommandLineException if the value is malformed.
+     */
+    private static double parseReplayLatencyScale(final String latency) {
+        switch (latency.toLowerCase(Locale.ROOT)) {
+            case "original":
+                return 1.0;
+                
+            case "none":
+                return 0.0;
+        }
+        
+        try {
+            final double scale = Double.parseDouble(latency);
+            
+            if (scale >= 0.0 && !Double.isInfinite(scale)) {
+                return scale;
+            }
+        } catch (final NumberFormatException ex) {
+            // Reported below.
+        }
+        
+        throw new RuntimeException(
+                String.format(
+                        "Bad replay latency: \"%s\".", 
+                        latency));
+    }
+    
     /**
      * Attempts to read a string value of the {@code index}th argument.
      * 
@@ -473,61 +1695,327 @@ public final class WikiGameKiller {
             stringBuilder.append(linkPathNode.toTableRowHtml(lineNumber++));
         }
         
-        return stringBuilder.toString();
-    }
-    
-    /**
-     * Parses the entire command line excluding the Java VM call 
-     * ({@code java -jar FILE.jar}).
-     * 
-     * @param args the array of arguments.
-     * 
-     * @return the {@code CommandLineArguments} object describing the command 
-     *         line invocation.
-     * 
-     * @throws CommandLineException if there are problems with the command line.
-     */
-    private static CommandLineArguments
-         parseCommandLineArguments(String[] args) {
-             
-        Map<String, Integer> map = computeArgumentMap(args);
-        
-        if (map.containsKey("--help")) {
-            if (map.size() > 1) {
+        return stringBuilder.toString();
+    }
+    
+    /**
+     * Parses the entire command line excluding the Java VM call 
+     * ({@code java -jar FILE.jar}).
+     * 
+     * @param args the array of arguments.
+     * 
+     * @return the {@code CommandLineArguments} object describing the command 
+     *         line invocation.
+     * 
+     * @throws CommandLineException if there are problems with the command line.
+     */
+    private static CommandLineArguments
+         parseCommandLineArguments(String[] args) {
+             
+        Map<String, Integer> map = computeArgumentMap(args);
+        
+        if (map.containsKey("--help")) {
+            if (map.size() > 1) {
+                throw new RuntimeException(
+                        "--help must be the only argument.");
+            }
+            
+            CommandLineArguments commandLineSettings = new CommandLineArguments();
+            commandLineSettings.printHelp = true;
+            return commandLineSettings;
+        }
+        
+        reportUnknownArgumentFlags(args, map);
+        
+        CommandLineArguments commandLineArguments = new CommandLineArguments();
+        commandLineArguments.flags = map.keySet();
+        
+        if (map.containsKey("--worker")) {
+            commandLineArguments.workerPort = 
+                    getArgumentIntValue(args, map.get("--worker") + 1);
+            
+            if (map.containsKey("--graph-file")) {
+                commandLineArguments.graphFileName = 
+                        getArgumentStringValue(
+                                args, 
+                                map.get("--graph-file") + 1);
+            }
+        } else if (map.containsKey("--build-balls")) {
+            commandLineArguments.ballTargetsFileName = 
+                    getArgumentStringValue(args, 
+                                           map.get("--build-balls") + 1);
+            
+            if (map.containsKey("--ball-depth")) {
+                commandLineArguments.ballDepth = 
+                        getArgumentIntValue(args, 
+                                            map.get("--ball-depth") + 1);
+                
+                if (commandLineArguments.ballDepth < 1) {
+                    throw new RuntimeException(
+                            "--ball-depth must be positive.");
+                }
+            }
+            
+            if (map.containsKey("--ball-refresh-interval")) {
+                final long minutes = 
+                        getArgumentLongValue(
+                                args, 
+                                map.get("--ball-refresh-interval") + 1);
+                
+                if (minutes < 1L) {
+                    throw new RuntimeException(
+                            "--ball-refresh-interval must be positive.");
+                }
+                
+                commandLineArguments.ballRefreshIntervalMillis = 
+                        TimeUnit.MINUTES.toMillis(minutes);
+            }
+        } else if (map.containsKey("--replay")) {
+            commandLineArguments.replayFileName = 
+                    getArgumentStringValue(args, map.get("--replay") + 1);
+        } else {
+            if (!map.containsKey("--source")) {
+                throw new RuntimeException("--source option is missing.");
+            }
+
+            commandLineArguments.source = 
+                    getArgumentStringValue(args, map.get("--source") + 1);
+
+            commandLineArguments.targets = getTargetArguments(args, map);
+            
+            if (commandLineArguments.targets.isEmpty()) {
+                throw new RuntimeException("--target option is missing.");
+            }
+
+            commandLineArguments.target = commandLineArguments.targets.get(0);
+        }
+        
+        if (map.containsKey("--record")) {
+            commandLineArguments.recordFileName = 
+                    getArgumentStringValue(args, map.get("--record") + 1);
+        }
+        
+        if (map.containsKey("--replay-latency")) {
+            commandLineArguments.replayLatencyScale = 
+                    parseReplayLatencyScale(
+                            getArgumentStringValue(
+                                    args, 
+                                    map.get("--replay-latency") + 1));
+        }
+        
+        if (map.containsKey("--workers")) {
+            // The traces record and replay the expansions of a local
+            // search; the workers expand remotely:
+            for (final String flag : new String[]{ "--record", 
+                                                   "--replay" }) {
+                if (map.containsKey(flag)) {
+                    throw new RuntimeException(
+                            String.format(
+                                    "--workers cannot be combined with %s.",
+                                    flag));
+                }
+            }
+            
+            commandLineArguments.workerAddresses = 
+                    getArgumentStringValue(args, map.get("--workers") + 1);
+        }
+        
+        if (map.containsKey("--auto-tune")) {
+            if (map.containsKey("--replay") || 
+                map.containsKey("--worker") ||
+                map.containsKey("--workers") ||
+                map.containsKey("--build-balls")) {
+                throw new RuntimeException(
+                        "--auto-tune requires a live local search.");
+            }
+            
+            commandLineArguments.autoTune = true;
+        }
+        
+        if (map.containsKey("--use-balls")) {
+            if (map.containsKey("--replay") || 
+                map.containsKey("--worker") ||
+                map.containsKey("--workers") ||
+                map.containsKey("--build-balls")) {
+                throw new RuntimeException(
+                        "--use-balls requires a live local search.");
+            }
+            
+            commandLineArguments.useBalls = true;
+        }
+        
+        if (map.containsKey("--fast-guess")) {
+            for (final String flag : new String[]{ "--worker",
+                                                   "--workers",
+                                                   "--build-balls",
+                                                   "--use-balls",
+                                                   "--deadline" }) {
+                if (map.containsKey(flag)) {
+                    throw new RuntimeException(
+                            String.format(
+                                    "--fast-guess cannot be combined " + 
+                                    "with %s.",
+                                    flag));
+                }
+            }
+            
+            commandLineArguments.fastGuess = true;
+        }
+        
+        if (map.containsKey("--out")) {
+            commandLineArguments.outFileName = 
+                getArgumentStringValue(args, map.get("--out") + 1);
+        }
+        
+        if (map.containsKey("--stats")) {
+            commandLineArguments.printStatistics = true;
+        }
+        
+        if (map.containsKey("--all-namespaces")) {
+            commandLineArguments.allNamespaces = true;
+        }
+        
+        if (map.containsKey("--resolve-redirects")) {
+            commandLineArguments.resolveRedirects = true;
+        }
+        
+        if (map.containsKey("--direct-fetch")) {
+            commandLineArguments.directFetch = true;
+        }
+        
+        if (map.containsKey("--backlink-ranges")) {
+            if (!commandLineArguments.directFetch) {
+                throw new RuntimeException(
+                        "--backlink-ranges requires --direct-fetch.");
+            }
+            
+            commandLineArguments.backlinkRanges = 
+                    getArgumentIntValue(args, 
+                                        map.get("--backlink-ranges") + 1);
+            
+            if (commandLineArguments.backlinkRanges < 1) {
+                throw new RuntimeException(
+                        "--backlink-ranges must be positive.");
+            }
+        }
+        
+        if (map.containsKey("--backlink-page-budget")) {
+            if (!commandLineArguments.directFetch) {
                 throw new RuntimeException(
-                        "--help must be the only argument.");
+                        "--backlink-page-budget requires --direct-fetch.");
             }
             
-            CommandLineArguments commandLineSettings = new CommandLineArguments();
-            commandLineSettings.printHelp = true;
-            return commandLineSettings;
+            commandLineArguments.backlinkPageBudget = 
+                    getArgumentIntValue(args, 
+                                        map.get("--backlink-page-budget") + 1);
+            
+            if (commandLineArguments.backlinkPageBudget < 1) {
+                throw new RuntimeException(
+                        "--backlink-page-budget must be positive.");
+            }
         }
         
-        reportUnknownArgumentFlags(args, map);
+        if (map.containsKey("--exclude-pattern")) {
+            commandLineArguments.excludePattern = 
+                getArgumentStringValue(args, map.get("--exclude-pattern") + 1);
+        }
         
-        if (!map.containsKey("--source")) {
-            throw new RuntimeException("--source option is missing.");
+        if (map.containsKey("--exclude-page-property")) {
+            commandLineArguments.excludePageProperty = 
+                getArgumentStringValue(
+                        args, 
+                        map.get("--exclude-page-property") + 1);
         }
         
-        if (!map.containsKey("--target")) {
-            throw new RuntimeException("--target option is missing.");
+        if (map.containsKey("--engine")) {
+            final String engine = 
+                    getArgumentStringValue(args, map.get("--engine") + 1);
+            
+            try {
+                commandLineArguments.searchEngine = 
+                        SearchEngine.valueOf(
+                                engine.toUpperCase(Locale.ROOT)
+                                      .replace('-', '_'));
+            } catch (final IllegalArgumentException ex) {
+                throw new RuntimeException(
+                        String.format("Unknown engine: \"%s\".", engine));
+            }
         }
         
-        CommandLineArguments commandLineArguments = new CommandLineArguments();
+        if (map.containsKey("--off-heap")) {
+            if (commandLineArguments.searchEngine != SearchEngine.FORK_JOIN) {
+                throw new RuntimeException(
+                        "--off-heap requires --engine fork-join.");
+            }
+            
+            commandLineArguments.offHeap = true;
+        }
         
-        commandLineArguments.source = 
-                getArgumentStringValue(args, map.get("--source") + 1);
+        if (map.containsKey("--deadline")) {
+            if (commandLineArguments.searchEngine != SearchEngine.FORK_JOIN ||
+                commandLineArguments.workerAddresses != null) {
+                throw new RuntimeException(
+                        "--deadline requires --engine fork-join.");
+            }
+            
+            commandLineArguments.deadlineMillis = 
+                    getArgumentLongValue(args, map.get("--deadline") + 1);
+            
+            if (commandLineArguments.deadlineMillis < 0L) {
+                throw new RuntimeException(
+                        "--deadline must not be negative.");
+            }
+        }
         
-        commandLineArguments.target = 
-                getArgumentStringValue(args, map.get("--target") + 1);
+        if (map.containsKey("--hub-throttling")) {
+            final String mode = 
+                    getArgumentStringValue(
+                            args, 
+                            map.get("--hub-throttling") + 1);
+            
+            try {
+                commandLineArguments.hubThrottlingMode = 
+                        HubThrottlingPolicy.Mode.valueOf(
+                                mode.toUpperCase(Locale.ROOT));
+            } catch (final IllegalArgumentException ex) {
+                throw new RuntimeException(
+                        String.format(
+                                "Unknown hub throttling mode: \"%s\".", 
+                                mode));
+            }
+            
+            if (commandLineArguments.hubThrottlingMode == 
+                    HubThrottlingPolicy.Mode.EXACT &&
+                (commandLineArguments.searchEngine != SearchEngine.FORK_JOIN ||
+                 map.containsKey("--worker") ||
+                 map.containsKey("--workers") ||
+                 map.containsKey("--build-balls") ||
+                 map.containsKey("--fast-guess"))) {
+                throw new RuntimeException(
+                        "--hub-throttling exact requires a local " + 
+                        "--engine fork-join search.");
+            }
+        }
         
-        if (map.containsKey("--out")) {
-            commandLineArguments.outFileName = 
-                getArgumentStringValue(args, map.get("--out") + 1);
+        if (map.containsKey("--hub-degree-threshold")) {
+            int index = map.get("--hub-degree-threshold");
+            commandLineArguments.hubDegreeThreshold = 
+                    getArgumentLongValue(args, index + 1);
         }
         
-        if (map.containsKey("--stats")) {
-            commandLineArguments.printStatistics = true;
+        if (map.containsKey("--hub-fan-out-cap")) {
+            int index = map.get("--hub-fan-out-cap");
+            commandLineArguments.hubFanOutCap = 
+                    getArgumentIntValue(args, index + 1);
+            
+            if (commandLineArguments.hubFanOutCap < 1 ||
+                commandLineArguments.hubFanOutCap > 
+                        HubThrottlingPolicy.DEFAULT_FAN_OUT_CAP) {
+                throw new RuntimeException(
+                        String.format(
+                                "--hub-fan-out-cap must be within 1 and %d.",
+                                HubThrottlingPolicy.DEFAULT_FAN_OUT_CAP));
+            }
         }
         
         if (map.containsKey("--forward-threads")) {
@@ -565,8 +2053,83 @@ public final class WikiGameKiller {
                     getArgumentLongValue(args, index + 1);
         }
         
+        if (commandLineArguments.targets.size() > 1) {
+            for (final String flag : new String[]{ "--workers",
+                                                   "--record",
+                                                   "--deadline",
+                                                   "--use-balls",
+                                                   "--fast-guess",
+                                                   "--out" }) {
+                if (map.containsKey(flag)) {
+                    throw new RuntimeException(
+                            String.format(
+                                    "%s supports a single target only.",
+                                    flag));
+                }
+            }
+        }
+        
         return commandLineArguments;
     }
+    
+    /**
+     * Collects the target URLs of all the {@code --target} flags, in order,
+     * followed by the ones listed in the {@code --targets-file}.
+     * 
+     * @param args the argument array.
+     * @param map  the map mapping each argument to its appearance index.
+     * 
+     * @return the list of target URLs.
+     */
+    private static List<String> getTargetArguments(
+            final String[] args,
+            final Map<String, Integer> map) {
+        
+        final List<String> targets = new ArrayList<>();
+        
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--target")) {
+                targets.add(getArgumentStringValue(args, i + 1));
+            }
+        }
+        
+        if (map.containsKey("--targets-file")) {
+            targets.addAll(
+                    readTargetsFile(
+                            getArgumentStringValue(
+                                    args, 
+                                    map.get("--targets-file") + 1)));
+        }
+        
+        return targets;
+    }
+    
+    /**
+     * Reads the target URLs listed in {@code fileName}, one per line. Blank 
+     * lines and lines starting with '#' are skipped.
+     * 
+     * @param fileName the name of the targets file.
+     * 
+     * @return the list of target URLs.
+     */
+    private static List<String> readTargetsFile(final String fileName) {
+        final List<String> targets = new ArrayList<>();
+        
+        try {
+            for (final String line : Files.readAllLines(Path.of(fileName))) {
+                if (!line.isBlank() && !line.trim().startsWith("#")) {
+                    targets.add(line.trim());
+                }
+            }
+        } catch (final IOException ex) {
+            throw new RuntimeException(
+                    String.format(
+                            "Could not read the targets file \"%s\".",
+                            fileName));
+        }
+        
+        return targets;
+    }
          
     /**
      * Prints the help message.
@@ -576,18 +2139,71 @@ public final class WikiGameKiller {
         """
         usage: %s
             --source SOURCE_ARTICLE_URL
-            --target TARGET_ARTICLE_URL
+            --target TARGET_ARTICLE_URL [--target TARGET_ARTICLE_URL...] | --targets-file TARGETS_FILE
+           [--engine thread-pool|fork-join]
+           [--off-heap]
+           [--deadline DEADLINE_MILLIS]
            [--forward-threads NUMBER_OF_FORWARD_THREADS]
            [--backward-threads NUMBER_OF_BACKWARD_THREADS]
            [--master-trials TRIALS]
            [--master-sleep-duration MASTER_SLEEP_NANOS]
            [--slave-sleep-duration SLAVE_SLEEP_NANOS]
            [--expansion-timeout EXPANSION_TIMEOUT_MILLIS]
+           [--auto-tune]
+           [--use-balls]
+           [--fast-guess]
+           [--all-namespaces]
+           [--resolve-redirects]
+           [--direct-fetch]
+           [--backlink-ranges RANGES]
+           [--backlink-page-budget PAGES]
+           [--workers HOST:PORT[,HOST:PORT...]]
+           [--record TRACE_FILE]
+           [--hub-throttling off|exact|approximate]
+           [--hub-degree-threshold HUB_DEGREE]
+           [--hub-fan-out-cap FAN_OUT_CAP]
+           [--exclude-pattern EXCLUDE_REGEX]
+           [--exclude-page-property EXCLUDE_PAGE_PROPERTY]
            [--help]
            [--stats]
            [--out [OUTPUT_HTML_FILE_NAME]]
         
+        usage: %s
+            --replay TRACE_FILE
+           [--replay-latency original|none|SCALE]
+           [--engine thread-pool|fork-join]
+           [--off-heap]
+           [--deadline DEADLINE_MILLIS]
+           [--forward-threads NUMBER_OF_FORWARD_THREADS]
+           [--backward-threads NUMBER_OF_BACKWARD_THREADS]
+           [--record TRACE_FILE]
+           [--stats]
+           [--out [OUTPUT_HTML_FILE_NAME]]
+        
+        usage: %s
+            --worker PORT
+           [--graph-file ARC_LIST_FILE]
+           [--forward-threads NUMBER_OF_FORWARD_THREADS]
+           [--backward-threads NUMBER_OF_BACKWARD_THREADS]
+           [--all-namespaces]
+           [--resolve-redirects]
+           [--direct-fetch]
+        
+        usage: %s
+            --build-balls TARGETS_FILE
+           [--ball-depth BALL_DEPTH]
+           [--ball-refresh-interval REFRESH_MINUTES]
+           [--backward-threads NUMBER_OF_BACKWARD_THREADS]
+           [--all-namespaces]
+           [--resolve-redirects]
+           [--direct-fetch]
+        
             where:
+                --target       - Give more than one target to share a single forward search among them. Each path is printed as soon as it is found.
+                --targets-file - Read the target URLs from a file, one per line.
+                --engine - The search engine. \"fork-join\" is event-driven and ignores the master/slave options. Default is \"thread-pool\".
+                --off-heap - Keep the visited titles and parents off the heap, one arena per search direction. Requires \"--engine fork-join\".
+                --deadline - Return the best path found within DEADLINE_MILLIS milliseconds along with a proven lower bound on the shortest path length. Requires \"--engine fork-join\".
                 NUMBER_OF_FORWARD_THREADS  - the total number of forward threads.  Default is %d.
                 NUMBER_OF_BACKWARD_THREADS - the total number of backward threads. Default is %d.
                 TRIALS                     - the number of master thread trials.   Default is %d.
@@ -595,16 +2211,46 @@ public final class WikiGameKiller {
                 SLAVE_SLEEP_NANOS          - the number of nanoseconds.            Default is %d.
                 EXPANSION_TIMEOUT_MILLIS   - the number of milliseconds.           Default is %d.
                 OUTPUT_HTML_FILE_NAME      - the name of the output HTML file.     Default is \"path.html\".
+                EXCLUDE_REGEX              - prune the article titles matching the regex, e.g. \"^List_of_\".
+                EXCLUDE_PAGE_PROPERTY      - prune the articles with the page property, e.g. \"disambiguation\".
+                HUB_DEGREE                 - the minimum backlink count of a hub.  Default is %d.
+                FAN_OUT_CAP                - the number of sampled hub backlinks.  Default and maximum is %d.
+                --hub-throttling - Expand the backward hubs in full after the other nodes of their level (exact, requires \"--engine fork-join\"), or only a sample of their backlinks (approximate). Default is off.
+                --auto-tune      - Adapt the thread counts to the measured latency and throttling, and derive the sleep durations and the expansion timeout from the latency. The learned values are saved per language in ~/.wikigamekiller/ and used in the next runs unless given explicitly. The thread counts are starting limits: each pool gets twice as many threads (at most 64) for the limit to grow into, so --forward-threads 4 may run up to 8 forward threads. The throttling seen by the graph expander library is invisible to the tuner unless it fails the expansion.
+                --all-namespaces - Do not prune the non-article namespaces (Category:, Template:, etc.).
+                --resolve-redirects - Resolve the redirects among the links to their target articles. Costs an extra request per 50 links; the source and the targets are always resolved.
+                --direct-fetch   - Decode the links straight from the API responses into shared, interned titles.
+                --backlink-ranges      - Fetch a long backlink list as RANGES page ID ranges in parallel. 1 fetches its pages one after another. Default is %d. Requires \"--direct-fetch\".
+                --backlink-page-budget - Fetch at most PAGES backlink pages per article; the rest of its backlinks are skipped. Default is unlimited. Requires \"--direct-fetch\".
+                --workers    - Distribute the search over the worker processes at the given addresses. Cannot be combined with --record or --replay.
+                --worker     - Run as a distributed search worker listening on PORT (0 picks a free port).
+                --build-balls           - Build the reverse-reachability balls (every article within BALL_DEPTH links, default %d) of the targets in TARGETS_FILE and save them in ~/.wikigamekiller/balls/.
+                --ball-refresh-interval - Keep running and refresh the next %d interior articles of each ball every REFRESH_MINUTES minutes.
+                --use-balls             - Search only forward into the ball of the target when one has been built. A ball search ignores \"--deadline\".
+                --fast-guess - Move towards the articles whose titles look related to the target and its backlinks. Usually needs a small fraction of the expansions, but the path is not necessarily the shortest. Gives up after %d expansions.
+                --graph-file - Make the worker expand an arc list file (\"LINKING LINKED\" per line) instead of Wikipedia.
+                --record         - Record every expansion and its latency to a trace file.
+                --replay         - Rerun the search recorded in a trace file without any network traffic.
+                --replay-latency - Replay with the original latencies, no latencies, or the latencies scaled by SCALE. Default is original.
                 --help  - Print this help message.
                 --stats - Print the search statistics after the search.
         """,
         getPath(),
+        getPath(),
+        getPath(),
+        getPath(),
         ThreadPoolBidirectionalBFSPathFinder.DEFAULT_NUMBER_OF_THREADS,
         ThreadPoolBidirectionalBFSPathFinder.DEFAULT_NUMBER_OF_THREADS,
         ThreadPoolBidirectionalBFSPathFinder.DEFAULT_NUMBER_OF_MASTER_TRIALS,
         ThreadPoolBidirectionalBFSPathFinder.DEFAULT_MASTER_THREAD_SLEEP_DURATION_NANOS,
         ThreadPoolBidirectionalBFSPathFinder.DEFAULT_SLAVE_THREAD_SLEEP_DURATION_NANOS,
-        ThreadPoolBidirectionalBFSPathFinder.DEFAULT_EXPANSION_JOIN_DURATION_MILLIS
+        ThreadPoolBidirectionalBFSPathFinder.DEFAULT_EXPANSION_JOIN_DURATION_MILLIS,
+        HubThrottlingPolicy.DEFAULT_HUB_DEGREE_THRESHOLD,
+        HubThrottlingPolicy.DEFAULT_FAN_OUT_CAP,
+        DirectSuccessorFetcher.DEFAULT_NUMBER_OF_RANGES,
+        ReachabilityBall.DEFAULT_DEPTH,
+        ReachabilityBallRefresher.DEFAULT_REFRESH_BATCH_SIZE,
+        FastGuessPathFinder.DEFAULT_MAXIMUM_NUMBER_OF_EXPANSIONS
         );
     }
     
@@ -623,6 +2269,7 @@ public final class WikiGameKiller {
         
         parametrizedFlags.add("--source");
         parametrizedFlags.add("--target");
+        parametrizedFlags.add("--targets-file");
         parametrizedFlags.add("--forward-threads");
         parametrizedFlags.add("--backward-threads");
         parametrizedFlags.add("--master-trials");
@@ -631,9 +2278,34 @@ public final class WikiGameKiller {
         parametrizedFlags.add("--expansion-timeout");
         parametrizedFlags.add("--lock-wait-timeout");
         parametrizedFlags.add("--out");
+        parametrizedFlags.add("--exclude-pattern");
+        parametrizedFlags.add("--exclude-page-property");
+        parametrizedFlags.add("--engine");
+        parametrizedFlags.add("--hub-throttling");
+        parametrizedFlags.add("--hub-degree-threshold");
+        parametrizedFlags.add("--hub-fan-out-cap");
+        parametrizedFlags.add("--workers");
+        parametrizedFlags.add("--worker");
+        parametrizedFlags.add("--graph-file");
+        parametrizedFlags.add("--record");
+        parametrizedFlags.add("--replay");
+        parametrizedFlags.add("--replay-latency");
+        parametrizedFlags.add("--deadline");
+        parametrizedFlags.add("--build-balls");
+        parametrizedFlags.add("--ball-depth");
+        parametrizedFlags.add("--ball-refresh-interval");
+        parametrizedFlags.add("--backlink-ranges");
+        parametrizedFlags.add("--backlink-page-budget");
         
         nonParametrizedFlags.add("--help");
         nonParametrizedFlags.add("--stats");
+        nonParametrizedFlags.add("--all-namespaces");
+        nonParametrizedFlags.add("--resolve-redirects");
+        nonParametrizedFlags.add("--off-heap");
+        nonParametrizedFlags.add("--direct-fetch");
+        nonParametrizedFlags.add("--auto-tune");
+        nonParametrizedFlags.add("--use-balls");
+        nonParametrizedFlags.add("--fast-guess");
         
         final Set<Integer> omitIndices = new HashSet<>();
         
@@ -666,6 +2338,143 @@ public final class WikiGameKiller {
         }
     }
     
+    /**
+     * Prints how far the best path found before the deadline may be from a
+     * shortest one. If some expansions were incomplete, the lower bound is 
+     * reported as unproven.
+     * 
+     * @param path                         the best path found.
+     * @param lowerBound                   the lower bound on the shortest 
+     *                                     path length.
+     * @param numberOfIncompleteExpansions the number of incomplete 
+     *                                     expansions.
+     */
+    private static void printDeadlineOutcome(
+            final List<String> path,
+            final int lowerBound,
+            final long numberOfIncompleteExpansions) {
+        
+        if (numberOfIncompleteExpansions > 0L) {
+            OUT.printf(
+                    "[INFO] %d expansions were incomplete, so the bound " + 
+                    "below is not proven: they may have missed a shorter " + 
+                    "path.%n",
+                    numberOfIncompleteExpansions);
+            
+            if (lowerBound == Integer.MAX_VALUE) {
+                OUT.println("[INFO] No path was found.");
+            } else if (path.isEmpty()) {
+                OUT.printf(
+                        "[INFO] No path was found. Unproven lower bound: " + 
+                        "%d links.%n",
+                        lowerBound);
+            } else {
+                OUT.printf(
+                        "[INFO] The path has %d links. Unproven lower " + 
+                        "bound: %d links.%n",
+                        path.size() - 1,
+                        lowerBound);
+            }
+            
+            return;
+        }
+        
+        if (lowerBound == Integer.MAX_VALUE) {
+            OUT.println("[INFO] The target is unreachable.");
+        } else if (path.isEmpty()) {
+            OUT.printf(
+                    "[INFO] Deadline expired before any path was found. " + 
+                    "Every path has at least %d links.%n",
+                    lowerBound);
+        } else if (lowerBound == path.size() - 1) {
+            OUT.printf("[INFO] The path of %d links is a shortest one.%n",
+                       lowerBound);
+        } else {
+            OUT.printf(
+                    "[INFO] Deadline expired. The path has %d links, " + 
+                    "a shortest one has at least %d links.%n",
+                    path.size() - 1,
+                    lowerBound);
+        }
+    }
+    
+    /**
+     * Prints the heap usage, the garbage collection totals and, if in use, the
+     * size of the off-heap title arena.
+     * 
+     * @param arena the off-heap title arena, or {@code null}.
+     */
+    private static void printMemoryStatistics(final OffHeapTitleArena arena) {
+        long numberOfCollections = 0L;
+        long collectionTimeMillis = 0L;
+        
+        for (final GarbageCollectorMXBean garbageCollector 
+                : ManagementFactory.getGarbageCollectorMXBeans()) {
+            numberOfCollections += 
+                    Math.max(0L, garbageCollector.getCollectionCount());
+            
+            collectionTimeMillis += 
+                    Math.max(0L, garbageCollector.getCollectionTime());
+        }
+        
+        OUT.printf(
+                """
+                [STATISTICS] Heap used: %d MiB.
+                [STATISTICS] GC: %d collections, %d milliseconds.
+                """,
+                ManagementFactory.getMemoryMXBean()
+                                 .getHeapMemoryUsage()
+                                 .getUsed() / (1024 * 1024),
+                numberOfCollections,
+                collectionTimeMillis);
+        
+        if (arena != null) {
+            OUT.printf(
+                    "[STATISTICS] Off-heap arena: %d titles, %d MiB.%n",
+                    arena.size(),
+                    arena.getNumberOfReservedBytes() / (1024 * 1024));
+        }
+    }
+    
+    /**
+     * Prints how many redirects {@code redirectResolver} resolved and how many
+     * lookups it took.
+     * 
+     * @param directionName    the name of the search direction.
+     * @param redirectResolver the redirect resolver.
+     */
+    private static void printRedirectStatistics(
+            final String directionName,
+            final RedirectResolver redirectResolver) {
+        
+        OUT.printf(
+                "[STATISTICS] %s redirects resolved: %d, " + 
+                "redirect lookups: %d.%n",
+                directionName,
+                redirectResolver.getNumberOfResolvedRedirects(),
+                redirectResolver.getNumberOfLookups());
+    }
+    
+    /**
+     * Prints how many successors each rule of {@code successorFilter} pruned.
+     * 
+     * @param directionName   the name of the search direction.
+     * @param successorFilter the successor filter.
+     */
+    private static void printPruningStatistics(
+            final String directionName,
+            final SuccessorFilter successorFilter) {
+        
+        final List<SuccessorFilter.Rule> rules = successorFilter.getRules();
+        
+        for (int i = 0; i < rules.size(); i++) {
+            OUT.printf("[STATISTICS] %s pruned by %s: %d nodes.%n",
+                       directionName,
+                       rules.get(i).getName(),
+                       successorFilter.getNumberOfPrunedNodes(i));
+        }
+    }
+    
     /**
      * Attempts to save the results to an HTML file.
      * 
@@ -740,20 +2549,21 @@ public final class WikiGameKiller {
     }
     
     /**
-     * Makes sure that the two terminal nodes are valid Wikipedia article nodes.
+     * Makes sure that all the terminal nodes are valid Wikipedia article 
+     * nodes.
      * 
      * @param forwardExpander  the forward link expander.
      * @param backwardExpander the backward link expander.
      * @param source           the source node.
-     * @param target           the target node.
+     * @param targets          the target nodes.
      * 
-     * @throws CommandLineException if could not validate both terminal nodes.
+     * @throws CommandLineException if could not validate all terminal nodes.
      */
     private static void validateTerminalNodes(
             final AbstractNodeExpander<String> forwardExpander,
             final AbstractNodeExpander<String> backwardExpander,
             String source, 
-            String target) {
+            List<String> targets) {
         
         try {
             forwardExpander .isValidNode(source);
@@ -764,13 +2574,15 @@ public final class WikiGameKiller {
                             source));
         }
         
-        try {
-            backwardExpander.isValidNode(target);
-        } catch (final Exception ex) {
-            throw new RuntimeException(
-                    String.format(
-                            "The target node \"%s\" is not a valid node.",
-                            target));
+        for (final String target : targets) {
+            try {
+                backwardExpander.isValidNode(target);
+            } catch (final Exception ex) {
+                throw new RuntimeException(
+                        String.format(
+                                "The target node \"%s\" is not a valid node.",
+                                target));
+            }
         }
     }
     
@@ -798,15 +2610,39 @@ public final class WikiGameKiller {
      * This class implements the forward link expander.
      */
     private static final class ForwardLinkExpander 
-            extends AbstractNodeExpander<String> {
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .IncompleteExpansionCounter {
 
+        private static final String DIRECTION = 
+                SearchEvents.getDirectionName(
+                        ForkJoinBidirectionalBFSPathFinder.FORWARD);
+        
         private final ForwardWikipediaGraphNodeExpander expander;
+        private final SuccessorFilter successorFilter;
+        private final RedirectResolver redirectResolver;
+        private final DirectSuccessorFetcher directSuccessorFetcher;
+        private final SingleFlightExpansionCoalescer coalescer;
+        private final AtomicLong numberOfFailedExpansions;
         
-        public ForwardLinkExpander(final String languageCode) throws Exception {
+        public ForwardLinkExpander(
+                final String languageCode,
+                final SuccessorFilter successorFilter,
+                final RedirectResolver redirectResolver,
+                final DirectSuccessorFetcher directSuccessorFetcher,
+                final SingleFlightExpansionCoalescer coalescer,
+                final AtomicLong numberOfFailedExpansions) 
+                throws Exception {
             this.expander =
                     new ForwardWikipediaGraphNodeExpander(
                             languageCode,
                             new WikipediaArticleJsonDownloader(languageCode));
+            
+            this.successorFilter = successorFilter;
+            this.redirectResolver = redirectResolver;
+            this.directSuccessorFetcher = directSuccessorFetcher;
+            this.coalescer = coalescer;
+            this.numberOfFailedExpansions = numberOfFailedExpansions;
         }
         
         /**
@@ -818,12 +2654,54 @@ public final class WikiGameKiller {
          */
         @Override
         public List<String> generateSuccessors(final String article) {
+            final SearchEvents.ExpansionEvent event = 
+                    new SearchEvents.ExpansionEvent();
+            event.begin();
+            
             try {
-                return stripHostAddress(expander.getNeighbors(article));
+                final List<String> successors = 
+                        redirectResolver.resolve(
+                                successorFilter.filter(
+                                        coalescer.expand(
+                                                article, 
+                                                () -> downloadLinks(
+                                                        article))));
+                
+                successors.remove(article);
+                event.finish(DIRECTION, article, successors.size(), "ok");
+                return successors;
             } catch (Exception ex) {
+                numberOfFailedExpansions.incrementAndGet();
+                event.finish(DIRECTION, article, 0, "failed");
                 return Collections.<String>emptyList();
             }
         }
+        
+        /**
+         * Downloads the titles of all the articles {@code article} links to.
+         * 
+         * @param article the source article of each link.
+         * 
+         * @return the titles of the articles {@code article} links to.
+         * 
+         * @throws java.lang.Exception if the download fails.
+         */
+        private List<String> downloadLinks(final String article) 
+                throws Exception {
+            return directSuccessorFetcher != null ?
+                   directSuccessorFetcher.fetch(article) :
+                   stripHostAddress(expander.getNeighbors(article));
+        }
+
+        /**
+         * Returns the number of failed expansions of this expander.
+         * 
+         * @return the number of incomplete expansions.
+         */
+        @Override
+        public long getNumberOfIncompleteExpansions() {
+            return numberOfFailedExpansions.get();
+        }
 
         /**
          * {@inheritDoc }
@@ -842,35 +2720,250 @@ public final class WikiGameKiller {
      * This class implements the backward link expander. 
      */
     private static final class BackwardLinkExpander 
-            extends AbstractNodeExpander<String> {
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<String>,
+                       ForkJoinBidirectionalBFSPathFinder
+                               .DeferringNodeExpander<String>,
+                       ForkJoinBidirectionalBFSPathFinder
+                               .IncompleteExpansionCounter {
 
+        private static final String DIRECTION = 
+                SearchEvents.getDirectionName(
+                        ForkJoinBidirectionalBFSPathFinder.BACKWARD);
+        
         private final BackwardWikipediaGraphNodeExpander expander;
+        private final WikipediaApiClient apiClient;
+        private final SuccessorFilter successorFilter;
+        private final RedirectResolver redirectResolver;
+        private final HubThrottlingPolicy hubThrottlingPolicy;
+        private final DirectSuccessorFetcher directSuccessorFetcher;
+        private final SingleFlightExpansionCoalescer coalescer;
+        private final AtomicLong numberOfFailedExpansions;
         
-        public BackwardLinkExpander(final String languageCode) throws Exception {
+        public BackwardLinkExpander(
+                final String languageCode,
+                final SuccessorFilter successorFilter,
+                final RedirectResolver redirectResolver,
+                final HubThrottlingPolicy hubThrottlingPolicy,
+                final DirectSuccessorFetcher directSuccessorFetcher,
+                final SingleFlightExpansionCoalescer coalescer,
+                final AtomicLong numberOfFailedExpansions) 
+                throws Exception {
             this.expander = 
                     new BackwardWikipediaGraphNodeExpander(
                             languageCode,
                             new WikipediaArticleJsonDownloader(languageCode));
+            
+            this.apiClient = WikipediaApiClient.forLanguage(languageCode);
+            this.successorFilter = successorFilter;
+            this.redirectResolver = redirectResolver;
+            this.hubThrottlingPolicy = hubThrottlingPolicy;
+            this.directSuccessorFetcher = directSuccessorFetcher;
+            this.coalescer = coalescer;
+            this.numberOfFailedExpansions = numberOfFailedExpansions;
         }
         
         /**
-         * Generate all the links pointing to the article {@code article}.
+         * Generate all the links pointing to the article {@code article}. The
+         * redirects to {@code article} are not returned as such, but the 
+         * articles linking to them are.
          * 
          * @param article the target article of each link.
          * 
          * @return all the article titles linking to {@code article}.
-         * 
-         * @throws java.lang.Exception if something fails.
          */
         @Override
         public List<String> generateSuccessors(final String article) {
+            final SearchEvents.ExpansionEvent event = 
+                    new SearchEvents.ExpansionEvent();
+            event.begin();
+            
             try {
-                return stripHostAddress(expander.getNeighbors(article));
+                final List<String> successors = 
+                        toSuccessors(
+                                article,
+                                successorFilter.filter(
+                                        hubThrottlingPolicy.expand(
+                                                article,
+                                                () -> downloadBacklinks(
+                                                        article),
+                                                () -> sampleBacklinks(
+                                                        article))));
+                
+                event.finish(DIRECTION, article, successors.size(), "ok");
+                return successors;
             } catch (Exception ex) {
+                numberOfFailedExpansions.incrementAndGet();
+                event.finish(DIRECTION, article, 0, "failed");
                 return Collections.<String>emptyList();
             }
         }
         
+        /**
+         * Generates the links pointing to the article {@code article} page by
+         * page as the pages of the backlink list arrive. Only the direct 
+         * fetcher delivers pages; otherwise, and for the sampled hubs, all 
+         * the backlinks come as a single page. So do they for the 
+         * expansions joining an in-flight fetch of the same article.
+         * 
+         * @param article      the target article of each link.
+         * @param pageConsumer the consumer of the backlink pages.
+         */
+        @Override
+        public void generateSuccessorPages(
+                final String article,
+                final Consumer<List<String>> pageConsumer) {
+            
+            if (directSuccessorFetcher == null || 
+                hubThrottlingPolicy.getMode() == 
+                        HubThrottlingPolicy.Mode.APPROXIMATE) {
+                pageConsumer.accept(generateSuccessors(article));
+                return;
+            }
+            
+            final SearchEvents.ExpansionEvent event = 
+                    new SearchEvents.ExpansionEvent();
+            event.begin();
+            
+            final AtomicInteger numberOfSuccessors = new AtomicInteger();
+            
+            try {
+                // The pages may arrive in the range threads of the fetcher,
+                // so the backlinks of the redirects are fetched afterwards:
+                redirectResolver.resolveBacklinkPages(
+                        article,
+                        (title, pages) -> coalescer.expandPages(
+                                title,
+                                (rawPages) -> directSuccessorFetcher.fetch(
+                                        title, 
+                                        rawPages),
+                                (page) -> pages.accept(
+                                        successorFilter.filter(page))),
+                        this::getBacklinks,
+                        (successors) -> {
+                            numberOfSuccessors.addAndGet(successors.size());
+                            pageConsumer.accept(successors);
+                        });
+                
+                event.finish(DIRECTION, 
+                             article, 
+                             numberOfSuccessors.get(), 
+                             "ok");
+            } catch (Exception ex) {
+                numberOfFailedExpansions.incrementAndGet();
+                event.finish(DIRECTION, 
+                             article, 
+                             numberOfSuccessors.get(), 
+                             "failed");
+            }
+        }
+        
+        /**
+         * Defers the expansion of {@code article} to the end of its level if 
+         * it is a hub to be expanded in full.
+         * 
+         * @param article the article about to be expanded.
+         * 
+         * @return {@code true} if the expansion is deferred.
+         */
+        @Override
+        public boolean isDeferred(final String article) {
+            return hubThrottlingPolicy.isDeferred(article);
+        }
+        
+        /**
+         * Resolves the redirects among the filtered {@code backlinks} of 
+         * {@code article}. The redirects to {@code article} are replaced by 
+         * the articles linking to them.
+         * 
+         * @param article   the target article of each link.
+         * @param backlinks the filtered backlinks of {@code article}.
+         * 
+         * @return the distinct canonical successors.
+         */
+        private List<String> toSuccessors(final String article,
+                                          final List<String> backlinks) {
+            return redirectResolver.resolveBacklinks(article,
+                                                     backlinks,
+                                                     this::getBacklinks);
+        }
+        
+        /**
+         * Returns the filtered titles of all the pages linking to 
+         * {@code article}, redirects included.
+         * 
+         * @param article the target article of each link.
+         * 
+         * @return the titles of the pages linking to {@code article}.
+         * 
+         * @throws java.lang.Exception if the download fails.
+         */
+        private List<String> getBacklinks(final String article) 
+                throws Exception {
+            return successorFilter.filter(downloadBacklinks(article));
+        }
+        
+        /**
+         * Downloads the titles of all the pages linking to {@code article}.
+         * 
+         * @param article the target article of each link.
+         * 
+         * @return the titles of the pages linking to {@code article}.
+         * 
+         * @throws java.lang.Exception if the download fails.
+         */
+        private List<String> downloadBacklinks(final String article) 
+                throws Exception {
+            return coalescer.expand(
+                    article, 
+                    () -> directSuccessorFetcher != null ?
+                          directSuccessorFetcher.fetch(article) :
+                          stripHostAddress(expander.getNeighbors(article)));
+        }
+        
+        /**
+         * Downloads the titles of at most the fan-out cap pages linking to
+         * the hub {@code article}.
+         * 
+         * @param article the target article of each link.
+         * 
+         * @return the titles of some of the pages linking to {@code article}.
+         * 
+         * @throws java.lang.Exception if the download fails.
+         */
+        private List<String> sampleBacklinks(final String article) 
+                throws Exception {
+            final List<String> apiTitles = 
+                    apiClient.getBacklinks(
+                            WikipediaTitles.toApiTitle(article),
+                            hubThrottlingPolicy.getFanOutCap());
+            
+            final List<String> backlinks = new ArrayList<>(apiTitles.size());
+            
+            for (final String apiTitle : apiTitles) {
+                backlinks.add(WikipediaTitles.toNodeTitle(apiTitle));
+            }
+            
+            return backlinks;
+        }
+        
+        /**
+         * Returns the number of failed expansions of this expander, plus the
+         * hubs expanded as samples and the backlink lists cut short by the 
+         * page budget.
+         * 
+         * @return the number of incomplete expansions.
+         */
+        @Override
+        public long getNumberOfIncompleteExpansions() {
+            return numberOfFailedExpansions.get() + 
+                   hubThrottlingPolicy.getNumberOfSampledExpansions() +
+                   (directSuccessorFetcher == null ?
+                    0L :
+                    directSuccessorFetcher.getNumberOfTruncatedFetches());
+        }
+
         /**
          * {@inheritDoc }
          */
@@ -908,10 +3001,22 @@ public final class WikiGameKiller {
         }
         
         String toCommandLineRow(int urlLength) {
-            return String.format(
-                    "%-" + urlLength + "s  [%s]", 
-                    url.replace("+", "_"),
-                    title);
+            final StringBuilder stringBuilder = 
+                    new StringBuilder(urlLength + title.length() + 4);
+            
+            for (int i = 0; i < url.length(); i++) {
+                final char c = url.charAt(i);
+                stringBuilder.append(c == '+' ? '_' : c);
+            }
+            
+            while (stringBuilder.length() < urlLength) {
+                stringBuilder.append(' ');
+            }
+            
+            return stringBuilder.append("  [")
+                                .append(title)
+                                .append(']')
+                                .toString();
         }
     }
 }
@@ -0,0 +1,756 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class implements a minimal client for the MediaWiki query API. It is
+ * used for all the queries that the node expanders of
+ * {@code WikipediaGraphNodeExpanders.java} do not provide, such as namespace
+ * names, page properties and redirects.
+ */
+final class WikipediaApiClient {
+
+    /**
+     * Runs a query action against the API; implemented by
+     * {@link #query(java.lang.String...)} and faked in the tests.
+     */
+    @FunctionalInterface
+    interface Query {
+
+        /**
+         * Runs a query action against the API.
+         *
+         * @param parameters the query parameters as alternating names and
+         *                   values.
+         *
+         * @return the JSON response body.
+         *
+         * @throws IOException          if the request fails.
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        String query(String... parameters)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * The format of the API end point URL.
+     */
+    private static final String API_URL_FORMAT =
+            "https://%s.wikipedia.org/w/api.php";
+
+    /**
+     * The user agent sent with each request as requested by the Wikimedia
+     * API etiquette.
+     */
+    private static final String USER_AGENT =
+            "WikiGameKiller.java/1.0.0 " +
+            "(https://github.com/coderodde/WikiGameKiller.java)";
+
+    /**
+     * The maximum number of attempts per request.
+     */
+    private static final int MAXIMUM_NUMBER_OF_ATTEMPTS = 3;
+
+    /**
+     * The top-level key of the API error responses.
+     */
+    private static final byte[] ERROR_KEY =
+            "error".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The back-off duration after the first throttled attempt.
+     */
+    private static final long INITIAL_BACKOFF_MILLIS = 200L;
+
+    /**
+     * The duration for which a fetched maximum page ID is reused.
+     */
+    private static final long MAXIMUM_PAGE_ID_TTL_MILLIS = 10L * 60L * 1000L;
+
+    /**
+     * The duration for which a failed fetch of the maximum page ID is not
+     * retried.
+     */
+    private static final long MAXIMUM_PAGE_ID_RETRY_MILLIS = 60L * 1000L;
+
+    /**
+     * Maps each language code to its shared client.
+     */
+    private static final Map<String, WikipediaApiClient> CLIENTS =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The shared HTTP client.
+     */
+    private static final HttpClient HTTP_CLIENT =
+            HttpClient.newBuilder()
+                      .connectTimeout(Duration.ofSeconds(10L))
+                      .followRedirects(HttpClient.Redirect.NORMAL)
+                      .build();
+
+    /**
+     * The language code of the Wikipedia edition.
+     */
+    private final String languageCode;
+
+    /**
+     * The API end point URL.
+     */
+    private final String apiUrl;
+
+    /**
+     * The number of requests sent, retries included.
+     */
+    private final AtomicLong numberOfRequests = new AtomicLong();
+
+    /**
+     * The number of HTTP 429 and 503 responses received.
+     */
+    private final AtomicLong numberOfThrottledResponses = new AtomicLong();
+
+    /**
+     * The total number of response body bytes received.
+     */
+    private final AtomicLong numberOfReceivedBytes = new AtomicLong();
+
+    /**
+     * The latest fetched maximum page ID, or -1 if none has been fetched.
+     */
+    private volatile long maximumPageId = -1L;
+
+    /**
+     * The time at which {@code maximumPageId} was fetched.
+     */
+    private volatile long maximumPageIdTimeMillis;
+
+    /**
+     * The time of the latest failed fetch of the maximum page ID.
+     */
+    private volatile long maximumPageIdFailureTimeMillis = Long.MIN_VALUE;
+
+    /**
+     * The names of the non-main namespaces, or {@code null} if not fetched
+     * yet. Fetched once and shared by all the successor filters of this
+     * language.
+     */
+    private volatile Set<String> nonMainNamespaceNames;
+
+    private WikipediaApiClient(final String languageCode) {
+        this.languageCode = languageCode;
+        this.apiUrl = String.format(API_URL_FORMAT, languageCode);
+    }
+
+    /**
+     * Returns the shared client for the language code {@code languageCode}.
+     *
+     * @param languageCode the language code of the Wikipedia edition.
+     *
+     * @return the shared client.
+     */
+    static WikipediaApiClient forLanguage(final String languageCode) {
+        return CLIENTS.computeIfAbsent(languageCode, WikipediaApiClient::new);
+    }
+
+    /**
+     * Returns the language code of this client.
+     *
+     * @return the language code.
+     */
+    String getLanguageCode() {
+        return languageCode;
+    }
+
+    /**
+     * Runs a query action against the API. The parameters {@code action},
+     * {@code format} and {@code formatversion} are added automatically.
+     *
+     * @param parameters the query parameters as alternating names and values.
+     *
+     * @return the JSON response body.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    String query(final String... parameters)
+            throws IOException, InterruptedException {
+        return new String(queryBytes(parameters), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Runs a query action against the API just like
+     * {@link #query(java.lang.String...)}, but returns the raw UTF-8 bytes of
+     * the response body. Parameters with empty values are omitted.
+     *
+     * @param parameters the query parameters as alternating names and values.
+     *
+     * @return the UTF-8 bytes of the JSON response body.
+     *
+     * @throws IOException          if the request fails or the API responds
+     *                              with an error.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    byte[] queryBytes(final String... parameters)
+            throws IOException, InterruptedException {
+
+        if (parameters.length % 2 != 0) {
+            throw new IllegalArgumentException(
+                    "Parameters must come in name/value pairs.");
+        }
+
+        final StringBuilder stringBuilder =
+                new StringBuilder(apiUrl)
+                        .append("?action=query&format=json&formatversion=2");
+
+        for (int i = 0; i < parameters.length; i += 2) {
+            if (parameters[i + 1].isEmpty()) {
+                continue;
+            }
+
+            stringBuilder.append('&')
+                         .append(parameters[i])
+                         .append('=')
+                         .append(URLEncoder.encode(parameters[i + 1],
+                                                   StandardCharsets.UTF_8));
+        }
+
+        final byte[] json = get(stringBuilder.toString());
+        checkForError(json);
+        return json;
+    }
+
+    /**
+     * Throws if {@code json} is an API error response. The API reports
+     * errors such as {@code maxlag}, {@code ratelimited} or
+     * {@code internal_api_error} with HTTP status 200 and a top-level
+     * {@code error} object instead of the query result.
+     *
+     * @param json the UTF-8 bytes of the JSON response body.
+     *
+     * @throws IOException if {@code json} is an error response.
+     */
+    static void checkForError(final byte[] json) throws IOException {
+        if (!hasTopLevelKey(json, ERROR_KEY)) {
+            return;
+        }
+
+        String code = null;
+        String info = null;
+
+        try {
+            final String text = new String(json, StandardCharsets.UTF_8);
+            code = getStringValue(text, "code");
+            info = getStringValue(text, "info");
+        } catch (final IllegalArgumentException ex) {
+            // Report the error without the details.
+        }
+
+        throw new IOException(
+                String.format("API error \"%s\": %s", code, info));
+    }
+
+    /**
+     * Returns {@code true} if the top-level object of {@code json} has the
+     * key {@code key}. The nested values, titles included, are skipped.
+     */
+    private static boolean hasTopLevelKey(final byte[] json,
+                                          final byte[] key) {
+        int depth = 0;
+
+        for (int i = 0; i < json.length; i++) {
+            final byte b = json[i];
+
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            } else if (b == '"') {
+                final int start = i + 1;
+
+                for (i = start; json[i] != '"'; i++) {
+                    if (json[i] == '\\') {
+                        i++;
+                    }
+                }
+
+                if (depth == 1 &&
+                    i - start == key.length &&
+                    Arrays.equals(json, start, i, key, 0, key.length)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of requests sent so far, retries included.
+     *
+     * @return the number of requests.
+     */
+    long getNumberOfRequests() {
+        return numberOfRequests.get();
+    }
+
+    /**
+     * Returns the number of throttled responses received so far.
+     *
+     * @return the number of throttled responses.
+     */
+    long getNumberOfThrottledResponses() {
+        return numberOfThrottledResponses.get();
+    }
+
+    /**
+     * Returns the number of response body bytes received so far.
+     *
+     * @return the number of received bytes.
+     */
+    long getNumberOfReceivedBytes() {
+        return numberOfReceivedBytes.get();
+    }
+
+    /**
+     * Returns the names of all the namespaces other than the main namespace
+     * (canonical names, local names and aliases). The names are fetched only
+     * once per language.
+     *
+     * @return the unmodifiable set of namespace names.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    Set<String> getNonMainNamespaceNames()
+            throws IOException, InterruptedException {
+
+        Set<String> namespaceNames = nonMainNamespaceNames;
+
+        if (namespaceNames != null) {
+            return namespaceNames;
+        }
+
+        final String json = query("meta",   "siteinfo",
+                                  "siprop", "namespaces|namespacealiases");
+
+        namespaceNames = new HashSet<>();
+
+        try {
+            for (final String key
+                    : new String[]{ "name", "canonical", "alias" }) {
+                for (final String name : getStringValues(json, key)) {
+                    if (!name.isEmpty()) {
+                        namespaceNames.add(name);
+                    }
+                }
+            }
+        } catch (final IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+
+        namespaceNames = Collections.unmodifiableSet(namespaceNames);
+        nonMainNamespaceNames = namespaceNames;
+        return namespaceNames;
+    }
+
+    /**
+     * Returns the titles in {@code apiTitles} that have the page property
+     * {@code property}. The titles are returned exactly as requested, even if
+     * the API normalized them.
+     *
+     * @param apiTitles the API titles to check. At most 50.
+     * @param property  the name of the page property.
+     *
+     * @return the set of titles having the page property.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    Set<String> getTitlesHavingPageProperty(final List<String> apiTitles,
+                                            final String property)
+            throws IOException, InterruptedException {
+
+        final String json = query("prop",   "pageprops",
+                                  "ppprop", property,
+                                  "titles", String.join("|", apiTitles));
+
+        final Set<String> titlesHavingProperty = new HashSet<>();
+
+        try {
+            final Map<String, String> normalizedToRequested =
+                    getNormalizedToRequestedTitleMap(json);
+
+            for (final Map<String, Object> page : getPages(json)) {
+                if (page.containsKey("pageprops") &&
+                    page.get("title") instanceof String title) {
+
+                    titlesHavingProperty.add(
+                            normalizedToRequested.getOrDefault(title, title));
+                }
+            }
+        } catch (final IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+
+        return titlesHavingProperty;
+    }
+
+    /**
+     * Returns the map mapping each normalized title in the {@code normalized}
+     * section of {@code json} to the title as requested.
+     *
+     * @param json the JSON response.
+     *
+     * @return the map from normalized titles to requested titles.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static Map<String, String> getNormalizedToRequestedTitleMap(
+            final String json) {
+
+        final Map<String, String> map = new HashMap<>();
+
+        for (final Map.Entry<String, String> entry
+                : getSectionMap(json, "normalized").entrySet()) {
+            map.put(entry.getValue(), entry.getKey());
+        }
+
+        return map;
+    }
+
+    /**
+     * Returns the map mapping each {@code from} value to its {@code to} value
+     * in the section {@code sectionName} of {@code json}, such as
+     * {@code normalized} or {@code redirects}.
+     *
+     * @param json        the JSON response.
+     * @param sectionName the name of the section.
+     *
+     * @return the map from {@code from} values to {@code to} values.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static Map<String, String> getSectionMap(final String json,
+                                             final String sectionName) {
+
+        final Map<String, String> map = new HashMap<>();
+
+        if (!(getQuery(JsonParser.parse(json)).get(sectionName)
+                instanceof List<?> section)) {
+            return map;
+        }
+
+        for (final Object entry : section) {
+            if (entry instanceof Map<?, ?> entryMap &&
+                entryMap.get("from") instanceof String from &&
+                entryMap.get("to") instanceof String to) {
+
+                map.put(from, to);
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * Returns the pages of the {@code pages} section of {@code json}, in the
+     * array form of {@code formatversion=2} as well as in the object form of
+     * the older format.
+     *
+     * @param json the JSON response.
+     *
+     * @return the list of pages.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static List<Map<String, Object>> getPages(final String json) {
+        final Object pages = getQuery(JsonParser.parse(json)).get("pages");
+        final Iterable<?> pageValues;
+
+        if (pages instanceof List<?> pageList) {
+            pageValues = pageList;
+        } else if (pages instanceof Map<?, ?> pageMap) {
+            pageValues = pageMap.values();
+        } else {
+            return new ArrayList<>();
+        }
+
+        final List<Map<String, Object>> result = new ArrayList<>();
+
+        for (final Object page : pageValues) {
+            if (page instanceof Map<?, ?>) {
+                result.add(asObject(page));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns at most {@code limit} titles of the main namespace pages linking
+     * to {@code apiTitle}, taken from the first page of the backlink list.
+     *
+     * @param apiTitle the API title of the linked article.
+     * @param limit    the maximum number of titles. At most 500.
+     *
+     * @return the API titles of the linking pages.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    List<String> getBacklinks(final String apiTitle, final int limit)
+            throws IOException, InterruptedException {
+
+        final String json = query("prop",        "linkshere",
+                                  "lhprop",      "title",
+                                  "lhnamespace", "0",
+                                  "lhlimit",     Integer.toString(limit),
+                                  "titles",      apiTitle);
+
+        final List<String> backlinks = new ArrayList<>();
+
+        try {
+            for (final Map<String, Object> page : getPages(json)) {
+                if (!(page.get("linkshere") instanceof List<?> linksHere)) {
+                    continue;
+                }
+
+                for (final Object link : linksHere) {
+                    if (link instanceof Map<?, ?> linkMap &&
+                        linkMap.get("title") instanceof String title) {
+                        backlinks.add(title);
+                    }
+                }
+            }
+        } catch (final IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+
+        return backlinks;
+    }
+
+    /**
+     * Returns (an estimate of) the greatest page ID of this Wikipedia edition,
+     * that is, the page ID of the most recently created page. The value is
+     * fetched from the recent changes at most once per ten minutes, and a
+     * failed fetch is not retried for a minute, so that the expansions do
+     * not each wait for it while the API is down.
+     *
+     * @return the maximum page ID, or -1 if it cannot be fetched.
+     */
+    long getMaximumPageId() {
+        final long now = System.currentTimeMillis();
+
+        if (maximumPageId >= 0L &&
+            now - maximumPageIdTimeMillis < MAXIMUM_PAGE_ID_TTL_MILLIS) {
+            return maximumPageId;
+        }
+
+        if (now - maximumPageIdFailureTimeMillis < 
+                MAXIMUM_PAGE_ID_RETRY_MILLIS) {
+            return maximumPageId;
+        }
+
+        try {
+            final String json = query("list",    "recentchanges",
+                                      "rctype",  "new",
+                                      "rcprop",  "ids",
+                                      "rclimit", "1");
+
+            final long pageId = getLongValue(json, "pageid");
+
+            if (pageId > 0L) {
+                maximumPageId = pageId;
+                maximumPageIdTimeMillis = now;
+            } else {
+                maximumPageIdFailureTimeMillis = now;
+            }
+        } catch (final IOException | IllegalArgumentException ex) {
+            // Keep the previous value, if any, and retry later.
+            maximumPageIdFailureTimeMillis = now;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return maximumPageId;
+    }
+
+    /**
+     * Sends a GET request to {@code url}, retrying on throttling.
+     *
+     * @param url the URL to fetch.
+     *
+     * @return the response body bytes.
+     *
+     * @throws IOException          if the request fails.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    private byte[] get(final String url)
+            throws IOException, InterruptedException {
+
+        final HttpRequest request =
+                HttpRequest.newBuilder(URI.create(url))
+                           .header("User-Agent", USER_AGENT)
+                           .timeout(Duration.ofSeconds(30L))
+                           .GET()
+                           .build();
+
+        final SearchEvents.HttpFetchEvent event =
+                new SearchEvents.HttpFetchEvent();
+        event.begin();
+
+        long backoffMillis = INITIAL_BACKOFF_MILLIS;
+        int statusCode = -1;
+        long bytes = 0L;
+        int attempt = 1;
+
+        try {
+            for (; ; attempt++) {
+                numberOfRequests.incrementAndGet();
+
+                final HttpResponse<byte[]> response =
+                        HTTP_CLIENT.send(
+                                request,
+                                HttpResponse.BodyHandlers.ofByteArray());
+
+                statusCode = response.statusCode();
+                bytes += response.body().length;
+
+                if (statusCode == 200) {
+                    numberOfReceivedBytes.addAndGet(response.body().length);
+                    return response.body();
+                }
+
+                if (statusCode != 429 && statusCode != 503) {
+                    throw new IOException(
+                            String.format(
+                                    "HTTP %d from \"%s\".",
+                                    statusCode,
+                                    url));
+                }
+
+                numberOfThrottledResponses.incrementAndGet();
+
+                if (attempt == MAXIMUM_NUMBER_OF_ATTEMPTS) {
+                    throw new IOException(
+                            String.format(
+                                    "Throttled (HTTP %d) after %d attempts.",
+                                    statusCode,
+                                    attempt));
+                }
+
+                Thread.sleep(backoffMillis);
+                backoffMillis *= 2;
+            }
+        } finally {
+            event.finish(url, statusCode, bytes, attempt - 1);
+        }
+    }
+
+    /**
+     * Returns all the string values of the JSON key {@code key} in
+     * {@code json} at any depth, in the order of appearance.
+     *
+     * @param json the JSON text.
+     * @param key  the key whose string values to collect.
+     *
+     * @return the list of string values.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static List<String> getStringValues(final String json, final String key) {
+        final List<String> values = new ArrayList<>();
+        collectValues(JsonParser.parse(json), key, String.class, values);
+        return values;
+    }
+
+    /**
+     * Returns the first integer value of the JSON key {@code key} in
+     * {@code json} at any depth, or -1 if there is none.
+     *
+     * @param json the JSON text.
+     * @param key  the key whose integer value to return.
+     *
+     * @return the first integer value of {@code key}, or -1.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static long getLongValue(final String json, final String key) {
+        final List<Long> values = new ArrayList<>();
+        collectValues(JsonParser.parse(json), key, Long.class, values);
+        return values.isEmpty() ? -1L : values.get(0);
+    }
+
+    /**
+     * Returns the first string value of the JSON key {@code key} in
+     * {@code json}, or {@code null} if there is none.
+     *
+     * @param json the JSON text.
+     * @param key  the key whose string value to return.
+     *
+     * @return the first string value of {@code key}, or {@code null}.
+     *
+     * @throws IllegalArgumentException if {@code json} is malformed.
+     */
+    static String getStringValue(final String json, final String key) {
+        final List<String> values = getStringValues(json, key);
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Returns the {@code query} object of the parsed response {@code root},
+     * or an empty map if there is none.
+     */
+    private static Map<String, Object> getQuery(final Object root) {
+        return root instanceof Map<?, ?> rootMap &&
+               rootMap.get("query") instanceof Map<?, ?> query ?
+               asObject(query) :
+               Collections.emptyMap();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asObject(final Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Appends the values of type {@code type} of the key {@code key} in the
+     * parsed JSON value {@code value} and its descendants to {@code values},
+     * depth first.
+     */
+    private static <T> void collectValues(final Object value,
+                                          final String key,
+                                          final Class<T> type,
+                                          final List<T> values) {
+        if (value instanceof Map<?, ?> map) {
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                if (entry.getKey().equals(key) &&
+                    type.isInstance(entry.getValue())) {
+                    values.add(type.cast(entry.getValue()));
+                } else {
+                    collectValues(entry.getValue(), key, type, values);
+                }
+            }
+        } else if (value instanceof List<?> list) {
+            for (final Object element : list) {
+                collectValues(element, key, type, values);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class provides conversions between the article title forms used in
+ * this program. A <i>node title</i> is the form used in the search (spaces
+ * replaced by underscores, as in {@code Australian_Grand_Prix}), and an
+ * <i>API title</i> is the form used by the MediaWiki API (as in
+ * {@code Australian Grand Prix}).
+ */
+final class WikipediaTitles {
+
+    private WikipediaTitles() {
+
+    }
+
+    /**
+     * Percent-decodes {@code title} if it is percent-encoded. Unlike
+     * {@link URLDecoder}, plus signs are kept intact, since they are legal
+     * characters in article titles (as in {@code C++}).
+     *
+     * @param title the title to decode.
+     *
+     * @return the decoded title.
+     */
+    static String decode(final String title) {
+        if (title.indexOf('%') < 0) {
+            return title;
+        }
+
+        try {
+            return URLDecoder.decode(title.replace("+", "%2B"),
+                                     StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException ex) {
+            // A literal '%' in the title:
+            return title;
+        }
+    }
+
+    /**
+     * Converts the node title {@code title} to the API title form.
+     *
+     * @param title the node title.
+     *
+     * @return the API title.
+     */
+    static String toApiTitle(final String title) {
+        return decode(title).replace('_', ' ');
+    }
+
+    /**
+     * Converts the API title {@code apiTitle} to the node title form.
+     *
+     * @param apiTitle the API title.
+     *
+     * @return the node title.
+     */
+    static String toNodeTitle(final String apiTitle) {
+        return apiTitle.replace(' ', '_');
+    }
+
+    /**
+     * Returns the possible namespace prefix of {@code title} in the API title
+     * form, or {@code null} if the title contains no colon. Note that the
+     * prefix is a namespace name only if it is listed as such by the
+     * Wikipedia edition; titles such as {@code Star Wars: Andor} are main
+     * namespace articles.
+     *
+     * @param title the node title.
+     *
+     * @return the text before the first colon, or {@code null}.
+     */
+    static String getNamespacePrefix(final String title) {
+        final String apiTitle = toApiTitle(title);
+        final int colonIndex = apiTitle.indexOf(':');
+
+        if (colonIndex < 0) {
+            return null;
+        }
+
+        return apiTitle.substring(0, colonIndex).trim();
+    }
+}
@@ -0,0 +1,333 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.BACKWARD;
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.FORWARD;
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class AutoTunerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong[] congestionCounters = {
+        new AtomicLong(),
+        new AtomicLong(),
+    };
+
+    @Test
+    public void increasesLimitWhileLatencyIsStable() {
+        final AutoTuner autoTuner = createAutoTuner(4);
+        final AbstractNodeExpander<String> expander =
+                autoTuner.wrap(new ClockExpander(100_000_000L), FORWARD);
+
+        expand(expander, 4);
+        assertEquals(5, autoTuner.getLimit(FORWARD));
+
+        expand(expander, 5);
+        assertEquals(6, autoTuner.getLimit(FORWARD));
+        assertEquals(8, autoTuner.getNumberOfThreads(FORWARD));
+
+        expand(expander, 100);
+        assertEquals(8, autoTuner.getLimit(FORWARD));
+        assertEquals(4, autoTuner.getLimit(BACKWARD));
+    }
+
+    @Test
+    public void forwardsSuccessorPages() {
+        final AutoTuner autoTuner = createAutoTuner(4);
+        final AbstractNodeExpander<String> expander =
+                autoTuner.wrap(new PagedClockExpander(100_000_000L), BACKWARD);
+        final List<List<String>> pages = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            ((ForkJoinBidirectionalBFSPathFinder.PagedNodeExpander<String>)
+                    expander).generateSuccessorPages("N" + i, pages::add);
+        }
+
+        assertEquals(8, pages.size());
+        assertEquals(List.of("A"), pages.get(0));
+        assertEquals(List.of("B", "C"), pages.get(1));
+        assertEquals(5, autoTuner.getLimit(BACKWARD));
+    }
+
+    @Test
+    public void halvesLimitOnThrottling() {
+        final AutoTuner autoTuner = createAutoTuner(8);
+        final AbstractNodeExpander<String> expander =
+                autoTuner.wrap(new ClockExpander(100_000_000L), FORWARD);
+
+        congestionCounters[FORWARD].incrementAndGet();
+        expand(expander, 8);
+
+        assertEquals(4, autoTuner.getLimit(FORWARD));
+        assertEquals(1, autoTuner.getNumberOfDecreases(FORWARD));
+
+        congestionCounters[FORWARD].incrementAndGet();
+        expand(expander, 4);
+
+        assertEquals(2, autoTuner.getLimit(FORWARD));
+    }
+
+    @Test
+    public void halvesOnlyTheThrottledDirection() {
+        final AutoTuner autoTuner = createAutoTuner(8);
+        final AbstractNodeExpander<String> forwardExpander =
+                autoTuner.wrap(new ClockExpander(100_000_000L), FORWARD);
+        final AbstractNodeExpander<String> backwardExpander =
+                autoTuner.wrap(new ClockExpander(100_000_000L), BACKWARD);
+
+        congestionCounters[BACKWARD].incrementAndGet();
+        expand(forwardExpander, 8);
+        expand(backwardExpander, 8);
+
+        assertEquals(9, autoTuner.getLimit(FORWARD));
+        assertEquals(4, autoTuner.getLimit(BACKWARD));
+        assertEquals(0, autoTuner.getNumberOfDecreases(FORWARD));
+    }
+
+    @Test
+    public void decreasesLimitOnLatencyInflation() {
+        final AutoTuner autoTuner = createAutoTuner(4);
+        final ClockExpander clockExpander = new ClockExpander(100_000_000L);
+        final AbstractNodeExpander<String> expander =
+                autoTuner.wrap(clockExpander, FORWARD);
+
+        expand(expander, 4);
+        assertEquals(5, autoTuner.getLimit(FORWARD));
+
+        clockExpander.latencyNanos = 1_000_000_000L;
+        expand(expander, 20);
+
+        assertTrue(autoTuner.getLimit(FORWARD) < 5);
+        assertTrue(autoTuner.getNumberOfDecreases(FORWARD) > 0);
+    }
+
+    @Test
+    public void derivesTimeoutsFromLatency() {
+        final AutoTuner autoTuner = createAutoTuner(4);
+
+        expand(autoTuner.wrap(new ClockExpander(1_000_000_000L), BACKWARD),
+               200);
+
+        expand(autoTuner.wrap(new ClockExpander(100_000_000L), FORWARD),
+               200);
+
+        final AutoTuner.Profile profile = autoTuner.getTunedProfile();
+
+        assertEquals(1_000_000_000L, profile.latencyNanos);
+        assertEquals(4_000_000_000L, profile.expansionTimeoutNanos);
+        assertEquals(10_000_000L, profile.slaveSleepDurationNanos);
+        assertEquals(100_000_000L, profile.masterSleepDurationNanos);
+        assertEquals(10, profile.trials);
+        assertEquals(8, profile.forwardThreads);
+        assertEquals(8, profile.backwardThreads);
+        assertEquals(1, profile.numberOfRuns);
+        assertEquals(400.0 / 220.0, profile.throughput, 1e-9);
+    }
+
+    @Test
+    public void keepsProfileWithoutMeasurements() {
+        final AutoTuner.Profile profile =
+                createAutoTuner(3).getTunedProfile();
+
+        assertEquals(3, profile.forwardThreads);
+        assertEquals(12_345L, profile.expansionTimeoutNanos);
+        assertEquals(1, profile.numberOfRuns);
+    }
+
+    @Test
+    public void savesAndLoadsProfiles() throws IOException {
+        final Path directory = Files.createTempDirectory("autotune");
+        final Path file = directory.resolve("sub").resolve("autotune.properties");
+
+        try {
+            final AutoTuner.Profile defaults = createProfile(8);
+
+            assertEquals(8, AutoTuner.Profile.load(file, defaults)
+                                             .forwardThreads);
+
+            final AutoTuner.Profile profile = defaults.copy();
+            profile.forwardThreads = 13;
+            profile.backwardThreads = 200;
+            profile.expansionTimeoutNanos = 5_000_000_000L;
+            profile.throughput = 12.5;
+            profile.save(file, "test");
+
+            final AutoTuner.Profile loadedProfile =
+                    AutoTuner.Profile.load(file, defaults);
+
+            assertEquals(13, loadedProfile.forwardThreads);
+            assertEquals(AutoTuner.MAXIMUM_NUMBER_OF_THREADS,
+                         loadedProfile.backwardThreads);
+            assertEquals(5_000_000_000L, loadedProfile.expansionTimeoutNanos);
+            assertEquals(12.5, loadedProfile.throughput, 0.0);
+            assertEquals(defaults.trials, loadedProfile.trials);
+
+            Files.writeString(file, "trials=many\n");
+
+            try {
+                AutoTuner.Profile.load(file, defaults);
+                throw new AssertionError("A malformed profile was accepted.");
+            } catch (final IOException ex) {
+                // Expected.
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void obeysLimitConcurrently() throws Exception {
+        final AutoTuner autoTuner =
+                new AutoTuner(createProfile(3),
+                              (direction) ->
+                                      congestionCounters[direction].get());
+        final AtomicInteger numberOfInFlightExpansions = new AtomicInteger();
+        final AtomicInteger maximumNumberOfInFlightExpansions =
+                new AtomicInteger();
+
+        final AbstractNodeExpander<String> expander =
+                autoTuner.wrap(new AbstractNodeExpander<String>() {
+                    @Override
+                    public List<String> generateSuccessors(final String node) {
+                        maximumNumberOfInFlightExpansions.accumulateAndGet(
+                                numberOfInFlightExpansions.incrementAndGet(),
+                                Math::max);
+                        try {
+                            Thread.sleep(2L);
+                        } catch (final InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+
+                        // Keep the limit at the minimum:
+                        congestionCounters[FORWARD].incrementAndGet();
+                        numberOfInFlightExpansions.decrementAndGet();
+                        return List.of(node);
+                    }
+
+                    @Override
+                    public boolean isValidNode(final String node) {
+                        return true;
+                    }
+                }, FORWARD);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        try {
+            final List<Future<List<String>>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 200; i++) {
+                final String node = "N" + i;
+                futures.add(executor.submit(
+                        () -> expander.generateSuccessors(node)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(List.of("N" + i), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, autoTuner.getLimit(FORWARD));
+        assertTrue(maximumNumberOfInFlightExpansions.get() <= 3);
+    }
+
+    private AutoTuner createAutoTuner(final int numberOfThreads) {
+        return new AutoTuner(createProfile(numberOfThreads),
+                             (direction) ->
+                                     congestionCounters[direction].get(),
+                             clock::get);
+    }
+
+    private static AutoTuner.Profile createProfile(final int numberOfThreads) {
+        final AutoTuner.Profile profile = new AutoTuner.Profile();
+        profile.forwardThreads = numberOfThreads;
+        profile.backwardThreads = numberOfThreads;
+        profile.trials = 50;
+        profile.masterSleepDurationNanos = 1L;
+        profile.slaveSleepDurationNanos = 1L;
+        profile.expansionTimeoutNanos = 12_345L;
+        return profile;
+    }
+
+    private static void expand(final AbstractNodeExpander<String> expander,
+                               final int numberOfExpansions) {
+        for (int i = 0; i < numberOfExpansions; i++) {
+            expander.generateSuccessors("N" + i);
+        }
+    }
+
+    /**
+     * Advances the fake clock by the latency on each expansion.
+     */
+    private final class ClockExpander extends AbstractNodeExpander<String> {
+
+        long latencyNanos;
+
+        ClockExpander(final long latencyNanos) {
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public List<String> generateSuccessors(final String node) {
+            clock.addAndGet(latencyNanos);
+            return List.of();
+        }
+
+        @Override
+        public boolean isValidNode(final String node) {
+            return true;
+        }
+    }
+
+    /**
+     * Advances the fake clock by the latency on each expansion, and passes
+     * the successors in two pages.
+     */
+    private final class PagedClockExpander
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<String> {
+
+        final long latencyNanos;
+
+        PagedClockExpander(final long latencyNanos) {
+            this.latencyNanos = latencyNanos;
+        }
+
+        @Override
+        public void generateSuccessorPages(
+                final String node,
+                final Consumer<List<String>> pageConsumer) {
+            clock.addAndGet(latencyNanos);
+            pageConsumer.accept(List.of("A"));
+            pageConsumer.accept(List.of("B", "C"));
+        }
+
+        @Override
+        public List<String> generateSuccessors(final String node) {
+            clock.addAndGet(latencyNanos);
+            return List.of("A", "B", "C");
+        }
+
+        @Override
+        public boolean isValidNode(final String node) {
+            return true;
+        }
+    }
+}
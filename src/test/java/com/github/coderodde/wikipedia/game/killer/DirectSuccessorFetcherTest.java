@@ -0,0 +1,478 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public final class DirectSuccessorFetcherTest {
+
+    /**
+     * Serves a backlink list of the article "Target" in pages of 500 in the
+     * order of the linking page IDs, just like the API.
+     */
+    private static final class BacklinkPageSource
+            implements DirectSuccessorFetcher.PageSource {
+
+        static final long PAGE_ID_STEP = 7L;
+        static final int PAGE_SIZE = 500;
+
+        final int numberOfBacklinks;
+        final AtomicInteger numberOfRequests = new AtomicInteger();
+        final AtomicInteger numberOfInFlightRequests = new AtomicInteger();
+        final AtomicInteger maximumNumberOfInFlightRequests =
+                new AtomicInteger();
+
+        BacklinkPageSource(final int numberOfBacklinks) {
+            this.numberOfBacklinks = numberOfBacklinks;
+        }
+
+        @Override
+        public byte[] queryBytes(final String... parameters)
+                throws InterruptedException {
+
+            numberOfRequests.incrementAndGet();
+            maximumNumberOfInFlightRequests.accumulateAndGet(
+                    numberOfInFlightRequests.incrementAndGet(),
+                    Math::max);
+
+            try {
+                Thread.sleep(20L);
+
+                String continueToken = "";
+
+                for (int i = 0; i < parameters.length; i += 2) {
+                    if (parameters[i].equals("lhcontinue")) {
+                        continueToken = parameters[i + 1];
+                    }
+                }
+
+                final long fromPageId =
+                        continueToken.isEmpty() ?
+                        0L :
+                        Long.parseLong(continueToken.split("\\|")[1]);
+
+                // Backlink i has the page ID (i + 1) * PAGE_ID_STEP:
+                final int firstIndex =
+                        (int) Math.max(0L,
+                                       (fromPageId + PAGE_ID_STEP - 1) /
+                                       PAGE_ID_STEP - 1);
+
+                final int endIndex =
+                        Math.min(numberOfBacklinks, firstIndex + PAGE_SIZE);
+
+                final StringBuilder json = new StringBuilder();
+
+                if (endIndex < numberOfBacklinks) {
+                    json.append("{\"continue\":{\"lhcontinue\":\"77|")
+                        .append((endIndex + 1) * PAGE_ID_STEP)
+                        .append("\",\"continue\":\"||\"},");
+                } else {
+                    json.append("{\"batchcomplete\":true,");
+                }
+
+                json.append("\"query\":{\"pages\":[{\"pageid\":77,")
+                    .append("\"ns\":0,\"title\":\"Target\",")
+                    .append("\"linkshere\":[");
+
+                for (int i = firstIndex; i < endIndex; i++) {
+                    json.append(i == firstIndex ? "" : ",")
+                        .append("{\"pageid\":")
+                        .append((i + 1) * PAGE_ID_STEP)
+                        .append(",\"ns\":0,\"title\":\"Backlink ")
+                        .append(i)
+                        .append("\"}");
+                }
+
+                return json.append("]}]}}")
+                           .toString()
+                           .getBytes(StandardCharsets.UTF_8);
+            } finally {
+                numberOfInFlightRequests.decrementAndGet();
+            }
+        }
+    }
+
+    private static final int NUMBER_OF_LINKS = 500;
+    private static final int NUMBER_OF_ROUNDS = 200;
+
+    @Test
+    public void decodesTitlesAndContinueToken() {
+        final byte[] json =
+                ("{\"continue\":{\"plcontinue\":\"736|0|Zz\\u00e9\"," +
+                 "\"continue\":\"||\"},\"query\":{\"pages\":[{\"pageid\":736," +
+                 "\"ns\":0,\"title\":\"Source page\",\"links\":[" +
+                 "{\"ns\":0,\"title\":\"Caf\\u00e9 au lait\"}," +
+                 "{\"ns\":0,\"title\":\"Jyväskylä\"}," +
+                 "{\"ns\":0,\"title\":\"AC\\/DC\"}," +
+                 "{\"ns\":0,\"title\":\"\\\"Weird\\\" title\"}," +
+                 "{\"ns\":0,\"title\":\"😀 (emoji)\"}," +
+                 "{\"ns\":0,\"title\":\"Jyväskylä\"}]}]}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        final List<String> titles = new ArrayList<>();
+        final DirectSuccessorFetcher.DecodingBuffers buffers =
+                new DirectSuccessorFetcher.DecodingBuffers();
+
+        buffers.startDeduplication();
+
+        final String continueToken =
+                DirectSuccessorFetcher.decodeTitles(
+                        json,
+                        DirectSuccessorFetcher.LinkKind.LINKS,
+                        new TitleInterner(),
+                        buffers,
+                        titles);
+
+        assertEquals("736|0|Zzé", continueToken);
+        assertEquals(List.of("Café_au_lait",
+                             "Jyväskylä",
+                             "AC/DC",
+                             "\"Weird\"_title",
+                             "😀_(emoji)"),
+                     titles);
+    }
+
+    @Test
+    public void returnsNullWithoutContinueToken() {
+        final byte[] json =
+                ("{\"batchcomplete\":true,\"query\":{\"pages\":[{\"ns\":0," +
+                 "\"title\":\"Target\",\"linkshere\":[{\"pageid\":1," +
+                 "\"ns\":0,\"title\":\"Source\"}]}]}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        final List<String> titles = new ArrayList<>();
+        final DirectSuccessorFetcher.DecodingBuffers buffers =
+                new DirectSuccessorFetcher.DecodingBuffers();
+
+        buffers.startDeduplication();
+
+        assertNull(DirectSuccessorFetcher.decodeTitles(
+                json,
+                DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                new TitleInterner(),
+                buffers,
+                titles));
+
+        assertEquals(List.of("Source"), titles);
+    }
+
+    @Test
+    public void returnsSameInstanceForSameTitle() {
+        final TitleInterner interner = new TitleInterner();
+        final char[] chars = "Helsinki".toCharArray();
+        final String title = interner.intern(chars, chars.length);
+
+        assertSame(title, interner.intern("Helsinki".toCharArray(), 8));
+        assertSame(title, interner.intern("Helsinki_X".toCharArray(), 8));
+        assertEquals("Helsinki", title);
+        assertEquals(1, interner.size());
+
+        for (int i = 0; i < 100_000; i++) {
+            final char[] other = ("Article_" + i).toCharArray();
+            interner.intern(other, other.length);
+        }
+
+        assertSame(title, interner.intern(chars, chars.length));
+        assertEquals(100_001, interner.size());
+    }
+
+    @Test
+    public void deduplicatesAcrossResponsePages() {
+        final TitleInterner interner = new TitleInterner();
+        final DirectSuccessorFetcher.DecodingBuffers buffers =
+                new DirectSuccessorFetcher.DecodingBuffers();
+        final List<String> titles = new ArrayList<>();
+
+        buffers.startDeduplication();
+
+        for (int round = 0; round < 2; round++) {
+            DirectSuccessorFetcher.decodeTitles(
+                    createResponse(3000),
+                    DirectSuccessorFetcher.LinkKind.LINKS,
+                    interner,
+                    buffers,
+                    titles);
+        }
+
+        assertEquals(3000, titles.size());
+
+        buffers.startDeduplication();
+        titles.clear();
+
+        DirectSuccessorFetcher.decodeTitles(
+                createResponse(10),
+                DirectSuccessorFetcher.LinkKind.LINKS,
+                interner,
+                buffers,
+                titles);
+
+        assertEquals(10, titles.size());
+    }
+
+    @Test
+    public void fetchesBacklinkRangesInParallel() throws Exception {
+        final BacklinkPageSource pageSource = new BacklinkPageSource(3000);
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        pageSource,
+                        () -> 3000L * BacklinkPageSource.PAGE_ID_STEP,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        4,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        final List<String> titles = fetcher.fetch("Target");
+
+        assertEquals(3000, titles.size());
+        assertEquals(3000, new HashSet<>(titles).size());
+        assertTrue(pageSource.maximumNumberOfInFlightRequests.get() > 1);
+
+        // One page ahead of the ranges, and at most one extra page per range
+        // boundary:
+        assertTrue(pageSource.numberOfRequests.get() <= 1 + 6 + 3);
+    }
+
+    @Test
+    public void fetchesPagesSequentiallyWithoutMaximumPageId()
+            throws Exception {
+        final BacklinkPageSource pageSource = new BacklinkPageSource(1200);
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        pageSource,
+                        () -> -1L,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        4,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        final List<Integer> pageSizes = new ArrayList<>();
+
+        assertFalse(fetcher.fetch("Target",
+                                  (page) -> pageSizes.add(page.size())));
+
+        assertEquals(List.of(500, 500, 200), pageSizes);
+        assertEquals(1, pageSource.maximumNumberOfInFlightRequests.get());
+    }
+
+    @Test
+    public void obeysPageBudget() throws Exception {
+        for (final int numberOfRanges : new int[]{ 1, 4 }) {
+            final BacklinkPageSource pageSource =
+                    new BacklinkPageSource(5000);
+
+            final DirectSuccessorFetcher fetcher =
+                    new DirectSuccessorFetcher(
+                            pageSource,
+                            () -> 5000L * BacklinkPageSource.PAGE_ID_STEP,
+                            DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                            true,
+                            new TitleInterner(),
+                            numberOfRanges,
+                            3);
+
+            assertEquals(1500, fetcher.fetch("Target").size());
+            assertEquals(3, pageSource.numberOfRequests.get());
+            assertEquals(1L, fetcher.getNumberOfTruncatedFetches());
+        }
+
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        new BacklinkPageSource(1500),
+                        () -> 1500L * BacklinkPageSource.PAGE_ID_STEP,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        1,
+                        3);
+
+        assertEquals(1500, fetcher.fetch("Target").size());
+        assertEquals(0L, fetcher.getNumberOfTruncatedFetches());
+    }
+
+    @Test
+    public void splitsOnlyNumericBacklinkContinuations() {
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        (parameters) -> new byte[0],
+                        () -> 1000L,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        4,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        assertArrayEquals(new long[]{ 200L, 401L, 602L, 803L },
+                          fetcher.getRangeStarts("77|200"));
+
+        assertNull(fetcher.getRangeStarts("77|998"));
+        assertNull(fetcher.getRangeStarts("736|0|Zz"));
+        assertNull(fetcher.getRangeStarts("77|abc"));
+    }
+
+    @Test
+    public void rejectsApiErrorResponses() throws Exception {
+        final byte[] error =
+                ("{\"error\":{\"code\":\"maxlag\",\"info\":\"Waiting for " +
+                 "a database server: 7 seconds lagged.\"},\"servedby\":" +
+                 "\"mw1234\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        (parameters) -> error,
+                        () -> -1L,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        1,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        try {
+            fetcher.fetch("Target");
+            fail();
+        } catch (final IOException ex) {
+            assertTrue(ex.getMessage().contains("maxlag"));
+        }
+
+        // A title or a nested key named "error" is not an error response:
+        WikipediaApiClient.checkForError(
+                ("{\"batchcomplete\":true,\"query\":{\"pages\":[{\"ns\":0," +
+                 "\"title\":\"Target\",\"linkshere\":[{\"ns\":0," +
+                 "\"title\":\"\\\"error\\\":{\"},{\"ns\":0," +
+                 "\"title\":\"error\"}],\"error\":{}}]}}")
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Measures the number of heap bytes allocated per neighbor by the direct
+     * expansion path (the fetcher and the successor filter built for
+     * {@code --direct-fetch}, which has no namespace rule since the API
+     * returns the main namespace only) and by a simulation of the legacy
+     * path (decoded strings, full URLs, stripped substrings, their wrapper
+     * lists and the namespace rule).
+     */
+    @Test
+    public void allocatesFarLessPerNeighborThanLegacyPath() throws Exception {
+        if (!(ManagementFactory.getThreadMXBean()
+                instanceof com.sun.management.ThreadMXBean threadMXBean) ||
+            !threadMXBean.isThreadAllocatedMemorySupported()) {
+            return;
+        }
+
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        final byte[] json = createResponse(NUMBER_OF_LINKS);
+        final String jsonString = new String(json, StandardCharsets.UTF_8);
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        (parameters) -> json,
+                        () -> -1L,
+                        DirectSuccessorFetcher.LinkKind.LINKS,
+                        true,
+                        new TitleInterner(),
+                        1,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        final SuccessorFilter directFilter = SuccessorFilter.none();
+        final SuccessorFilter legacyFilter =
+                new SuccessorFilter(
+                        List.of(new SuccessorFilter.NamespaceRule(
+                                SuccessorFilter.DEFAULT_NAMESPACE_NAMES)));
+
+        runDirect(fetcher, directFilter);
+        runLegacy(jsonString, legacyFilter);
+
+        final long threadId = Thread.currentThread().getId();
+        final long directStart = threadMXBean.getThreadAllocatedBytes(threadId);
+        final int directCount = runDirect(fetcher, directFilter);
+        final long directBytes =
+                threadMXBean.getThreadAllocatedBytes(threadId) - directStart;
+
+        final long legacyStart = threadMXBean.getThreadAllocatedBytes(threadId);
+        final int legacyCount = runLegacy(jsonString, legacyFilter);
+        final long legacyBytes =
+                threadMXBean.getThreadAllocatedBytes(threadId) - legacyStart;
+
+        final double directBytesPerNeighbor =
+                (double) directBytes / directCount;
+
+        final double legacyBytesPerNeighbor =
+                (double) legacyBytes / legacyCount;
+
+        assertEquals(NUMBER_OF_ROUNDS * NUMBER_OF_LINKS, directCount);
+        assertTrue(directBytesPerNeighbor < 32.0);
+        assertTrue(directBytesPerNeighbor * 5.0 < legacyBytesPerNeighbor);
+    }
+
+    private static int runDirect(final DirectSuccessorFetcher fetcher,
+                                 final SuccessorFilter filter)
+            throws Exception {
+
+        int count = 0;
+
+        for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+            count += filter.filter(fetcher.fetch("Source")).size();
+        }
+
+        return count;
+    }
+
+    private static int runLegacy(final String json,
+                                 final SuccessorFilter filter) {
+        int count = 0;
+
+        for (int round = 0; round < NUMBER_OF_ROUNDS; round++) {
+            final List<String> urls = new ArrayList<>();
+
+            for (final String title
+                    : WikipediaApiClient.getStringValues(json, "title")) {
+                urls.add("https://en.wikipedia.org/wiki/" +
+                         title.replace(' ', '_'));
+            }
+
+            final List<String> titles = new ArrayList<>(urls.size());
+
+            for (final String url : urls) {
+                titles.add(url.substring(url.lastIndexOf('/') + 1));
+            }
+
+            count += filter.filter(titles).size();
+        }
+
+        return count;
+    }
+
+    private static byte[] createResponse(final int numberOfLinks) {
+        final StringBuilder stringBuilder =
+                new StringBuilder("{\"query\":{\"pages\":[{\"ns\":0,")
+                        .append("\"title\":\"Source\",\"links\":[");
+
+        for (int i = 0; i < numberOfLinks; i++) {
+            if (i > 0) {
+                stringBuilder.append(',');
+            }
+
+            stringBuilder.append("{\"ns\":0,\"title\":\"Linked article ")
+                         .append(i)
+                         .append("\"}");
+        }
+
+        return stringBuilder.append("]}]}}")
+                            .toString()
+                            .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,280 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class DistributedSearchTest {
+
+    private static final int NUMBER_OF_NODES = 300;
+    private static final int NUMBER_OF_ARCS = 900;
+
+    @Test
+    public void findsShortestPathsWithInProcessWorkers() throws IOException {
+        final Random random = new Random(17L);
+
+        for (int graphIndex = 0; graphIndex < 5; graphIndex++) {
+            final ArcListGraph graph =
+                    TestGraphs.randomGraph(NUMBER_OF_NODES,
+                                           NUMBER_OF_ARCS,
+                                           random);
+            final List<DistributedSearchWorker> workers = new ArrayList<>();
+
+            try {
+                for (int i = 0; i < 3; i++) {
+                    final DistributedSearchWorker worker =
+                            new DistributedSearchWorker(
+                                    0,
+                                    2,
+                                    (languageCode, direction) ->
+                                        direction ==
+                                        ForkJoinBidirectionalBFSPathFinder
+                                                .FORWARD ?
+                                        graph.forwardExpander() :
+                                        graph.backwardExpander());
+                    worker.start();
+                    workers.add(worker);
+                }
+
+                final DistributedSearchCoordinator coordinator =
+                        new DistributedSearchCoordinator(
+                                DistributedSearchCoordinator.parseAddresses(
+                                        getAddresses(workers)));
+
+                for (int query = 0; query < 10; query++) {
+                    final String source = "N" + random.nextInt(NUMBER_OF_NODES);
+                    final String target = "N" + random.nextInt(NUMBER_OF_NODES);
+                    final List<String> path =
+                            coordinator.search("en", source, target);
+
+                    checkPath(graph, source, target, path);
+                }
+            } finally {
+                for (final DistributedSearchWorker worker : workers) {
+                    worker.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void returnsEmptyPathOnUnreachableTarget() throws IOException {
+        final ArcListGraph graph = new ArcListGraph();
+        graph.addArc("A", "B");
+        graph.addArc("C", "D");
+
+        try (DistributedSearchWorker worker =
+                new DistributedSearchWorker(
+                        0,
+                        1,
+                        (languageCode, direction) ->
+                                direction ==
+                                ForkJoinBidirectionalBFSPathFinder.FORWARD ?
+                                graph.forwardExpander() :
+                                graph.backwardExpander())) {
+            worker.start();
+
+            final DistributedSearchCoordinator coordinator =
+                    new DistributedSearchCoordinator(
+                            DistributedSearchCoordinator.parseAddresses(
+                                    worker.getLoopbackAddress()));
+
+            assertEquals(Collections.emptyList(),
+                         coordinator.search("en", "A", "D"));
+
+            assertEquals(List.of("A"), coordinator.search("en", "A", "A"));
+        }
+    }
+
+    @Test
+    public void reportsFailedExpansions() throws IOException {
+        final ArcListGraph graph = new ArcListGraph();
+        graph.addArc("A", "X");
+        graph.addArc("X", "Y");
+        graph.addArc("Y", "D");
+        graph.addArc("A", "B");
+        graph.addArc("B", "C");
+        graph.addArc("C", "E");
+        graph.addArc("E", "D");
+
+        // The failing expansions of X and Y hide the shortest path
+        // A -> X -> Y -> D:
+        final AbstractNodeExpander<String> forwardExpander =
+                failingExpander(graph.forwardExpander(), "X");
+        final AbstractNodeExpander<String> backwardExpander =
+                failingExpander(graph.backwardExpander(), "Y");
+
+        try (DistributedSearchWorker worker =
+                new DistributedSearchWorker(
+                        0,
+                        1,
+                        (languageCode, direction) ->
+                                direction ==
+                                ForkJoinBidirectionalBFSPathFinder.FORWARD ?
+                                forwardExpander :
+                                backwardExpander)) {
+            worker.start();
+
+            final DistributedSearchCoordinator coordinator =
+                    new DistributedSearchCoordinator(
+                            DistributedSearchCoordinator.parseAddresses(
+                                    worker.getLoopbackAddress()));
+
+            assertEquals(List.of("A", "B", "C", "E", "D"),
+                         coordinator.search("en", "A", "D"));
+
+            assertTrue(coordinator.getNumberOfIncompleteExpansions() > 0L);
+            assertFalse(coordinator.isShortestPathProven());
+
+            assertEquals(List.of("B", "C"),
+                         coordinator.search("en", "B", "C"));
+
+            assertEquals(0L, coordinator.getNumberOfIncompleteExpansions());
+            assertTrue(coordinator.isShortestPathProven());
+        }
+    }
+
+    @Test
+    public void findsShortestPathsWithWorkerJvms() throws Exception {
+        final Random random = new Random(19L);
+        final List<String[]> arcs =
+                TestGraphs.randomArcs(NUMBER_OF_NODES, NUMBER_OF_ARCS, random);
+        final ArcListGraph graph = TestGraphs.createGraph(arcs);
+        final StringBuilder arcList = new StringBuilder("# Random graph.\n");
+
+        for (final String[] arc : arcs) {
+            arcList.append(arc[0]).append(' ').append(arc[1]).append('\n');
+        }
+
+        final Path graphFile = Files.createTempFile("graph", ".txt");
+        final List<Process> processes = new ArrayList<>();
+        final List<String> addresses = new ArrayList<>();
+
+        try {
+            Files.writeString(graphFile, arcList, StandardCharsets.UTF_8);
+
+            for (int i = 0; i < 2; i++) {
+                final Process process =
+                        new ProcessBuilder(
+                                System.getProperty("java.home") +
+                                        File.separator + "bin" +
+                                        File.separator + "java",
+                                "-cp",
+                                System.getProperty("java.class.path"),
+                                WikiGameKiller.class.getName(),
+                                "--worker", "0",
+                                "--graph-file", graphFile.toString())
+                                .redirectErrorStream(true)
+                                .start();
+
+                processes.add(process);
+                addresses.add("localhost:" + readPort(process));
+            }
+
+            final DistributedSearchCoordinator coordinator =
+                    new DistributedSearchCoordinator(
+                            DistributedSearchCoordinator.parseAddresses(
+                                    String.join(",", addresses)));
+
+            for (int query = 0; query < 10; query++) {
+                final String source = "N" + random.nextInt(NUMBER_OF_NODES);
+                final String target = "N" + random.nextInt(NUMBER_OF_NODES);
+
+                checkPath(graph,
+                          source,
+                          target,
+                          coordinator.search("en", source, target));
+            }
+        } finally {
+            for (final Process process : processes) {
+                process.destroyForcibly();
+            }
+
+            Files.deleteIfExists(graphFile);
+        }
+    }
+
+    private static int readPort(final Process process) throws IOException {
+        final BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(process.getInputStream(),
+                                              StandardCharsets.UTF_8));
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("[INFO] Worker listening on port ")) {
+                return Integer.parseInt(
+                        line.replaceAll("[^0-9]", ""));
+            }
+        }
+
+        throw new IOException("The worker JVM did not start.");
+    }
+
+    private static AbstractNodeExpander<String> failingExpander(
+            final AbstractNodeExpander<String> expander,
+            final String failingNode) {
+
+        return new AbstractNodeExpander<>() {
+            @Override
+            public List<String> generateSuccessors(final String node) {
+                if (node.equals(failingNode)) {
+                    throw new IllegalStateException("Expansion failed.");
+                }
+
+                return expander.generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final String node) {
+                return expander.isValidNode(node);
+            }
+        };
+    }
+
+    private static String getAddresses(
+            final List<DistributedSearchWorker> workers) {
+
+        final List<String> addresses = new ArrayList<>();
+
+        for (final DistributedSearchWorker worker : workers) {
+            addresses.add(worker.getLoopbackAddress());
+        }
+
+        return String.join(",", addresses);
+    }
+
+    private static void checkPath(final ArcListGraph graph,
+                                  final String source,
+                                  final String target,
+                                  final List<String> path) {
+
+        final AbstractNodeExpander<String> expander = graph.forwardExpander();
+
+        assertEquals(TestGraphs.getShortestPathLength(expander,
+                                                      source,
+                                                      target),
+                     path.size() - 1);
+
+        if (path.isEmpty()) {
+            return;
+        }
+
+        assertEquals(source, path.get(0));
+        assertEquals(target, path.get(path.size() - 1));
+        assertTrue(TestGraphs.isPath(expander, path));
+    }
+}
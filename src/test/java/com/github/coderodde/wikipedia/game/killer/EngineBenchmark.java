@@ -0,0 +1,135 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import io.github.coderodde.graph.pathfinding.delayed.impl.ThreadPoolBidirectionalBFSPathFinder;
+import io.github.coderodde.graph.pathfinding.delayed.impl.ThreadPoolBidirectionalBFSPathFinderBuilder;
+import io.github.coderodde.graph.pathfinding.delayed.impl.ThreadPoolBidirectionalBFSPathFinderSearchBuilder;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class compares the wall-clock times of the thread-pool engine and the
+ * fork-join engine on the same random graphs, each expansion sleeping for a
+ * simulated request latency. It is not a unit test; run its {@code main}
+ * method from the test class path.
+ */
+public final class EngineBenchmark {
+
+    private static final int NUMBER_OF_NODES = 5_000;
+    private static final int NUMBER_OF_ARCS = 20_000;
+    private static final int NUMBER_OF_QUERIES = 20;
+    private static final int NUMBER_OF_THREADS = 8;
+    private static final long LATENCY_MILLIS = 5L;
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    public static void main(final String[] args) {
+        final Random random = new Random(13L);
+        final ForkJoinBidirectionalBFSPathFinderTest.Graph graph =
+                ForkJoinBidirectionalBFSPathFinderTest.Graph.random(
+                        NUMBER_OF_NODES,
+                        NUMBER_OF_ARCS,
+                        random);
+
+        final AbstractNodeExpander<Integer> forwardExpander =
+                delayedExpander(graph.forwardExpander());
+        final AbstractNodeExpander<Integer> backwardExpander =
+                delayedExpander(graph.backwardExpander());
+
+        long threadPoolDuration = 0L;
+        long forkJoinDuration = 0L;
+
+        for (int query = 0; query < NUMBER_OF_QUERIES; query++) {
+            final int source = random.nextInt(NUMBER_OF_NODES);
+            final int target = random.nextInt(NUMBER_OF_NODES);
+
+            final ThreadPoolBidirectionalBFSPathFinder<Integer>
+                    threadPoolFinder =
+                    ThreadPoolBidirectionalBFSPathFinderBuilder
+                            .<Integer>begin()
+                            .withExpansionDurationNanos(
+                                    EXPANSION_TIMEOUT_NANOS)
+                            .withMasterThreadSleepDurationNanos(
+                                    ThreadPoolBidirectionalBFSPathFinder
+                                    .DEFAULT_MASTER_THREAD_SLEEP_DURATION_NANOS)
+                            .withSlaveThreadSleepDurationNanos(
+                                    ThreadPoolBidirectionalBFSPathFinder
+                                    .DEFAULT_SLAVE_THREAD_SLEEP_DURATION_NANOS)
+                            .withNumberOfMasterTrials(
+                                    ThreadPoolBidirectionalBFSPathFinder
+                                    .DEFAULT_NUMBER_OF_MASTER_TRIALS)
+                            .withNumberOfForwardThreads(NUMBER_OF_THREADS)
+                            .withNumberOfBackwardThreads(NUMBER_OF_THREADS)
+                            .end();
+
+            final List<Integer> threadPoolPath =
+                    ThreadPoolBidirectionalBFSPathFinderSearchBuilder
+                            .<Integer>withPathFinder(threadPoolFinder)
+                            .withSourceNode(source)
+                            .withTargetNode(target)
+                            .withForwardNodeExpander(forwardExpander)
+                            .withBackwardNodeExpander(backwardExpander)
+                            .withSharedSearchProgressListener(null)
+                            .withForwardSearchProgressListener(null)
+                            .withBackwardSearchProgressListener(null)
+                            .search();
+
+            final ForkJoinBidirectionalBFSPathFinder<Integer> forkJoinFinder =
+                    new ForkJoinBidirectionalBFSPathFinder<>(
+                            2 * NUMBER_OF_THREADS,
+                            EXPANSION_TIMEOUT_NANOS);
+
+            final List<Integer> forkJoinPath =
+                    forkJoinFinder.search(source,
+                                          target,
+                                          forwardExpander,
+                                          backwardExpander,
+                                          null,
+                                          null);
+
+            threadPoolDuration += threadPoolFinder.getDuration();
+            forkJoinDuration += forkJoinFinder.getDuration();
+
+            System.out.printf(
+                    "%d -> %d: thread pool %d ms (%d arcs), " +
+                    "fork-join %d ms (%d arcs).%n",
+                    source,
+                    target,
+                    threadPoolFinder.getDuration(),
+                    threadPoolPath.size() - 1,
+                    forkJoinFinder.getDuration(),
+                    forkJoinPath.size() - 1);
+        }
+
+        System.out.printf(
+                "Mean duration: thread pool %d ms, fork-join %d ms.%n",
+                threadPoolDuration / NUMBER_OF_QUERIES,
+                forkJoinDuration / NUMBER_OF_QUERIES);
+    }
+
+    /**
+     * Returns an expander sleeping for the simulated latency before each
+     * expansion.
+     */
+    private static AbstractNodeExpander<Integer> delayedExpander(
+            final AbstractNodeExpander<Integer> expander) {
+
+        return new AbstractNodeExpander<>() {
+            @Override
+            public List<Integer> generateSuccessors(final Integer node) {
+                try {
+                    Thread.sleep(LATENCY_MILLIS);
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                }
+
+                return expander.generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final Integer node) {
+                return true;
+            }
+        };
+    }
+}
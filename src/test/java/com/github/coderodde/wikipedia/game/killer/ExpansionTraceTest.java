@@ -0,0 +1,212 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.BACKWARD;
+import static com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinder.FORWARD;
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public final class ExpansionTraceTest {
+
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    @Test
+    public void replaysRecordedSearch() throws IOException {
+        final Random random = new Random(23L);
+        final ArcListGraph graph = new ArcListGraph();
+
+        for (int i = 0; i < 2000; i++) {
+            graph.addArc("N" + random.nextInt(500),
+                         "N" + random.nextInt(500));
+        }
+
+        final Path file = Files.createTempFile("trace", ".bin");
+
+        try {
+            final List<String> recordedPath;
+            final ExpansionTrace.Writer writer =
+                    new ExpansionTrace.Writer(file, "en", "N1", "N2");
+
+            try (writer) {
+                recordedPath = search(
+                        new RecordingNodeExpander(graph.forwardExpander(),
+                                                  FORWARD,
+                                                  writer),
+                        new RecordingNodeExpander(graph.backwardExpander(),
+                                                  BACKWARD,
+                                                  writer));
+            }
+
+            final ExpansionTrace trace = ExpansionTrace.read(file);
+
+            assertEquals("en", trace.getLanguageCode());
+            assertEquals("N1", trace.getSource());
+            assertEquals("N2", trace.getTarget());
+            assertEquals(writer.getNumberOfExpansions(),
+                         trace.getNumberOfExpansions(FORWARD) +
+                         trace.getNumberOfExpansions(BACKWARD));
+
+            final List<String> replayedPath =
+                    search(new ReplayNodeExpander(trace, FORWARD, 0.0),
+                           new ReplayNodeExpander(trace, BACKWARD, 0.0));
+
+            assertEquals(recordedPath.size(), replayedPath.size());
+            assertTrue(recordedPath.size() > 1);
+
+            for (final String node : recordedPath) {
+                if (trace.getExpansion(FORWARD, node) != null) {
+                    assertEquals(
+                            graph.forwardExpander().generateSuccessors(node),
+                            trace.getExpansion(FORWARD, node).successors());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void scalesRecordedLatencies() throws IOException {
+        final Path file = Files.createTempFile("trace", ".bin");
+
+        try {
+            try (ExpansionTrace.Writer writer =
+                    new ExpansionTrace.Writer(file, "en", "A", "B")) {
+                writer.write(FORWARD, "A", List.of("B", "C"), 200_000_000L);
+            }
+
+            final ExpansionTrace trace = ExpansionTrace.read(file);
+
+            assertEquals(List.of("B", "C"),
+                         timeExpansion(new ReplayNodeExpander(trace,
+                                                              FORWARD,
+                                                              0.0),
+                                       0L,
+                                       100_000_000L));
+
+            timeExpansion(new ReplayNodeExpander(trace, FORWARD, 1.0),
+                          200_000_000L,
+                          Long.MAX_VALUE);
+
+            timeExpansion(new ReplayNodeExpander(trace, FORWARD, 0.5),
+                          100_000_000L,
+                          Long.MAX_VALUE);
+
+            assertEquals(List.of(),
+                         new ReplayNodeExpander(trace, BACKWARD, 1.0)
+                                 .generateSuccessors("A"));
+
+            assertNull(trace.getExpansion(FORWARD, "B"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void recordsSuccessorPages() throws IOException {
+        final Path file = Files.createTempFile("trace", ".bin");
+
+        try {
+            final RecordingNodeExpander expander;
+            final List<List<String>> pages = new ArrayList<>();
+
+            try (ExpansionTrace.Writer writer =
+                    new ExpansionTrace.Writer(file, "en", "A", "D")) {
+                expander = new RecordingNodeExpander(new TwoPageExpander(),
+                                                     BACKWARD,
+                                                     writer);
+
+                expander.generateSuccessorPages("A", pages::add);
+            }
+
+            assertEquals(List.of(List.of("B"), List.of("C", "D")), pages);
+            assertEquals(List.of("B", "C", "D"),
+                         ExpansionTrace.read(file)
+                                       .getExpansion(BACKWARD, "A")
+                                       .successors());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void rejectsForeignFiles() throws IOException {
+        final Path file = Files.createTempFile("trace", ".bin");
+
+        try {
+            Files.writeString(file, "not a trace");
+            ExpansionTrace.read(file);
+            fail("A foreign file was accepted.");
+        } catch (final IOException ex) {
+            // Expected.
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<String> search(
+            final AbstractNodeExpander<String> forwardExpander,
+            final AbstractNodeExpander<String> backwardExpander) {
+
+        return new ForkJoinBidirectionalBFSPathFinder<String>(
+                4,
+                EXPANSION_TIMEOUT_NANOS)
+                .search("N1",
+                        "N2",
+                        forwardExpander,
+                        backwardExpander,
+                        null,
+                        null);
+    }
+
+    private static List<String> timeExpansion(
+            final ReplayNodeExpander expander,
+            final long minimumNanos,
+            final long maximumNanos) {
+
+        final long startTime = System.nanoTime();
+        final List<String> successors = expander.generateSuccessors("A");
+        final long duration = System.nanoTime() - startTime;
+
+        assertTrue(duration >= minimumNanos);
+        assertTrue(duration < maximumNanos);
+        return successors;
+    }
+
+    /**
+     * A paged expander passing the successors of any node in two pages.
+     */
+    private static final class TwoPageExpander
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<String> {
+
+        @Override
+        public void generateSuccessorPages(
+                final String node,
+                final Consumer<List<String>> pageConsumer) {
+            pageConsumer.accept(List.of("B"));
+            pageConsumer.accept(List.of("C", "D"));
+        }
+
+        @Override
+        public List<String> generateSuccessors(final String node) {
+            return List.of("B", "C", "D");
+        }
+
+        @Override
+        public boolean isValidNode(final String node) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class compares the fast guess against the exact bidirectional search
+ * on a graph whose articles link mostly within their topic, like Wikipedia,
+ * and prints the total path lengths and expansions of both. It is not a unit
+ * test; run its {@code main} method from the test class path.
+ */
+public final class FastGuessBenchmark {
+
+    static final int NUMBER_OF_TOPICS = 30;
+    static final int NUMBER_OF_ARTICLES_PER_TOPIC = 100;
+
+    private static final int NUMBER_OF_QUERIES = 30;
+    private static final int NUMBER_OF_THREADS = 4;
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    public static void main(final String[] args) {
+        final Random random = new Random(43L);
+        final ArcListGraph graph =
+                TestGraphs.createGraph(createTopicArcs(random));
+
+        final FastGuessPathFinder fastGuessFinder =
+                new FastGuessPathFinder(
+                        NUMBER_OF_THREADS,
+                        EXPANSION_TIMEOUT_NANOS,
+                        FastGuessPathFinder
+                                .DEFAULT_MAXIMUM_NUMBER_OF_EXPANSIONS);
+
+        final ForkJoinBidirectionalBFSPathFinder<String> exactFinder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        NUMBER_OF_THREADS,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        int fastGuessPathLength = 0;
+        int shortestPathLength = 0;
+        int numberOfFastGuessExpansions = 0;
+        int numberOfExactExpansions = 0;
+
+        for (int query = 0; query < NUMBER_OF_QUERIES; query++) {
+            final String source = getRandomTitle(random);
+            final String target = getRandomTitle(random);
+
+            final List<String> shortestPath =
+                    exactFinder.search(source,
+                                       target,
+                                       graph.forwardExpander(),
+                                       graph.backwardExpander(),
+                                       null,
+                                       null);
+
+            final List<String> path =
+                    fastGuessFinder.search(source,
+                                           target,
+                                           graph.forwardExpander(),
+                                           graph.backwardExpander());
+
+            fastGuessPathLength += path.size() - 1;
+            shortestPathLength += shortestPath.size() - 1;
+            numberOfFastGuessExpansions +=
+                    fastGuessFinder.getNumberOfExpandedNodes();
+            numberOfExactExpansions += exactFinder.getNumberOfExpandedNodes();
+        }
+
+        System.out.printf(
+                "Fast guess: path length %d vs %d, expansions %d vs %d.%n",
+                fastGuessPathLength,
+                shortestPathLength,
+                numberOfFastGuessExpansions,
+                numberOfExactExpansions);
+    }
+
+    /**
+     * Each article links to five articles of its topic and to one article of
+     * any topic.
+     */
+    static List<String[]> createTopicArcs(final Random random) {
+        final List<String[]> arcs = new ArrayList<>();
+
+        for (int topic = 0; topic < NUMBER_OF_TOPICS; topic++) {
+            for (int article = 0;
+                    article < NUMBER_OF_ARTICLES_PER_TOPIC;
+                    article++) {
+
+                final String title = getTitle(topic, article);
+
+                for (int i = 0; i < 5; i++) {
+                    arcs.add(new String[]{
+                        title,
+                        getTitle(topic,
+                                 random.nextInt(NUMBER_OF_ARTICLES_PER_TOPIC))
+                    });
+                }
+
+                arcs.add(new String[]{
+                    title,
+                    getTitle(random.nextInt(NUMBER_OF_TOPICS),
+                             random.nextInt(NUMBER_OF_ARTICLES_PER_TOPIC))
+                });
+            }
+        }
+
+        return arcs;
+    }
+
+    /**
+     * Returns the title of a random article of a random topic.
+     */
+    static String getRandomTitle(final Random random) {
+        return getTitle(random.nextInt(NUMBER_OF_TOPICS),
+                        random.nextInt(NUMBER_OF_ARTICLES_PER_TOPIC));
+    }
+
+    private static String getTitle(final int topic, final int article) {
+        return "Topic" + topic + "_Article" + article;
+    }
+}
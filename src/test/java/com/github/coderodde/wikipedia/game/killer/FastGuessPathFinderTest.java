@@ -0,0 +1,103 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class FastGuessPathFinderTest {
+
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    /**
+     * Checks the guessed paths on a graph whose articles link mostly within
+     * their topic; see {@link FastGuessBenchmark} for the expansion counts.
+     */
+    @Test
+    public void guessesValidPaths() {
+        final Random random = new Random(43L);
+        final ArcListGraph graph =
+                TestGraphs.createGraph(
+                        FastGuessBenchmark.createTopicArcs(random));
+
+        final FastGuessPathFinder finder =
+                new FastGuessPathFinder(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS,
+                        FastGuessPathFinder
+                                .DEFAULT_MAXIMUM_NUMBER_OF_EXPANSIONS);
+
+        for (int i = 0; i < 10; i++) {
+            final String source = FastGuessBenchmark.getRandomTitle(random);
+            final String target = FastGuessBenchmark.getRandomTitle(random);
+
+            final List<String> path =
+                    finder.search(source,
+                                  target,
+                                  graph.forwardExpander(),
+                                  graph.backwardExpander());
+
+            assertEquals(source, path.get(0));
+            assertEquals(target, path.get(path.size() - 1));
+            assertTrue(TestGraphs.isPath(graph.forwardExpander(), path));
+            assertTrue(path.size() - 1 >=
+                       TestGraphs.getShortestPathLength(
+                               graph.forwardExpander(),
+                               source,
+                               target));
+        }
+    }
+
+    @Test
+    public void handlesTrivialAndUnreachableTargets() {
+        final ArcListGraph graph = new ArcListGraph();
+        graph.addArc("A", "B");
+        graph.addArc("B", "C");
+        graph.addArc("D", "A");
+
+        final FastGuessPathFinder finder =
+                new FastGuessPathFinder(2, EXPANSION_TIMEOUT_NANOS, 10);
+
+        assertEquals(List.of("A"),
+                     finder.search("A",
+                                   "A",
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander()));
+
+        assertEquals(List.of("B", "C"),
+                     finder.search("B",
+                                   "C",
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander()));
+
+        assertEquals(List.of("D", "A", "B", "C"),
+                     finder.search("D",
+                                   "C",
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander()));
+
+        assertEquals(List.of(),
+                     finder.search("C",
+                                   "A",
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander()));
+
+        assertEquals(List.of(),
+                     finder.search("A",
+                                   "D",
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander()));
+    }
+
+    @Test
+    public void tokenizesTitles() {
+        assertEquals(Set.of("australian", "grand", "prix"),
+                     FastGuessPathFinder.getTokens("Australian_Grand_Prix"));
+
+        assertEquals(Set.of("list", "countries", "2024"),
+                     FastGuessPathFinder.getTokens(
+                             "List_of_countries_(2024)"));
+    }
+}
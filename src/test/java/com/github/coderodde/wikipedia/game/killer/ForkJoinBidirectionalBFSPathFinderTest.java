@@ -0,0 +1,657 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class ForkJoinBidirectionalBFSPathFinderTest {
+
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    @Test
+    public void findsShortestPathsInRandomGraphs() {
+        final Random random = new Random(13L);
+
+        for (int graphIndex = 0; graphIndex < 10; graphIndex++) {
+            final Graph graph = Graph.random(300, 900, random);
+
+            for (int query = 0; query < 10; query++) {
+                final int source = random.nextInt(300);
+                final int target = random.nextInt(300);
+
+                final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                        new ForkJoinBidirectionalBFSPathFinder<>(
+                                4,
+                                EXPANSION_TIMEOUT_NANOS);
+
+                final List<Integer> path =
+                        finder.search(source,
+                                      target,
+                                      graph.forwardExpander(),
+                                      graph.backwardExpander(),
+                                      null,
+                                      null);
+
+                assertEquals(graph.getShortestPathLength(source, target),
+                             path.size() - 1);
+
+                assertEquals(path.isEmpty() ?
+                             Integer.MAX_VALUE :
+                             path.size() - 1,
+                             finder.getLowerBound());
+
+                if (!path.isEmpty()) {
+                    assertEquals(Integer.valueOf(source), path.get(0));
+                    assertEquals(Integer.valueOf(target),
+                                 path.get(path.size() - 1));
+                    assertTrue(graph.isPath(path));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void returnsEmptyPathOnUnreachableTarget() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(2, 3);
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        2,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        assertEquals(Collections.emptyList(),
+                     finder.search(0,
+                                   3,
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander(),
+                                   null,
+                                   null));
+    }
+
+    @Test
+    public void returnsSingleNodePathOnSameTerminals() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        2,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        assertEquals(Arrays.asList(1),
+                     finder.search(1,
+                                   1,
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander(),
+                                   null,
+                                   null));
+
+        assertEquals(0, finder.getNumberOfExpandedNodes());
+    }
+
+    @Test
+    public void returnsBestPathWhenDeadlineExpires() {
+        final Graph graph = createDetourGraph();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger numberOfHeldExpansions = new AtomicInteger();
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        final List<Integer> path;
+
+        try {
+            path = finder.search(0,
+                                 9,
+                                 heldExpander(graph.forwardExpander(),
+                                              1,
+                                              release,
+                                              numberOfHeldExpansions),
+                                 heldExpander(graph.backwardExpander(),
+                                              2,
+                                              release,
+                                              numberOfHeldExpansions),
+                                 null,
+                                 null,
+                                 200L);
+
+            // The search did not wait for the held nodes:
+            assertEquals(0, numberOfHeldExpansions.get());
+        } finally {
+            release.countDown();
+        }
+
+        // The detour was found, but the levels of the held nodes 1 and 2
+        // never completed:
+        assertEquals(Arrays.asList(0, 3, 4, 5, 9), path);
+        assertEquals(3, finder.getLowerBound());
+    }
+
+    @Test
+    public void provesShortestPathBeforeDeadline() {
+        final Graph graph = createDetourGraph();
+        final CountDownLatch detourExpanded = new CountDownLatch(1);
+        final AbstractNodeExpander<Integer> backwardExpander =
+                graph.backwardExpander();
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        // The nodes 1 and 2 are held until the detour node 5 is expanded:
+        final List<Integer> path =
+                finder.search(0,
+                              9,
+                              heldExpander(graph.forwardExpander(),
+                                           1,
+                                           detourExpanded,
+                                           new AtomicInteger()),
+                              heldExpander(
+                                      new AbstractNodeExpander<>() {
+                                          @Override
+                                          public List<Integer>
+                                                  generateSuccessors(
+                                                          final Integer node) {
+                                              if (node == 5) {
+                                                  detourExpanded.countDown();
+                                              }
+
+                                              return backwardExpander
+                                                      .generateSuccessors(
+                                                              node);
+                                          }
+
+                                          @Override
+                                          public boolean isValidNode(
+                                                  final Integer node) {
+                                              return true;
+                                          }
+                                      },
+                                      2,
+                                      detourExpanded,
+                                      new AtomicInteger()),
+                              null,
+                              null,
+                              5_000L);
+
+        assertEquals(Arrays.asList(0, 1, 2, 9), path);
+        assertEquals(3, finder.getLowerBound());
+    }
+
+    @Test
+    public void reportsLowerBoundWithoutPath() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 2);
+        graph.addArc(3, 4);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger numberOfHeldExpansions = new AtomicInteger();
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        2,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        try {
+            assertEquals(Collections.emptyList(),
+                         finder.search(0,
+                                       4,
+                                       heldExpander(graph.forwardExpander(),
+                                                    1,
+                                                    release,
+                                                    numberOfHeldExpansions),
+                                       heldExpander(graph.backwardExpander(),
+                                                    3,
+                                                    release,
+                                                    numberOfHeldExpansions),
+                                       null,
+                                       null,
+                                       200L));
+        } finally {
+            release.countDown();
+        }
+
+        // Both directions completed a single level:
+        assertEquals(3, finder.getLowerBound());
+    }
+
+    @Test
+    public void countsIncompleteExpansions() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 2);
+        graph.addArc(2, 3);
+        graph.addArc(0, 4);
+        graph.addArc(4, 5);
+        graph.addArc(5, 6);
+        graph.addArc(6, 3);
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        2,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        // The failing forward expansion of 1 and the backward expansion of 2
+        // dropping its predecessors hide the shortest path 0, 1, 2, 3:
+        final List<Integer> path =
+                finder.search(0,
+                              3,
+                              new AbstractNodeExpander<>() {
+                                  @Override
+                                  public List<Integer> generateSuccessors(
+                                          final Integer node) {
+                                      if (node == 1) {
+                                          throw new IllegalStateException();
+                                      }
+
+                                      return graph.forwardExpander()
+                                                  .generateSuccessors(node);
+                                  }
+
+                                  @Override
+                                  public boolean isValidNode(
+                                          final Integer node) {
+                                      return true;
+                                  }
+                              },
+                              new DroppingExpander(graph.backwardExpander(),
+                                                   2),
+                              null,
+                              null);
+
+        assertEquals(List.of(0, 4, 5, 6, 3), path);
+        assertFalse(finder.isLowerBoundProven());
+
+        // The directions advance independently, so the search may end
+        // before one of them reaches its incomplete expansion, but not
+        // before both do:
+        final long numberOfForwardIncompleteExpansions =
+                finder.getNumberOfIncompleteExpansions(
+                        ForkJoinBidirectionalBFSPathFinder.FORWARD);
+        final long numberOfBackwardIncompleteExpansions =
+                finder.getNumberOfIncompleteExpansions(
+                        ForkJoinBidirectionalBFSPathFinder.BACKWARD);
+
+        assertTrue(numberOfForwardIncompleteExpansions <= 1L);
+        assertTrue(numberOfBackwardIncompleteExpansions <= 1L);
+        assertTrue(numberOfForwardIncompleteExpansions +
+                   numberOfBackwardIncompleteExpansions >= 1L);
+
+        assertEquals(List.of(0, 1, 2, 3),
+                     finder.search(0,
+                                   3,
+                                   graph.forwardExpander(),
+                                   graph.backwardExpander(),
+                                   null,
+                                   null));
+
+        assertTrue(finder.isLowerBoundProven());
+    }
+
+    @Test
+    public void visitsSuccessorPagesAsTheyArrive() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 2);
+        graph.addArc(2, 9);
+        graph.addArc(5, 9);
+        graph.addArc(6, 9);
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger numberOfHeldExpansions = new AtomicInteger();
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        final List<Integer> path;
+
+        try {
+            path = finder.search(0,
+                                 9,
+                                 heldExpander(graph.forwardExpander(),
+                                              2,
+                                              release,
+                                              numberOfHeldExpansions),
+                                 new HeldPagedExpander(graph, 9, release),
+                                 null,
+                                 null,
+                                 300L);
+        } finally {
+            release.countDown();
+        }
+
+        // The first backlink page of 9 met the forward search, although the
+        // expansions of 2 and 9 never completed:
+        assertEquals(Arrays.asList(0, 1, 2, 9), path);
+        assertEquals(3, finder.getLowerBound());
+    }
+
+    @Test
+    public void expandsDeferredNodesAfterTheirLevel() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 9);
+        graph.addArc(2, 9);
+        graph.addArc(3, 9);
+
+        final List<Integer> expansionOrder =
+                Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch hubExpanded = new CountDownLatch(1);
+        final AbstractNodeExpander<Integer> forwardExpander =
+                graph.forwardExpander();
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS);
+
+        final List<Integer> path =
+                finder.search(
+                        0,
+                        9,
+                        new AbstractNodeExpander<>() {
+                            @Override
+                            public List<Integer> generateSuccessors(
+                                    final Integer node) {
+                                // Holds the forward search until the backward
+                                // level of the hub is over:
+                                await(hubExpanded);
+                                return forwardExpander.generateSuccessors(
+                                        node);
+                            }
+
+                            @Override
+                            public boolean isValidNode(final Integer node) {
+                                return true;
+                            }
+                        },
+                        new DeferringExpander(graph,
+                                              3,
+                                              expansionOrder,
+                                              hubExpanded),
+                        null,
+                        null);
+
+        assertEquals(Arrays.asList(0, 1, 9), path);
+        assertEquals(Integer.valueOf(9), expansionOrder.get(0));
+        assertEquals(Integer.valueOf(3), expansionOrder.get(3));
+        assertEquals(4, expansionOrder.size());
+    }
+
+    /**
+     * Waits for {@code latch} and returns {@code true} if it was counted
+     * down, or {@code false} if the wait was interrupted or timed out.
+     */
+    private static boolean await(final CountDownLatch latch) {
+        try {
+            return latch.await(10L, TimeUnit.SECONDS);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * A backward expander deferring {@code hub} and recording the expansion
+     * order.
+     */
+    private static final class DeferringExpander
+            extends AbstractNodeExpander<Integer>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .DeferringNodeExpander<Integer> {
+
+        private final AbstractNodeExpander<Integer> expander;
+        private final int hub;
+        private final List<Integer> expansionOrder;
+        private final CountDownLatch hubExpanded;
+
+        DeferringExpander(final Graph graph,
+                          final int hub,
+                          final List<Integer> expansionOrder,
+                          final CountDownLatch hubExpanded) {
+            this.expander = graph.backwardExpander();
+            this.hub = hub;
+            this.expansionOrder = expansionOrder;
+            this.hubExpanded = hubExpanded;
+        }
+
+        @Override
+        public boolean isDeferred(final Integer node) {
+            return node == hub;
+        }
+
+        @Override
+        public List<Integer> generateSuccessors(final Integer node) {
+            expansionOrder.add(node);
+
+            if (node == hub) {
+                hubExpanded.countDown();
+            }
+
+            return expander.generateSuccessors(node);
+        }
+
+        @Override
+        public boolean isValidNode(final Integer node) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns a graph with the shortest path 0, 1, 2, 9 and the detour
+     * 0, 3, 4, 5, 9.
+     */
+    private static Graph createDetourGraph() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 2);
+        graph.addArc(2, 9);
+        graph.addArc(0, 3);
+        graph.addArc(3, 4);
+        graph.addArc(4, 5);
+        graph.addArc(5, 9);
+        return graph;
+    }
+
+    /**
+     * Returns an expander holding the expansion of {@code heldNode} until
+     * {@code release} is counted down. {@code numberOfHeldExpansions} counts
+     * the completed expansions of {@code heldNode}.
+     */
+    private static AbstractNodeExpander<Integer> heldExpander(
+            final AbstractNodeExpander<Integer> expander,
+            final int heldNode,
+            final CountDownLatch release,
+            final AtomicInteger numberOfHeldExpansions) {
+
+        return new AbstractNodeExpander<>() {
+            @Override
+            public List<Integer> generateSuccessors(final Integer node) {
+                if (node == heldNode && await(release)) {
+                    numberOfHeldExpansions.incrementAndGet();
+                }
+
+                return expander.generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final Integer node) {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A backward expander delivering the first predecessor of
+     * {@code heldNode} right away and the rest once {@code release} is
+     * counted down.
+     */
+    private static final class HeldPagedExpander
+            extends AbstractNodeExpander<Integer>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<Integer> {
+
+        private final AbstractNodeExpander<Integer> expander;
+        private final int heldNode;
+        private final CountDownLatch release;
+
+        HeldPagedExpander(final Graph graph,
+                          final int heldNode,
+                          final CountDownLatch release) {
+            this.expander = graph.backwardExpander();
+            this.heldNode = heldNode;
+            this.release = release;
+        }
+
+        @Override
+        public void generateSuccessorPages(
+                final Integer node,
+                final Consumer<List<Integer>> pageConsumer) {
+
+            final List<Integer> successors = expander.generateSuccessors(node);
+
+            if (node != heldNode || successors.size() < 2) {
+                pageConsumer.accept(successors);
+                return;
+            }
+
+            pageConsumer.accept(successors.subList(0, 1));
+            await(release);
+            pageConsumer.accept(successors.subList(1, successors.size()));
+        }
+
+        @Override
+        public List<Integer> generateSuccessors(final Integer node) {
+            final List<Integer> successors = new ArrayList<>();
+            generateSuccessorPages(node, successors::addAll);
+            return successors;
+        }
+
+        @Override
+        public boolean isValidNode(final Integer node) {
+            return true;
+        }
+    }
+
+    /**
+     * An expander returning no successors for {@code droppedNode} and
+     * reporting that expansion as incomplete.
+     */
+    private static final class DroppingExpander
+            extends AbstractNodeExpander<Integer>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .IncompleteExpansionCounter {
+
+        private final AbstractNodeExpander<Integer> expander;
+        private final int droppedNode;
+        private final AtomicInteger numberOfDroppedExpansions =
+                new AtomicInteger();
+
+        DroppingExpander(final AbstractNodeExpander<Integer> expander,
+                         final int droppedNode) {
+            this.expander = expander;
+            this.droppedNode = droppedNode;
+        }
+
+        @Override
+        public List<Integer> generateSuccessors(final Integer node) {
+            if (node == droppedNode) {
+                numberOfDroppedExpansions.incrementAndGet();
+                return List.of();
+            }
+
+            return expander.generateSuccessors(node);
+        }
+
+        @Override
+        public boolean isValidNode(final Integer node) {
+            return true;
+        }
+
+        @Override
+        public long getNumberOfIncompleteExpansions() {
+            return numberOfDroppedExpansions.get();
+        }
+    }
+
+    /**
+     * A simple in-memory directed graph.
+     */
+    static final class Graph {
+        final Map<Integer, List<Integer>> children = new HashMap<>();
+        final Map<Integer, List<Integer>> parents = new HashMap<>();
+
+        static Graph random(final int numberOfNodes,
+                            final int numberOfArcs,
+                            final Random random) {
+            final Graph graph = new Graph();
+
+            for (int i = 0; i < numberOfArcs; i++) {
+                graph.addArc(random.nextInt(numberOfNodes),
+                             random.nextInt(numberOfNodes));
+            }
+
+            return graph;
+        }
+
+        void addArc(final int tail, final int head) {
+            children.computeIfAbsent(tail, (k) -> new ArrayList<>()).add(head);
+            parents.computeIfAbsent(head, (k) -> new ArrayList<>()).add(tail);
+        }
+
+        boolean isPath(final List<Integer> path) {
+            return TestGraphs.isPath(forwardExpander(), path);
+        }
+
+        int getShortestPathLength(final int source, final int target) {
+            return TestGraphs.getShortestPathLength(forwardExpander(),
+                                                    source,
+                                                    target);
+        }
+
+        AbstractNodeExpander<Integer> forwardExpander() {
+            return expander(children);
+        }
+
+        AbstractNodeExpander<Integer> backwardExpander() {
+            return expander(parents);
+        }
+
+        private static AbstractNodeExpander<Integer> expander(
+                final Map<Integer, List<Integer>> adjacency) {
+
+            return new AbstractNodeExpander<>() {
+                @Override
+                public List<Integer> generateSuccessors(final Integer node) {
+                    return adjacency.getOrDefault(node, List.of());
+                }
+
+                @Override
+                public boolean isValidNode(final Integer node) {
+                    return true;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class HubThrottlingPolicyTest {
+
+    private static final List<String> ALL = Arrays.asList("A", "B", "C");
+    private static final List<String> SAMPLE = Arrays.asList("A");
+
+    private static long degreeOf(final String title) {
+        return title.equals("Hub") ? 10_000L : 10L;
+    }
+
+    @Test
+    public void offPolicyNeverEstimatesDegrees() throws Exception {
+        final HubThrottlingPolicy policy = HubThrottlingPolicy.off();
+
+        assertEquals(ALL, policy.expand("Hub", () -> ALL, () -> SAMPLE));
+        assertEquals(0L, policy.getNumberOfSampledExpansions());
+        assertEquals(0L, policy.getNumberOfPostponedExpansions());
+    }
+
+    @Test
+    public void approximatePolicySamplesHubs() throws Exception {
+        final AtomicInteger numberOfEstimates = new AtomicInteger();
+        final HubThrottlingPolicy policy =
+                new HubThrottlingPolicy(
+                        HubThrottlingPolicy.Mode.APPROXIMATE,
+                        5_000L,
+                        1_000,
+                        (title) -> {
+                            numberOfEstimates.incrementAndGet();
+                            return degreeOf(title);
+                        });
+
+        assertEquals(ALL, policy.expand("Leaf", () -> ALL, () -> SAMPLE));
+        assertEquals(SAMPLE, policy.expand("Hub", () -> ALL, () -> SAMPLE));
+        assertEquals(SAMPLE, policy.expand("Hub", () -> ALL, () -> SAMPLE));
+
+        assertEquals(2L, policy.getNumberOfSampledExpansions());
+        assertEquals(18_000L, policy.getNumberOfSkippedBacklinks());
+
+        // The degree estimates are cached:
+        assertEquals(2, numberOfEstimates.get());
+    }
+
+    @Test
+    public void unknownDegreeIsNotHub() throws Exception {
+        final HubThrottlingPolicy policy =
+                new HubThrottlingPolicy(
+                        HubThrottlingPolicy.Mode.APPROXIMATE,
+                        5_000L,
+                        1_000,
+                        (title) -> {
+                            throw new Exception("HTTP 503");
+                        });
+
+        assertEquals(ALL, policy.expand("Hub", () -> ALL, () -> SAMPLE));
+        assertEquals(0L, policy.getNumberOfSampledExpansions());
+    }
+
+    @Test
+    public void exactPolicyDefersHubsButExpandsThemInFull() throws Exception {
+        final HubThrottlingPolicy policy =
+                new HubThrottlingPolicy(
+                        HubThrottlingPolicy.Mode.EXACT,
+                        5_000L,
+                        1_000,
+                        HubThrottlingPolicyTest::degreeOf);
+
+        assertFalse(policy.isDeferred("Leaf"));
+        assertTrue(policy.isDeferred("Hub"));
+
+        assertEquals(ALL, policy.expand("Hub", () -> ALL, () -> SAMPLE));
+        assertEquals(1L, policy.getNumberOfPostponedExpansions());
+        assertEquals(0L, policy.getNumberOfSampledExpansions());
+    }
+
+    @Test
+    public void onlyExactPolicyDefersHubs() {
+        final HubThrottlingPolicy policy =
+                new HubThrottlingPolicy(
+                        HubThrottlingPolicy.Mode.APPROXIMATE,
+                        5_000L,
+                        1_000,
+                        HubThrottlingPolicyTest::degreeOf);
+
+        assertFalse(policy.isDeferred("Hub"));
+        assertFalse(HubThrottlingPolicy.off().isDeferred("Hub"));
+    }
+
+    @Test
+    public void parsesLongValues() {
+        assertEquals(
+                12345L,
+                WikipediaApiClient.getLongValue(
+                        "{\"query\":{\"searchinfo\":{\"totalhits\": 12345}}}",
+                        "totalhits"));
+
+        assertEquals(-1L, WikipediaApiClient.getLongValue("{}", "totalhits"));
+    }
+}
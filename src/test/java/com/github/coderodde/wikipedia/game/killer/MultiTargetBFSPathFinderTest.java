@@ -0,0 +1,234 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import com.github.coderodde.wikipedia.game.killer.ForkJoinBidirectionalBFSPathFinderTest.Graph;
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class MultiTargetBFSPathFinderTest {
+
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    @Test
+    public void findsShortestPathsToAllTargets() {
+        final Random random = new Random(17L);
+
+        for (int graphIndex = 0; graphIndex < 5; graphIndex++) {
+            final Graph graph = Graph.random(500, 1500, random);
+            final int source = random.nextInt(500);
+            final List<Integer> targets = new ArrayList<>();
+
+            for (int i = 0; i < 20; i++) {
+                targets.add(random.nextInt(500));
+            }
+
+            final List<Integer> reportedTargets = new ArrayList<>();
+            final Map<Integer, List<Integer>> paths =
+                    new MultiTargetBFSPathFinder<Integer>(
+                            4,
+                            EXPANSION_TIMEOUT_NANOS)
+                            .search(source,
+                                    targets,
+                                    graph.forwardExpander(),
+                                    graph.backwardExpander(),
+                                    (target, path) ->
+                                            reportedTargets.add(target));
+
+            assertEquals(targets.stream().distinct().count(),
+                         reportedTargets.size());
+
+            for (final int target : targets) {
+                final List<Integer> path = paths.get(target);
+
+                assertEquals(graph.getShortestPathLength(source, target),
+                             path.size() - 1);
+
+                if (!path.isEmpty()) {
+                    assertEquals(Integer.valueOf(source), path.get(0));
+                    assertEquals(Integer.valueOf(target),
+                                 path.get(path.size() - 1));
+                    assertTrue(graph.isPath(path));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharesForwardExpansions() {
+        final Random random = new Random(19L);
+        final Graph graph = Graph.random(3000, 9000, random);
+        final List<Integer> targets = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            targets.add(random.nextInt(3000));
+        }
+
+        final MultiTargetBFSPathFinder<Integer> multiTargetFinder =
+                new MultiTargetBFSPathFinder<>(4, EXPANSION_TIMEOUT_NANOS);
+
+        multiTargetFinder.search(0,
+                                 targets,
+                                 graph.forwardExpander(),
+                                 graph.backwardExpander(),
+                                 null);
+
+        final ForkJoinBidirectionalBFSPathFinder<Integer> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS);
+        int numberOfSeparateExpansions = 0;
+
+        for (final int target : targets) {
+            finder.search(0,
+                          target,
+                          graph.forwardExpander(),
+                          graph.backwardExpander(),
+                          null,
+                          null);
+
+            numberOfSeparateExpansions += finder.getNumberOfExpandedNodes();
+        }
+
+        assertTrue(2 * multiTargetFinder.getNumberOfExpandedNodes() <
+                   numberOfSeparateExpansions);
+    }
+
+    @Test
+    public void handlesSourceAndUnreachableTargets() {
+        final Graph graph = new Graph();
+        graph.addArc(0, 1);
+        graph.addArc(1, 2);
+        graph.addArc(3, 4);
+
+        final Map<Integer, List<Integer>> paths =
+                new MultiTargetBFSPathFinder<Integer>(
+                        2,
+                        EXPANSION_TIMEOUT_NANOS)
+                        .search(0,
+                                Arrays.asList(2, 0, 4, 2),
+                                graph.forwardExpander(),
+                                graph.backwardExpander(),
+                                null);
+
+        assertEquals(Arrays.asList(0, 1, 2), paths.get(2));
+        assertEquals(Arrays.asList(0), paths.get(0));
+        assertEquals(Collections.emptyList(), paths.get(4));
+        assertEquals(3, paths.size());
+    }
+
+    @Test
+    public void usesPagedExpandersAndVisitedStates() {
+        final Random random = new Random(23L);
+        final Graph graph = Graph.random(300, 900, random);
+        final List<Integer> targets = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            targets.add(random.nextInt(300));
+        }
+
+        final AtomicInteger numberOfVisitedStates = new AtomicInteger();
+        final PagedExpander backwardExpander =
+                new PagedExpander(graph.backwardExpander());
+
+        // Holds the forward direction until a backward one has expanded a
+        // node, so that no target is done by the forward direction alone:
+        final AbstractNodeExpander<Integer> forwardExpander =
+                new AbstractNodeExpander<>() {
+            @Override
+            public List<Integer> generateSuccessors(final Integer node) {
+                try {
+                    backwardExpander.firstExpansion.await();
+                } catch (final InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+
+                return graph.forwardExpander().generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final Integer node) {
+                return true;
+            }
+        };
+
+        final Map<Integer, List<Integer>> paths =
+                new MultiTargetBFSPathFinder<Integer>(
+                        4,
+                        EXPANSION_TIMEOUT_NANOS,
+                        () -> {
+                            numberOfVisitedStates.incrementAndGet();
+                            return new ForkJoinBidirectionalBFSPathFinder
+                                           .HeapVisitedState<>();
+                        })
+                        .search(0,
+                                targets,
+                                forwardExpander,
+                                backwardExpander,
+                                null);
+
+        // One for the forward direction and one per distinct target:
+        assertEquals(1 + targets.stream().distinct().count(),
+                     numberOfVisitedStates.get());
+        assertEquals(0L, backwardExpander.firstExpansion.getCount());
+
+        for (final int target : targets) {
+            final List<Integer> path = paths.get(target);
+
+            assertEquals(graph.getShortestPathLength(0, target),
+                         path.size() - 1);
+
+            if (!path.isEmpty()) {
+                assertTrue(graph.isPath(path));
+            }
+        }
+    }
+
+    /**
+     * An expander passing the successors one page per successor and counting
+     * down {@code firstExpansion} once it has expanded a node.
+     */
+    private static final class PagedExpander
+            extends AbstractNodeExpander<Integer>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .PagedNodeExpander<Integer> {
+
+        private final AbstractNodeExpander<Integer> expander;
+        final CountDownLatch firstExpansion = new CountDownLatch(1);
+
+        PagedExpander(final AbstractNodeExpander<Integer> expander) {
+            this.expander = expander;
+        }
+
+        @Override
+        public void generateSuccessorPages(
+                final Integer node,
+                final Consumer<List<Integer>> pageConsumer) {
+
+            for (final Integer successor : expander.generateSuccessors(node)) {
+                pageConsumer.accept(List.of(successor));
+            }
+
+            firstExpansion.countDown();
+        }
+
+        @Override
+        public List<Integer> generateSuccessors(final Integer node) {
+            return expander.generateSuccessors(node);
+        }
+
+        @Override
+        public boolean isValidNode(final Integer node) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class OffHeapTitleArenaTest {
+
+    @Test
+    public void internsEachTitleOnce() {
+        final OffHeapTitleArena arena = new OffHeapTitleArena();
+
+        final long offset1 = arena.intern("Helsinki");
+        final long offset2 = arena.intern("Turku");
+
+        assertEquals(offset1, arena.intern("Helsinki"));
+        assertEquals(offset2, arena.find("Turku"));
+        assertEquals(OffHeapTitleArena.NO_OFFSET, arena.find("Tampere"));
+        assertEquals(2, arena.size());
+    }
+
+    @Test
+    public void roundTripsUnicodeTitles() {
+        final OffHeapTitleArena arena = new OffHeapTitleArena();
+
+        for (final String title : Arrays.asList("Café",
+                                                "Jyväskylä",
+                                                "東京都",
+                                                "😀_(emoji)",
+                                                "")) {
+            assertEquals(title, arena.getTitle(arena.intern(title)));
+        }
+    }
+
+    @Test
+    public void survivesIndexGrowth() {
+        final OffHeapTitleArena arena = new OffHeapTitleArena();
+        final int numberOfTitles = 200_000;
+        final long[] offsets = new long[numberOfTitles];
+
+        for (int i = 0; i < numberOfTitles; i++) {
+            offsets[i] = arena.intern("Article_" + i);
+        }
+
+        for (int i = 0; i < numberOfTitles; i++) {
+            assertEquals(offsets[i], arena.find("Article_" + i));
+            assertEquals("Article_" + i, arena.getTitle(offsets[i]));
+        }
+
+        assertEquals(numberOfTitles, arena.size());
+    }
+
+    @Test
+    public void internsConcurrently() throws InterruptedException {
+        final OffHeapTitleArena arena = new OffHeapTitleArena();
+        final int numberOfThreads = 8;
+        final int numberOfTitles = 20_000;
+        final long[][] offsets = new long[numberOfThreads][numberOfTitles];
+        final Thread[] threads = new Thread[numberOfThreads];
+
+        for (int t = 0; t < numberOfThreads; t++) {
+            final int threadIndex = t;
+
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < numberOfTitles; i++) {
+                    offsets[threadIndex][i] = arena.intern("Article_" + i);
+                }
+            });
+
+            threads[t].start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int t = 1; t < numberOfThreads; t++) {
+            assertArrayEquals(offsets[0], offsets[t]);
+        }
+
+        for (int i = 0; i < numberOfTitles; i++) {
+            assertEquals("Article_" + i, arena.getTitle(offsets[0][i]));
+        }
+
+        assertEquals(numberOfTitles, arena.size());
+    }
+
+    @Test
+    public void keepsFirstVisitPerDirection() {
+        final OffHeapTitleArena arena = new OffHeapTitleArena();
+        final long parent = arena.intern("Finland");
+        final long child = arena.intern("Helsinki");
+
+        assertEquals(OffHeapTitleArena.UNVISITED, arena.getDistance(child, 0));
+        assertTrue(arena.visit(child, 0, parent, 1));
+        assertFalse(arena.visit(child, 0, child, 5));
+        assertTrue(arena.visit(child, 1, OffHeapTitleArena.NO_OFFSET, 0));
+
+        assertEquals(1, arena.getDistance(child, 0));
+        assertEquals(parent, arena.getParent(child, 0));
+        assertEquals(0, arena.getDistance(child, 1));
+        assertEquals(OffHeapTitleArena.NO_OFFSET, arena.getParent(child, 1));
+    }
+
+    @Test
+    public void forkJoinSearchWorksOffHeap() {
+        final Map<String, List<String>> children =
+                Map.of("A", List.of("B", "C"),
+                       "B", List.of("D"),
+                       "C", List.of("D", "E"),
+                       "D", List.of("F"),
+                       "E", List.of("F"));
+
+        final Map<String, List<String>> parents =
+                Map.of("B", List.of("A"),
+                       "C", List.of("A"),
+                       "D", List.of("B", "C"),
+                       "E", List.of("C"),
+                       "F", List.of("D", "E"));
+
+        final ForkJoinBidirectionalBFSPathFinder<String> finder =
+                new ForkJoinBidirectionalBFSPathFinder<>(
+                        2,
+                        10_000_000_000L,
+                        () -> new OffHeapVisitedState(
+                                new OffHeapTitleArena()));
+
+        final List<String> path = finder.search("A",
+                                                "F",
+                                                expander(children),
+                                                expander(parents),
+                                                null,
+                                                null);
+
+        assertEquals(4, path.size());
+        assertEquals("A", path.get(0));
+        assertEquals("F", path.get(3));
+    }
+
+    private static AbstractNodeExpander<String> expander(
+            final Map<String, List<String>> adjacency) {
+
+        return new AbstractNodeExpander<>() {
+            @Override
+            public List<String> generateSuccessors(final String node) {
+                return adjacency.getOrDefault(node, List.of());
+            }
+
+            @Override
+            public boolean isValidNode(final String node) {
+                return true;
+            }
+        };
+    }
+}
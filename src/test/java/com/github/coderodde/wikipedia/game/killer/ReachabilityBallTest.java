@@ -0,0 +1,429 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class ReachabilityBallTest {
+
+    private static final long EXPANSION_TIMEOUT_NANOS = 10_000_000_000L;
+
+    private final ExecutorService executor = ForkJoinPool.commonPool();
+
+    @Test
+    public void buildsDistancesAndPaths() {
+        final ArcListGraph graph =
+                TestGraphs.randomGraph(400, 1200, new Random(29L));
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "N0",
+                                       3,
+                                       graph.backwardExpander(),
+                                       executor);
+
+        assertBall(ball, graph.forwardExpander(), 3);
+    }
+
+    @Test
+    public void writesAndReadsBalls() throws IOException {
+        final ArcListGraph graph =
+                TestGraphs.createGraph(TestGraphs.randomArcs(300, 900, new Random(31L)));
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "N0",
+                                       2,
+                                       graph.backwardExpander(),
+                                       executor);
+
+        final Path directory = Files.createTempDirectory("balls");
+        final Path file = ReachabilityBall.getFile(directory, "en", "N0");
+
+        try {
+            ball.write(file);
+
+            final ReachabilityBall readBall = ReachabilityBall.read(file);
+
+            assertEquals("en", readBall.getLanguageCode());
+            assertEquals("N0", readBall.getTarget());
+            assertEquals(2, readBall.getDepth());
+            assertEquals(ball.size(), readBall.size());
+            assertEquals(ball.isExact(), readBall.isExact());
+
+            for (int i = 0; i < 300; i++) {
+                final String node = "N" + i;
+
+                assertEquals(ball.getDistance(node),
+                             readBall.getDistance(node));
+
+                if (ball.getDistance(node) >= 0) {
+                    assertEquals(ball.getPathToTarget(node),
+                                 readBall.getPathToTarget(node));
+                }
+            }
+
+            Files.writeString(file, "not a ball");
+
+            try {
+                ReachabilityBall.read(file);
+                throw new AssertionError("A malformed ball was accepted.");
+            } catch (final IOException ex) {
+                // Expected.
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void refreshesIncrementally() {
+        final Random random = new Random(37L);
+        final List<String[]> arcs = TestGraphs.randomArcs(400, 1000, random);
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "N0",
+                                       3,
+                                       TestGraphs.createGraph(arcs)
+                                                 .backwardExpander(),
+                                       executor);
+
+        // Remove every fifth arc and add a few new ones:
+        final List<String[]> newArcs = new ArrayList<>();
+
+        for (int i = 0; i < arcs.size(); i++) {
+            if (i % 5 != 0) {
+                newArcs.add(arcs.get(i));
+            }
+        }
+
+        newArcs.addAll(TestGraphs.randomArcs(400, 200, random));
+
+        final ArcListGraph newGraph = TestGraphs.createGraph(newArcs);
+        int numberOfChanges = 0;
+
+        for (int round = 0; round < 20; round++) {
+            numberOfChanges += ball.refresh(newGraph.backwardExpander(),
+                                            50,
+                                            executor);
+        }
+
+        assertTrue(numberOfChanges > 0);
+        assertBall(ball, newGraph.forwardExpander(), 3);
+
+        final ReachabilityBall newBall =
+                ReachabilityBall.build("en",
+                                       "N0",
+                                       3,
+                                       newGraph.backwardExpander(),
+                                       executor);
+
+        assertEquals(newBall.size(), ball.size());
+        assertEquals(0, ball.refresh(newGraph.backwardExpander(),
+                                     1000,
+                                     executor));
+    }
+
+    @Test
+    public void refresherRewritesChangedBalls() throws IOException {
+        final List<String[]> arcs = new ArrayList<>();
+        arcs.add(new String[]{ "A", "T" });
+        arcs.add(new String[]{ "B", "A" });
+
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "T",
+                                       2,
+                                       TestGraphs.createGraph(arcs)
+                                                 .backwardExpander(),
+                                       executor);
+
+        arcs.add(new String[]{ "C", "T" });
+
+        final ArcListGraph newGraph = TestGraphs.createGraph(arcs);
+        final Path directory = Files.createTempDirectory("balls");
+        final Path file = ReachabilityBall.getFile(directory, "en", "T");
+
+        try (ReachabilityBallRefresher refresher =
+                new ReachabilityBallRefresher(
+                        directory,
+                        List.of(ball),
+                        (languageCode) -> newGraph.backwardExpander(),
+                        10,
+                        executor,
+                        new PrintStream(OutputStream.nullOutputStream()))) {
+
+            assertEquals(1, refresher.refreshAll());
+            assertEquals(1, ReachabilityBall.read(file).getDistance("C"));
+            assertEquals(0, refresher.refreshAll());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Test
+    public void keepsChildrenOfFailedAndIncompleteExpansions() {
+        final List<String[]> arcs = new ArrayList<>();
+        arcs.add(new String[]{ "A", "T" });
+        arcs.add(new String[]{ "B", "A" });
+        arcs.add(new String[]{ "C", "T" });
+
+        final ArcListGraph graph = TestGraphs.createGraph(arcs);
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "T",
+                                       3,
+                                       graph.backwardExpander(),
+                                       executor);
+
+        assertTrue(ball.isComplete());
+
+        final AbstractNodeExpander<String> failingExpander =
+                new AbstractNodeExpander<>() {
+            @Override
+            public List<String> generateSuccessors(final String node) {
+                if (node.equals("A")) {
+                    throw new IllegalStateException("Expansion failed.");
+                }
+
+                return graph.backwardExpander().generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final String node) {
+                return true;
+            }
+        };
+
+        assertEquals(0, ball.refresh(failingExpander, 10, executor));
+        assertEquals(2, ball.getDistance("B"));
+        assertFalse(ball.isComplete());
+
+        assertEquals(0, ball.refresh(new TruncatingExpander(graph.backwardExpander(), "A"),
+                                     10,
+                                     executor));
+        assertEquals(2, ball.getDistance("B"));
+        assertFalse(ball.isComplete());
+
+        // A clean round makes the ball exact again:
+        assertEquals(0, ball.refresh(graph.backwardExpander(), 10, executor));
+        assertTrue(ball.isComplete());
+    }
+
+    @Test
+    public void lowersSubtreesOnShortcuts() {
+        final List<String[]> arcs = new ArrayList<>();
+        arcs.add(new String[]{ "X", "T" });
+        arcs.add(new String[]{ "A", "X" });
+        arcs.add(new String[]{ "B", "A" });
+
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "T",
+                                       4,
+                                       TestGraphs.createGraph(arcs)
+                                                 .backwardExpander(),
+                                       executor);
+
+        assertEquals(3, ball.getDistance("B"));
+
+        arcs.add(new String[]{ "A", "T" });
+
+        final ArcListGraph newGraph = TestGraphs.createGraph(arcs);
+
+        assertEquals(2, ball.refresh(newGraph.backwardExpander(),
+                                     10,
+                                     executor));
+        assertEquals(1, ball.getDistance("A"));
+        assertEquals(2, ball.getDistance("B"));
+        assertEquals(List.of("B", "A", "T"), ball.getPathToTarget("B"));
+        assertFalse(ball.isExact());
+
+        ball.refresh(newGraph.backwardExpander(), 10, executor);
+
+        assertTrue(ball.isExact());
+    }
+
+    @Test
+    public void ballSearchFindsShortestPaths() {
+        final Random random = new Random(41L);
+
+        for (int graphIndex = 0; graphIndex < 5; graphIndex++) {
+            final ArcListGraph graph =
+                    TestGraphs.randomGraph(500, 1300, random);
+            final String target = "N" + random.nextInt(500);
+            final ReachabilityBall ball =
+                    ReachabilityBall.build("en",
+                                           target,
+                                           2,
+                                           graph.backwardExpander(),
+                                           executor);
+
+            final BallPathFinder finder =
+                    new BallPathFinder(4, EXPANSION_TIMEOUT_NANOS);
+
+            for (int i = 0; i < 20; i++) {
+                final String source = "N" + random.nextInt(500);
+                final List<String> path =
+                        finder.search(source, ball, graph.forwardExpander());
+
+                assertEquals(
+                        TestGraphs.getShortestPathLength(
+                                graph.forwardExpander(),
+                                source,
+                                target),
+                        path.size() - 1);
+
+                if (!path.isEmpty()) {
+                    assertEquals(source, path.get(0));
+                    assertEquals(target, path.get(path.size() - 1));
+                    assertTrue(TestGraphs.isPath(graph.forwardExpander(),
+                                                 path));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void ballSearchCountsIncompleteExpansions() {
+        final List<String[]> arcs = new ArrayList<>();
+        arcs.add(new String[]{ "S", "P" });
+        arcs.add(new String[]{ "S", "Q" });
+        arcs.add(new String[]{ "P", "A" });
+        arcs.add(new String[]{ "A", "T" });
+        arcs.add(new String[]{ "Q", "B" });
+        arcs.add(new String[]{ "B", "C" });
+        arcs.add(new String[]{ "C", "T" });
+
+        final ArcListGraph graph = TestGraphs.createGraph(arcs);
+        final ReachabilityBall ball =
+                ReachabilityBall.build("en",
+                                       "T",
+                                       1,
+                                       graph.backwardExpander(),
+                                       executor);
+
+        final BallPathFinder finder =
+                new BallPathFinder(2, EXPANSION_TIMEOUT_NANOS);
+
+        assertEquals(List.of("S", "P", "A", "T"),
+                     finder.search("S", ball, graph.forwardExpander()));
+        assertEquals(0L, finder.getNumberOfIncompleteExpansions());
+
+        // Losing the successors of P leads to a longer path:
+        assertEquals(List.of("S", "Q", "B", "C", "T"),
+                     finder.search("S",
+                                   ball,
+                                   new TruncatingExpander(
+                                           graph.forwardExpander(),
+                                           "P")));
+        assertEquals(1L, finder.getNumberOfIncompleteExpansions());
+
+        final AbstractNodeExpander<String> failingExpander =
+                new AbstractNodeExpander<>() {
+
+            @Override
+            public List<String> generateSuccessors(final String node) {
+                if (node.equals("P")) {
+                    throw new IllegalStateException();
+                }
+
+                return graph.forwardExpander().generateSuccessors(node);
+            }
+
+            @Override
+            public boolean isValidNode(final String node) {
+                return true;
+            }
+        };
+
+        assertEquals(5, finder.search("S", ball, failingExpander).size());
+        assertEquals(1L, finder.getNumberOfIncompleteExpansions());
+    }
+
+    private static void assertBall(
+            final ReachabilityBall ball,
+            final AbstractNodeExpander<String> forwardExpander,
+            final int depth) {
+
+        int numberOfArticlesWithinDepth = 0;
+
+        for (int i = 0; i < 400; i++) {
+            final String node = "N" + i;
+            final int distance =
+                    TestGraphs.getShortestPathLength(forwardExpander,
+                                                     node,
+                                                     ball.getTarget());
+
+            if (distance <= depth && distance >= 0) {
+                numberOfArticlesWithinDepth++;
+                assertEquals(distance, ball.getDistance(node));
+
+                final List<String> path = ball.getPathToTarget(node);
+
+                assertEquals(distance, path.size() - 1);
+                assertTrue(TestGraphs.isPath(forwardExpander, path));
+            } else {
+                assertEquals(-1, ball.getDistance(node));
+            }
+        }
+
+        assertEquals(numberOfArticlesWithinDepth, ball.size());
+    }
+
+    /**
+     * An expander returning no successors for {@code truncatedNode} and
+     * reporting that expansion as incomplete.
+     */
+    private static final class TruncatingExpander
+            extends AbstractNodeExpander<String>
+            implements ForkJoinBidirectionalBFSPathFinder
+                               .IncompleteExpansionCounter {
+
+        private final AbstractNodeExpander<String> expander;
+        private final String truncatedNode;
+        private final AtomicLong numberOfIncompleteExpansions =
+                new AtomicLong();
+
+        TruncatingExpander(final AbstractNodeExpander<String> expander,
+                           final String truncatedNode) {
+            this.expander = expander;
+            this.truncatedNode = truncatedNode;
+        }
+
+        @Override
+        public List<String> generateSuccessors(final String node) {
+            if (node.equals(truncatedNode)) {
+                numberOfIncompleteExpansions.incrementAndGet();
+                return List.of();
+            }
+
+            return expander.generateSuccessors(node);
+        }
+
+        @Override
+        public boolean isValidNode(final String node) {
+            return true;
+        }
+
+        @Override
+        public long getNumberOfIncompleteExpansions() {
+            return numberOfIncompleteExpansions.get();
+        }
+    }
+}
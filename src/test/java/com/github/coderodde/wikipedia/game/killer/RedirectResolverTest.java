@@ -0,0 +1,316 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public final class RedirectResolverTest {
+
+    /**
+     * The redirects of the fake API.
+     */
+    private static final Map<String, String> REDIRECTS =
+            Map.of("USA",       "United States",
+                   "U.S.",      "United States",
+                   "Suomi",     "Finland");
+
+    /**
+     * Answers the redirect queries like the API: the titles are normalized
+     * by capitalizing their first letter, and then resolved.
+     */
+    private static final class FakeRedirectQuery
+            implements WikipediaApiClient.Query {
+
+        final AtomicInteger numberOfQueries = new AtomicInteger();
+        final List<Integer> batchSizes = new ArrayList<>();
+        final AtomicBoolean failing = new AtomicBoolean();
+
+        @Override
+        public String query(final String... parameters) throws IOException {
+            numberOfQueries.incrementAndGet();
+
+            if (failing.get()) {
+                throw new IOException("HTTP 503");
+            }
+
+            assertEquals("redirects", parameters[0]);
+            assertEquals("titles", parameters[2]);
+
+            final String[] titles = parameters[3].split("\\|");
+            batchSizes.add(titles.length);
+
+            final List<String> normalized = new ArrayList<>();
+            final List<String> redirects = new ArrayList<>();
+
+            for (final String title : titles) {
+                final String normalizedTitle =
+                        Character.toUpperCase(title.charAt(0)) +
+                        title.substring(1);
+
+                if (!normalizedTitle.equals(title)) {
+                    normalized.add(String.format(
+                            "{\"from\":\"%s\",\"to\":\"%s\"}",
+                            title,
+                            normalizedTitle));
+                }
+
+                if (REDIRECTS.containsKey(normalizedTitle)) {
+                    redirects.add(String.format(
+                            "{\"from\":\"%s\",\"to\":\"%s\"}",
+                            normalizedTitle,
+                            REDIRECTS.get(normalizedTitle)));
+                }
+            }
+
+            return "{\"query\":{\"normalized\":[" +
+                   String.join(",", normalized) +
+                   "],\"redirects\":[" +
+                   String.join(",", redirects) +
+                   "]}}";
+        }
+    }
+
+    /**
+     * Serves single-title backlink pages keyed by the API title and the
+     * continuation token, just like the API.
+     */
+    private static final class SplitBacklinkPageSource
+            implements DirectSuccessorFetcher.PageSource {
+
+        final Map<String, String> pages = new ConcurrentHashMap<>();
+
+        void addPage(final String apiTitle,
+                     final String continueToken,
+                     final String backlink,
+                     final String nextContinueToken) {
+            pages.put(apiTitle + "#" + continueToken,
+                      (nextContinueToken == null ?
+                       "{\"batchcomplete\":true," :
+                       "{\"continue\":{\"lhcontinue\":\"" +
+                       nextContinueToken + "\",\"continue\":\"||\"},") +
+                      "\"query\":{\"pages\":[{\"ns\":0,\"title\":\"" +
+                      apiTitle + "\",\"linkshere\":[{\"ns\":0," +
+                      "\"title\":\"" + backlink + "\"}]}]}}");
+        }
+
+        @Override
+        public byte[] queryBytes(final String... parameters)
+                throws IOException {
+
+            String continueToken = "";
+            String apiTitle = "";
+
+            for (int i = 0; i < parameters.length; i += 2) {
+                if (parameters[i].equals("lhcontinue")) {
+                    continueToken = parameters[i + 1];
+                } else if (parameters[i].equals("titles")) {
+                    apiTitle = parameters[i + 1];
+                }
+            }
+
+            final String json = pages.get(apiTitle + "#" + continueToken);
+
+            if (json == null) {
+                throw new IOException("No such page.");
+            }
+
+            return json.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void looksUpRedirectsInBatches() {
+        final FakeRedirectQuery query = new FakeRedirectQuery();
+        final RedirectResolver resolver = new RedirectResolver(query);
+        final List<String> titles = new ArrayList<>();
+
+        for (int i = 0; i < 117; i++) {
+            titles.add("Article_" + i);
+        }
+
+        titles.add("USA");
+        titles.add("u.S.");
+        titles.add("suomi");
+        titles.add("United_States");
+
+        final List<String> resolved = resolver.resolve(titles);
+
+        assertEquals(Arrays.asList(50, 50, 21), query.batchSizes);
+        assertEquals(3L, resolver.getNumberOfLookups());
+        assertEquals(3L, resolver.getNumberOfResolvedRedirects());
+        assertEquals(119, resolved.size());
+        assertEquals("United_States", resolved.get(117));
+        assertEquals("Finland", resolved.get(118));
+
+        // Everything is known now:
+        assertEquals(Arrays.asList("United_States", "Article_0"),
+                     resolver.resolve(Arrays.asList("USA", "Article_0")));
+
+        assertEquals(3, query.numberOfQueries.get());
+    }
+
+    @Test
+    public void keepsTitlesAsIsWhenLookupFails() {
+        final FakeRedirectQuery query = new FakeRedirectQuery();
+        final RedirectResolver resolver = new RedirectResolver(query);
+
+        query.failing.set(true);
+
+        assertEquals(Arrays.asList("USA", "Caf\u00e9"),
+                     resolver.resolve(Arrays.asList("USA", "Caf%C3%A9")));
+
+        // The failure is not cached:
+        query.failing.set(false);
+
+        assertEquals(Arrays.asList("United_States"),
+                     resolver.resolve(Arrays.asList("USA")));
+
+        assertEquals(2, query.numberOfQueries.get());
+    }
+
+    @Test
+    public void replacesRedirectBacklinksByTheirBacklinks() {
+        final RedirectResolver resolver =
+                new RedirectResolver(new FakeRedirectQuery());
+
+        final Map<String, List<String>> redirectBacklinks =
+                Map.of("USA", Arrays.asList("Texas", "Canada", "U.S."),
+                       "U.S.", Arrays.asList("Ohio"));
+
+        final List<String> successors =
+                resolver.resolveBacklinks(
+                        "United_States",
+                        Arrays.asList("Canada", "USA", "Mexico", "U.S."),
+                        (redirect) -> {
+                            if (!redirectBacklinks.containsKey(redirect)) {
+                                throw new IOException("No such redirect.");
+                            }
+
+                            return redirectBacklinks.get(redirect);
+                        });
+
+        assertEquals(Arrays.asList("Canada", "Mexico", "Texas", "Ohio"),
+                     successors);
+    }
+
+    @Test
+    public void keepsDirectBacklinksWhenRedirectBacklinksFail() {
+        final RedirectResolver resolver =
+                new RedirectResolver(new FakeRedirectQuery());
+
+        assertEquals(Arrays.asList("Canada"),
+                     resolver.resolveBacklinks(
+                             "United_States",
+                             Arrays.asList("Canada", "USA"),
+                             (redirect) -> {
+                                 throw new IOException("HTTP 503");
+                             }));
+
+        assertEquals(Arrays.asList("Canada", "USA"),
+                     RedirectResolver.none()
+                                     .resolveBacklinks(
+                                             "United_States",
+                                             Arrays.asList("Canada", "USA"),
+                                             (redirect) -> List.of()));
+    }
+
+    @Test(timeout = 10_000L)
+    public void resolvesRedirectBacklinksAfterSplitFetches() throws Exception {
+        final SplitBacklinkPageSource pageSource =
+                new SplitBacklinkPageSource();
+
+        pageSource.addPage("United States", "",       "Canada", "77|10");
+        pageSource.addPage("United States", "77|10",  "Mexico", "77|900");
+        pageSource.addPage("United States", "77|506", "USA",    null);
+        pageSource.addPage("USA",           "",       "Texas",  "88|10");
+        pageSource.addPage("USA",           "88|10",  "Ohio",   "88|900");
+        pageSource.addPage("USA",           "88|506", "Iowa",   null);
+
+        // With the page IDs up to 1000, both lists split at 506 into two
+        // ranges, and the redirect arrives in the second one:
+        final DirectSuccessorFetcher fetcher =
+                new DirectSuccessorFetcher(
+                        pageSource,
+                        () -> 1000L,
+                        DirectSuccessorFetcher.LinkKind.LINKS_HERE,
+                        true,
+                        new TitleInterner(),
+                        2,
+                        DirectSuccessorFetcher.DEFAULT_PAGE_BUDGET);
+
+        final RedirectResolver resolver =
+                new RedirectResolver(new FakeRedirectQuery());
+
+        final Thread callingThread = Thread.currentThread();
+        final List<Thread> redirectFetchThreads = new ArrayList<>();
+        final Set<String> successors = ConcurrentHashMap.newKeySet();
+
+        resolver.resolveBacklinkPages(
+                "United_States",
+                fetcher::fetch,
+                (redirect) -> {
+                    redirectFetchThreads.add(Thread.currentThread());
+                    return fetcher.fetch(redirect);
+                },
+                successors::addAll);
+
+        assertEquals(Set.of("Canada", "Mexico", "Texas", "Ohio", "Iowa"),
+                     successors);
+        assertEquals(List.of(callingThread), redirectFetchThreads);
+    }
+
+    @Test
+    public void nonResolvingResolverRemovesDuplicates() {
+        assertEquals(Arrays.asList("USA", "Finland"),
+                     RedirectResolver.none()
+                                     .resolve(Arrays.asList("USA",
+                                                            "Finland",
+                                                            "USA")));
+    }
+
+    @Test
+    public void parsesRedirectSection() {
+        final String json =
+                "{\"batchcomplete\":true,\"query\":{\"normalized\":" +
+                "[{\"fromencoded\":false,\"from\":\"U.S._A\",\"to\":" +
+                "\"U.S. A\"}],\"redirects\":[{\"from\":\"USA\",\"to\":" +
+                "\"United States\"},{\"from\":\"U.S.\",\"to\":" +
+                "\"United States\",\"tofragment\":\"History\"}]," +
+                "\"pages\":[{\"title\":\"United States\"}]}}";
+
+        final Map<String, String> redirects =
+                WikipediaApiClient.getSectionMap(json, "redirects");
+
+        assertEquals(2, redirects.size());
+        assertEquals("United States", redirects.get("USA"));
+        assertEquals("United States", redirects.get("U.S."));
+        assertNull(redirects.get("U.S._A"));
+
+        assertEquals("U.S. A",
+                     WikipediaApiClient.getSectionMap(json, "normalized")
+                                       .get("U.S._A"));
+    }
+
+    @Test
+    public void convertsTitleForms() {
+        assertEquals("Café au lait",
+                     WikipediaTitles.toApiTitle("Caf%C3%A9_au_lait"));
+
+        assertEquals("C++", WikipediaTitles.decode("C%2B%2B"));
+        assertEquals("C++", WikipediaTitles.decode("C++"));
+        assertEquals("100%_Pure", WikipediaTitles.decode("100%_Pure"));
+
+        assertEquals("United_States",
+                     WikipediaTitles.toNodeTitle("United States"));
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public final class SearchEventsTest {
+
+    @Test
+    public void recordsCacheAndLevelEvents() throws Exception {
+        final Path file = Files.createTempFile("search", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("WikiGameKiller.CacheLookup").withoutThreshold();
+            recording.enable("WikiGameKiller.Level").withoutThreshold();
+            recording.start();
+
+            final SingleFlightExpansionCoalescer coalescer =
+                    new SingleFlightExpansionCoalescer("test coalescer");
+            coalescer.expand("A", () -> List.of("B"));
+
+            final ArcListGraph graph = new ArcListGraph();
+            graph.addArc("A", "B");
+            graph.addArc("B", "C");
+
+            new ForkJoinBidirectionalBFSPathFinder<String>(2, 10_000_000_000L)
+                    .search("A",
+                            "C",
+                            graph.forwardExpander(),
+                            graph.backwardExpander(),
+                            null,
+                            null);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final Map<String, Integer> eventCounts = new HashMap<>();
+        RecordedEvent cacheEvent = null;
+
+        for (final RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            final String name = event.getEventType().getName();
+            eventCounts.merge(name, 1, Integer::sum);
+
+            if (name.equals("WikiGameKiller.CacheLookup") &&
+                event.getString("cache").equals("test coalescer")) {
+                cacheEvent = event;
+            }
+        }
+
+        Files.deleteIfExists(file);
+
+        assertTrue(eventCounts.getOrDefault("WikiGameKiller.Level", 0) >= 2);
+        assertEquals(0, cacheEvent.getInt("hits"));
+        assertEquals(1, cacheEvent.getInt("misses"));
+    }
+
+    @Test
+    public void eventsAreHarmlessWithoutRecording() {
+        final SearchEvents.HttpFetchEvent event =
+                new SearchEvents.HttpFetchEvent();
+        event.begin();
+        event.finish("https://en.wikipedia.org/w/api.php", 200, 10L, 0);
+
+        assertEquals(null, event.url);
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public final class SingleFlightExpansionCoalescerTest {
+
+    @Test
+    public void coalescesConcurrentExpansionsOfSameTitle() throws Exception {
+        final SingleFlightExpansionCoalescer coalescer =
+                new SingleFlightExpansionCoalescer();
+
+        final int numberOfThreads = 8;
+        final AtomicInteger numberOfLoads = new AtomicInteger();
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final List<String> neighbors = Arrays.asList("A", "B");
+        final List<List<String>> results = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < numberOfThreads; i++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    final List<String> result =
+                            coalescer.expand("Hub", () -> {
+                        numberOfLoads.incrementAndGet();
+                        loaderStarted.countDown();
+                        releaseLoader.await();
+                        return neighbors;
+                    });
+
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                } catch (final Exception ex) {
+                    throw new RuntimeException(ex);
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        loaderStarted.await();
+
+        // Wait for all the other callers to join the in-flight request:
+        while (coalescer.getNumberOfCoalescedCalls() < numberOfThreads - 1) {
+            Thread.sleep(1L);
+        }
+
+        releaseLoader.countDown();
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, numberOfLoads.get());
+        assertEquals(numberOfThreads, results.size());
+        assertEquals(numberOfThreads, coalescer.getNumberOfCalls());
+        assertEquals(numberOfThreads - 1,
+                     coalescer.getNumberOfCoalescedCalls());
+
+        for (final List<String> result : results) {
+            assertSame(neighbors, result);
+        }
+    }
+
+    @Test
+    public void sharesPagedExpansionsWithJoiningCallers() throws Exception {
+        final SingleFlightExpansionCoalescer coalescer =
+                new SingleFlightExpansionCoalescer();
+
+        final CountDownLatch firstPageDelivered = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final List<List<String>> leaderPages = new ArrayList<>();
+        final List<List<String>> joinerPages = new ArrayList<>();
+        final List<List<String>> joinerResults = new ArrayList<>();
+
+        final Thread leader = new Thread(() -> {
+            try {
+                coalescer.expandPages("Hub", (pageConsumer) -> {
+                    pageConsumer.accept(Arrays.asList("A", "B"));
+                    firstPageDelivered.countDown();
+                    releaseLoader.await();
+                    pageConsumer.accept(Arrays.asList("B", "C"));
+                }, leaderPages::add);
+            } catch (final Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+
+        leader.start();
+        firstPageDelivered.await();
+
+        final Thread pagedJoiner = new Thread(() -> {
+            try {
+                coalescer.expandPages("Hub", (pageConsumer) -> {
+                    fail("Should have joined the in-flight expansion.");
+                }, joinerPages::add);
+            } catch (final Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+
+        final Thread joiner = new Thread(() -> {
+            try {
+                final List<String> result =
+                        coalescer.expand("Hub", () -> {
+                            fail("Should have joined the in-flight expansion.");
+                            return null;
+                        });
+
+                synchronized (joinerResults) {
+                    joinerResults.add(result);
+                }
+            } catch (final Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+
+        pagedJoiner.start();
+        joiner.start();
+
+        while (coalescer.getNumberOfCoalescedCalls() < 2) {
+            Thread.sleep(1L);
+        }
+
+        releaseLoader.countDown();
+        leader.join();
+        pagedJoiner.join();
+        joiner.join();
+
+        assertEquals(Arrays.asList(Arrays.asList("A", "B"),
+                                   Arrays.asList("B", "C")),
+                     leaderPages);
+
+        assertEquals(Arrays.asList(Arrays.asList("A", "B", "C")),
+                     joinerPages);
+
+        assertEquals(Arrays.asList(Arrays.asList("A", "B", "C")),
+                     joinerResults);
+    }
+
+    @Test
+    public void doesNotCacheCompletedExpansions() throws Exception {
+        final SingleFlightExpansionCoalescer coalescer =
+                new SingleFlightExpansionCoalescer();
+
+        final AtomicInteger numberOfLoads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            coalescer.expand("A", () -> {
+                numberOfLoads.incrementAndGet();
+                return Arrays.asList("B");
+            });
+        }
+
+        assertEquals(3, numberOfLoads.get());
+        assertEquals(0, coalescer.getNumberOfCoalescedCalls());
+    }
+
+    @Test
+    public void propagatesLoaderFailure() {
+        final SingleFlightExpansionCoalescer coalescer =
+                new SingleFlightExpansionCoalescer();
+
+        try {
+            coalescer.expand("A", () -> {
+                throw new IOException("HTTP 429");
+            });
+
+            fail("Should have thrown.");
+        } catch (final Exception ex) {
+            assertEquals("HTTP 429", ex.getMessage());
+        }
+
+        // A failed expansion must not stay in flight:
+        try {
+            assertEquals(Arrays.asList("B"),
+                         coalescer.expand("A", () -> Arrays.asList("B")));
+        } catch (final Exception ex) {
+            fail("Should not have thrown.");
+        }
+    }
+
+    @Test
+    public void releasesWaitersWhenLoaderThrowsError() throws Exception {
+        final SingleFlightExpansionCoalescer coalescer =
+                new SingleFlightExpansionCoalescer();
+
+        final CountDownLatch loaderStarted = new CountDownLatch(1);
+        final CountDownLatch releaseLoader = new CountDownLatch(1);
+        final List<Throwable> waiterFailures = new ArrayList<>();
+
+        final Thread loaderThread = new Thread(() -> {
+            try {
+                coalescer.expand("A", () -> {
+                    loaderStarted.countDown();
+                    releaseLoader.await();
+                    throw new OutOfMemoryError("Simulated");
+                });
+            } catch (final Throwable throwable) {
+                // Expected.
+            }
+        });
+
+        loaderThread.start();
+        loaderStarted.await();
+
+        final Thread waiterThread = new Thread(() -> {
+            try {
+                coalescer.expand("A", () -> Arrays.asList("B"));
+            } catch (final Throwable throwable) {
+                synchronized (waiterFailures) {
+                    waiterFailures.add(throwable);
+                }
+            }
+        });
+
+        waiterThread.start();
+
+        while (coalescer.getNumberOfCoalescedCalls() < 1) {
+            Thread.sleep(1L);
+        }
+
+        releaseLoader.countDown();
+        loaderThread.join();
+        waiterThread.join(10_000L);
+
+        assertFalse(waiterThread.isAlive());
+        assertEquals(1, waiterFailures.size());
+        assertTrue(waiterFailures.get(0) instanceof OutOfMemoryError);
+    }
+}
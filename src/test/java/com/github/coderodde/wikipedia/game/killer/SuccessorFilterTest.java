@@ -0,0 +1,141 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public final class SuccessorFilterTest {
+
+    private static final List<String> SUCCESSORS =
+            Arrays.asList("Finland",
+                          "Category:Countries_in_Europe",
+                          "Template:Infobox_country",
+                          "help:Contents",
+                          "File%3AFlag_of_Finland.svg",
+                          "Star_Wars:_Andor",
+                          "List_of_cities_in_Finland",
+                          "C++");
+
+    @Test
+    public void namespaceRuleKeepsOnlyMainNamespaceArticles() {
+        final SuccessorFilter filter =
+                new SuccessorFilter(
+                        Arrays.asList(
+                                new SuccessorFilter.NamespaceRule(
+                                        SuccessorFilter
+                                                .DEFAULT_NAMESPACE_NAMES)));
+
+        assertEquals(Arrays.asList("Finland",
+                                   "Star_Wars:_Andor",
+                                   "List_of_cities_in_Finland",
+                                   "C++"),
+                     filter.filter(SUCCESSORS));
+
+        assertEquals(4L, filter.getNumberOfPrunedNodes(0));
+    }
+
+    @Test
+    public void keepsPerRuleStatistics() {
+        final SuccessorFilter filter =
+                new SuccessorFilter(
+                        Arrays.asList(
+                                new SuccessorFilter.NamespaceRule(
+                                        SuccessorFilter
+                                                .DEFAULT_NAMESPACE_NAMES),
+                                new SuccessorFilter.PatternRule(
+                                        Pattern.compile("^List_of_"))));
+
+        filter.filter(SUCCESSORS);
+        filter.filter(SUCCESSORS);
+
+        assertEquals(8L, filter.getNumberOfPrunedNodes(0));
+        assertEquals(2L, filter.getNumberOfPrunedNodes(1));
+    }
+
+    @Test
+    public void failingRuleKeepsEverything() {
+        final SuccessorFilter.Rule failingRule = new SuccessorFilter.Rule() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public List<String> apply(final List<String> titles)
+                    throws Exception {
+                throw new Exception("HTTP 503");
+            }
+        };
+
+        final SuccessorFilter filter =
+                new SuccessorFilter(Arrays.asList(failingRule));
+
+        assertEquals(SUCCESSORS, filter.filter(SUCCESSORS));
+        assertEquals(0L, filter.getNumberOfPrunedNodes(0));
+    }
+
+    @Test
+    public void noneKeepsEverything() {
+        assertEquals(SUCCESSORS, SuccessorFilter.none().filter(SUCCESSORS));
+    }
+
+    @Test
+    public void parsesJsonStringValues() {
+        final String json =
+                "{\"query\":{\"normalized\":[{\"from\":\"finland\"," +
+                "\"to\":\"Finland\"}],\"pages\":[{\"ns\":0,\"title\":" +
+                "\"Finland\"},{\"ns\":0,\"title\":\"Mercury\"," +
+                "\"pageprops\":{\"disambiguation\":\"\"}},{\"title\":" +
+                "\"Caf\\u00e9 \\\"Noir\\\"\"}]}}";
+
+        assertEquals(Arrays.asList("Finland", "Mercury", "Café \"Noir\""),
+                     WikipediaApiClient.getStringValues(json, "title"));
+
+        assertEquals("finland",
+                     WikipediaApiClient.getNormalizedToRequestedTitleMap(json)
+                                       .get("Finland"));
+
+        assertEquals(3, WikipediaApiClient.getPages(json).size());
+    }
+
+    @Test
+    public void parsesTitlesWithJsonDelimiters() {
+        final String json =
+                "{\"query\":{\"normalized\":[{\"from\":\"a_[b]\"," +
+                "\"to\":\"A [b]\"},{\"from\":\"x_\\\"y\\\"\",\"to\":" +
+                "\"X \\\"y\\\"\"}],\"pages\":[{\"ns\":0,\"title\":" +
+                "\"A [b]\",\"pageprops\":{}},{\"ns\":0,\"title\":" +
+                "\"X \\\"y\\\"\",\"links\":[{\"title\":\"Z\"}]}]}}";
+
+        final Map<String, String> normalized =
+                WikipediaApiClient.getSectionMap(json, "normalized");
+
+        assertEquals(2, normalized.size());
+        assertEquals("A [b]", normalized.get("a_[b]"));
+        assertEquals("X \"y\"", normalized.get("x_\"y\""));
+
+        final List<Map<String, Object>> pages =
+                WikipediaApiClient.getPages(json);
+
+        assertEquals(2, pages.size());
+        assertEquals("X \"y\"", pages.get(1).get("title"));
+    }
+
+    @Test
+    public void rejectsMalformedJson() {
+        for (final String json : new String[]{ "{\"query\":",
+                                               "{\"a\":[1,}",
+                                               "{\"a\":\"b}" }) {
+            try {
+                WikipediaApiClient.getSectionMap(json, "redirects");
+                fail("Should have thrown.");
+            } catch (final IllegalArgumentException ex) {
+                // Expected.
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.coderodde.wikipedia.game.killer;
+
+import io.github.coderodde.graph.pathfinding.delayed.AbstractNodeExpander;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class provides the graph fixtures shared by the tests: random arc
+ * lists over the titles {@code N0}, {@code N1}, ..., and a reference
+ * breadth-first search to check the found paths against.
+ */
+final class TestGraphs {
+
+    private TestGraphs() {
+    }
+
+    /**
+     * Returns {@code numberOfArcs} random arcs between the titles
+     * {@code N0}, ..., {@code N(numberOfNodes - 1)}.
+     */
+    static List<String[]> randomArcs(final int numberOfNodes,
+                                     final int numberOfArcs,
+                                     final Random random) {
+        final List<String[]> arcs = new ArrayList<>();
+
+        for (int i = 0; i < numberOfArcs; i++) {
+            arcs.add(new String[]{ "N" + random.nextInt(numberOfNodes),
+                                   "N" + random.nextInt(numberOfNodes) });
+        }
+
+        return arcs;
+    }
+
+    /**
+     * Returns the graph consisting of {@code arcs}.
+     */
+    static ArcListGraph createGraph(final List<String[]> arcs) {
+        final ArcListGraph graph = new ArcListGraph();
+
+        for (final String[] arc : arcs) {
+            graph.addArc(arc[0], arc[1]);
+        }
+
+        return graph;
+    }
+
+    /**
+     * Returns a graph of {@code numberOfArcs} random arcs between
+     * {@code numberOfNodes} titles.
+     */
+    static ArcListGraph randomGraph(final int numberOfNodes,
+                                    final int numberOfArcs,
+                                    final Random random) {
+        return createGraph(randomArcs(numberOfNodes, numberOfArcs, random));
+    }
+
+    /**
+     * Returns {@code true} if each node of {@code path} is generated by
+     * {@code forwardExpander} from its predecessor.
+     */
+    static <N> boolean isPath(final AbstractNodeExpander<N> forwardExpander,
+                              final List<N> path) {
+        for (int i = 0; i + 1 < path.size(); i++) {
+            if (!forwardExpander.generateSuccessors(path.get(i))
+                                .contains(path.get(i + 1))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code source} to
+     * {@code target} in arcs, or -1 if there is none.
+     */
+    static <N> int getShortestPathLength(
+            final AbstractNodeExpander<N> forwardExpander,
+            final N source,
+            final N target) {
+
+        final Map<N, Integer> distanceMap = new HashMap<>();
+        final Deque<N> queue = new ArrayDeque<>();
+
+        distanceMap.put(source, 0);
+        queue.add(source);
+
+        while (!queue.isEmpty()) {
+            final N node = queue.removeFirst();
+
+            if (node.equals(target)) {
+                return distanceMap.get(node);
+            }
+
+            for (final N child : forwardExpander.generateSuccessors(node)) {
+                if (!distanceMap.containsKey(child)) {
+                    distanceMap.put(child, distanceMap.get(node) + 1);
+                    queue.addLast(child);
+                }
+            }
+        }
+
+        return -1;
+    }
+}